@@ -53,6 +53,11 @@ public class Configuration implements ConfigurationOperations, ConfigurationInfo
      */
 	protected Map<String, ConfigurationEventTypeXMLDOM> eventTypesXMLDOM;
 
+    /**
+     * Map of event type name and flat-buffer record layout.
+     */
+	protected Map<String, ConfigurationEventTypeFlatBuffer> eventTypesFlatBuffer;
+
     /**
      * Map of event type name and Legacy-type event configuration.
      */
@@ -298,7 +303,8 @@ public class Configuration implements ConfigurationOperations, ConfigurationInfo
                 || mapNames.containsKey(eventTypeName)
                 || nestableMapNames.containsKey(eventTypeName)
                 || nestableObjectArrayNames.containsKey(eventTypeName)
-                || eventTypesXMLDOM.containsKey(eventTypeName);
+                || eventTypesXMLDOM.containsKey(eventTypeName)
+                || eventTypesFlatBuffer.containsKey(eventTypeName);
         //note: no need to check legacy as they get added as class event type
     }
 
@@ -435,6 +441,16 @@ public class Configuration implements ConfigurationOperations, ConfigurationInfo
         eventTypesXMLDOM.put(eventTypeName, xmlDOMEventTypeDesc);
     }
 
+    /**
+     * Add an name for an event type that represents fixed-layout records of bytes.
+     * @param eventTypeName is the name for the event type
+     * @param flatBufferEventTypeDesc descriptor containing the record layout
+     */
+    public void addEventType(String eventTypeName, ConfigurationEventTypeFlatBuffer flatBufferEventTypeDesc)
+    {
+        eventTypesFlatBuffer.put(eventTypeName, flatBufferEventTypeDesc);
+    }
+
     public void addEventType(String eventTypeName, String[] propertyNames, Object[] propertyTypes) throws ConfigurationException {
         LinkedHashMap<String, Object> propertyTypesMap = EventTypeUtility.validateObjectArrayDef(propertyNames, propertyTypes);
         nestableObjectArrayNames.put(eventTypeName, propertyTypesMap);
@@ -539,6 +555,11 @@ public class Configuration implements ConfigurationOperations, ConfigurationInfo
         return eventTypesXMLDOM;
     }
 
+    public Map<String, ConfigurationEventTypeFlatBuffer> getEventTypesFlatBuffer()
+    {
+        return eventTypesFlatBuffer;
+    }
+
     public Map<String, ConfigurationEventTypeLegacy> getEventTypesLegacy()
     {
         return eventTypesLegacy;
@@ -1015,6 +1036,7 @@ public class Configuration implements ConfigurationOperations, ConfigurationInfo
     {
         eventClasses.remove(eventTypeName);
         eventTypesXMLDOM.remove(eventTypeName);
+        eventTypesFlatBuffer.remove(eventTypeName);
         eventTypesLegacy.remove(eventTypeName);
         mapNames.remove(eventTypeName);
         nestableMapNames.remove(eventTypeName);
@@ -1106,6 +1128,7 @@ public class Configuration implements ConfigurationOperations, ConfigurationInfo
         nestableMapNames = new HashMap<String, Map<String, Object>>();
         nestableObjectArrayNames = new HashMap<String, Map<String, Object>>();
         eventTypesXMLDOM = new HashMap<String, ConfigurationEventTypeXMLDOM>();
+        eventTypesFlatBuffer = new HashMap<String, ConfigurationEventTypeFlatBuffer>();
         eventTypesLegacy = new HashMap<String, ConfigurationEventTypeLegacy>();
         databaseReferences = new HashMap<String, ConfigurationDBRef>();
         imports = new ArrayList<String>();
@@ -13,7 +13,10 @@ import com.espertech.esper.client.soda.StreamSelector;
 import java.io.Serializable;
 import java.math.MathContext;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides access to engine configuration defaults for modification.
@@ -292,6 +295,10 @@ public class ConfigurationEngineDefaults implements Serializable
         private Integer threadPoolInboundCapacity;
         private Integer threadPoolRouteExecCapacity;
         private Integer threadPoolOutboundCapacity;
+        private boolean isThreadPoolRingBuffer;
+        private WaitStrategy threadPoolRingBufferWaitStrategy;
+        private Map<String, String> threadPoolInboundKeys;
+        private String threadPoolExecutorFactory;
 
         private boolean engineFairlock;
 
@@ -320,6 +327,10 @@ public class ConfigurationEngineDefaults implements Serializable
             threadPoolInboundNumThreads = 2;
             threadPoolRouteExecNumThreads = 2;
             threadPoolOutboundNumThreads = 2;
+
+            isThreadPoolRingBuffer = false;
+            threadPoolRingBufferWaitStrategy = WaitStrategy.PARK;
+            threadPoolInboundKeys = new LinkedHashMap<String, String>();
         }
 
         /**
@@ -669,6 +680,59 @@ public class ConfigurationEngineDefaults implements Serializable
             this.threadPoolInboundCapacity = capacity;
         }
 
+        /**
+         * Returns the key property per event type name for key-affine inbound threading, empty if none defined (default).
+         * @return map of event type name and key property name
+         */
+        public Map<String, String> getThreadPoolInboundKeys()
+        {
+            return threadPoolInboundKeys;
+        }
+
+        /**
+         * Adds a key property for an event type to have the inbound thread pool hand all events of that type
+         * with the same key value to the same thread.
+         * <p>
+         * When inbound threading is enabled and at least one key property is defined, each inbound thread works
+         * off its own queue. Events of a type that has a key property are assigned to a thread by the hash
+         * code of the key property value, so that events for the same key are processed in the order sent.
+         * Events of other types are assigned to threads in turn.
+         * <p>
+         * Statements that declare a keyed-segmented context on the same property thereby process the events of a
+         * given context partition on a single thread.
+         * @param eventTypeName name of the event type
+         * @param propertyName name of the property providing the key
+         */
+        public void addThreadPoolInboundKey(String eventTypeName, String propertyName)
+        {
+            threadPoolInboundKeys.put(eventTypeName, propertyName);
+        }
+
+        /**
+         * Returns the class name of the factory providing executors for outbound and route execution work and
+         * thread factories for data flow threads, or null if none defined (default).
+         * @return class name of a {@link com.espertech.esper.client.hook.ThreadingExecutorFactory} implementation or null
+         */
+        public String getThreadPoolExecutorFactory()
+        {
+            return threadPoolExecutorFactory;
+        }
+
+        /**
+         * Sets the class name of the factory providing executors for outbound and route execution work and
+         * thread factories for data flow threads.
+         * <p>
+         * When outbound threading is enabled and the factory provides an executor, the engine hands outbound work
+         * to the executor in place of the outbound thread pool, and retains the order of outbound work per statement.
+         * When route execution threading is enabled and the factory provides an executor, the engine hands route
+         * execution work to the executor in place of the route execution thread pool.
+         * @param threadPoolExecutorFactory class name of a {@link com.espertech.esper.client.hook.ThreadingExecutorFactory} implementation
+         */
+        public void setThreadPoolExecutorFactory(String threadPoolExecutorFactory)
+        {
+            this.threadPoolExecutorFactory = threadPoolExecutorFactory;
+        }
+
         /**
          * Returns the capacity of the route execution queue, or null if none defined (the unbounded case, default).
          * @return capacity or null if none defined
@@ -705,6 +769,47 @@ public class ConfigurationEngineDefaults implements Serializable
             this.threadPoolOutboundCapacity = capacity;
         }
 
+        /**
+         * Returns true if the inbound, outbound, timer and route execution thread pools queue work
+         * in a preallocated ring buffer instead of a blocking queue (default is false).
+         * @return indicator whether the thread pools use a ring buffer
+         */
+        public boolean isThreadPoolRingBuffer()
+        {
+            return isThreadPoolRingBuffer;
+        }
+
+        /**
+         * Set to true to have the inbound, outbound, timer and route execution thread pools queue work
+         * in a preallocated ring buffer instead of a blocking queue.
+         * <p>
+         * The ring buffer is bounded: its size is the capacity of the thread pool rounded up to a power of two,
+         * or a default size if the thread pool does not have a capacity.
+         * @param threadPoolRingBuffer true for ring buffer
+         */
+        public void setThreadPoolRingBuffer(boolean threadPoolRingBuffer)
+        {
+            isThreadPoolRingBuffer = threadPoolRingBuffer;
+        }
+
+        /**
+         * Returns the strategy by which threads wait for work or for space when the thread pools use a ring buffer.
+         * @return wait strategy, park by default
+         */
+        public WaitStrategy getThreadPoolRingBufferWaitStrategy()
+        {
+            return threadPoolRingBufferWaitStrategy;
+        }
+
+        /**
+         * Sets the strategy by which threads wait for work or for space when the thread pools use a ring buffer.
+         * @param threadPoolRingBufferWaitStrategy wait strategy
+         */
+        public void setThreadPoolRingBufferWaitStrategy(WaitStrategy threadPoolRingBufferWaitStrategy)
+        {
+            this.threadPoolRingBufferWaitStrategy = threadPoolRingBufferWaitStrategy;
+        }
+
         /**
          * Returns true if the engine-level lock is configured as a fair lock (default is false).
          * <p>
@@ -746,6 +851,27 @@ public class ConfigurationEngineDefaults implements Serializable
              */
             SUSPEND
         }
+
+        /**
+         * Enumeration of wait strategies for thread pool ring buffers.
+         */
+        public enum WaitStrategy
+        {
+            /**
+             * Waiting threads spin without yielding, for lowest latency when each thread has a dedicated core.
+             */
+            BUSY_SPIN,
+
+            /**
+             * Waiting threads spin and yield to other threads between attempts.
+             */
+            YIELD,
+
+            /**
+             * Waiting threads spin briefly and then suspend until signalled, and are therefore the default.
+             */
+            PARK
+        }
     }
 
     /**
@@ -1203,6 +1329,7 @@ public class ConfigurationEngineDefaults implements Serializable
     public static class TimeSource implements Serializable
     {
         private TimeSourceType timeSourceType;
+        private TimeUnit timeUnit;
         private static final long serialVersionUID = 2075039404763313824L;
 
         /**
@@ -1211,6 +1338,7 @@ public class ConfigurationEngineDefaults implements Serializable
         public TimeSource()
         {
             timeSourceType = TimeSourceType.MILLI;
+            timeUnit = TimeUnit.MILLISECONDS;
         }
 
         /**
@@ -1230,6 +1358,26 @@ public class ConfigurationEngineDefaults implements Serializable
         {
             this.timeSourceType = timeSourceType;
         }
+
+        /**
+         * Returns the engine time unit, which is milliseconds by default.
+         * @return time unit
+         */
+        public TimeUnit getTimeUnit()
+        {
+            return timeUnit;
+        }
+
+        /**
+         * Sets the engine time unit: engine time and the time of a current time event are in this unit,
+         * and the engine converts time periods and time-based view parameters into this unit.
+         * Supported are milliseconds, microseconds and nanoseconds.
+         * @param timeUnit time unit
+         */
+        public void setTimeUnit(TimeUnit timeUnit)
+        {
+            this.timeUnit = timeUnit;
+        }
     }
 
     /**
@@ -1451,6 +1599,12 @@ public class ConfigurationEngineDefaults implements Serializable
         private boolean fairlock;
         private boolean disableLocking;
         private ThreadingProfile threadingProfile = ThreadingProfile.NORMAL;
+        private FilterServiceProfile filterServiceProfile = FilterServiceProfile.READWRITE;
+        private long filterIndexReorderThreshold;
+        private boolean filterIndexProfiling;
+        private SchedulingServiceProfile schedulingServiceProfile = SchedulingServiceProfile.SORTED;
+        private int schedulingServiceStripes = 1;
+        private EngineLockProfile engineLockProfile = EngineLockProfile.READWRITE;
 
         private static final long serialVersionUID = 0L;
 
@@ -1533,6 +1687,106 @@ public class ConfigurationEngineDefaults implements Serializable
         public void setThreadingProfile(ThreadingProfile threadingProfile) {
             this.threadingProfile = threadingProfile;
         }
+
+        /**
+         * Returns the filter service profile.
+         * @return profile
+         */
+        public FilterServiceProfile getFilterServiceProfile() {
+            return filterServiceProfile;
+        }
+
+        /**
+         * Sets the filter service profile.
+         * @param filterServiceProfile profile to set
+         */
+        public void setFilterServiceProfile(FilterServiceProfile filterServiceProfile) {
+            this.filterServiceProfile = filterServiceProfile;
+        }
+
+        /**
+         * Returns the number of events evaluated by the filter service after which the filter service reorders
+         * filter indexes by their observed selectivity, or zero (the default) for no statistics and no reordering.
+         * @return threshold
+         */
+        public long getFilterIndexReorderThreshold() {
+            return filterIndexReorderThreshold;
+        }
+
+        /**
+         * Sets the number of events evaluated by the filter service after which the filter service reorders
+         * filter indexes by their observed selectivity, or zero for no statistics and no reordering.
+         * @param filterIndexReorderThreshold threshold to set
+         */
+        public void setFilterIndexReorderThreshold(long filterIndexReorderThreshold) {
+            this.filterIndexReorderThreshold = filterIndexReorderThreshold;
+        }
+
+        /**
+         * Returns true if filter nodes and filter indexes count lookups, matches and time spent, false (the default) if not.
+         * @return indicator
+         */
+        public boolean isFilterIndexProfiling() {
+            return filterIndexProfiling;
+        }
+
+        /**
+         * Set to true to have filter nodes and filter indexes count lookups, matches and time spent.
+         * @param filterIndexProfiling indicator
+         */
+        public void setFilterIndexProfiling(boolean filterIndexProfiling) {
+            this.filterIndexProfiling = filterIndexProfiling;
+        }
+
+        /**
+         * Returns the scheduling service profile.
+         * @return profile
+         */
+        public SchedulingServiceProfile getSchedulingServiceProfile() {
+            return schedulingServiceProfile;
+        }
+
+        /**
+         * Sets the scheduling service profile.
+         * @param schedulingServiceProfile profile to set
+         */
+        public void setSchedulingServiceProfile(SchedulingServiceProfile schedulingServiceProfile) {
+            this.schedulingServiceProfile = schedulingServiceProfile;
+        }
+
+        /**
+         * Returns the number of stripes that the scheduling service spreads schedules over, each stripe having its own lock,
+         * with a default of one for a single, non-striped scheduling service.
+         * @return number of stripes
+         */
+        public int getSchedulingServiceStripes() {
+            return schedulingServiceStripes;
+        }
+
+        /**
+         * Sets the number of stripes that the scheduling service spreads schedules over, each stripe having its own lock.
+         * Set to a value greater than one to reduce contention when multiple threads add and remove schedules.
+         * @param schedulingServiceStripes number of stripes
+         */
+        public void setSchedulingServiceStripes(int schedulingServiceStripes) {
+            this.schedulingServiceStripes = schedulingServiceStripes;
+        }
+
+        /**
+         * Returns the engine lock profile that determines how event processing and statement management are isolated.
+         * @return profile
+         */
+        public EngineLockProfile getEngineLockProfile() {
+            return engineLockProfile;
+        }
+
+        /**
+         * Sets the engine lock profile that determines how event processing and statement management are isolated.
+         * @param engineLockProfile profile to set
+         */
+        public void setEngineLockProfile(EngineLockProfile engineLockProfile) {
+            this.engineLockProfile = engineLockProfile;
+        }
     }
 
     /**
@@ -1551,6 +1805,61 @@ public class ConfigurationEngineDefaults implements Serializable
         NORMAL
     }
 
+    /**
+     * Filter service profile.
+     */
+    public enum FilterServiceProfile
+    {
+        /**
+         * The default profile: event evaluation and filter changes lock the filter index nodes they visit,
+         * for use when statements or context partitions come and go frequently.
+         */
+        READWRITE,
+
+        /**
+         * Event evaluation takes no locks, filter changes are serialized and copy the changed index collections,
+         * for use when filters change rarely compared to the event rate. Please see the documentation for more information.
+         */
+        READMOSTLY
+    }
+
+    /**
+     * Scheduling service profile.
+     */
+    public enum SchedulingServiceProfile
+    {
+        /**
+         * The default profile: schedules are kept in a sorted map by time, for use with a moderate number of schedules.
+         */
+        SORTED,
+
+        /**
+         * Schedules are kept in a hierarchical timing wheel that adds and removes schedules in constant time,
+         * for use with a large number of schedules such as from many time windows and pattern timer guards.
+         * Please see the documentation for more information.
+         */
+        TIMINGWHEEL
+    }
+
+    /**
+     * Engine lock profile.
+     */
+    public enum EngineLockProfile
+    {
+        /**
+         * The default profile: event processing takes the read lock of a shared read-write lock
+         * and statement management takes the write lock.
+         */
+        READWRITE,
+
+        /**
+         * Event processing announces read sections in a per-thread slot without writing shared state,
+         * statement management waits for the read sections in progress to drain, for use when statements
+         * are created and destroyed rarely compared to the event rate. Please see the documentation for more information.
+         */
+        EPOCH
+    }
+
     /**
      * Time source type.
      */
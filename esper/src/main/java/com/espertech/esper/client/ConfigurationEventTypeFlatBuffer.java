@@ -0,0 +1,253 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.client;
+
+import com.espertech.esper.util.JavaClassHelper;
+import com.espertech.esper.util.MetaDefItem;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration object for enabling the engine to process events represented as fixed-layout byte records,
+ * such as records received as wire buffers, without decoding them into Java objects.
+ * <p>
+ * Each field takes a fixed number of bytes and fields follow each other in the order added, without padding.
+ * Supported are the primitive types boolean (one byte, zero for false), byte, char, short, int, long, float and double,
+ * as well as fixed-length strings of ISO-8859-1 characters that are padded with zero bytes.
+ * <p>
+ * Events of this type hold only the record bytes, which the engine keeps in heap or direct (off-heap) memory.
+ * Properties are read directly from the bytes when accessed by statements.
+ */
+public class ConfigurationEventTypeFlatBuffer implements MetaDefItem, Serializable
+{
+    private static final long serialVersionUID = 6241528339251702173L;
+
+    private List<FieldDesc> fields;
+    private boolean littleEndian;
+    private boolean direct;
+    private int recordsPerChunk;
+
+    /**
+     * Ctor.
+     */
+    public ConfigurationEventTypeFlatBuffer()
+    {
+        fields = new ArrayList<FieldDesc>();
+    }
+
+    /**
+     * Adds a field of a primitive type following the fields already added.
+     * @param name property name
+     * @param type primitive type or its boxed type
+     * @return this configuration
+     * @throws ConfigurationException if the name is already in use or the type is not supported
+     */
+    public ConfigurationEventTypeFlatBuffer addField(String name, Class type) throws ConfigurationException
+    {
+        Class primitive = JavaClassHelper.getPrimitiveType(type);
+        if (primitive == null || !primitive.isPrimitive() || primitive == void.class)
+        {
+            throw new ConfigurationException("Field '" + name + "' of type '" + (type == null ? null : type.getName()) + "' is not a supported type, expected a primitive type");
+        }
+        addFieldDesc(new FieldDesc(name, primitive, 0));
+        return this;
+    }
+
+    /**
+     * Adds a fixed-length string field following the fields already added.
+     * @param name property name
+     * @param length number of characters, each taking one byte
+     * @return this configuration
+     * @throws ConfigurationException if the name is already in use or the length is invalid
+     */
+    public ConfigurationEventTypeFlatBuffer addStringField(String name, int length) throws ConfigurationException
+    {
+        if (length < 1)
+        {
+            throw new ConfigurationException("Field '" + name + "' has an invalid length of " + length + ", expected a positive length");
+        }
+        addFieldDesc(new FieldDesc(name, String.class, length));
+        return this;
+    }
+
+    /**
+     * Returns the fields in the order of the record layout.
+     * @return fields
+     */
+    public List<FieldDesc> getFields()
+    {
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Returns true if multi-byte values are little-endian, or false for big-endian (network order, the default).
+     * @return byte order indicator
+     */
+    public boolean isLittleEndian()
+    {
+        return littleEndian;
+    }
+
+    /**
+     * Set to true if multi-byte values are little-endian, or false for big-endian (network order, the default).
+     * @param littleEndian byte order indicator
+     */
+    public void setLittleEndian(boolean littleEndian)
+    {
+        this.littleEndian = littleEndian;
+    }
+
+    /**
+     * Returns true if the engine keeps the records of events in direct (off-heap) memory, or false for heap memory (the default).
+     * @return direct memory indicator
+     */
+    public boolean isDirect()
+    {
+        return direct;
+    }
+
+    /**
+     * Set to true to have the engine keep the records of events in direct (off-heap) memory, or false for heap memory (the default).
+     * @param direct direct memory indicator
+     */
+    public void setDirect(boolean direct)
+    {
+        this.direct = direct;
+    }
+
+    /**
+     * Returns the number of records per memory chunk, or zero for chunks of 64 kilobytes (the default).
+     * @return records per chunk
+     */
+    public int getRecordsPerChunk()
+    {
+        return recordsPerChunk;
+    }
+
+    /**
+     * Sets the number of records per memory chunk, or zero for chunks of 64 kilobytes (the default).
+     * <p>
+     * The engine copies the records of events into chunks and a chunk is only released when none of its
+     * events is retained any longer. Where few events are retained for a long time, such as by a filtered
+     * long-running window, smaller chunks avoid that each retained event keeps a large chunk. A value of one
+     * allocates each record separately.
+     * @param recordsPerChunk records per chunk
+     * @throws ConfigurationException if the value is negative
+     */
+    public void setRecordsPerChunk(int recordsPerChunk) throws ConfigurationException
+    {
+        if (recordsPerChunk < 0)
+        {
+            throw new ConfigurationException("Invalid negative number of records per chunk");
+        }
+        this.recordsPerChunk = recordsPerChunk;
+    }
+
+    private void addFieldDesc(FieldDesc desc)
+    {
+        if (desc.getName() == null || desc.getName().length() == 0)
+        {
+            throw new ConfigurationException("Field name has not been supplied");
+        }
+        for (FieldDesc existing : fields)
+        {
+            if (existing.getName().equals(desc.getName()))
+            {
+                throw new ConfigurationException("Field '" + desc.getName() + "' has already been added");
+            }
+        }
+        fields.add(desc);
+    }
+
+    public boolean equals(Object otherObj)
+    {
+        if (!(otherObj instanceof ConfigurationEventTypeFlatBuffer))
+        {
+            return false;
+        }
+
+        ConfigurationEventTypeFlatBuffer other = (ConfigurationEventTypeFlatBuffer) otherObj;
+        return (littleEndian == other.littleEndian) && (direct == other.direct) && (recordsPerChunk == other.recordsPerChunk) && fields.equals(other.fields);
+    }
+
+    public int hashCode()
+    {
+        return fields.hashCode();
+    }
+
+    /**
+     * Describes a field of the record layout.
+     */
+    public static class FieldDesc implements Serializable
+    {
+        private static final long serialVersionUID = -2854716270134457621L;
+
+        private String name;
+        private Class type;
+        private int length;
+
+        /**
+         * Ctor.
+         * @param name property name
+         * @param type primitive type or String
+         * @param length number of characters for string fields, or zero for primitive fields
+         */
+        public FieldDesc(String name, Class type, int length)
+        {
+            this.name = name;
+            this.type = type;
+            this.length = length;
+        }
+
+        /**
+         * Returns the property name.
+         * @return name
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Returns the primitive type or String.
+         * @return type
+         */
+        public Class getType()
+        {
+            return type;
+        }
+
+        /**
+         * Returns the number of characters for string fields, or zero for primitive fields.
+         * @return length
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+        public boolean equals(Object otherObj)
+        {
+            if (!(otherObj instanceof FieldDesc))
+            {
+                return false;
+            }
+            FieldDesc other = (FieldDesc) otherObj;
+            return name.equals(other.name) && type.equals(other.type) && (length == other.length);
+        }
+
+        public int hashCode()
+        {
+            return name.hashCode() * 31 + type.hashCode();
+        }
+    }
+}
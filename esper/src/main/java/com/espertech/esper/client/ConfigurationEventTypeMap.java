@@ -19,4 +19,26 @@ import java.util.*;
 public class ConfigurationEventTypeMap extends ConfigurationEventTypeWithSupertype
 {
     private static final long serialVersionUID = 7908506327712155191L;
+
+    private boolean convertToObjectArray;
+
+    /**
+     * Returns true if the engine converts Map events sent into the engine into an object-array representation.
+     * @return conversion indicator
+     */
+    public boolean isConvertToObjectArray() {
+        return convertToObjectArray;
+    }
+
+    /**
+     * Set to true to have the engine convert Map events sent into the engine into an object-array representation,
+     * so that statements access simple properties by position rather than by Map lookup. The default is false.
+     * <p>
+     * The conversion takes place when the event is sent, so statements see the property values as of that time.
+     * Listeners and subscribers still receive the Map as the underlying event object.
+     * @param convertToObjectArray conversion indicator
+     */
+    public void setConvertToObjectArray(boolean convertToObjectArray) {
+        this.convertToObjectArray = convertToObjectArray;
+    }
 }
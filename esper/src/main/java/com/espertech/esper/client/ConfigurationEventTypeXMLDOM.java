@@ -60,6 +60,7 @@ public class ConfigurationEventTypeXMLDOM implements MetaDefItem, Serializable
     private boolean isXPathResolvePropertiesAbsolute;
     private boolean isEventSenderValidatesRoot;
     private boolean isAutoFragment;
+    private boolean isStreaming;
 
     private String xPathFunctionResolver;
     private String xPathVariableResolver;
@@ -248,6 +249,28 @@ public class ConfigurationEventTypeXMLDOM implements MetaDefItem, Serializable
         isAutoFragment = autoFragment;
     }
 
+    /**
+     * Returns true if events are sent as XML text and parsed by streaming, or false (the default) for
+     * events sent as DOM nodes.
+     * @return indicator whether events are parsed by streaming
+     */
+    public boolean isStreaming()
+    {
+        return isStreaming;
+    }
+
+    /**
+     * Set to true to have the engine parse events sent as XML text (String or byte array) by streaming (StAX),
+     * extracting only the properties used by statements in a single pass rather than building a DOM for each event.
+     * The DOM of an event is built only on first use, such as for fragments, XPath properties
+     * or indexed and mapped properties. Streaming is not available for event types that have a schema.
+     * @param streaming indicator whether events are parsed by streaming
+     */
+    public void setStreaming(boolean streaming)
+    {
+        isStreaming = streaming;
+    }
+
     /**
      * Adds an event property for which the engine uses the supplied XPath expression against
      * a DOM document node to resolve a property value.
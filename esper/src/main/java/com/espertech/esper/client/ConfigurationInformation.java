@@ -52,6 +52,12 @@ public interface ConfigurationInformation
      */
     public Map<String, ConfigurationEventTypeXMLDOM> getEventTypesXMLDOM();
 
+    /**
+     * Returns the mapping of event type name to flat-buffer event type record layout.
+     * @return event type name mapping to flat-buffer configs
+     */
+    public Map<String, ConfigurationEventTypeFlatBuffer> getEventTypesFlatBuffer();
+
     /**
      * Returns the mapping of event type name to legacy java event type information.
      * @return event type name mapping to legacy java class configs
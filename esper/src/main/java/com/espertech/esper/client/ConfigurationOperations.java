@@ -277,6 +277,20 @@ public interface ConfigurationOperations
     public void addEventType(String eventTypeName, ConfigurationEventTypeXMLDOM xmlDOMEventTypeDesc)
             throws ConfigurationException;
 
+    /**
+     * Add an name for an event type that represents fixed-layout records of bytes, such as wire buffers.
+     * <p>
+     * Events of this type are sent as byte arrays or {@link java.nio.ByteBuffer} records through an event sender,
+     * see {@link EPRuntime#getEventSender(String)}.
+     * Allows a second name to be added for the same type.
+     * Does not allow the same name to be used for different types.
+     * @param eventTypeName is the name for the event type
+     * @param flatBufferEventTypeDesc descriptor containing the record layout
+     * @throws ConfigurationException if the name is already in used for a different type
+     */
+    public void addEventType(String eventTypeName, ConfigurationEventTypeFlatBuffer flatBufferEventTypeDesc)
+            throws ConfigurationException;
+
     /**
      * Add a variable.
      * <p>
@@ -39,6 +39,7 @@ import java.math.MathContext;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Parser for configuration XML.
@@ -244,8 +245,9 @@ class ConfigurationParser {
         ConfigurationEventTypeMap config;
         String startTimestampProp = getOptionalAttribute(eventTypeElement, "start-timestamp-property-name");
         String endTimestampProp = getOptionalAttribute(eventTypeElement, "end-timestamp-property-name");
+        String convertToObjectArray = getOptionalAttribute(eventTypeElement, "convert-to-objectarray");
         Node superTypesList = eventTypeElement.getAttributes().getNamedItem("supertype-names");
-        if (superTypesList != null || startTimestampProp != null || endTimestampProp != null)
+        if (superTypesList != null || startTimestampProp != null || endTimestampProp != null || convertToObjectArray != null)
         {
             config = new ConfigurationEventTypeMap();
             if (superTypesList != null) {
@@ -258,6 +260,9 @@ class ConfigurationParser {
             }
             config.setEndTimestampPropertyName(endTimestampProp);
             config.setStartTimestampPropertyName(startTimestampProp);
+            if (convertToObjectArray != null) {
+                config.setConvertToObjectArray(Boolean.parseBoolean(convertToObjectArray));
+            }
             configuration.addMapConfiguration(name, config);
         }
 
@@ -320,6 +325,7 @@ class ConfigurationParser {
         String xpathFunctionResolverClass = getOptionalAttribute(xmldomElement, "xpath-function-resolver");
         String xpathVariableResolverClass = getOptionalAttribute(xmldomElement, "xpath-variable-resolver");
         String autoFragmentStr = getOptionalAttribute(xmldomElement, "auto-fragment");
+        String streamingStr = getOptionalAttribute(xmldomElement, "streaming");
         String startTimestampProperty = getOptionalAttribute(xmldomElement, "start-timestamp-property-name");
         String endTimestampProperty = getOptionalAttribute(xmldomElement, "end-timestamp-property-name");
 
@@ -349,6 +355,10 @@ class ConfigurationParser {
         {
             xmlDOMEventTypeDesc.setAutoFragment(Boolean.parseBoolean(autoFragmentStr));            
         }
+        if (streamingStr != null)
+        {
+            xmlDOMEventTypeDesc.setStreaming(Boolean.parseBoolean(streamingStr));
+        }
         configuration.addEventType(name, xmlDOMEventTypeDesc);
 
         DOMElementIterator propertyNodeIterator = new DOMElementIterator(xmldomElement.getChildNodes());
@@ -1126,6 +1136,18 @@ class ConfigurationParser {
                 configuration.getEngineDefaults().getThreading().setThreadPoolInbound(result.isEnabled());
                 configuration.getEngineDefaults().getThreading().setThreadPoolInboundNumThreads(result.getNumThreads());
                 configuration.getEngineDefaults().getThreading().setThreadPoolInboundCapacity(result.getCapacity());
+
+                DOMElementIterator keyIterator = new DOMElementIterator(subElement.getChildNodes());
+                while (keyIterator.hasNext())
+                {
+                    Element keyElement = keyIterator.next();
+                    if (keyElement.getNodeName().equals("key"))
+                    {
+                        String eventTypeName = getRequiredAttribute(keyElement, "event-type");
+                        String propertyName = getRequiredAttribute(keyElement, "property");
+                        configuration.getEngineDefaults().getThreading().addThreadPoolInboundKey(eventTypeName, propertyName);
+                    }
+                }
             }
             if (subElement.getNodeName().equals("threadpool-outbound"))
             {
@@ -1148,6 +1170,22 @@ class ConfigurationParser {
                 configuration.getEngineDefaults().getThreading().setThreadPoolRouteExecNumThreads(result.getNumThreads());
                 configuration.getEngineDefaults().getThreading().setThreadPoolRouteExecCapacity(result.getCapacity());
             }
+            if (subElement.getNodeName().equals("threadpool-executor-factory"))
+            {
+                String className = getRequiredAttribute(subElement, "class");
+                configuration.getEngineDefaults().getThreading().setThreadPoolExecutorFactory(className);
+            }
+            if (subElement.getNodeName().equals("threadpool-ringbuffer"))
+            {
+                String enabledText = getRequiredAttribute(subElement, "enabled");
+                configuration.getEngineDefaults().getThreading().setThreadPoolRingBuffer(Boolean.parseBoolean(enabledText));
+                String waitStrategyText = getOptionalAttribute(subElement, "wait-strategy");
+                if (waitStrategyText != null)
+                {
+                    configuration.getEngineDefaults().getThreading().setThreadPoolRingBufferWaitStrategy(
+                            ConfigurationEngineDefaults.Threading.WaitStrategy.valueOf(waitStrategyText.toUpperCase()));
+                }
+            }
         }
     }
 
@@ -1327,6 +1365,21 @@ class ConfigurationParser {
                 }
                 configuration.getEngineDefaults().getTimeSource().setTimeSourceType(timeSourceType);
             }
+            if (subElement.getNodeName().equals("time-unit"))
+            {
+                String valueText = getRequiredAttribute(subElement, "value");
+                TimeUnit timeUnit;
+                try
+                {
+                    timeUnit = TimeUnit.valueOf(valueText.toUpperCase().trim());
+                }
+                catch (IllegalArgumentException ex)
+                {
+                    throw new ConfigurationException("Value attribute for time-unit element invalid, " +
+                            "expected one of the following keywords: milliseconds, microseconds, nanoseconds");
+                }
+                configuration.getEngineDefaults().getTimeSource().setTimeUnit(timeUnit);
+            }
         }
     }
 
@@ -1483,6 +1536,39 @@ class ConfigurationParser {
             ConfigurationEngineDefaults.ThreadingProfile profile = ConfigurationEngineDefaults.ThreadingProfile.valueOf(threadingProfileStr.toUpperCase());
             configuration.getEngineDefaults().getExecution().setThreadingProfile(profile);
         }
+        String filterServiceProfileStr = getOptionalAttribute(parentElement, "filter-service-profile");
+        if (filterServiceProfileStr != null)
+        {
+            ConfigurationEngineDefaults.FilterServiceProfile profile = ConfigurationEngineDefaults.FilterServiceProfile.valueOf(filterServiceProfileStr.toUpperCase());
+            configuration.getEngineDefaults().getExecution().setFilterServiceProfile(profile);
+        }
+        String filterIndexReorderThresholdStr = getOptionalAttribute(parentElement, "filter-index-reorder-threshold");
+        if (filterIndexReorderThresholdStr != null)
+        {
+            configuration.getEngineDefaults().getExecution().setFilterIndexReorderThreshold(Long.parseLong(filterIndexReorderThresholdStr));
+        }
+        String filterIndexProfilingStr = getOptionalAttribute(parentElement, "filter-index-profiling");
+        if (filterIndexProfilingStr != null)
+        {
+            configuration.getEngineDefaults().getExecution().setFilterIndexProfiling(Boolean.parseBoolean(filterIndexProfilingStr));
+        }
+        String schedulingServiceProfileStr = getOptionalAttribute(parentElement, "scheduling-service-profile");
+        if (schedulingServiceProfileStr != null)
+        {
+            ConfigurationEngineDefaults.SchedulingServiceProfile profile = ConfigurationEngineDefaults.SchedulingServiceProfile.valueOf(schedulingServiceProfileStr.toUpperCase());
+            configuration.getEngineDefaults().getExecution().setSchedulingServiceProfile(profile);
+        }
+        String schedulingServiceStripesStr = getOptionalAttribute(parentElement, "scheduling-service-stripes");
+        if (schedulingServiceStripesStr != null)
+        {
+            configuration.getEngineDefaults().getExecution().setSchedulingServiceStripes(Integer.parseInt(schedulingServiceStripesStr));
+        }
+        String engineLockProfileStr = getOptionalAttribute(parentElement, "engine-lock-profile");
+        if (engineLockProfileStr != null)
+        {
+            ConfigurationEngineDefaults.EngineLockProfile profile = ConfigurationEngineDefaults.EngineLockProfile.valueOf(engineLockProfileStr.toUpperCase());
+            configuration.getEngineDefaults().getExecution().setEngineLockProfile(profile);
+        }
     }
 
     private static void handleDefaultScriptConfig(Configuration configuration, Element parentElement)
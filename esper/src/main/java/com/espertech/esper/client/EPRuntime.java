@@ -70,6 +70,43 @@ public interface EPRuntime
      */
     public void sendEvent(org.w3c.dom.Node node) throws EPException;
 
+    /**
+     * Send a batch of events represented by plain Java objects to the event stream processing runtime.
+     * <p>
+     * Each event is processed as if sent by a separate call to {@link #sendEvent(Object)} and in the same order,
+     * with results dispatched to listeners after each event. The runtime keeps the engine lock
+     * across consecutive events that do not produce output or insert-into events, and
+     * looks up thread-local state once for the batch.
+     *
+     * @param events are the events to send to the runtime
+     * @throws EPException is thrown when the processing of an event lead to an error
+     */
+    public void sendEvents(Object[] events) throws EPException;
+
+    /**
+     * Send a batch of maps containing event property values to the event stream processing runtime.
+     * <p>
+     * Each event is processed as if sent by a separate call to {@link #sendEvent(java.util.Map, String)} and in the same order.
+     * The event type is resolved once for the batch.
+     *
+     * @param maps - maps that contain event property values
+     * @param mapEventTypeName - the name for the Map event type that was previously configured
+     * @throws EPException - when the processing of an event leads to an error
+     */
+    public void sendEvents(Map[] maps, String mapEventTypeName) throws EPException;
+
+    /**
+     * Send a batch of object arrays containing event property values to the event stream processing runtime.
+     * <p>
+     * Each event is processed as if sent by a separate call to {@link #sendEvent(Object[], String)} and in the same order.
+     * The event type is resolved once for the batch.
+     *
+     * @param objectarrays - arrays that contain event property values
+     * @param objectArrayEventTypeName - the name for the Object-array event type that was previously configured
+     * @throws EPException - when the processing of an event leads to an error
+     */
+    public void sendEvents(Object[][] objectarrays, String objectArrayEventTypeName) throws EPException;
+
     /**
      * Number of events evaluated over the lifetime of the event stream processing runtime,
      * or since the last resetStats() call.
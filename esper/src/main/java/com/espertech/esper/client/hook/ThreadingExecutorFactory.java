@@ -0,0 +1,43 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.client.hook;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Factory for the executors and threads that the engine uses for outbound, route execution and data flow work,
+ * for use in place of the engine's own thread pools and threads.
+ * <p>
+ * For example, an application with listeners that perform blocking I/O may provide an executor that starts a
+ * new thread (or virtual thread) per task, so that many slow listeners can proceed at the same time.
+ */
+public interface ThreadingExecutorFactory {
+
+    /**
+     * Returns the executor for outbound or route execution work, or null if the factory decided not to
+     * contribute an executor and the engine should use its thread pool.
+     * <p>
+     * The engine does not shut down the executor when destroyed, the application owns its lifecycle and may share it between engines.
+     * @param context contains the engine URI and the name of the thread pool
+     * @return executor or null
+     */
+    public Executor getExecutor(ThreadingExecutorFactoryContext context);
+
+    /**
+     * Returns the thread factory for data flow threads, or null if the factory decided not to
+     * contribute a thread factory and the engine should create threads itself.
+     * @param context contains the engine URI
+     * @return thread factory or null
+     */
+    public ThreadFactory getThreadFactory(ThreadingExecutorFactoryContext context);
+}
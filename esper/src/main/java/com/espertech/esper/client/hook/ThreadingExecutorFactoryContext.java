@@ -0,0 +1,47 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.client.hook;
+
+/**
+ * Context provided to {@link ThreadingExecutorFactory} implementations providing
+ * engine contextual information.
+ */
+public class ThreadingExecutorFactoryContext {
+    private final String engineURI;
+    private final String name;
+
+    /**
+     * Ctor.
+     * @param engineURI engine URI
+     * @param name name of the thread pool, such as "Outbound", "RouteExec" or "DataFlow"
+     */
+    public ThreadingExecutorFactoryContext(String engineURI, String name) {
+        this.engineURI = engineURI;
+        this.name = name;
+    }
+
+    /**
+     * Returns the engine URI.
+     * @return engine URI
+     */
+    public String getEngineURI() {
+        return engineURI;
+    }
+
+    /**
+     * Returns the name of the thread pool, such as "Outbound", "RouteExec" or "DataFlow".
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -15,6 +15,9 @@ import java.util.Date;
  * or {@link com.espertech.esper.client.EPRuntimeIsolated} instance.
  * External clocking must be enabled via {@link TimerControlEvent} before this class can be used
  * to externally feed time.
+ * <p>
+ * The time is in the engine time unit, which is milliseconds unless the engine is configured for
+ * microseconds or nanoseconds via {@link com.espertech.esper.client.ConfigurationEngineDefaults.TimeSource#setTimeUnit}.
  */
 public final class CurrentTimeEvent extends TimerEvent
 {
@@ -23,7 +26,7 @@ public final class CurrentTimeEvent extends TimerEvent
 
     /**
      * Constructor.
-     * @param timeInMillis is the time in milliseconds
+     * @param timeInMillis is the time in milliseconds, or in the configured engine time unit
      */
     public CurrentTimeEvent(final long timeInMillis)
     {
@@ -36,8 +39,8 @@ public final class CurrentTimeEvent extends TimerEvent
     }
 
     /**
-     * Returns the time in milliseconds.
-     * @return time in milliseconds
+     * Returns the time in milliseconds, or in the configured engine time unit.
+     * @return time
      */
     public long getTimeInMillis()
     {
@@ -45,7 +48,7 @@ public final class CurrentTimeEvent extends TimerEvent
     }
 
     /**
-     * Sets the time in milliseconds.
+     * Sets the time in milliseconds, or in the configured engine time unit.
      * @param timeInMillis to set
      */
     public void setTimeInMillis(long timeInMillis) {
@@ -0,0 +1,98 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.collection;
+
+import java.util.*;
+
+/**
+ * Map that copies its contents into a new LinkedHashMap on each change and publishes the copy,
+ * so that readers never lock and always see an unchanging snapshot. Iteration follows insertion order.
+ * <p>
+ * Null keys and values are allowed. Changes are synchronized with each other.
+ * Suitable for maps that are read frequently and changed rarely.
+ */
+public class CopyOnWriteLinkedMap<K, V> extends AbstractMap<K, V>
+{
+    private volatile Map<K, V> snapshot;
+
+    /**
+     * Ctor.
+     */
+    public CopyOnWriteLinkedMap()
+    {
+        snapshot = Collections.emptyMap();
+    }
+
+    public V get(Object key)
+    {
+        return snapshot.get(key);
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return snapshot.containsKey(key);
+    }
+
+    public int size()
+    {
+        return snapshot.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return snapshot.isEmpty();
+    }
+
+    public Set<Entry<K, V>> entrySet()
+    {
+        return snapshot.entrySet();
+    }
+
+    public Set<K> keySet()
+    {
+        return snapshot.keySet();
+    }
+
+    public Collection<V> values()
+    {
+        return snapshot.values();
+    }
+
+    public synchronized V put(K key, V value)
+    {
+        Map<K, V> copy = new LinkedHashMap<K, V>(snapshot);
+        V previous = copy.put(key, value);
+        snapshot = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    public synchronized V remove(Object key)
+    {
+        if (!snapshot.containsKey(key))
+        {
+            return null;
+        }
+        Map<K, V> copy = new LinkedHashMap<K, V>(snapshot);
+        V previous = copy.remove(key);
+        snapshot = Collections.unmodifiableMap(copy);
+        return previous;
+    }
+
+    public synchronized void putAll(Map<? extends K, ? extends V> m)
+    {
+        Map<K, V> copy = new LinkedHashMap<K, V>(snapshot);
+        copy.putAll(m);
+        snapshot = Collections.unmodifiableMap(copy);
+    }
+
+    public synchronized void clear()
+    {
+        snapshot = Collections.emptyMap();
+    }
+}
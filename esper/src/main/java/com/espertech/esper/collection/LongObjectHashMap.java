@@ -0,0 +1,218 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.collection;
+
+/**
+ * Hash map keyed by primitive long that uses open addressing with linear probing, so that lookups
+ * neither box the key nor allocate.
+ * <p>
+ * Null values are not allowed. When copy-on-write, changes copy the table and publish the copy
+ * so that readers never lock, else callers must synchronize reads with changes.
+ */
+public class LongObjectHashMap<V>
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean copyOnWrite;
+    private volatile Table table;
+
+    /**
+     * Ctor.
+     * @param copyOnWrite true to copy the table on each change for readers that do not lock
+     */
+    public LongObjectHashMap(boolean copyOnWrite)
+    {
+        this.copyOnWrite = copyOnWrite;
+        this.table = new Table(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the value for the key.
+     * @param key to look up
+     * @return value or null if not found
+     */
+    public V get(long key)
+    {
+        return (V) table.get(key);
+    }
+
+    /**
+     * Adds or replaces the value for the key.
+     * @param key key
+     * @param value value, not null
+     * @return previous value or null if none
+     */
+    public synchronized V put(long key, V value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+        Table target = copyOnWrite ? table.copy() : table;
+        Object previous = target.put(key, value);
+        if (target.size > target.keys.length >> 1)
+        {
+            target = target.resize();
+        }
+        table = target;
+        return (V) previous;
+    }
+
+    /**
+     * Removes the value for the key.
+     * @param key key
+     * @return removed value or null if not found
+     */
+    public synchronized V remove(long key)
+    {
+        if (table.get(key) == null)
+        {
+            return null;
+        }
+        Table target = copyOnWrite ? table.copy() : table;
+        Object previous = target.remove(key);
+        table = target;
+        return (V) previous;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return size
+     */
+    public int size()
+    {
+        return table.size;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear()
+    {
+        table = new Table(INITIAL_CAPACITY);
+    }
+
+    private static int slot(long key, int mask)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static class Table
+    {
+        private final long[] keys;
+        private final Object[] values;
+        private int size;
+
+        private Table(int capacity)
+        {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        private Table(long[] keys, Object[] values, int size)
+        {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        private Object get(long key)
+        {
+            int mask = keys.length - 1;
+            int index = slot(key, mask);
+            while (true)
+            {
+                Object value = values[index];
+                if (value == null)
+                {
+                    return null;
+                }
+                if (keys[index] == key)
+                {
+                    return value;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private Object put(long key, Object value)
+        {
+            int mask = keys.length - 1;
+            int index = slot(key, mask);
+            while (values[index] != null)
+            {
+                if (keys[index] == key)
+                {
+                    Object previous = values[index];
+                    values[index] = value;
+                    return previous;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            size++;
+            return null;
+        }
+
+        private Object remove(long key)
+        {
+            int mask = keys.length - 1;
+            int index = slot(key, mask);
+            while (values[index] != null && keys[index] != key)
+            {
+                index = (index + 1) & mask;
+            }
+            Object previous = values[index];
+            if (previous == null)
+            {
+                return null;
+            }
+            values[index] = null;
+            size--;
+
+            // shift back entries of the probe sequence that follows the freed slot
+            int free = index;
+            index = (index + 1) & mask;
+            while (values[index] != null)
+            {
+                int home = slot(keys[index], mask);
+                boolean movable = (free <= index) ? (home <= free || home > index) : (home <= free && home > index);
+                if (movable)
+                {
+                    keys[free] = keys[index];
+                    values[free] = values[index];
+                    values[index] = null;
+                    free = index;
+                }
+                index = (index + 1) & mask;
+            }
+            return previous;
+        }
+
+        private Table copy()
+        {
+            return new Table(keys.clone(), values.clone(), size);
+        }
+
+        private Table resize()
+        {
+            Table resized = new Table(keys.length << 1);
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (values[i] != null)
+                {
+                    resized.put(keys[i], values[i]);
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -67,7 +67,7 @@ public class ContextControllerConditionCrontab implements ContextControllerCondi
         EPStatementAgentInstanceHandle agentHandle = new EPStatementAgentInstanceHandle(statementContext.getEpStatementHandle(), statementContext.getDefaultAgentInstanceLock(), -1, new StatementAgentInstanceFilterVersion());
         scheduleHandle = new EPStatementHandleCallback(agentHandle, scheduleCallback);
         SchedulingService schedulingService = statementContext.getSchedulingService();
-        long nextScheduledTime = ScheduleComputeHelper.computeDeltaNextOccurance(spec.getSchedule(), schedulingService.getTime());
+        long nextScheduledTime = ScheduleComputeHelper.computeDeltaNextOccurance(spec.getSchedule(), schedulingService.getTime(), statementContext.getTimeAbacus(), statementContext.getScheduleOccurrenceCacheService());
         statementContext.getSchedulingService().add(nextScheduledTime, scheduleHandle, scheduleSlot);
     }
 
@@ -79,7 +79,7 @@ public class ContextControllerConditionCrontab implements ContextControllerCondi
     }
 
     public Long getExpectedEndTime() {
-        return ScheduleComputeHelper.computeNextOccurance(spec.getSchedule(), statementContext.getTimeProvider().getTime());
+        return ScheduleComputeHelper.computeNextOccurance(spec.getSchedule(), statementContext.getTimeProvider().getTime(), statementContext.getTimeAbacus(), statementContext.getScheduleOccurrenceCacheService());
     }
 
     public boolean isImmediate() {
@@ -80,7 +80,7 @@ public class ContextControllerConditionTimePeriod implements ContextControllerCo
             log.warn("Time period expression in context '" + contextName + "' returned a null value, not scheduling time period");
         }
         else {
-            long msec = (long) (interval * 1000L) - timeOffset;
+            long msec = (long) (interval * agentInstanceContext.getStatementContext().getTimeAbacus().getOneSecond()) - timeOffset;
             agentInstanceContext.getStatementContext().getSchedulingService().add(msec, scheduleHandle, scheduleSlot);
         }
     }
@@ -95,7 +95,7 @@ public class ContextControllerConditionTimePeriod implements ContextControllerCo
     public Long getExpectedEndTime() {
         Double interval = (Double) spec.getTimePeriod().evaluate(null, true, agentInstanceContext);
         if (interval != null) {
-            return agentInstanceContext.getStatementContext().getTimeProvider().getTime() + ((long) (interval * 1000L));
+            return agentInstanceContext.getStatementContext().getTimeProvider().getTime() + ((long) (interval * agentInstanceContext.getStatementContext().getTimeAbacus().getOneSecond()));
         }
         return null;
     }
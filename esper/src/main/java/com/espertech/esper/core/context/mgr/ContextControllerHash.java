@@ -17,6 +17,8 @@ import com.espertech.esper.core.context.util.ContextControllerSelectorUtil;
 import com.espertech.esper.core.context.util.StatementAgentInstanceUtil;
 import com.espertech.esper.client.context.ContextPartitionState;
 import com.espertech.esper.epl.spec.ContextDetailHashItem;
+import com.espertech.esper.filter.FilterHandle;
+import com.espertech.esper.filter.FilterSetEntry;
 import com.espertech.esper.type.NumberSetParameter;
 
 import java.util.*;
@@ -144,10 +146,16 @@ public class ContextControllerHash implements ContextController, ContextControll
 
     protected void activateFilters(EventBean optionalTriggeringEvent) {
         ContextControllerFactoryContext factoryContext = factory.getFactoryContext();
+        // register the filters of all hash items as a single filter change
+        List<FilterSetEntry> filters = new ArrayList<FilterSetEntry>(factory.getHashedSpec().getItems().size());
         for (ContextDetailHashItem item : factory.getHashedSpec().getItems()) {
-            ContextControllerHashedFilterCallback callback = new ContextControllerHashedFilterCallback(factoryContext.getServicesContext(), factoryContext.getAgentInstanceContextCreate(), item, this, activationFilterAddendum);
+            ContextControllerHashedFilterCallback callback = new ContextControllerHashedFilterCallback(factoryContext.getAgentInstanceContextCreate(), item, this, activationFilterAddendum);
             filterCallbacks.add(callback);
+            filters.add(new FilterSetEntry(callback.getFilterHandle(), callback.getFilterValueSet()));
+        }
+        factoryContext.getServicesContext().getFilterService().addAll(filters);
 
+        for (ContextControllerHashedFilterCallback callback : filterCallbacks) {
             if (optionalTriggeringEvent != null) {
                 boolean match = StatementAgentInstanceUtil.evaluateFilterForStatement(factoryContext.getServicesContext(), optionalTriggeringEvent, factoryContext.getAgentInstanceContextCreate(), callback.getFilterHandle());
 
@@ -207,9 +215,11 @@ public class ContextControllerHash implements ContextController, ContextControll
 
     public void deactivate() {
         ContextControllerFactoryContext factoryContext = factory.getFactoryContext();
+        List<FilterHandle> handles = new ArrayList<FilterHandle>(filterCallbacks.size());
         for (ContextControllerHashedFilterCallback callback : filterCallbacks) {
-            callback.destroy(factoryContext.getServicesContext().getFilterService());
+            handles.add(callback.getFilterHandle());
         }
+        factoryContext.getServicesContext().getFilterService().removeAll(handles);
         partitionKeys.clear();
         filterCallbacks.clear();
         factory.getStateCache().removeContextParentPath(factoryContext.getOutermostContextName(), factoryContext.getNestingLevel(), pathId);
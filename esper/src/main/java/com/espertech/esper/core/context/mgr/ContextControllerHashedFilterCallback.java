@@ -14,11 +14,9 @@ package com.espertech.esper.core.context.mgr;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventPropertyGetter;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
-import com.espertech.esper.core.service.EPServicesContext;
 import com.espertech.esper.core.service.EPStatementHandleCallback;
 import com.espertech.esper.epl.spec.ContextDetailHashItem;
 import com.espertech.esper.filter.FilterHandleCallback;
-import com.espertech.esper.filter.FilterService;
 import com.espertech.esper.filter.FilterValueSet;
 import com.espertech.esper.filter.FilterValueSetParam;
 
@@ -30,8 +28,9 @@ public class ContextControllerHashedFilterCallback implements FilterHandleCallba
     private final EventPropertyGetter getter;
     private final ContextControllerHashedInstanceCallback callback;
     private final EPStatementHandleCallback filterHandle;
+    private final FilterValueSet filterValueSet;
 
-    public ContextControllerHashedFilterCallback(EPServicesContext servicesContext, AgentInstanceContext agentInstanceContextCreateContext, ContextDetailHashItem hashItem, ContextControllerHashedInstanceCallback callback, ContextInternalFilterAddendum filterAddendum) {
+    public ContextControllerHashedFilterCallback(AgentInstanceContext agentInstanceContextCreateContext, ContextDetailHashItem hashItem, ContextControllerHashedInstanceCallback callback, ContextInternalFilterAddendum filterAddendum) {
         this.agentInstanceContextCreateContext = agentInstanceContextCreateContext;
         this.callback = callback;
         this.getter = hashItem.getLookupable().getGetter();
@@ -39,8 +38,7 @@ public class ContextControllerHashedFilterCallback implements FilterHandleCallba
         filterHandle = new EPStatementHandleCallback(agentInstanceContextCreateContext.getEpStatementAgentInstanceHandle(), this);
 
         FilterValueSetParam[] addendum = filterAddendum != null ? filterAddendum.getFilterAddendum(hashItem.getFilterSpecCompiled()) : null;
-        FilterValueSet filterValueSet = hashItem.getFilterSpecCompiled().getValueSet(null, null, addendum);
-        servicesContext.getFilterService().add(filterValueSet, filterHandle);
+        filterValueSet = hashItem.getFilterSpecCompiled().getValueSet(null, null, addendum);
     }
 
     public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
@@ -56,8 +54,8 @@ public class ContextControllerHashedFilterCallback implements FilterHandleCallba
         return agentInstanceContextCreateContext.getStatementContext().getStatementId();
     }
 
-    public void destroy(FilterService filterService) {
-        filterService.remove(filterHandle);
+    public FilterValueSet getFilterValueSet() {
+        return filterValueSet;
     }
 
     public EPStatementHandleCallback getFilterHandle() {
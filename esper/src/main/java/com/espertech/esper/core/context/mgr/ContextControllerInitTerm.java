@@ -230,8 +230,8 @@ public class ContextControllerInitTerm implements ContextController, ContextCont
            ((factory.getContextDetail().getEnd() instanceof ContextDetailConditionCrontab)))     {
             ScheduleSpec scheduleStart = ((ContextDetailConditionCrontab) factory.getContextDetail().getStart()).getSchedule();
             ScheduleSpec scheduleEnd = ((ContextDetailConditionCrontab) factory.getContextDetail().getEnd()).getSchedule();
-            long nextScheduledStartTime = ScheduleComputeHelper.computeNextOccurance(scheduleStart, factory.getTimeProvider().getTime());
-            long nextScheduledEndTime = ScheduleComputeHelper.computeNextOccurance(scheduleEnd, factory.getTimeProvider().getTime());
+            long nextScheduledStartTime = ScheduleComputeHelper.computeNextOccurance(scheduleStart, factory.getTimeProvider().getTime(), factory.getStatementContext().getTimeAbacus(), factory.getStatementContext().getScheduleOccurrenceCacheService());
+            long nextScheduledEndTime = ScheduleComputeHelper.computeNextOccurance(scheduleEnd, factory.getTimeProvider().getTime(), factory.getStatementContext().getTimeAbacus(), factory.getStatementContext().getScheduleOccurrenceCacheService());
             return nextScheduledStartTime >= nextScheduledEndTime;
         }
 
@@ -19,6 +19,8 @@ import com.espertech.esper.core.context.util.StatementAgentInstanceUtil;
 import com.espertech.esper.client.context.ContextPartitionState;
 import com.espertech.esper.epl.spec.ContextDetailPartitionItem;
 import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.filter.FilterHandle;
+import com.espertech.esper.filter.FilterSetEntry;
 import com.espertech.esper.type.NumberSetParameter;
 
 import java.util.*;
@@ -104,10 +106,16 @@ public class ContextControllerPartitioned implements ContextController, ContextC
         ContextControllerFactoryContext factoryContext = factory.getFactoryContext();
         this.activationFilterAddendum = filterAddendum;
 
+        // register the filters of all partition items as a single filter change
+        List<FilterSetEntry> filters = new ArrayList<FilterSetEntry>(factory.getSegmentedSpec().getItems().size());
         for (ContextDetailPartitionItem item : factory.getSegmentedSpec().getItems()) {
-            ContextControllerPartitionedFilterCallback callback = new ContextControllerPartitionedFilterCallback(factoryContext.getServicesContext(), factoryContext.getAgentInstanceContextCreate(), item, this, filterAddendum);
+            ContextControllerPartitionedFilterCallback callback = new ContextControllerPartitionedFilterCallback(factoryContext.getAgentInstanceContextCreate(), item, this, filterAddendum);
             filterCallbacks.add(callback);
+            filters.add(new FilterSetEntry(callback.getFilterHandle(), callback.getFilterValueSet()));
+        }
+        factoryContext.getServicesContext().getFilterService().addAll(filters);
 
+        for (ContextControllerPartitionedFilterCallback callback : filterCallbacks) {
             if (optionalTriggeringEvent != null) {
                 boolean match = StatementAgentInstanceUtil.evaluateFilterForStatement(factoryContext.getServicesContext(), optionalTriggeringEvent, factoryContext.getAgentInstanceContextCreate(), callback.getFilterHandle());
 
@@ -142,9 +150,11 @@ public class ContextControllerPartitioned implements ContextController, ContextC
 
     public synchronized void deactivate() {
         ContextControllerFactoryContext factoryContext = factory.getFactoryContext();
+        List<FilterHandle> handles = new ArrayList<FilterHandle>(filterCallbacks.size());
         for (ContextControllerPartitionedFilterCallback callback : filterCallbacks) {
-            callback.destroy(factoryContext.getServicesContext().getFilterService());
+            handles.add(callback.getFilterHandle());
         }
+        factoryContext.getServicesContext().getFilterService().removeAll(handles);
         partitionKeys.clear();
         filterCallbacks.clear();
         factory.getStateCache().removeContextParentPath(factoryContext.getOutermostContextName(), factoryContext.getNestingLevel(), pathId);
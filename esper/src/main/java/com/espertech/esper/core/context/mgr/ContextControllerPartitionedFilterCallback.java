@@ -15,11 +15,9 @@ import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventPropertyGetter;
 import com.espertech.esper.collection.MultiKeyUntyped;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
-import com.espertech.esper.core.service.EPServicesContext;
 import com.espertech.esper.core.service.EPStatementHandleCallback;
 import com.espertech.esper.epl.spec.ContextDetailPartitionItem;
 import com.espertech.esper.filter.FilterHandleCallback;
-import com.espertech.esper.filter.FilterService;
 import com.espertech.esper.filter.FilterValueSet;
 import com.espertech.esper.filter.FilterValueSetParam;
 
@@ -31,8 +29,9 @@ public class ContextControllerPartitionedFilterCallback implements FilterHandleC
     private final EventPropertyGetter[] getters;
     private final ContextControllerPartitionedInstanceCreateCallback callback;
     private final EPStatementHandleCallback filterHandle;
+    private final FilterValueSet filterValueSet;
 
-    public ContextControllerPartitionedFilterCallback(EPServicesContext servicesContext, AgentInstanceContext agentInstanceContextCreateContext, ContextDetailPartitionItem partitionItem, ContextControllerPartitionedInstanceCreateCallback callback, ContextInternalFilterAddendum filterAddendum) {
+    public ContextControllerPartitionedFilterCallback(AgentInstanceContext agentInstanceContextCreateContext, ContextDetailPartitionItem partitionItem, ContextControllerPartitionedInstanceCreateCallback callback, ContextInternalFilterAddendum filterAddendum) {
         this.agentInstanceContextCreateContext = agentInstanceContextCreateContext;
         this.callback = callback;
 
@@ -46,8 +45,7 @@ public class ContextControllerPartitionedFilterCallback implements FilterHandleC
         }
 
         FilterValueSetParam[] addendum = filterAddendum != null ? filterAddendum.getFilterAddendum(partitionItem.getFilterSpecCompiled()) : null;
-        FilterValueSet filterValueSet = partitionItem.getFilterSpecCompiled().getValueSet(null, null, addendum);
-        servicesContext.getFilterService().add(filterValueSet, filterHandle);
+        filterValueSet = partitionItem.getFilterSpecCompiled().getValueSet(null, null, addendum);
     }
 
     public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
@@ -74,8 +72,8 @@ public class ContextControllerPartitionedFilterCallback implements FilterHandleC
         return agentInstanceContextCreateContext.getStatementContext().getStatementId();
     }
 
-    public void destroy(FilterService filterService) {
-        filterService.remove(filterHandle);
+    public FilterValueSet getFilterValueSet() {
+        return filterValueSet;
     }
 
     public EPStatementHandleCallback getFilterHandle() {
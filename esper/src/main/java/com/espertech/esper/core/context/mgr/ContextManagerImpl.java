@@ -91,12 +91,18 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         }
         // activate statement in respect to existing context partitions
         else {
-            for (Map.Entry<Integer, ContextControllerTreeAgentInstanceList> entry : agentInstances.entrySet()) {
-                if (entry.getValue().getState() == ContextPartitionState.STARTED) {
-                    AgentInstance agentInstance = startStatement(entry.getKey(), desc, rootContext, entry.getValue().getInitPartitionKey(), entry.getValue().getInitContextProperties(), isRecoveringResilient);
-                    entry.getValue().getAgentInstances().add(agentInstance);
+            servicesContext.getFilterService().beginBatch();
+            try {
+                for (Map.Entry<Integer, ContextControllerTreeAgentInstanceList> entry : agentInstances.entrySet()) {
+                    if (entry.getValue().getState() == ContextPartitionState.STARTED) {
+                        AgentInstance agentInstance = startStatement(entry.getKey(), desc, rootContext, entry.getValue().getInitPartitionKey(), entry.getValue().getInitContextProperties(), isRecoveringResilient);
+                        entry.getValue().getAgentInstances().add(agentInstance);
+                    }
                 }
             }
+            finally {
+                servicesContext.getFilterService().endBatch();
+            }
         }
     }
 
@@ -159,10 +165,17 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         // handle leaf creation
         List<AgentInstance> newInstances = new ArrayList<AgentInstance>();
         if (state == ContextPartitionState.STARTED) {
-            for (Map.Entry<String, ContextControllerStatementDesc> statementEntry : statements.entrySet()) {
-                ContextControllerStatementDesc statementDesc = statementEntry.getValue();
-                AgentInstance instance = startStatement(assignedContextId, statementDesc, originator, partitionKey, contextProperties, isRecoveringResilient);
-                newInstances.add(instance);
+            // add the filters of all statements as one batch, before evaluating any triggering event
+            servicesContext.getFilterService().beginBatch();
+            try {
+                for (Map.Entry<String, ContextControllerStatementDesc> statementEntry : statements.entrySet()) {
+                    ContextControllerStatementDesc statementDesc = statementEntry.getValue();
+                    AgentInstance instance = startStatement(assignedContextId, statementDesc, originator, partitionKey, contextProperties, isRecoveringResilient);
+                    newInstances.add(instance);
+                }
+            }
+            finally {
+                servicesContext.getFilterService().endBatch();
             }
         }
 
@@ -416,10 +416,17 @@ public class ContextManagerNested implements ContextManager, ContextControllerLi
         // handle leaf creation
         List<AgentInstance> newInstances = new ArrayList<AgentInstance>();
         if (state == ContextPartitionState.STARTED) {
-            for (Map.Entry<String, ContextControllerStatementDesc> statementEntry : statements.entrySet()) {
-                ContextControllerStatementDesc statementDesc = statementEntry.getValue();
-                AgentInstance instance = startStatement(assignedContextId, statementDesc, originator, partitionKey, contextProperties, isRecoveringResilient);
-                newInstances.add(instance);
+            // add the filters of all statements as one batch, before evaluating any triggering event
+            servicesContext.getFilterService().beginBatch();
+            try {
+                for (Map.Entry<String, ContextControllerStatementDesc> statementEntry : statements.entrySet()) {
+                    ContextControllerStatementDesc statementDesc = statementEntry.getValue();
+                    AgentInstance instance = startStatement(assignedContextId, statementDesc, originator, partitionKey, contextProperties, isRecoveringResilient);
+                    newInstances.add(instance);
+                }
+            }
+            finally {
+                servicesContext.getFilterService().endBatch();
             }
         }
 
@@ -52,8 +52,15 @@ public class StatementAgentInstanceUtil {
         if (agentInstances == null) {
             return;
         }
-        for (AgentInstance instance : agentInstances) {
-            stopAgentInstance(instance, terminationProperties, servicesContext, isStatementStop);
+        // remove the filters of all agent instances as one batch
+        servicesContext.getFilterService().beginBatch();
+        try {
+            for (AgentInstance instance : agentInstances) {
+                stopAgentInstance(instance, terminationProperties, servicesContext, isStatementStop);
+            }
+        }
+        finally {
+            servicesContext.getFilterService().endBatch();
         }
     }
 
@@ -0,0 +1,130 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.core.service;
+
+import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The callbacks of one statement agent instance, such as the filter callbacks that an event matches or the
+ * schedule callbacks that fire within one time advance, handed to the agent instance as one batch under a single lock acquisition.
+ * <p>
+ * For filter callbacks the batch is the collection of all statement matches passed to each callback. Batches are reused by
+ * {@link AgentInstanceCallbackBatcher} and do not allocate once sized, except for iterators.
+ * The engine itself reads batches by index.
+ * @param <T> callback type
+ */
+public class AgentInstanceCallbackBatch<T> extends AbstractCollection<T>
+{
+    private EPStatementAgentInstanceHandle handle;
+    private Object[] callbacks = new Object[4];
+    private int count;
+    private int slot;
+
+    /**
+     * Returns the agent instance handle that all callbacks in the batch belong to.
+     * @return handle
+     */
+    public EPStatementAgentInstanceHandle getHandle()
+    {
+        return handle;
+    }
+
+    /**
+     * Returns a callback.
+     * @param index of callback, less than the size
+     * @return callback
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        return (T) callbacks[index];
+    }
+
+    public int size()
+    {
+        return count;
+    }
+
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private int position;
+
+            public boolean hasNext()
+            {
+                return position < count;
+            }
+
+            public T next()
+            {
+                if (position >= count)
+                {
+                    throw new NoSuchElementException();
+                }
+                return get(position++);
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Returns a batch holding the same callbacks that is not reused, for handing over to another thread.
+     * @return batch copy
+     */
+    public AgentInstanceCallbackBatch<T> copy()
+    {
+        AgentInstanceCallbackBatch<T> copy = new AgentInstanceCallbackBatch<T>();
+        copy.handle = handle;
+        copy.callbacks = new Object[count];
+        System.arraycopy(callbacks, 0, copy.callbacks, 0, count);
+        copy.count = count;
+        return copy;
+    }
+
+    void start(EPStatementAgentInstanceHandle handle, int slot)
+    {
+        this.handle = handle;
+        this.slot = slot;
+    }
+
+    void addCallback(T callback)
+    {
+        if (count == callbacks.length)
+        {
+            Object[] grown = new Object[count * 2];
+            System.arraycopy(callbacks, 0, grown, 0, count);
+            callbacks = grown;
+        }
+        callbacks[count++] = callback;
+    }
+
+    int getSlot()
+    {
+        return slot;
+    }
+
+    void reset()
+    {
+        for (int i = 0; i < count; i++)
+        {
+            callbacks[i] = null;
+        }
+        count = 0;
+        handle = null;
+    }
+}
@@ -0,0 +1,189 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.core.service;
+
+import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandleComparator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Groups callbacks into batches per statement agent instance, so that each agent instance lock is acquired once and
+ * all of its callbacks are handed over together. Used for the filter callbacks that an event matches, for statements
+ * that require all matches of an event to be handed over together such as self-joins and prioritized execution,
+ * and for the schedule callbacks that fire within one time advance.
+ * <p>
+ * Batches are listed in the order of the first callback of each agent instance, or in statement priority order for prioritized execution.
+ * The batcher is for use by a single thread and is cleared and reused for each event or time advance:
+ * the lookup table and the batches are allocated once and only grow when more agent instances
+ * or more callbacks per agent instance are batched than any time before.
+ * @param <T> callback type
+ */
+public class AgentInstanceCallbackBatcher<T>
+{
+    private final boolean isPrioritized;
+    private AgentInstanceCallbackBatch<T>[] table = newArray(16);
+    private AgentInstanceCallbackBatch<T>[] batches = newArray(8);
+    private int batchCount;
+
+    /**
+     * Ctor.
+     * @param prioritized true to order batches by statement priority
+     */
+    public AgentInstanceCallbackBatcher(boolean prioritized)
+    {
+        isPrioritized = prioritized;
+    }
+
+    /**
+     * Adds a callback to the batch of its agent instance.
+     * @param handle agent instance handle
+     * @param callback callback
+     */
+    public void add(EPStatementAgentInstanceHandle handle, T callback)
+    {
+        if (batchCount * 2 >= table.length)
+        {
+            growTable();
+        }
+
+        int mask = table.length - 1;
+        int slot = spread(handle.hashCode()) & mask;
+        AgentInstanceCallbackBatch<T> batch;
+        while (true)
+        {
+            batch = table[slot];
+            if (batch == null)
+            {
+                batch = nextBatch();
+                batch.start(handle, slot);
+                table[slot] = batch;
+                break;
+            }
+            if (batch.getHandle() == handle || batch.getHandle().equals(handle))
+            {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        batch.addCallback(callback);
+    }
+
+    /**
+     * Orders batches by statement priority when prioritized, to be called after adding all callbacks.
+     */
+    public void order()
+    {
+        if (isPrioritized && batchCount > 1)
+        {
+            Arrays.sort(batches, 0, batchCount, PriorityComparator.INSTANCE);
+        }
+    }
+
+    /**
+     * Returns true if there are no batches.
+     * @return indicator
+     */
+    public boolean isEmpty()
+    {
+        return batchCount == 0;
+    }
+
+    /**
+     * Returns the number of batches.
+     * @return number of batches
+     */
+    public int getBatchCount()
+    {
+        return batchCount;
+    }
+
+    /**
+     * Returns a batch.
+     * @param index of batch, less than the batch count
+     * @return batch
+     */
+    public AgentInstanceCallbackBatch<T> getBatch(int index)
+    {
+        return batches[index];
+    }
+
+    /**
+     * Clears all batches, releasing the references to handles and callbacks.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < batchCount; i++)
+        {
+            AgentInstanceCallbackBatch<T> batch = batches[i];
+            table[batch.getSlot()] = null;
+            batch.reset();
+        }
+        batchCount = 0;
+    }
+
+    private AgentInstanceCallbackBatch<T> nextBatch()
+    {
+        if (batchCount == batches.length)
+        {
+            AgentInstanceCallbackBatch<T>[] grown = newArray(batchCount * 2);
+            System.arraycopy(batches, 0, grown, 0, batchCount);
+            batches = grown;
+        }
+        AgentInstanceCallbackBatch<T> batch = batches[batchCount];
+        if (batch == null)
+        {
+            batch = new AgentInstanceCallbackBatch<T>();
+            batches[batchCount] = batch;
+        }
+        batchCount++;
+        return batch;
+    }
+
+    private void growTable()
+    {
+        // keep the load factor below one half, re-inserting the batches in use
+        table = newArray(table.length * 2);
+        int mask = table.length - 1;
+        for (int i = 0; i < batchCount; i++)
+        {
+            AgentInstanceCallbackBatch<T> batch = batches[i];
+            int slot = spread(batch.getHandle().hashCode()) & mask;
+            while (table[slot] != null)
+            {
+                slot = (slot + 1) & mask;
+            }
+            batch.start(batch.getHandle(), slot);
+            table[slot] = batch;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> AgentInstanceCallbackBatch<T>[] newArray(int size)
+    {
+        return (AgentInstanceCallbackBatch<T>[]) new AgentInstanceCallbackBatch[size];
+    }
+
+    private static int spread(int hashCode)
+    {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static class PriorityComparator implements Comparator<AgentInstanceCallbackBatch>
+    {
+        private static final PriorityComparator INSTANCE = new PriorityComparator();
+
+        public int compare(AgentInstanceCallbackBatch o1, AgentInstanceCallbackBatch o2)
+        {
+            return EPStatementAgentInstanceHandleComparator.INSTANCE.compare(o1.getHandle(), o2.getHandle());
+        }
+    }
+}
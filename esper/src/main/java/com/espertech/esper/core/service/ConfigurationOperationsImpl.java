@@ -327,6 +327,18 @@ public class ConfigurationOperationsImpl implements ConfigurationOperations
         }
     }
 
+    public void addEventType(String eventTypeName, ConfigurationEventTypeFlatBuffer flatBufferEventTypeDesc)
+    {
+        try
+        {
+            eventAdapterService.addFlatBufferType(eventTypeName, flatBufferEventTypeDesc, false, false);
+        }
+        catch (EventAdapterException t)
+        {
+            throw new ConfigurationException(t.getMessage(), t);
+        }
+    }
+
     public void addVariable(String variableName, Class type, Object initializationValue) throws ConfigurationException
     {
         addVariable(variableName, type.getName(), initializationValue, false);
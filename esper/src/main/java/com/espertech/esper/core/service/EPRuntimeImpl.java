@@ -21,7 +21,6 @@ import com.espertech.esper.collection.ArrayBackedCollection;
 import com.espertech.esper.collection.DualWorkQueue;
 import com.espertech.esper.collection.ThreadWorkQueue;
 import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
-import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandleComparator;
 import com.espertech.esper.core.start.*;
 import com.espertech.esper.core.thread.*;
 import com.espertech.esper.epl.annotation.AnnotationUtil;
@@ -34,6 +33,10 @@ import com.espertech.esper.epl.script.AgentInstanceScriptContext;
 import com.espertech.esper.epl.spec.*;
 import com.espertech.esper.epl.spec.util.StatementSpecRawAnalyzer;
 import com.espertech.esper.epl.variable.VariableReader;
+import com.espertech.esper.event.EventAdapterServiceHelper;
+import com.espertech.esper.event.arr.ObjectArrayEventType;
+import com.espertech.esper.event.map.MapEventType;
+import com.espertech.esper.event.map.MapObjectArrayEventBean;
 import com.espertech.esper.event.util.EventRendererImpl;
 import com.espertech.esper.filter.FilterHandle;
 import com.espertech.esper.filter.FilterHandleCallback;
@@ -73,8 +76,8 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
     private ThreadWorkQueue threadWorkQueue;
     private ThreadLocal<ArrayBackedCollection<FilterHandle>> matchesArrayThreadLocal;
     private ThreadLocal<ArrayBackedCollection<ScheduleHandle>> scheduleArrayThreadLocal;
-    private ThreadLocal<Map<EPStatementAgentInstanceHandle, Object>> matchesPerStmtThreadLocal;
-    private ThreadLocal<Map<EPStatementAgentInstanceHandle, Object>> schedulePerStmtThreadLocal;
+    private ThreadLocal<AgentInstanceCallbackBatcher<FilterHandleCallback>> matchesPerStmtThreadLocal;
+    private ThreadLocal<AgentInstanceCallbackBatcher<ScheduleHandleCallback>> scheduleBatcherThreadLocal;
 
     /**
      * Constructor.
@@ -159,7 +162,7 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
 
     public void timerCallback()
     {
-        long msec = services.getTimeSource().getTimeMillis();
+        long msec = services.getTimeSource().getTime();
 
         if ((ExecutionPathDebugLog.isDebugEnabled) && (log.isDebugEnabled() && (ExecutionPathDebugLog.isTimerDebugEnabled)))
         {
@@ -293,6 +296,174 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
         }
     }
 
+    public void sendEvents(Object[] events) throws EPException
+    {
+        if (events == null)
+        {
+            throw new IllegalArgumentException("Invalid null event array");
+        }
+
+        if (((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isInboundThreading())) ||
+            (internalEventRouter.isHasPreprocessing()))
+        {
+            for (Object theEvent : events)
+            {
+                sendEvent(theEvent);
+            }
+            return;
+        }
+
+        processEventBatch(events, null);
+    }
+
+    public void sendEvents(Map[] maps, String mapEventTypeName) throws EPException
+    {
+        if (maps == null)
+        {
+            throw new IllegalArgumentException("Invalid null event array");
+        }
+
+        if (((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isInboundThreading())) ||
+            (internalEventRouter.isHasPreprocessing()))
+        {
+            for (Map map : maps)
+            {
+                sendEvent(map, mapEventTypeName);
+            }
+            return;
+        }
+
+        EventType eventType = services.getEventAdapterService().getExistsTypeByName(mapEventTypeName);
+        if (!(eventType instanceof MapEventType))
+        {
+            throw new EPException(EventAdapterServiceHelper.getMessageExpecting(mapEventTypeName, eventType, "Map"));
+        }
+        processEventBatch(maps, eventType);
+    }
+
+    public void sendEvents(Object[][] objectarrays, String objectArrayEventTypeName) throws EPException
+    {
+        if (objectarrays == null)
+        {
+            throw new IllegalArgumentException("Invalid null event array");
+        }
+
+        if (((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isInboundThreading())) ||
+            (internalEventRouter.isHasPreprocessing()))
+        {
+            for (Object[] objectarray : objectarrays)
+            {
+                sendEvent(objectarray, objectArrayEventTypeName);
+            }
+            return;
+        }
+
+        EventType eventType = services.getEventAdapterService().getExistsTypeByName(objectArrayEventTypeName);
+        if (!(eventType instanceof ObjectArrayEventType))
+        {
+            throw new EPException(EventAdapterServiceHelper.getMessageExpecting(objectArrayEventTypeName, eventType, "Object-array"));
+        }
+        processEventBatch(objectarrays, eventType);
+    }
+
+    /**
+     * Processes a batch of events with the same semantics as processing each event by itself.
+     * <p>
+     * The engine read lock is kept across consecutive events for as long as events produce nothing to dispatch
+     * and nothing to route. Otherwise the lock is released for dispatch and for working off the thread's work queue,
+     * same as for a single event.
+     * @param events to process
+     * @param eventType the Map or Object-array event type of all events, or null for plain Java objects and time events
+     */
+    private void processEventBatch(Object[] events, EventType eventType)
+    {
+        ArrayBackedCollection<FilterHandle> matches = matchesArrayThreadLocal.get();
+        AgentInstanceCallbackBatcher<FilterHandleCallback> stmtCallbacks = matchesPerStmtThreadLocal.get();
+        DualWorkQueue queues = threadWorkQueue.getThreadQueue();
+        MapEventType mapEventType = eventType instanceof MapEventType ? (MapEventType) eventType : null;
+        boolean isConvertToObjectArray = mapEventType != null && mapEventType.isConvertToObjectArray();
+
+        boolean locked = false;
+        try
+        {
+            for (Object theEvent : events)
+            {
+                EventBean eventBean;
+                if (eventType == null)
+                {
+                    if (theEvent == null)
+                    {
+                        log.fatal(".sendEvents Null object supplied");
+                        continue;
+                    }
+                    if (theEvent instanceof TimerEvent)
+                    {
+                        if (locked)
+                        {
+                            services.getEventProcessingRWLock().releaseReadLock();
+                            locked = false;
+                        }
+                        processTimeEvent((TimerEvent) theEvent);
+                        continue;
+                    }
+                    eventBean = theEvent instanceof EventBean ? (EventBean) theEvent : wrapEvent(theEvent);
+                }
+                else
+                {
+                    if (theEvent == null)
+                    {
+                        throw new IllegalArgumentException("Invalid null event object");
+                    }
+                    if (isConvertToObjectArray)
+                    {
+                        eventBean = new MapObjectArrayEventBean((Map<String, Object>) theEvent, mapEventType);
+                    }
+                    else if (mapEventType != null)
+                    {
+                        eventBean = services.getEventAdapterService().adapterForTypedMap((Map<String, Object>) theEvent, eventType);
+                    }
+                    else
+                    {
+                        eventBean = services.getEventAdapterService().adapterForTypedObjectArray((Object[]) theEvent, eventType);
+                    }
+                }
+
+                if (!locked)
+                {
+                    services.getEventProcessingRWLock().acquireReadLock();
+                    locked = true;
+                }
+                try
+                {
+                    processMatches(eventBean, matches, stmtCallbacks);
+                }
+                catch (RuntimeException ex)
+                {
+                    matches.clear();
+                    throw new EPException(ex);
+                }
+
+                // Dispatch results and work off the event queue outside of the read-lock, if there is anything to do
+                if (services.getDispatchService().isDispatchWaiting() ||
+                    (!queues.getFrontQueue().isEmpty()) || (!queues.getBackQueue().isEmpty()) ||
+                    services.getNamedWindowService().isDispatchWaiting())
+                {
+                    services.getEventProcessingRWLock().releaseReadLock();
+                    locked = false;
+                    dispatch();
+                    processThreadWorkQueue();
+                }
+            }
+        }
+        finally
+        {
+            if (locked)
+            {
+                services.getEventProcessingRWLock().releaseReadLock();
+            }
+        }
+    }
+
     public EventBean wrapEvent(Map map, String eventTypeName) {
         return services.getEventAdapterService().adapterForMap(map, eventTypeName);
     }
@@ -674,79 +845,59 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
             return;
         }
 
-        Object[] matchArray = handles.getArray();
-        int entryCount = handles.size();
-
-        // sort multiple matches for the event into statements
-        Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks = schedulePerStmtThreadLocal.get();
-        stmtCallbacks.clear();
-        for (int i = 0; i < entryCount; i++)    // need to use the size of the collection
+        // group the callbacks into one batch per statement agent instance, for one lock acquisition per agent instance
+        AgentInstanceCallbackBatcher<ScheduleHandleCallback> batcher = scheduleBatcherThreadLocal.get();
+        Object[] handleArray = handles.getArray();
+        for (int i = 0; i < handles.size(); i++)
         {
-            EPStatementHandleCallback handleCallback = (EPStatementHandleCallback) matchArray[i];
-            EPStatementAgentInstanceHandle handle = handleCallback.getAgentInstanceHandle();
-            ScheduleHandleCallback callback = handleCallback.getScheduleCallback();
-
-            Object entry = stmtCallbacks.get(handle);
-
-            // This statement has not been encountered before
-            if (entry == null)
-            {
-                stmtCallbacks.put(handle, callback);
-                continue;
-            }
-
-            // This statement has been encountered once before
-            if (entry instanceof ScheduleHandleCallback)
-            {
-                ScheduleHandleCallback existingCallback = (ScheduleHandleCallback) entry;
-                ArrayDeque<ScheduleHandleCallback> entries = new ArrayDeque<ScheduleHandleCallback>();
-                entries.add(existingCallback);
-                entries.add(callback);
-                stmtCallbacks.put(handle, entries);
-                continue;
-            }
-
-            // This statement has been encountered more then once before
-            ArrayDeque<ScheduleHandleCallback> entries = (ArrayDeque<ScheduleHandleCallback>) entry;
-            entries.add(callback);
+            EPStatementHandleCallback handleCallback = (EPStatementHandleCallback) handleArray[i];
+            batcher.add(handleCallback.getAgentInstanceHandle(), handleCallback.getScheduleCallback());
         }
+        batcher.order();
         handles.clear();
 
-        for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet())
+        try
         {
-            EPStatementAgentInstanceHandle handle = entry.getKey();
-            Object callbackObject = entry.getValue();
-
-            if ((MetricReportingPath.isMetricsEnabled) && (handle.getStatementHandle().getMetricsHandle().isEnabled()))
+            for (int i = 0; i < batcher.getBatchCount(); i++)
             {
-                long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
-                long wallTimeBefore = MetricUtil.getWall();
-
-                processStatementScheduleMultiple(handle, callbackObject, services, this.engineFilterAndDispatchTimeContext);
+                AgentInstanceCallbackBatch<ScheduleHandleCallback> batch = batcher.getBatch(i);
+                EPStatementAgentInstanceHandle handle = batch.getHandle();
 
-                long wallTimeAfter = MetricUtil.getWall();
-                long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
-                long deltaCPU = cpuTimeAfter - cpuTimeBefore;
-                long deltaWall = wallTimeAfter - wallTimeBefore;
-                int numInput = (callbackObject instanceof Collection) ? ((Collection) callbackObject).size() : 1;
-                services.getMetricsReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, numInput);
-            }
-            else
-            {
-                if ((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isTimerThreading()))
+                if ((MetricReportingPath.isMetricsEnabled) && (handle.getStatementHandle().getMetricsHandle().isEnabled()))
                 {
-                    services.getThreadingService().submitTimerWork(new TimerUnitMultiple(services, this, handle, callbackObject, this.engineFilterAndDispatchTimeContext));
+                    long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+                    long wallTimeBefore = MetricUtil.getWall();
+
+                    processStatementScheduleMultiple(handle, batch, services, this.engineFilterAndDispatchTimeContext);
+
+                    long wallTimeAfter = MetricUtil.getWall();
+                    long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+                    long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+                    long deltaWall = wallTimeAfter - wallTimeBefore;
+                    services.getMetricsReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, batch.size());
                 }
                 else
                 {
-                    processStatementScheduleMultiple(handle, callbackObject, services, this.engineFilterAndDispatchTimeContext);
+                    if ((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isTimerThreading()))
+                    {
+                        // the batch is reused by this thread, hand a copy to the timer thread
+                        services.getThreadingService().submitTimerWork(new TimerUnitMultiple(services, this, handle, batch.copy(), this.engineFilterAndDispatchTimeContext));
+                    }
+                    else
+                    {
+                        processStatementScheduleMultiple(handle, batch, services, this.engineFilterAndDispatchTimeContext);
+                    }
                 }
-            }
 
-            if ((isPrioritized) && (handle.isPreemptive()))
-            {
-                break;
-            }            
+                if ((isPrioritized) && (handle.isPreemptive()))
+                {
+                    break;
+                }
+            }
+        }
+        finally
+        {
+            batcher.clear();
         }
     }
 
@@ -905,9 +1056,13 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
     }
 
     private void processMatches(EventBean theEvent)
+    {
+        processMatches(theEvent, matchesArrayThreadLocal.get(), matchesPerStmtThreadLocal.get());
+    }
+
+    private void processMatches(EventBean theEvent, ArrayBackedCollection<FilterHandle> matches, AgentInstanceCallbackBatcher<FilterHandleCallback> stmtCallbacks)
     {
         // get matching filters
-        ArrayBackedCollection<FilterHandle> matches = matchesArrayThreadLocal.get();
         long version = services.getFilterService().evaluate(theEvent, matches);
 
         if (ThreadLogUtil.ENABLED_TRACE)
@@ -934,7 +1089,6 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
             return;
         }
 
-        Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks = matchesPerStmtThreadLocal.get();
         Object[] matchArray = matches.getArray();
         int entryCount = matches.size();
 
@@ -947,20 +1101,7 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
             // Priority or preemptive settings also require special ordering.
             if (handle.isCanSelfJoin() || isPrioritized)
             {
-                Object callbacks = stmtCallbacks.get(handle);
-                if (callbacks == null) {
-                    stmtCallbacks.put(handle, handleCallback.getFilterCallback());
-                }
-                else if (callbacks instanceof ArrayDeque) {
-                    ArrayDeque<FilterHandleCallback> q = (ArrayDeque<FilterHandleCallback>) callbacks;
-                    q.add(handleCallback.getFilterCallback());
-                }
-                else {
-                    ArrayDeque<FilterHandleCallback> q = new ArrayDeque<FilterHandleCallback>(4);
-                    q.add((FilterHandleCallback) callbacks);
-                    q.add(handleCallback.getFilterCallback());
-                    stmtCallbacks.put(handle, q);
-                }
+                stmtCallbacks.add(handle, handleCallback.getFilterCallback());
                 continue;
             }
 
@@ -995,52 +1136,59 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
             return;
         }
 
-        for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet())
+        // the batches are reused for the next event: a single callback is handed over by itself and
+        // a batch handed to another thread is copied
+        stmtCallbacks.order();
+        try
         {
-            EPStatementAgentInstanceHandle handle = entry.getKey();
-            Object callbackList = entry.getValue();
-
-            if ((MetricReportingPath.isMetricsEnabled) && (handle.getStatementHandle().getMetricsHandle().isEnabled()))
+            for (int i = 0; i < stmtCallbacks.getBatchCount(); i++)
             {
-                long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
-                long wallTimeBefore = MetricUtil.getWall();
-
-                processStatementFilterMultiple(handle, callbackList, theEvent, version);
+                AgentInstanceCallbackBatch<FilterHandleCallback> batch = stmtCallbacks.getBatch(i);
+                EPStatementAgentInstanceHandle handle = batch.getHandle();
+                Object callbackList = batch.size() == 1 ? batch.get(0) : batch;
 
-                long wallTimeAfter = MetricUtil.getWall();
-                long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
-                long deltaCPU = cpuTimeAfter - cpuTimeBefore;
-                long deltaWall = wallTimeAfter - wallTimeBefore;
-                int size = 1;
-                if (callbackList instanceof Collection) {
-                    size = ((Collection) callbackList).size();
-                }
-                services.getMetricsReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, size);
-            }
-            else
-            {
-                if ((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isRouteThreading()))
+                if ((MetricReportingPath.isMetricsEnabled) && (handle.getStatementHandle().getMetricsHandle().isEnabled()))
                 {
-                    services.getThreadingService().submitRoute(new RouteUnitMultiple(this, callbackList, theEvent, handle, version));
+                    long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+                    long wallTimeBefore = MetricUtil.getWall();
+
+                    processStatementFilterMultiple(handle, callbackList, theEvent, version);
+
+                    long wallTimeAfter = MetricUtil.getWall();
+                    long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+                    long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+                    long deltaWall = wallTimeAfter - wallTimeBefore;
+                    services.getMetricsReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, batch.size());
                 }
                 else
                 {
-                    processStatementFilterMultiple(handle, callbackList, theEvent, version);
-                }
+                    if ((ThreadingOption.isThreadingEnabled) && (services.getThreadingService().isRouteThreading()))
+                    {
+                        Object routedCallbackList = batch.size() == 1 ? batch.get(0) : batch.copy();
+                        services.getThreadingService().submitRoute(new RouteUnitMultiple(this, routedCallbackList, theEvent, handle, version));
+                    }
+                    else
+                    {
+                        processStatementFilterMultiple(handle, callbackList, theEvent, version);
+                    }
 
-                if ((isPrioritized) && (handle.isPreemptive()))
-                {
-                    break;
+                    if ((isPrioritized) && (handle.isPreemptive()))
+                    {
+                        break;
+                    }
                 }
             }
         }
-        stmtCallbacks.clear();
+        finally
+        {
+            stmtCallbacks.clear();
+        }
     }
 
     /**
      * Processing multiple schedule matches for a statement.
      * @param handle statement handle
-     * @param callbackObject object containing matches
+     * @param callbackObject object containing matches, either a single callback, a collection of callbacks or a {@link AgentInstanceCallbackBatch}
      * @param services engine services
      * @param exprEvaluatorContext context for expression evaluatiom
      */
@@ -1055,7 +1203,15 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
                     services.getVariableService().setLocalVersion();
                 }
 
-                if (callbackObject instanceof ArrayDeque)
+                if (callbackObject instanceof AgentInstanceCallbackBatch)
+                {
+                    AgentInstanceCallbackBatch<ScheduleHandleCallback> batch = (AgentInstanceCallbackBatch<ScheduleHandleCallback>) callbackObject;
+                    for (int i = 0; i < batch.size(); i++)
+                    {
+                        batch.get(i).scheduledTrigger(services.getExtensionServicesContext());
+                    }
+                }
+                else if (callbackObject instanceof ArrayDeque)
                 {
                     ArrayDeque<ScheduleHandleCallback> callbackList = (ArrayDeque<ScheduleHandleCallback>) callbackObject;
                     for (ScheduleHandleCallback callback : callbackList)
@@ -1151,7 +1307,54 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
                 }
             }
 
-            if (callbackList instanceof Collection) {
+            if (callbackList instanceof AgentInstanceCallbackBatch) {
+                // read by index rather than by iterator
+                AgentInstanceCallbackBatch<FilterHandleCallback> batch = (AgentInstanceCallbackBatch<FilterHandleCallback>) callbackList;
+                int size = batch.size();
+                if (isSubselectPreeval)
+                {
+                    // sub-selects always go first
+                    for (int i = 0; i < size; i++)
+                    {
+                        FilterHandleCallback callback = batch.get(i);
+                        if (callback.isSubSelect())
+                        {
+                            callback.matchFound(theEvent, batch);
+                        }
+                    }
+
+                    for (int i = 0; i < size; i++)
+                    {
+                        FilterHandleCallback callback = batch.get(i);
+                        if (!callback.isSubSelect())
+                        {
+                            callback.matchFound(theEvent, batch);
+                        }
+                    }
+                }
+                else
+                {
+                    // sub-selects always go last
+                    for (int i = 0; i < size; i++)
+                    {
+                        FilterHandleCallback callback = batch.get(i);
+                        if (!callback.isSubSelect())
+                        {
+                            callback.matchFound(theEvent, batch);
+                        }
+                    }
+
+                    for (int i = 0; i < size; i++)
+                    {
+                        FilterHandleCallback callback = batch.get(i);
+                        if (callback.isSubSelect())
+                        {
+                            callback.matchFound(theEvent, batch);
+                        }
+                    }
+                }
+            }
+            else if (callbackList instanceof Collection) {
                 Collection<FilterHandleCallback> callbackColl = (Collection<FilterHandleCallback>) callbackList;
                 if (isSubselectPreeval)
                 {
@@ -1289,7 +1492,7 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
         matchesArrayThreadLocal = null;
         matchesPerStmtThreadLocal = null;
         scheduleArrayThreadLocal = null;
-        schedulePerStmtThreadLocal = null;
+        scheduleBatcherThreadLocal = null;
     }
 
     public void initialize() {
@@ -1662,8 +1865,8 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
         if (scheduleArrayThreadLocal != null) {
             scheduleArrayThreadLocal.remove();
         }
-        if (schedulePerStmtThreadLocal != null) {
-            schedulePerStmtThreadLocal.remove();
+        if (scheduleBatcherThreadLocal != null) {
+            scheduleBatcherThreadLocal.remove();
         }
     }
 
@@ -1686,34 +1889,19 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
             }
         };
 
-        matchesPerStmtThreadLocal =
-                new ThreadLocal<Map<EPStatementAgentInstanceHandle, Object>>()
-                {
-                    protected synchronized Map<EPStatementAgentInstanceHandle, Object> initialValue()
-                    {
-                        if (isPrioritized)
-                        {
-                            return new TreeMap<EPStatementAgentInstanceHandle, Object>(EPStatementAgentInstanceHandleComparator.INSTANCE);
-                        }
-                        else
-                        {
-                            return new HashMap<EPStatementAgentInstanceHandle, Object>();
-                        }
-                    }
-                };
+        matchesPerStmtThreadLocal = new ThreadLocal<AgentInstanceCallbackBatcher<FilterHandleCallback>>()
+        {
+            protected synchronized AgentInstanceCallbackBatcher<FilterHandleCallback> initialValue()
+            {
+                return new AgentInstanceCallbackBatcher<FilterHandleCallback>(isPrioritized);
+            }
+        };
 
-        schedulePerStmtThreadLocal = new ThreadLocal<Map<EPStatementAgentInstanceHandle, Object>>()
+        scheduleBatcherThreadLocal = new ThreadLocal<AgentInstanceCallbackBatcher<ScheduleHandleCallback>>()
         {
-            protected synchronized Map<EPStatementAgentInstanceHandle, Object> initialValue()
+            protected synchronized AgentInstanceCallbackBatcher<ScheduleHandleCallback> initialValue()
             {
-                if (isPrioritized)
-                {
-                    return new TreeMap<EPStatementAgentInstanceHandle, Object>(EPStatementAgentInstanceHandleComparator.INSTANCE);
-                }
-                else
-                {
-                    return new HashMap<EPStatementAgentInstanceHandle, Object>();
-                }
+                return new AgentInstanceCallbackBatcher<ScheduleHandleCallback>(isPrioritized);
             }
         };
     }
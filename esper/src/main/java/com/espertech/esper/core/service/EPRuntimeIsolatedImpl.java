@@ -23,7 +23,6 @@ import com.espertech.esper.collection.ArrayBackedCollection;
 import com.espertech.esper.collection.DualWorkQueue;
 import com.espertech.esper.collection.ThreadWorkQueue;
 import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
-import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandleComparator;
 import com.espertech.esper.epl.expression.ExprEvaluatorContext;
 import com.espertech.esper.epl.expression.ExprEvaluatorContextTimeOnly;
 import com.espertech.esper.filter.FilterHandle;
@@ -51,8 +50,8 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
     private ExprEvaluatorContext isolatedTimeEvalContext;
     private ThreadWorkQueue threadWorkQueue;
 
-    private ThreadLocal<Map<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>>> matchesPerStmtThreadLocal;
-    private ThreadLocal<Map<EPStatementAgentInstanceHandle, Object>> schedulePerStmtThreadLocal;
+    private ThreadLocal<AgentInstanceCallbackBatcher<FilterHandleCallback>> matchesPerStmtThreadLocal;
+    private ThreadLocal<AgentInstanceCallbackBatcher<ScheduleHandleCallback>> scheduleBatcherThreadLocal;
     private ThreadLocal<ArrayBackedCollection<FilterHandle>> matchesArrayThreadLocal;
     private ThreadLocal<ArrayBackedCollection<ScheduleHandle>> scheduleArrayThreadLocal;
 
@@ -381,56 +380,36 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
             return;
         }
 
-        Object[] matchArray = handles.getArray();
-        int entryCount = handles.size();
-
-        // sort multiple matches for the event into statements
-        Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks = schedulePerStmtThreadLocal.get();
-        stmtCallbacks.clear();
-        for (int i = 0; i < entryCount; i++)    // need to use the size of the collection
+        // group the callbacks into one batch per statement agent instance, for one lock acquisition per agent instance
+        AgentInstanceCallbackBatcher<ScheduleHandleCallback> batcher = scheduleBatcherThreadLocal.get();
+        Object[] handleArray = handles.getArray();
+        for (int i = 0; i < handles.size(); i++)
         {
-            EPStatementHandleCallback handleCallback = (EPStatementHandleCallback) matchArray[i];
-            EPStatementAgentInstanceHandle handle = handleCallback.getAgentInstanceHandle();
-            ScheduleHandleCallback callback = handleCallback.getScheduleCallback();
-
-            Object entry = stmtCallbacks.get(handle);
-
-            // This statement has not been encountered before
-            if (entry == null)
-            {
-                stmtCallbacks.put(handle, callback);
-                continue;
-            }
-
-            // This statement has been encountered once before
-            if (entry instanceof ScheduleHandleCallback)
-            {
-                ScheduleHandleCallback existingCallback = (ScheduleHandleCallback) entry;
-                ArrayDeque<ScheduleHandleCallback> entries = new ArrayDeque<ScheduleHandleCallback>();
-                entries.add(existingCallback);
-                entries.add(callback);
-                stmtCallbacks.put(handle, entries);
-                continue;
-            }
-
-            // This statement has been encountered more then once before
-            ArrayDeque<ScheduleHandleCallback> entries = (ArrayDeque<ScheduleHandleCallback>) entry;
-            entries.add(callback);
+            EPStatementHandleCallback handleCallback = (EPStatementHandleCallback) handleArray[i];
+            batcher.add(handleCallback.getAgentInstanceHandle(), handleCallback.getScheduleCallback());
         }
+        batcher.order();
         handles.clear();
 
-        for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet())
+        try
         {
-            EPStatementAgentInstanceHandle handle = entry.getKey();
-            Object callbackObject = entry.getValue();
+            for (int i = 0; i < batcher.getBatchCount(); i++)
+            {
+                AgentInstanceCallbackBatch<ScheduleHandleCallback> batch = batcher.getBatch(i);
+                EPStatementAgentInstanceHandle handle = batch.getHandle();
 
-            EPRuntimeImpl.processStatementScheduleMultiple(handle, callbackObject, unisolatedServices, isolatedTimeEvalContext);
+                EPRuntimeImpl.processStatementScheduleMultiple(handle, batch, unisolatedServices, isolatedTimeEvalContext);
 
-            if ((isPrioritized) && (handle.isPreemptive()))
-            {
-                break;
+                if ((isPrioritized) && (handle.isPreemptive()))
+                {
+                    break;
+                }
             }
         }
+        finally
+        {
+            batcher.clear();
+        }
     }
 
     /**
@@ -602,7 +581,7 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
             return;
         }
 
-        Map<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>> stmtCallbacks = matchesPerStmtThreadLocal.get();
+        AgentInstanceCallbackBatcher<FilterHandleCallback> stmtCallbacks = matchesPerStmtThreadLocal.get();
         Object[] matchArray = matches.getArray();
         int entryCount = matches.size();
 
@@ -615,13 +594,7 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
             // Priority or preemptive settings also require special ordering.
             if (handle.isCanSelfJoin() || isPrioritized)
             {
-                ArrayDeque<FilterHandleCallback> callbacks = stmtCallbacks.get(handle);
-                if (callbacks == null)
-                {
-                    callbacks = new ArrayDeque<FilterHandleCallback>();
-                    stmtCallbacks.put(handle, callbacks);
-                }
-                callbacks.add(handleCallback.getFilterCallback());
+                stmtCallbacks.add(handle, handleCallback.getFilterCallback());
                 continue;
             }
 
@@ -633,28 +606,35 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
             return;
         }
 
-        for (Map.Entry<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>> entry : stmtCallbacks.entrySet())
+        stmtCallbacks.order();
+        try
         {
-            EPStatementAgentInstanceHandle handle = entry.getKey();
-            ArrayDeque<FilterHandleCallback> callbackList = entry.getValue();
+            for (int i = 0; i < stmtCallbacks.getBatchCount(); i++)
+            {
+                AgentInstanceCallbackBatch<FilterHandleCallback> batch = stmtCallbacks.getBatch(i);
+                EPStatementAgentInstanceHandle handle = batch.getHandle();
 
-            processStatementFilterMultiple(handle, callbackList, theEvent);
+                processStatementFilterMultiple(handle, batch, theEvent);
 
-            if ((isPrioritized) && (handle.isPreemptive()))
-            {
-                break;
+                if ((isPrioritized) && (handle.isPreemptive()))
+                {
+                    break;
+                }
             }
         }
-        stmtCallbacks.clear();
+        finally
+        {
+            stmtCallbacks.clear();
+        }
     }
 
     /**
      * Processing multiple filter matches for a statement.
      * @param handle statement handle
-     * @param callbackList object containing callbacks
+     * @param callbackList callbacks of the statement
      * @param theEvent to process
      */
-    public void processStatementFilterMultiple(EPStatementAgentInstanceHandle handle, ArrayDeque<FilterHandleCallback> callbackList, EventBean theEvent)
+    public void processStatementFilterMultiple(EPStatementAgentInstanceHandle handle, AgentInstanceCallbackBatch<FilterHandleCallback> callbackList, EventBean theEvent)
     {
         handle.getStatementAgentInstanceLock().acquireWriteLock(unisolatedServices.getStatementLockFactory());
         try
@@ -664,19 +644,22 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
                 unisolatedServices.getVariableService().setLocalVersion();
             }
 
+            int size = callbackList.size();
             if (isSubselectPreeval)
             {
                 // sub-selects always go first
-                for (FilterHandleCallback callback : callbackList)
+                for (int i = 0; i < size; i++)
                 {
+                    FilterHandleCallback callback = callbackList.get(i);
                     if (callback.isSubSelect())
                     {
                         callback.matchFound(theEvent, callbackList);
                     }
                 }
 
-                for (FilterHandleCallback callback : callbackList)
+                for (int i = 0; i < size; i++)
                 {
+                    FilterHandleCallback callback = callbackList.get(i);
                     if (!callback.isSubSelect())
                     {
                         callback.matchFound(theEvent, callbackList);
@@ -686,16 +669,18 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
             else
             {
                 // sub-selects always go last
-                for (FilterHandleCallback callback : callbackList)
+                for (int i = 0; i < size; i++)
                 {
+                    FilterHandleCallback callback = callbackList.get(i);
                     if (!callback.isSubSelect())
                     {
                         callback.matchFound(theEvent, callbackList);
                     }
                 }
 
-                for (FilterHandleCallback callback : callbackList)
+                for (int i = 0; i < size; i++)
                 {
+                    FilterHandleCallback callback = callbackList.get(i);
                     if (callback.isSubSelect())
                     {
                         callback.matchFound(theEvent, callbackList);
@@ -778,14 +763,14 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
         if (scheduleArrayThreadLocal != null) {
             scheduleArrayThreadLocal.remove();
         }
-        if (schedulePerStmtThreadLocal != null) {
-            schedulePerStmtThreadLocal.remove();
+        if (scheduleBatcherThreadLocal != null) {
+            scheduleBatcherThreadLocal.remove();
         }
 
         matchesArrayThreadLocal = null;
         matchesPerStmtThreadLocal = null;
         scheduleArrayThreadLocal = null;
-        schedulePerStmtThreadLocal = null;
+        scheduleBatcherThreadLocal = null;
     }
 
     public long getCurrentTime() {
@@ -835,34 +820,19 @@ public class EPRuntimeIsolatedImpl implements EPRuntimeIsolatedSPI, InternalEven
     }
 
     private void initThreadLocals() {
-        matchesPerStmtThreadLocal =
-                new ThreadLocal<Map<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>>>()
-                {
-                    protected synchronized Map<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>> initialValue()
-                    {
-                        if (isPrioritized)
-                        {
-                            return new TreeMap<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>>(EPStatementAgentInstanceHandleComparator.INSTANCE);
-                        }
-                        else
-                        {
-                            return new HashMap<EPStatementAgentInstanceHandle, ArrayDeque<FilterHandleCallback>>();
-                        }
-                    }
-                };
+        matchesPerStmtThreadLocal = new ThreadLocal<AgentInstanceCallbackBatcher<FilterHandleCallback>>()
+        {
+            protected synchronized AgentInstanceCallbackBatcher<FilterHandleCallback> initialValue()
+            {
+                return new AgentInstanceCallbackBatcher<FilterHandleCallback>(isPrioritized);
+            }
+        };
 
-        schedulePerStmtThreadLocal = new ThreadLocal<Map<EPStatementAgentInstanceHandle, Object>>()
+        scheduleBatcherThreadLocal = new ThreadLocal<AgentInstanceCallbackBatcher<ScheduleHandleCallback>>()
         {
-            protected synchronized Map<EPStatementAgentInstanceHandle, Object> initialValue()
+            protected synchronized AgentInstanceCallbackBatcher<ScheduleHandleCallback> initialValue()
             {
-                if (isPrioritized)
-                {
-                    return new TreeMap<EPStatementAgentInstanceHandle, Object>(EPStatementAgentInstanceHandleComparator.INSTANCE);
-                }
-                else
-                {
-                    return new HashMap<EPStatementAgentInstanceHandle, Object>();
-                }
+                return new AgentInstanceCallbackBatcher<ScheduleHandleCallback>(isPrioritized);
             }
         };
 
@@ -21,6 +21,8 @@ import com.espertech.esper.epl.spec.SelectClauseStreamSelectorEnum;
 import com.espertech.esper.epl.variable.VariableService;
 import com.espertech.esper.event.EventAdapterService;
 import com.espertech.esper.event.vaevent.ValueAddEventService;
+import com.espertech.esper.filter.FilterEvaluatorProfile;
+import com.espertech.esper.filter.FilterStatementProfile;
 import com.espertech.esper.filter.FilterService;
 import com.espertech.esper.metrics.codahale_metrics.metrics.MetricNameFactory;
 import com.espertech.esper.metrics.codahale_metrics.metrics.core.MetricName;
@@ -211,6 +213,22 @@ public class EPServiceProviderImpl implements EPServiceProviderSPI
         return engine.getServices().getFilterService();
     }
 
+    public Map<String, FilterEvaluatorProfile> getFilterIndexProfile()
+    {
+        if (engine == null) {
+            throw new EPServiceDestroyedException(engineURI);
+        }
+        return engine.getServices().getFilterService().getFilterIndexProfile();
+    }
+
+    public Map<String, FilterStatementProfile> getFilterStatementProfile()
+    {
+        if (engine == null) {
+            throw new EPServiceDestroyedException(engineURI);
+        }
+        return engine.getServices().getFilterService().getFilterStatementProfile();
+    }
+
     public TimerService getTimerService() {
         if (engine == null) {
             throw new EPServiceDestroyedException(engineURI);
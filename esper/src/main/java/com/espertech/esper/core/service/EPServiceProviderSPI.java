@@ -20,6 +20,8 @@ import com.espertech.esper.epl.variable.VariableService;
 import com.espertech.esper.core.thread.ThreadingService;
 import com.espertech.esper.event.EventAdapterService;
 import com.espertech.esper.event.vaevent.ValueAddEventService;
+import com.espertech.esper.filter.FilterEvaluatorProfile;
+import com.espertech.esper.filter.FilterStatementProfile;
 import com.espertech.esper.filter.FilterService;
 import com.espertech.esper.schedule.SchedulingService;
 import com.espertech.esper.schedule.SchedulingMgmtService;
@@ -27,6 +29,7 @@ import com.espertech.esper.schedule.TimeProvider;
 import com.espertech.esper.timer.TimerService;
 
 import javax.naming.Context;
+import java.util.Map;
 
 /**
  * A service provider interface that makes available internal engine services.
@@ -75,6 +78,20 @@ public interface EPServiceProviderSPI extends EPServiceProvider
      */
     public FilterService getFilterService();
 
+    /**
+     * Returns a snapshot of the filter index tree per event type with the counters of each filter node and index,
+     * see the filter index profiling setting.
+     * @return profile of the root node per event type name
+     */
+    public Map<String, FilterEvaluatorProfile> getFilterIndexProfile();
+
+    /**
+     * Returns the number of filter handles matched and the filter evaluation time attributed to each statement,
+     * see the filter index profiling setting.
+     * @return profile per statement id
+     */
+    public Map<String, FilterStatementProfile> getFilterStatementProfile();
+
     /**
      * Returns the timer service.
      * @return timer service
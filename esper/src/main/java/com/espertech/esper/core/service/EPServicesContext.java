@@ -31,6 +31,7 @@ import com.espertech.esper.filter.FilterServiceSPI;
 import com.espertech.esper.pattern.PatternNodeFactory;
 import com.espertech.esper.pattern.pool.PatternSubexpressionPoolEngineSvc;
 import com.espertech.esper.schedule.SchedulingMgmtService;
+import com.espertech.esper.schedule.ScheduleOccurrenceCacheService;
 import com.espertech.esper.schedule.SchedulingServiceSPI;
 import com.espertech.esper.timer.TimeSourceService;
 import com.espertech.esper.timer.TimerService;
@@ -90,6 +91,7 @@ public final class EPServicesContext
     private DataFlowService dataFlowService;
     private ExprDeclaredService exprDeclaredService;
     private ExpressionResultCacheService expressionResultCacheSharable;
+    private ScheduleOccurrenceCacheService scheduleOccurrenceCacheService;
 
     /**
      * Constructor - sets up new set of services.
@@ -202,6 +204,7 @@ public final class EPServicesContext
         this.dataFlowService = dataFlowService;
         this.exprDeclaredService = exprDeclaredService;
         this.expressionResultCacheSharable = new ExpressionResultCacheServiceThreadlocal();
+        this.scheduleOccurrenceCacheService = new ScheduleOccurrenceCacheService();
     }
 
     public PatternNodeFactory getPatternNodeFactory() {
@@ -485,6 +488,7 @@ public final class EPServicesContext
         this.statementEventTypeRef = null;
         this.threadingService = null;
         this.expressionResultCacheSharable = null;
+        this.scheduleOccurrenceCacheService = null;
     }
 
     /**
@@ -656,4 +660,8 @@ public final class EPServicesContext
     public ExpressionResultCacheService getExpressionResultCacheSharable() {
         return expressionResultCacheSharable;
     }
+
+    public ScheduleOccurrenceCacheService getScheduleOccurrenceCacheService() {
+        return scheduleOccurrenceCacheService;
+    }
 }
@@ -55,6 +55,7 @@ import com.espertech.esper.util.GraphCircularDependencyException;
 import com.espertech.esper.util.GraphUtil;
 import com.espertech.esper.util.JavaClassHelper;
 import com.espertech.esper.util.ManagedReadWriteLock;
+import com.espertech.esper.util.ManagedReadWriteLockEpoch;
 import com.espertech.esper.view.stream.StreamFactoryService;
 import com.espertech.esper.view.stream.StreamFactoryServiceProvider;
 import org.apache.commons.logging.Log;
@@ -90,10 +91,10 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         init(eventAdapterService, configSnapshot);
 
         // New read-write lock for concurrent event processing
-        ManagedReadWriteLock eventProcessingRWLock = new ManagedReadWriteLock("EventProcLock", false);
+        ManagedReadWriteLock eventProcessingRWLock = makeEventProcessingRWLock(configSnapshot);
 
         TimeSourceService timeSourceService = makeTimeSource(configSnapshot);
-        SchedulingServiceSPI schedulingService = SchedulingServiceProvider.newService(timeSourceService);
+        SchedulingServiceSPI schedulingService = SchedulingServiceProvider.newService(timeSourceService, configSnapshot.getEngineDefaults().getExecution());
         SchedulingMgmtService schedulingMgmtService = new SchedulingMgmtServiceImpl();
         EngineImportService engineImportService = makeEngineImportService(configSnapshot);
         EngineSettingsService engineSettingsService = new EngineSettingsService(configSnapshot.getEngineDefaults(), configSnapshot.getPlugInEventTypeResolutionURIs());
@@ -134,7 +135,7 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
 
         StatementLockFactory statementLockFactory = new StatementLockFactoryImpl(configSnapshot.getEngineDefaults().getExecution().isFairlock(), configSnapshot.getEngineDefaults().getExecution().isDisableLocking());
         StreamFactoryService streamFactoryService = StreamFactoryServiceProvider.newService(epServiceProvider.getURI(), configSnapshot.getEngineDefaults().getViewResources().isShareViews());
-        FilterServiceSPI filterService = FilterServiceProvider.newService();
+        FilterServiceSPI filterService = FilterServiceProvider.newService(configSnapshot.getEngineDefaults().getExecution());
         MetricReportingServiceImpl metricsReporting = new MetricReportingServiceImpl(configSnapshot.getEngineDefaults().getMetricsReporting(), epServiceProvider.getURI());
         NamedWindowService namedWindowService = new NamedWindowServiceImpl(statementLockFactory, variableService, engineSettingsService.getEngineSettings().getExecution().isPrioritized(), eventProcessingRWLock, exceptionHandlingService, configSnapshot.getEngineDefaults().getLogging().isEnableQueryPlan(), metricsReporting);
 
@@ -251,6 +252,20 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         return new ExceptionHandlingService(engineURI, exceptionHandlers, conditionHandlers);
     }
 
+    /**
+     * Makes the engine lock that isolates event processing from statement management.
+     * @param configSnapshot the configuration
+     * @return engine lock
+     */
+    protected static ManagedReadWriteLock makeEventProcessingRWLock(ConfigurationInformation configSnapshot)
+    {
+        if (configSnapshot.getEngineDefaults().getExecution().getEngineLockProfile() == ConfigurationEngineDefaults.EngineLockProfile.EPOCH)
+        {
+            return new ManagedReadWriteLockEpoch("EventProcLock", false);
+        }
+        return new ManagedReadWriteLock("EventProcLock", false);
+    }
+
     /**
      * Makes the time source provider.
      * @param configSnapshot the configuration
@@ -263,7 +278,24 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
             // this is a static variable to keep overhead down for getting a current time
             TimeSourceServiceImpl.IS_SYSTEM_CURRENT_TIME = false;
         }
-        return new TimeSourceServiceImpl();
+        return new TimeSourceServiceImpl(makeTimeAbacus(configSnapshot));
+    }
+
+    /**
+     * Makes the abacus for the engine time unit.
+     * @param configSnapshot the configuration
+     * @return time abacus
+     */
+    protected static TimeAbacus makeTimeAbacus(ConfigurationInformation configSnapshot)
+    {
+        try
+        {
+            return TimeAbacus.getInstance(configSnapshot.getEngineDefaults().getTimeSource().getTimeUnit());
+        }
+        catch (IllegalArgumentException ex)
+        {
+            throw new ConfigurationException(ex.getMessage(), ex);
+        }
     }
 
     /**
@@ -367,6 +399,19 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
             }
         }
 
+        // Add from the configuration the flat-buffer names and record layouts
+        for (Map.Entry<String, ConfigurationEventTypeFlatBuffer> entry : configSnapshot.getEventTypesFlatBuffer().entrySet())
+        {
+            try
+            {
+                eventAdapterService.addFlatBufferType(entry.getKey(), entry.getValue(), true, false);
+            }
+            catch (EventAdapterException ex)
+            {
+                throw new ConfigurationException("Error configuring engine: " + ex.getMessage(), ex);
+            }
+        }
+
         // Add maps in dependency order such that supertypes are added before subtypes
         Set<String> dependentMapOrder;
         try
@@ -519,7 +564,7 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         EngineImportServiceImpl engineImportService = new EngineImportServiceImpl(expression.isExtendedAggregation(),
                 expression.isUdfCache(), expression.isDuckTyping(),
                 configSnapshot.getEngineDefaults().getLanguage().isSortUsingCollator(),
-                configSnapshot.getEngineDefaults().getExpression().getMathContext());
+                configSnapshot.getEngineDefaults().getExpression().getMathContext(), makeTimeAbacus(configSnapshot));
         engineImportService.addMethodRefs(configSnapshot.getMethodInvocationReferences());
 
         // Add auto-imports
@@ -570,7 +615,7 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         try
         {
             ScheduleBucket allStatementsBucket = schedulingMgmtService.allocateBucket();
-            databaseConfigService = new DatabaseConfigServiceImpl(configSnapshot.getDatabaseReferences(), schedulingService, allStatementsBucket);
+            databaseConfigService = new DatabaseConfigServiceImpl(configSnapshot.getDatabaseReferences(), schedulingService, allStatementsBucket, makeTimeAbacus(configSnapshot));
         }
         catch (IllegalArgumentException ex)
         {
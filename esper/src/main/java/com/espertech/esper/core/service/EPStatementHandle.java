@@ -8,10 +8,12 @@
  **************************************************************************************/
 package com.espertech.esper.core.service;
 
+import com.espertech.esper.core.thread.SerialExecutor;
 import com.espertech.esper.epl.metric.StatementMetricHandle;
 import com.espertech.esper.util.MetaDefItem;
 
 import java.io.Serializable;
+import java.util.concurrent.Executor;
 
 /**
  * Class exists once per statement and hold statement resource lock(s).
@@ -36,6 +38,7 @@ public class EPStatementHandle implements MetaDefItem, Serializable
     private transient InsertIntoLatchFactory insertIntoFrontLatchFactory;
     private transient InsertIntoLatchFactory insertIntoBackLatchFactory;
     private transient StatementMetricHandle metricsHandle = null;
+    private transient volatile SerialExecutor routeSerialExecutor;
 
     /**
      * Ctor.
@@ -176,4 +179,28 @@ public class EPStatementHandle implements MetaDefItem, Serializable
     public String getEPL() {
         return statementText;
     }
+
+    /**
+     * Returns the executor that runs route execution work for this statement in order, on the threads of the
+     * engine route executor.
+     * @param routeExecutor engine route executor
+     * @return serial executor for the statement
+     */
+    public SerialExecutor getRouteSerialExecutor(Executor routeExecutor)
+    {
+        SerialExecutor executor = routeSerialExecutor;
+        if (executor == null)
+        {
+            synchronized (this)
+            {
+                executor = routeSerialExecutor;
+                if (executor == null)
+                {
+                    executor = new SerialExecutor(routeExecutor);
+                    routeSerialExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
 }
@@ -26,7 +26,9 @@ import com.espertech.esper.pattern.PatternObjectResolutionService;
 import com.espertech.esper.pattern.pool.PatternSubexpressionPoolStmtSvc;
 import com.espertech.esper.schedule.ScheduleAdjustmentService;
 import com.espertech.esper.schedule.ScheduleBucket;
+import com.espertech.esper.schedule.ScheduleOccurrenceCacheService;
 import com.espertech.esper.schedule.SchedulingService;
+import com.espertech.esper.schedule.TimeAbacus;
 import com.espertech.esper.schedule.TimeProvider;
 import com.espertech.esper.view.StatementStopService;
 import com.espertech.esper.view.ViewResolutionService;
@@ -224,6 +226,15 @@ public final class StatementContext
         return methodResolutionService;
     }
 
+    /**
+     * Returns the abacus for converting seconds and milliseconds to and from the engine time unit.
+     * @return time abacus
+     */
+    public TimeAbacus getTimeAbacus()
+    {
+        return methodResolutionService.getEngineImportService().getTimeAbacus();
+    }
+
     /**
      * Returns the pattern context factory for the statement.
      * @return pattern context factory
@@ -406,6 +417,14 @@ public final class StatementContext
         return stmtEngineServices.getExpressionResultCacheService();
     }
 
+    /**
+     * Returns the engine's crontab occurrence caches.
+     * @return occurrence cache service
+     */
+    public ScheduleOccurrenceCacheService getScheduleOccurrenceCacheService() {
+        return stmtEngineServices.getScheduleOccurrenceCacheService();
+    }
+
     public String toString()
     {
         return  " stmtId=" + epStatementHandle.getStatementId() +
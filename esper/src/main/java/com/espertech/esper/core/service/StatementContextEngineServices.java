@@ -15,6 +15,7 @@ import com.espertech.esper.epl.named.NamedWindowService;
 import com.espertech.esper.epl.variable.VariableService;
 import com.espertech.esper.event.EventAdapterService;
 import com.espertech.esper.event.vaevent.ValueAddEventService;
+import com.espertech.esper.schedule.ScheduleOccurrenceCacheService;
 import com.espertech.esper.view.ViewService;
 
 import java.net.URI;
@@ -33,8 +34,9 @@ public final class StatementContextEngineServices
     private final ExceptionHandlingService exceptionHandlingService;
     private final ExpressionResultCacheService expressionResultCacheService;
     private final StatementEventTypeRef statementEventTypeRef;
+    private final ScheduleOccurrenceCacheService scheduleOccurrenceCacheService;
 
-    public StatementContextEngineServices(String engineURI, EventAdapterService eventAdapterService, NamedWindowService namedWindowService, VariableService variableService, EngineSettingsService engineSettingsService, ValueAddEventService valueAddEventService, ConfigurationInformation configSnapshot, MetricReportingServiceSPI metricReportingService, ViewService viewService, ExceptionHandlingService exceptionHandlingService, ExpressionResultCacheService expressionResultCacheService, StatementEventTypeRef statementEventTypeRef) {
+    public StatementContextEngineServices(String engineURI, EventAdapterService eventAdapterService, NamedWindowService namedWindowService, VariableService variableService, EngineSettingsService engineSettingsService, ValueAddEventService valueAddEventService, ConfigurationInformation configSnapshot, MetricReportingServiceSPI metricReportingService, ViewService viewService, ExceptionHandlingService exceptionHandlingService, ExpressionResultCacheService expressionResultCacheService, StatementEventTypeRef statementEventTypeRef, ScheduleOccurrenceCacheService scheduleOccurrenceCacheService) {
         this.engineURI = engineURI;
         this.eventAdapterService = eventAdapterService;
         this.namedWindowService = namedWindowService;
@@ -47,6 +49,7 @@ public final class StatementContextEngineServices
         this.exceptionHandlingService = exceptionHandlingService;
         this.expressionResultCacheService = expressionResultCacheService;
         this.statementEventTypeRef = statementEventTypeRef;
+        this.scheduleOccurrenceCacheService = scheduleOccurrenceCacheService;
     }
 
     public String getEngineURI() {
@@ -96,4 +99,8 @@ public final class StatementContextEngineServices
     public StatementEventTypeRef getStatementEventTypeRef() {
         return statementEventTypeRef;
     }
+
+    public ScheduleOccurrenceCacheService getScheduleOccurrenceCacheService() {
+        return scheduleOccurrenceCacheService;
+    }
 }
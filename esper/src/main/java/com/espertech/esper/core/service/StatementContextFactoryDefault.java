@@ -82,7 +82,8 @@ public class StatementContextFactoryDefault implements StatementContextFactory
                 services.getViewService(),
                 services.getExceptionHandlingService(),
                 services.getExpressionResultCacheSharable(),
-                services.getStatementEventTypeRefService()
+                services.getStatementEventTypeRefService(),
+                services.getScheduleOccurrenceCacheService()
                 );
     }
 
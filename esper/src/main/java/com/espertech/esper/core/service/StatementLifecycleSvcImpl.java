@@ -32,6 +32,7 @@ import com.espertech.esper.event.EventTypeSPI;
 import com.espertech.esper.event.EventTypeUtility;
 import com.espertech.esper.event.NativeEventType;
 import com.espertech.esper.event.arr.ObjectArrayEventType;
+import com.espertech.esper.event.flat.FlatBufferEventType;
 import com.espertech.esper.event.bean.BeanEventType;
 import com.espertech.esper.event.map.MapEventType;
 import com.espertech.esper.filter.FilterSpecCompiled;
@@ -1346,6 +1347,11 @@ public class StatementLifecycleSvcImpl implements StatementLifecycleSvc
                     BeanEventType beanType = (BeanEventType) selectFromType;
                     targetType = statementContext.getEventAdapterService().addBeanTypeByName(typeName, beanType.getUnderlyingType(), true);
                 }
+                else if (selectFromType instanceof FlatBufferEventType)
+                {
+                    FlatBufferEventType flatBufferType = (FlatBufferEventType) selectFromType;
+                    targetType = statementContext.getEventAdapterService().addFlatBufferType(typeName, flatBufferType.getConfig(), false, true);
+                }
                 else
                 {
                     Map<String, Object> addOnTypes = new HashMap<String, Object>();
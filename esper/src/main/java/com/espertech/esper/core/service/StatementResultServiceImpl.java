@@ -14,6 +14,7 @@ import com.espertech.esper.client.UpdateListener;
 import com.espertech.esper.collection.MultiKeyUntyped;
 import com.espertech.esper.collection.UniformPair;
 import com.espertech.esper.core.thread.OutboundUnitRunnable;
+import com.espertech.esper.core.thread.SerialExecutor;
 import com.espertech.esper.core.thread.ThreadingOption;
 import com.espertech.esper.core.thread.ThreadingService;
 import com.espertech.esper.epl.expression.ExprEvaluator;
@@ -31,6 +32,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 
 /**
  * Implements tracking of statement listeners and subscribers for a given statement
@@ -74,6 +76,9 @@ public class StatementResultServiceImpl implements StatementResultService
 
     private Set<StatementResultListener> statementOutputHooks;
 
+    // For ordered outbound delivery on an executor
+    private volatile SerialExecutor outboundSerialExecutor;
+
     /**
      * Buffer for holding dispatchable events.
      */
@@ -238,6 +243,30 @@ public class StatementResultServiceImpl implements StatementResultService
         dispatches.clear();
     }
 
+    /**
+     * Returns the executor that delivers outbound results for this statement in order, on the threads of the
+     * engine outbound executor.
+     * @param outboundExecutor engine outbound executor
+     * @return serial executor for the statement
+     */
+    public SerialExecutor getOutboundSerialExecutor(Executor outboundExecutor)
+    {
+        SerialExecutor executor = outboundSerialExecutor;
+        if (executor == null)
+        {
+            synchronized (this)
+            {
+                executor = outboundSerialExecutor;
+                if (executor == null)
+                {
+                    executor = new SerialExecutor(outboundExecutor);
+                    outboundSerialExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
     /**
      * Indicate an outbound result.
      * @param events to indicate
@@ -0,0 +1,140 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.thread;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns inbound events to threads by the value of a key property per event type, such that
+ * all events for the same key go to the same thread.
+ * <p>
+ * Events of types that have no key property, and work units that do not carry an event, are assigned to threads in turn.
+ * Events with a null key value all go to the first thread, so that they keep their order like any other key value.
+ * <p>
+ * Key affinity keeps a keyed context partition on one inbound thread, but statement and context partition locks
+ * are still acquired: timer processing, events without a key and routed events may reach the same partition from other threads.
+ */
+public class InboundKeyAffinity
+{
+    private static final Log log = LogFactory.getLog(InboundKeyAffinity.class);
+
+    private static final EventPropertyGetter NO_KEY = new EventPropertyGetter()
+    {
+        public Object get(EventBean eventBean)
+        {
+            return null;
+        }
+
+        public boolean isExistsProperty(EventBean eventBean)
+        {
+            return false;
+        }
+
+        public Object getFragment(EventBean eventBean)
+        {
+            return null;
+        }
+    };
+
+    private final Map<String, String> keyProperties;
+    private final int numThreads;
+    private final ConcurrentHashMap<EventType, EventPropertyGetter> getters;
+    private final AtomicInteger nextThread;
+
+    /**
+     * Ctor.
+     * @param keyProperties key property name per event type name
+     * @param numThreads number of threads
+     */
+    public InboundKeyAffinity(Map<String, String> keyProperties, int numThreads)
+    {
+        this.keyProperties = keyProperties;
+        this.numThreads = numThreads;
+        this.getters = new ConcurrentHashMap<EventType, EventPropertyGetter>();
+        this.nextThread = new AtomicInteger();
+    }
+
+    /**
+     * Returns the thread number for an event.
+     * @param eventBean event or null if the work unit does not carry an event
+     * @return thread number between zero and the number of threads
+     */
+    public int getThread(EventBean eventBean)
+    {
+        if (eventBean == null)
+        {
+            return getNextThread();
+        }
+
+        EventPropertyGetter getter = getGetter(eventBean.getEventType());
+        if (getter == NO_KEY)
+        {
+            return getNextThread();
+        }
+        return getThreadForKey(getter.get(eventBean));
+    }
+
+    /**
+     * Returns the thread number for a key value, the first thread for a null key value.
+     * @param key key value, or null
+     * @return thread number between zero and the number of threads
+     */
+    public int getThreadForKey(Object key)
+    {
+        if (key == null)
+        {
+            return 0;
+        }
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & 0x7fffffff) % numThreads;
+    }
+
+    private int getNextThread()
+    {
+        return (nextThread.getAndIncrement() & 0x7fffffff) % numThreads;
+    }
+
+    private EventPropertyGetter getGetter(EventType eventType)
+    {
+        EventPropertyGetter getter = getters.get(eventType);
+        if (getter != null)
+        {
+            return getter;
+        }
+
+        getter = NO_KEY;
+        String propertyName = eventType.getName() == null ? null : keyProperties.get(eventType.getName());
+        if (propertyName != null)
+        {
+            EventPropertyGetter propertyGetter = eventType.getGetter(propertyName);
+            if (propertyGetter != null)
+            {
+                getter = propertyGetter;
+            }
+            else
+            {
+                log.warn("Inbound threading key property '" + propertyName + "' is not a valid property of event type '" + eventType.getName() + "', assigning events of the type to threads in turn");
+            }
+        }
+        getters.put(eventType, getter);
+        return getter;
+    }
+}
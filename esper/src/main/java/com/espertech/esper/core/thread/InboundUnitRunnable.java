@@ -11,9 +11,18 @@
 
 package com.espertech.esper.core.thread;
 
+import com.espertech.esper.client.EventBean;
+
 /**
  * Interface for inbound runnables.
  */
 public interface InboundUnitRunnable extends Runnable
 {
+    /**
+     * Returns the event of the unit wrapped for processing, or null if the unit does not carry an event.
+     * <p>
+     * Used for assigning units to threads by key.
+     * @return wrapped event or null
+     */
+    public EventBean getEventBean();
 }
@@ -41,6 +41,11 @@ public class InboundUnitSendDOM implements InboundUnitRunnable
         this.runtime = runtime;
     }
 
+    public EventBean getEventBean()
+    {
+        return services.getEventAdapterService().adapterForDOM(theEvent);
+    }
+
     public void run()
     {
         try
@@ -11,6 +11,8 @@
 
 package com.espertech.esper.core.thread;
 
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.time.TimerEvent;
 import com.espertech.esper.core.service.EPRuntimeImpl;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
@@ -35,6 +37,19 @@ public class InboundUnitSendEvent implements InboundUnitRunnable
         this.runtime = runtime;
     }
 
+    public EventBean getEventBean()
+    {
+        if (theEvent instanceof TimerEvent)
+        {
+            return null;
+        }
+        if (theEvent instanceof EventBean)
+        {
+            return (EventBean) theEvent;
+        }
+        return runtime.wrapEvent(theEvent);
+    }
+
     public void run()
     {
         try
@@ -46,6 +46,11 @@ public class InboundUnitSendMap implements InboundUnitRunnable
         this.runtime = runtime;
     }
 
+    public EventBean getEventBean()
+    {
+        return services.getEventAdapterService().adapterForMap(map, eventTypeName);
+    }
+
     public void run()
     {
         try
@@ -43,6 +43,11 @@ public class InboundUnitSendObjectArray implements InboundUnitRunnable
         this.runtime = runtime;
     }
 
+    public EventBean getEventBean()
+    {
+        return services.getEventAdapterService().adapterForObjectArray(properties, eventTypeName);
+    }
+
     public void run()
     {
         try
@@ -36,6 +36,11 @@ public class InboundUnitSendWrapped implements InboundUnitRunnable
         this.runtime = runtime;
     }
 
+    public EventBean getEventBean()
+    {
+        return eventBean;
+    }
+
     public void run()
     {
         try
@@ -38,6 +38,15 @@ public class OutboundUnitRunnable implements Runnable
         this.statementResultService = statementResultService;
     }
 
+    /**
+     * Returns the result service of the statement that the unit dispatches for.
+     * @return result service
+     */
+    public StatementResultServiceImpl getStatementResultService()
+    {
+        return statementResultService;
+    }
+
     public void run()
     {
         try
@@ -0,0 +1,350 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.thread;
+
+import com.espertech.esper.client.ConfigurationEngineDefaults;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded multi-producer multi-consumer queue backed by a preallocated ring buffer, for use as the work queue
+ * of the engine thread pools.
+ * <p>
+ * Producers and consumers claim slots by compare-and-set on a sequence number and do not take a lock, and
+ * adding an element does not allocate. Each slot carries its own sequence number that tells whether the slot
+ * is free for the producer of that sequence or filled for the consumer of that sequence.
+ * <p>
+ * A thread that must wait, because the queue is full or empty, waits according to the wait strategy:
+ * busy-spin and yield keep the thread running and are suited to dedicated cores,
+ * while park suspends the thread until another thread adds or removes an element.
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E>
+{
+    private static final int SPIN_TRIES = 100;
+
+    private final ConfigurationEngineDefaults.Threading.WaitStrategy waitStrategy;
+    private final int capacity;
+    private final int mask;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final Condition notFull = waitLock.newCondition();
+    private volatile int numWaiting;
+
+    /**
+     * Ctor.
+     * @param minCapacity minimum capacity, rounded up to the next power of two
+     * @param waitStrategy how threads wait for elements or for space
+     */
+    public RingBufferBlockingQueue(int minCapacity, ConfigurationEngineDefaults.Threading.WaitStrategy waitStrategy)
+    {
+        if (minCapacity < 1 || minCapacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("Invalid ring buffer capacity " + minCapacity);
+        }
+        int size = 1;
+        while (size < minCapacity)
+        {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+        {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns the capacity.
+     * @return capacity, a power of two
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public boolean offer(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException();
+        }
+        while (true)
+        {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0)
+            {
+                if (tail.compareAndSet(pos, pos + 1))
+                {
+                    buffer[index] = e;
+                    sequences.set(index, pos + 1);
+                    if (numWaiting > 0)
+                    {
+                        signal(notEmpty);
+                    }
+                    return true;
+                }
+            }
+            else if (diff < 0)
+            {
+                return false;
+            }
+        }
+    }
+
+    public E poll()
+    {
+        while (true)
+        {
+            long pos = head.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0)
+            {
+                if (head.compareAndSet(pos, pos + 1))
+                {
+                    E e = (E) buffer[index];
+                    buffer[index] = null;
+                    sequences.set(index, pos + capacity);
+                    if (numWaiting > 0)
+                    {
+                        signal(notFull);
+                    }
+                    return e;
+                }
+            }
+            else if (diff < 0)
+            {
+                return null;
+            }
+        }
+    }
+
+    public E peek()
+    {
+        long pos = head.get();
+        int index = (int) (pos & mask);
+        if (sequences.get(index) - (pos + 1) != 0)
+        {
+            return null;
+        }
+        return (E) buffer[index];
+    }
+
+    public void put(E e) throws InterruptedException
+    {
+        int tries = 0;
+        while (!offer(e))
+        {
+            tries = idle(tries, notFull, true, 0);
+        }
+    }
+
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int tries = 0;
+        while (!offer(e))
+        {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+            {
+                return false;
+            }
+            tries = idle(tries, notFull, true, remaining);
+        }
+        return true;
+    }
+
+    public E take() throws InterruptedException
+    {
+        int tries = 0;
+        E e;
+        while ((e = poll()) == null)
+        {
+            tries = idle(tries, notEmpty, false, 0);
+        }
+        return e;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int tries = 0;
+        E e;
+        while ((e = poll()) == null)
+        {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+            {
+                return null;
+            }
+            tries = idle(tries, notEmpty, false, remaining);
+        }
+        return e;
+    }
+
+    public int size()
+    {
+        while (true)
+        {
+            long before = head.get();
+            long currentTail = tail.get();
+            if (head.get() == before)
+            {
+                long size = currentTail - before;
+                return size < 0 ? 0 : (int) Math.min(size, capacity);
+            }
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return peek() == null && size() == 0;
+    }
+
+    public int remainingCapacity()
+    {
+        return capacity - size();
+    }
+
+    public int drainTo(Collection<? super E> c)
+    {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    public int drainTo(Collection<? super E> c, int maxElements)
+    {
+        if (c == this)
+        {
+            throw new IllegalArgumentException();
+        }
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = poll()) != null)
+        {
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the elements, for use by monitoring only.
+     * @return iterator not supporting removal
+     */
+    public Iterator<E> iterator()
+    {
+        List<E> snapshot = new ArrayList<E>();
+        long pos = head.get();
+        long end = tail.get();
+        for (; pos < end; pos++)
+        {
+            int index = (int) (pos & mask);
+            Object e = buffer[index];
+            if (e != null && sequences.get(index) == pos + 1)
+            {
+                snapshot.add((E) e);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    private int idle(int tries, Condition condition, boolean isProducer, long remainingNanos) throws InterruptedException
+    {
+        if (Thread.interrupted())
+        {
+            throw new InterruptedException();
+        }
+        switch (waitStrategy)
+        {
+            case BUSY_SPIN:
+                return tries;
+            case YIELD:
+                Thread.yield();
+                return tries;
+            default:
+                if (tries < SPIN_TRIES)
+                {
+                    return tries + 1;
+                }
+                waitLock.lockInterruptibly();
+                try
+                {
+                    numWaiting++;
+                    try
+                    {
+                        // re-check after announcing the wait, a producer or consumer signals after changing the queue
+                        boolean ready;
+                        if (isProducer)
+                        {
+                            long pos = tail.get();
+                            ready = sequences.get((int) (pos & mask)) - pos >= 0;
+                        }
+                        else
+                        {
+                            ready = peek() != null;
+                        }
+                        if (!ready)
+                        {
+                            if (remainingNanos > 0)
+                            {
+                                condition.awaitNanos(remainingNanos);
+                            }
+                            else
+                            {
+                                condition.await();
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        numWaiting--;
+                    }
+                }
+                finally
+                {
+                    waitLock.unlock();
+                }
+                return 0;
+        }
+    }
+
+    private void signal(Condition condition)
+    {
+        waitLock.lock();
+        try
+        {
+            condition.signalAll();
+        }
+        finally
+        {
+            waitLock.unlock();
+        }
+    }
+}
@@ -14,6 +14,7 @@ package com.espertech.esper.core.thread;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
 import com.espertech.esper.core.service.EPRuntimeImpl;
+import com.espertech.esper.core.service.EPStatementHandle;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -47,6 +48,11 @@ public class RouteUnitMultiple implements RouteUnitRunnable
         this.filterVersion = filterVersion;
     }
 
+    public EPStatementHandle getStatementHandle()
+    {
+        return handle.getStatementHandle();
+    }
+
     public void run()
     {
         try
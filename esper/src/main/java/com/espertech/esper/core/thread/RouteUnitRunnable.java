@@ -11,9 +11,16 @@
 
 package com.espertech.esper.core.thread;
 
+import com.espertech.esper.core.service.EPStatementHandle;
+
 /**
  * Interface for route execution work units.
  */
 public interface RouteUnitRunnable extends Runnable
 {
+    /**
+     * Returns the handle of the statement to process.
+     * @return statement handle
+     */
+    public EPStatementHandle getStatementHandle();
 }
@@ -13,6 +13,7 @@ package com.espertech.esper.core.thread;
 
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.core.service.EPRuntimeImpl;
+import com.espertech.esper.core.service.EPStatementHandle;
 import com.espertech.esper.core.service.EPStatementHandleCallback;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -44,6 +45,11 @@ public class RouteUnitSingle implements RouteUnitRunnable
         this.filterVersion = filterVersion;
     }
 
+    public EPStatementHandle getStatementHandle()
+    {
+        return handleCallback.getAgentInstanceHandle().getStatementHandle();
+    }
+
     public void run()
     {
         try
@@ -0,0 +1,123 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.thread;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executor that runs its tasks one at a time and in the order submitted, on the threads of an underlying executor.
+ * <p>
+ * Serial executors that share an underlying executor run concurrently with each other.
+ */
+public class SerialExecutor implements Executor
+{
+    private static final Log log = LogFactory.getLog(SerialExecutor.class);
+
+    private static final int MAX_TASKS_PER_RUN = 100;
+
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+    private final AtomicBoolean scheduled;
+    private final Runnable drain;
+
+    /**
+     * Ctor.
+     * @param executor underlying executor
+     */
+    public SerialExecutor(Executor executor)
+    {
+        this.executor = executor;
+        this.tasks = new ConcurrentLinkedQueue<Runnable>();
+        this.scheduled = new AtomicBoolean();
+        this.drain = new Runnable()
+        {
+            public void run()
+            {
+                drain();
+            }
+        };
+    }
+
+    public void execute(Runnable task)
+    {
+        tasks.offer(task);
+        schedule();
+    }
+
+    /**
+     * Returns the number of tasks not yet run.
+     * @return number of queued tasks
+     */
+    public int getNumQueued()
+    {
+        return tasks.size();
+    }
+
+    private void schedule()
+    {
+        if (tasks.isEmpty() || !scheduled.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            executor.execute(drain);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            scheduled.set(false);
+            throw ex;
+        }
+    }
+
+    private void drain()
+    {
+        try
+        {
+            // bound the number of tasks per run so that a busy serial executor does not monopolize a thread
+            for (int i = 0; i < MAX_TASKS_PER_RUN; i++)
+            {
+                Runnable task = tasks.poll();
+                if (task == null)
+                {
+                    break;
+                }
+                try
+                {
+                    task.run();
+                }
+                catch (RuntimeException ex)
+                {
+                    log.error("Unexpected error running task: " + ex.getMessage(), ex);
+                }
+            }
+        }
+        finally
+        {
+            scheduled.set(false);
+            try
+            {
+                schedule();
+            }
+            catch (RejectedExecutionException ex)
+            {
+                log.info("Executor rejected remaining tasks: " + ex.getMessage());
+            }
+        }
+    }
+}
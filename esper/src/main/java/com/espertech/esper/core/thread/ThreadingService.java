@@ -14,7 +14,10 @@ package com.espertech.esper.core.thread;
 import com.espertech.esper.core.service.EPRuntimeImpl;
 import com.espertech.esper.core.service.EPServicesContext;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -130,5 +133,33 @@ public interface ThreadingService
      */
     public ThreadPoolExecutor getInboundThreadPool();
 
+    /**
+     * Returns the per-thread inbound queues when inbound threading assigns events to threads by key,
+     * or null if inbound threading uses a shared queue.
+     * @return queue per inbound thread
+     */
+    public List<BlockingQueue<Runnable>> getInboundKeyedQueues();
+
+    /**
+     * Returns the executor for outbound work when provided by a configured executor factory, or null if outbound
+     * work uses the outbound thread pool.
+     * @return executor or null
+     */
+    public Executor getOutboundExecutor();
+
+    /**
+     * Returns the executor for route execution work when provided by a configured executor factory, or null if route
+     * execution work uses the route execution thread pool.
+     * @return executor or null
+     */
+    public Executor getRouteExecutor();
+
+    /**
+     * Returns the thread factory for data flow threads when provided by a configured executor factory, or null
+     * for default threads.
+     * @return thread factory or null
+     */
+    public ThreadFactory getDataFlowThreadFactory();
+
     public Thread makeEventSourceThread(String engineURI, String sourceName, Runnable runnable);
 }
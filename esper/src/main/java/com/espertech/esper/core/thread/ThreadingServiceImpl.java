@@ -12,11 +12,19 @@
 package com.espertech.esper.core.thread;
 
 import com.espertech.esper.client.ConfigurationEngineDefaults;
+import com.espertech.esper.client.ConfigurationException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.hook.ThreadingExecutorFactory;
+import com.espertech.esper.client.hook.ThreadingExecutorFactoryContext;
 import com.espertech.esper.core.service.EPRuntimeImpl;
 import com.espertech.esper.core.service.EPServicesContext;
+import com.espertech.esper.util.JavaClassHelper;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -26,6 +34,11 @@ public class ThreadingServiceImpl implements ThreadingService
 {
     private static final Log log = LogFactory.getLog(ThreadingServiceImpl.class);
 
+    /**
+     * Ring buffer size for thread pools that do not have a capacity.
+     */
+    public static final int DEFAULT_RING_BUFFER_CAPACITY = 64 * 1024;
+
     private final ConfigurationEngineDefaults.Threading config;
     private final boolean isTimerThreading;
     private final boolean isInboundThreading;
@@ -42,6 +55,15 @@ public class ThreadingServiceImpl implements ThreadingService
     private ThreadPoolExecutor routeThreadPool;
     private ThreadPoolExecutor outboundThreadPool;
 
+    private InboundKeyAffinity inboundKeyAffinity;
+    private List<BlockingQueue<Runnable>> inboundKeyedQueues;
+    private List<ThreadPoolExecutor> inboundKeyedThreadPools;
+    private EPRuntimeImpl runtime;
+
+    private Executor outboundExecutor;
+    private Executor routeExecutor;
+    private ThreadFactory dataFlowThreadFactory;
+
     /**
      * Ctor.
      * @param threadingConfig configuration
@@ -87,7 +109,45 @@ public class ThreadingServiceImpl implements ThreadingService
 
     public void initThreading(EPServicesContext services, EPRuntimeImpl runtime)
     {
-        if (isInboundThreading)
+        ThreadingExecutorFactory executorFactory = null;
+        if (config.getThreadPoolExecutorFactory() != null)
+        {
+            String className = config.getThreadPoolExecutorFactory();
+            try
+            {
+                executorFactory = (ThreadingExecutorFactory) JavaClassHelper.instantiate(ThreadingExecutorFactory.class, className);
+                dataFlowThreadFactory = executorFactory.getThreadFactory(new ThreadingExecutorFactoryContext(services.getEngineURI(), "DataFlow"));
+                if (isOutboundThreading)
+                {
+                    outboundExecutor = executorFactory.getExecutor(new ThreadingExecutorFactoryContext(services.getEngineURI(), "Outbound"));
+                }
+                if (isRouteThreading)
+                {
+                    routeExecutor = executorFactory.getExecutor(new ThreadingExecutorFactoryContext(services.getEngineURI(), "RouteExec"));
+                }
+            }
+            catch (RuntimeException ex)
+            {
+                throw new ConfigurationException("Exception initializing executors from executor factory '" + className + "': " + ex.getMessage(), ex);
+            }
+        }
+
+        if (isInboundThreading && !config.getThreadPoolInboundKeys().isEmpty())
+        {
+            // each thread has its own queue so that events for the same key are processed in order
+            int numThreads = Math.max(1, config.getThreadPoolInboundNumThreads());
+            this.runtime = runtime;
+            inboundKeyAffinity = new InboundKeyAffinity(new LinkedHashMap<String, String>(config.getThreadPoolInboundKeys()), numThreads);
+            inboundKeyedQueues = new ArrayList<BlockingQueue<Runnable>>(numThreads);
+            inboundKeyedThreadPools = new ArrayList<ThreadPoolExecutor>(numThreads);
+            for (int i = 0; i < numThreads; i++)
+            {
+                BlockingQueue<Runnable> queue = makeQueue(config.getThreadPoolInboundCapacity());
+                inboundKeyedQueues.add(queue);
+                inboundKeyedThreadPools.add(getThreadPool(services.getEngineURI(), "Inbound-" + i, queue, 1));
+            }
+        }
+        else if (isInboundThreading)
         {
             inboundQueue = makeQueue(config.getThreadPoolInboundCapacity());
             inboundThreadPool = getThreadPool(services.getEngineURI(), "Inbound", inboundQueue, config.getThreadPoolInboundNumThreads());
@@ -99,13 +159,13 @@ public class ThreadingServiceImpl implements ThreadingService
             timerThreadPool = getThreadPool(services.getEngineURI(), "TimerExec", timerQueue, config.getThreadPoolTimerExecNumThreads());
         }
 
-        if (isRouteThreading)
+        if (isRouteThreading && routeExecutor == null)
         {
             routeQueue = makeQueue(config.getThreadPoolRouteExecCapacity());
             routeThreadPool = getThreadPool(services.getEngineURI(), "RouteExec", routeQueue, config.getThreadPoolRouteExecNumThreads());
         }
 
-        if (isOutboundThreading)
+        if (isOutboundThreading && outboundExecutor == null)
         {
             outboundQueue = makeQueue(config.getThreadPoolOutboundCapacity());
             outboundThreadPool = getThreadPool(services.getEngineURI(), "Outbound", outboundQueue, config.getThreadPoolOutboundNumThreads());
@@ -114,6 +174,15 @@ public class ThreadingServiceImpl implements ThreadingService
 
     private BlockingQueue<Runnable> makeQueue(Integer threadPoolTimerExecCapacity)
     {
+        if (config.isThreadPoolRingBuffer())
+        {
+            int capacity = DEFAULT_RING_BUFFER_CAPACITY;
+            if ((threadPoolTimerExecCapacity != null) && (threadPoolTimerExecCapacity > 0) && (threadPoolTimerExecCapacity <= (1 << 30)))
+            {
+                capacity = threadPoolTimerExecCapacity;
+            }
+            return new RingBufferBlockingQueue<Runnable>(capacity, config.getThreadPoolRingBufferWaitStrategy());
+        }
         if ((threadPoolTimerExecCapacity == null) ||
             (threadPoolTimerExecCapacity <= 0) ||
             (threadPoolTimerExecCapacity == Integer.MAX_VALUE))
@@ -128,6 +197,13 @@ public class ThreadingServiceImpl implements ThreadingService
 
     public void submitRoute(RouteUnitRunnable unit)
     {
+        if (routeExecutor != null)
+        {
+            // serialize route work per statement, the same as outbound work
+            unit.getStatementHandle().getRouteSerialExecutor(routeExecutor).execute(unit);
+            return;
+        }
+
         try
         {
             routeQueue.put(unit);
@@ -140,6 +216,12 @@ public class ThreadingServiceImpl implements ThreadingService
 
     public void submitInbound(InboundUnitRunnable unit)
     {
+        if (inboundKeyAffinity != null)
+        {
+            submitInboundKeyed(unit);
+            return;
+        }
+
         try
         {
             inboundQueue.put(unit);
@@ -150,8 +232,45 @@ public class ThreadingServiceImpl implements ThreadingService
         }
     }
 
+    private void submitInboundKeyed(InboundUnitRunnable unit)
+    {
+        EventBean eventBean;
+        try
+        {
+            eventBean = unit.getEventBean();
+        }
+        catch (RuntimeException e)
+        {
+            // the unit reports the error when it executes
+            eventBean = null;
+        }
+
+        // wrap once in the submitting thread, rather than again in the inbound thread
+        InboundUnitRunnable submitted = unit;
+        if ((eventBean != null) && (!(unit instanceof InboundUnitSendWrapped)))
+        {
+            submitted = new InboundUnitSendWrapped(eventBean, runtime);
+        }
+
+        try
+        {
+            inboundKeyedQueues.get(inboundKeyAffinity.getThread(eventBean)).put(submitted);
+        }
+        catch (InterruptedException e)
+        {
+            log.info("Submit interrupted:" + e);
+        }
+    }
+
     public void submitOutbound(OutboundUnitRunnable unit)
     {
+        if (outboundExecutor != null)
+        {
+            // listeners of a statement receive results in order, results of different statements are delivered concurrently
+            unit.getStatementResultService().getOutboundSerialExecutor(outboundExecutor).execute(unit);
+            return;
+        }
+
         try
         {
             outboundQueue.put(unit);
@@ -214,6 +333,26 @@ public class ThreadingServiceImpl implements ThreadingService
         return inboundThreadPool;
     }
 
+    public List<BlockingQueue<Runnable>> getInboundKeyedQueues()
+    {
+        return inboundKeyedQueues;
+    }
+
+    public Executor getOutboundExecutor()
+    {
+        return outboundExecutor;
+    }
+
+    public Executor getRouteExecutor()
+    {
+        return routeExecutor;
+    }
+
+    public ThreadFactory getDataFlowThreadFactory()
+    {
+        return dataFlowThreadFactory;
+    }
+
     public void destroy()
     {
         if (timerThreadPool != null)
@@ -232,6 +371,14 @@ public class ThreadingServiceImpl implements ThreadingService
         {
             stopPool(inboundThreadPool, inboundQueue, "Inbound");
         }
+        if (inboundKeyedThreadPools != null)
+        {
+            for (int i = 0; i < inboundKeyedThreadPools.size(); i++)
+            {
+                stopPool(inboundKeyedThreadPools.get(i), inboundKeyedQueues.get(i), "Inbound-" + i);
+            }
+        }
+        // executors from the executor factory are owned by the application and are not shut down
     }
 
     private ThreadPoolExecutor getThreadPool(String engineURI, String name, BlockingQueue<Runnable> queue, int numThreads)
@@ -26,6 +26,7 @@ import org.apache.commons.logging.LogFactory;
 
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class EPDataFlowInstanceImpl implements EPDataFlowInstance, CompletionListener {
@@ -43,12 +44,13 @@ public class EPDataFlowInstanceImpl implements EPDataFlowInstance, CompletionLis
     private final Set<Integer> operatorBuildOrder;
     private final EPDataFlowInstanceStatistics statisticsProvider;
     private final Map<String, Object> parameters;
+    private final ThreadFactory threadFactory;
 
     private List<CountDownLatch> joinedThreadLatches;
     private List<Thread> threads;
     private Thread runCurrentThread;
 
-    public EPDataFlowInstanceImpl(String engineURI, String statementName, boolean audit, String dataFlowName, Object userObject, String instanceId, EPDataFlowState state, List<GraphSourceRunnable> sourceRunnables, Map<Integer, Object> operators, Set<Integer> operatorBuildOrder, EPDataFlowInstanceStatistics statisticsProvider, Map<String, Object> parameters) {
+    public EPDataFlowInstanceImpl(String engineURI, String statementName, boolean audit, String dataFlowName, Object userObject, String instanceId, EPDataFlowState state, List<GraphSourceRunnable> sourceRunnables, Map<Integer, Object> operators, Set<Integer> operatorBuildOrder, EPDataFlowInstanceStatistics statisticsProvider, Map<String, Object> parameters, ThreadFactory threadFactory) {
         this.engineURI = engineURI;
         this.statementName = statementName;
         this.audit = audit;
@@ -64,6 +66,7 @@ public class EPDataFlowInstanceImpl implements EPDataFlowInstance, CompletionLis
         this.statisticsProvider = statisticsProvider;
         setState(state);
         this.parameters = parameters;
+        this.threadFactory = threadFactory;
     }
 
     public String getDataFlowName() {
@@ -150,9 +153,16 @@ public class EPDataFlowInstanceImpl implements EPDataFlowInstance, CompletionLis
         for (int i = 0; i < sourceRunnables.size(); i++) {
             GraphSourceRunnable runnable = sourceRunnables.get(i);
             String threadName = "esper." + dataFlowName + "-" + i;
-            Thread thread = new Thread(runnable, threadName);
+            Thread thread;
+            if (threadFactory == null) {
+                thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+            }
+            else {
+                thread = threadFactory.newThread(runnable);
+                thread.setName(threadName);
+            }
             thread.setContextClassLoader(Thread.currentThread().getContextClassLoader());
-            thread.setDaemon(true);
             runnable.addCompletionListener(new CompletionListener() {
                 public void completed() {
                     int remaining = countdown.decrementAndGet();
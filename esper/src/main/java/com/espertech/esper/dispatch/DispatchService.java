@@ -36,4 +36,10 @@ public interface DispatchService
      */
     public void dispatch();
 
+    /**
+     * Returns true if Dispatchable implementations were added by the current thread and not yet executed.
+     * @return indicator whether the current thread has dispatches waiting
+     */
+    public boolean isDispatchWaiting();
+
 }
@@ -21,15 +21,27 @@ public class AggregatorRateEver implements AggregationMethod {
     protected final ArrayDeque<Long> points;
     protected boolean hasLeave = false;
     protected final TimeProvider timeProvider;
+    protected final long oneSecond;
 
     /**
      * Ctor.
-     * @param interval rate interval
+     * @param interval rate interval in milliseconds
      * @param timeProvider time
      */
     public AggregatorRateEver(long interval, TimeProvider timeProvider) {
+        this(interval, timeProvider, 1000);
+    }
+
+    /**
+     * Ctor.
+     * @param interval rate interval in engine time units
+     * @param timeProvider time
+     * @param oneSecond number of engine time units in one second
+     */
+    public AggregatorRateEver(long interval, TimeProvider timeProvider, long oneSecond) {
         this.interval = interval;
         this.timeProvider = timeProvider;
+        this.oneSecond = oneSecond;
         points = new ArrayDeque<Long>();
     }
 
@@ -62,7 +74,7 @@ public class AggregatorRateEver implements AggregationMethod {
         if (points.isEmpty()) {
             return 0d;
         }
-        return (points.size() * 1000d) / interval;
+        return (points.size() * (double) oneSecond) / interval;
     }
 
     private void removeFromHead(long timestamp) {
@@ -25,15 +25,12 @@ import com.espertech.esper.util.JavaClassHelper;
  */
 public class AggSvcGroupByReclaimAgedFactory extends AggregationServiceFactoryBase
 {
-    private static final long DEFAULT_MAX_AGE_MSEC = 60000L;
-
     protected final AggregationAccessorSlotPair[] accessors;
     protected final AggregationStateFactory[] accessAggregations;
     protected final boolean isJoin;
 
     protected final AggSvcGroupByReclaimAgedEvalFunc evaluationFunctionMaxAge;
     protected final AggSvcGroupByReclaimAgedEvalFunc evaluationFunctionFrequency;
-    private volatile long currentReclaimFrequency = DEFAULT_MAX_AGE_MSEC;
 
     /**
      * Ctor.
@@ -74,7 +71,6 @@ public class AggSvcGroupByReclaimAgedFactory extends AggregationServiceFactoryBa
         if ((reclaimGroupFrequency == null) || (hintValueFrequency == null))
         {
             evaluationFunctionFrequency = evaluationFunctionMaxAge;
-            currentReclaimFrequency = getReclaimFrequency(currentReclaimFrequency);
         }
         else
         {
@@ -117,14 +113,4 @@ public class AggSvcGroupByReclaimAgedFactory extends AggregationServiceFactoryBa
             return new AggSvcGroupByReclaimAgedEvalFuncConstant(valueDouble);
         }
     }
-
-    private long getReclaimFrequency(long currentReclaimFrequency)
-    {
-        Double frequency = evaluationFunctionFrequency.getLongValue();
-        if ((frequency == null) || (frequency <= 0))
-        {
-            return currentReclaimFrequency;
-        }
-        return Math.round(frequency * 1000d);
-    }
 }
@@ -15,6 +15,7 @@ import com.espertech.esper.epl.agg.aggregator.AggregationMethod;
 import com.espertech.esper.epl.core.MethodResolutionService;
 import com.espertech.esper.epl.expression.ExprEvaluator;
 import com.espertech.esper.epl.expression.ExprEvaluatorContext;
+import com.espertech.esper.schedule.TimeAbacus;
 import com.espertech.esper.util.ExecutionPathDebugLog;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,7 +29,7 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
 {
     private static final Log log = LogFactory.getLog(AggSvcGroupByReclaimAgedImpl.class);
 
-    private static final long DEFAULT_MAX_AGE_MSEC = 60000L;
+    private static final double DEFAULT_MAX_AGE_SEC = 60d;
 
     private final AggregationAccessorSlotPair[] accessors;
     protected final AggregationStateFactory[] accessAggregations;
@@ -37,6 +38,7 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
     private final AggSvcGroupByReclaimAgedEvalFunc evaluationFunctionMaxAge;
     private final AggSvcGroupByReclaimAgedEvalFunc evaluationFunctionFrequency;
     private final MethodResolutionService methodResolutionService;
+    private final TimeAbacus timeAbacus;
 
     // maintain for each group a row of aggregator states that the expression node canb pull the data from via index
     protected Map<Object, AggregationMethodRowAged> aggregatorsPerGroup;
@@ -49,8 +51,8 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
     private List<Object> removedKeys;
     private Long nextSweepTime = null;
     private AggregationRowRemovedCallback removedCallback;
-    private volatile long currentMaxAge = DEFAULT_MAX_AGE_MSEC;
-    private volatile long currentReclaimFrequency = DEFAULT_MAX_AGE_MSEC;
+    private volatile long currentMaxAge;
+    private volatile long currentReclaimFrequency;
 
     public AggSvcGroupByReclaimAgedImpl(ExprEvaluator evaluators[], AggregationMethodFactory aggregators[], AggregationAccessorSlotPair[] accessors, AggregationStateFactory[] accessAggregations, boolean join, AggSvcGroupByReclaimAgedEvalFunc evaluationFunctionMaxAge, AggSvcGroupByReclaimAgedEvalFunc evaluationFunctionFrequency, MethodResolutionService methodResolutionService) {
         super(evaluators, aggregators);
@@ -60,6 +62,9 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
         this.evaluationFunctionMaxAge = evaluationFunctionMaxAge;
         this.evaluationFunctionFrequency = evaluationFunctionFrequency;
         this.methodResolutionService = methodResolutionService;
+        this.timeAbacus = methodResolutionService.getEngineImportService().getTimeAbacus();
+        this.currentMaxAge = timeAbacus.deltaForSecondsDouble(DEFAULT_MAX_AGE_SEC);
+        this.currentReclaimFrequency = currentMaxAge;
         this.aggregatorsPerGroup = new HashMap<Object, AggregationMethodRowAged>();
         removedKeys = new ArrayList<Object>();
     }
@@ -78,7 +83,7 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
             currentReclaimFrequency = getReclaimFrequency(currentReclaimFrequency);
             if ((ExecutionPathDebugLog.isDebugEnabled) && (log.isDebugEnabled()))
             {
-                log.debug("Reclaiming groups older then " + currentMaxAge + " msec and every " + currentReclaimFrequency + "msec in frequency");
+                log.debug("Reclaiming groups older then " + currentMaxAge + " and every " + currentReclaimFrequency + " in frequency, in " + timeAbacus.getTimeUnit());
             }
             nextSweepTime = currentTime + currentReclaimFrequency;
             sweep(currentTime, currentMaxAge);
@@ -148,7 +153,7 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
         {
             return currentMaxAge;
         }
-        return Math.round(maxAge * 1000d);
+        return timeAbacus.deltaForSecondsDouble(maxAge);
     }
 
     private long getReclaimFrequency(long currentReclaimFrequency)
@@ -158,7 +163,7 @@ public class AggSvcGroupByReclaimAgedImpl extends AggregationServiceBaseGrouped
         {
             return currentReclaimFrequency;
         }
-        return Math.round(frequency * 1000d);
+        return timeAbacus.deltaForSecondsDouble(frequency);
     }
 
     public void applyLeave(EventBean[] eventsPerStream, Object groupByKey, ExprEvaluatorContext exprEvaluatorContext)
@@ -16,6 +16,7 @@ import com.espertech.esper.client.hook.AggregationFunctionFactory;
 import com.espertech.esper.collection.Pair;
 import com.espertech.esper.epl.agg.service.AggregationSupport;
 import com.espertech.esper.epl.expression.ExprNode;
+import com.espertech.esper.schedule.TimeAbacus;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -166,4 +167,10 @@ public interface EngineImportService
     void addAggregationMultiFunction(ConfigurationPlugInAggregationMultiFunction desc) throws EngineImportException;
 
     public MathContext getDefaultMathContext();
+
+    /**
+     * Returns the abacus for converting seconds and milliseconds to and from the engine time unit.
+     * @return time abacus
+     */
+    public TimeAbacus getTimeAbacus();
 }
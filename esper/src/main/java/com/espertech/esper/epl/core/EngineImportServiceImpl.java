@@ -16,6 +16,7 @@ import com.espertech.esper.client.hook.AggregationFunctionFactory;
 import com.espertech.esper.collection.Pair;
 import com.espertech.esper.epl.agg.service.AggregationSupport;
 import com.espertech.esper.epl.expression.*;
+import com.espertech.esper.schedule.TimeAbacus;
 import com.espertech.esper.util.JavaClassHelper;
 import com.espertech.esper.util.MethodResolver;
 import org.apache.commons.logging.Log;
@@ -44,12 +45,23 @@ public class EngineImportServiceImpl implements EngineImportService
     private final boolean isDuckType;
     private final boolean sortUsingCollator;
     private final MathContext optionalDefaultMathContext;
+    private final TimeAbacus timeAbacus;
 
     /**
 	 * Ctor
      * @param allowExtendedAggregationFunc true to allow non-SQL standard builtin agg functions.
 	 */
 	public EngineImportServiceImpl(boolean allowExtendedAggregationFunc, boolean isUdfCache, boolean isDuckType, boolean sortUsingCollator, MathContext optionalDefaultMathContext)
+    {
+        this(allowExtendedAggregationFunc, isUdfCache, isDuckType, sortUsingCollator, optionalDefaultMathContext, TimeAbacus.MILLISECONDS);
+    }
+
+    /**
+     * Ctor
+     * @param allowExtendedAggregationFunc true to allow non-SQL standard builtin agg functions.
+     * @param timeAbacus for converting to and from the engine time unit
+     */
+    public EngineImportServiceImpl(boolean allowExtendedAggregationFunc, boolean isUdfCache, boolean isDuckType, boolean sortUsingCollator, MathContext optionalDefaultMathContext, TimeAbacus timeAbacus)
     {
         imports = new ArrayList<String>();
         aggregationFunctions = new HashMap<String, ConfigurationPlugInAggregationFunction>();
@@ -61,6 +73,7 @@ public class EngineImportServiceImpl implements EngineImportService
         this.isDuckType = isDuckType;
         this.sortUsingCollator = sortUsingCollator;
         this.optionalDefaultMathContext = optionalDefaultMathContext;
+        this.timeAbacus = timeAbacus;
     }
 
     public boolean isUdfCache() {
@@ -597,6 +610,10 @@ public class EngineImportServiceImpl implements EngineImportService
         return optionalDefaultMathContext;
     }
 
+    public TimeAbacus getTimeAbacus() {
+        return timeAbacus;
+    }
+
     public boolean isSortUsingCollator() {
         return sortUsingCollator;
     }
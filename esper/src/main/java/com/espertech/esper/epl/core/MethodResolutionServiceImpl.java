@@ -318,7 +318,7 @@ public class MethodResolutionServiceImpl implements MethodResolutionService
     }
 
     public AggregationMethod makeRateEverAggregator(int agentInstanceId, int groupId, int aggregationId, long interval) {
-        return new AggregatorRateEver(interval, timeProvider);
+        return new AggregatorRateEver(interval, timeProvider, engineImportService.getTimeAbacus().getOneSecond());
     }
 
     public AggregationMethod makeNthAggregator(int agentInstanceId, int groupId, int aggregationId, Class returnType, int size) {
@@ -19,6 +19,7 @@ import com.espertech.esper.epl.spec.SelectClauseStreamCompiledSpec;
 import com.espertech.esper.event.*;
 import com.espertech.esper.event.arr.ObjectArrayEventType;
 import com.espertech.esper.event.bean.BeanEventType;
+import com.espertech.esper.event.flat.FlatBufferEventType;
 import com.espertech.esper.event.map.MapEventType;
 import com.espertech.esper.event.vaevent.ValueAddEventProcessor;
 import com.espertech.esper.event.vaevent.ValueAddEventService;
@@ -695,6 +696,11 @@ public class SelectExprProcessorHelper
                                 return new EvalInsertBeanWrapRecast(wrapperType, eventAdapterService, 0, typeService.getEventTypes());
                             }
                         }
+                        if ( (existingType instanceof FlatBufferEventType) &&
+                             (((FlatBufferEventType) existingType).equalsCompareType(typeService.getEventTypes()[0])) &&
+                             (selPropertyTypes.isEmpty())) {
+                            return new EvalInsertCoercionFlatBuffer(existingType);
+                        }
 
                         existingTypeProcessor = SelectExprInsertEventBeanFactory.getInsertUnderlyingNonJoin(eventAdapterService, existingType, isUsingWildcard, typeService, exprEvaluators, columnNames, expressionReturnTypes, methodResolutionService.getEngineImportService(), insertIntoDesc, columnNamesAsProvided);
                     }
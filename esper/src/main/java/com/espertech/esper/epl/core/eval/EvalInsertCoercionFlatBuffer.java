@@ -0,0 +1,38 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.core.eval;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.epl.core.SelectExprProcessor;
+import com.espertech.esper.epl.expression.ExprEvaluatorContext;
+import com.espertech.esper.event.flat.FlatBufferEventBean;
+import com.espertech.esper.event.flat.FlatBufferEventType;
+
+public class EvalInsertCoercionFlatBuffer implements SelectExprProcessor {
+
+    private FlatBufferEventType resultEventType;
+
+    public EvalInsertCoercionFlatBuffer(EventType resultEventType) {
+        this.resultEventType = (FlatBufferEventType) resultEventType;
+    }
+
+    public EventBean process(EventBean[] eventsPerStream, boolean isNewData, boolean isSynthesize, ExprEvaluatorContext exprEvaluatorContext) {
+        // same record layout: refer to the same record bytes, which are copied before any update
+        FlatBufferEventBean theEvent = (FlatBufferEventBean) eventsPerStream[0];
+        return new FlatBufferEventBean(theEvent.getBuffer(), theEvent.getOffset(), resultEventType);
+    }
+
+    public EventType getResultEventType() {
+        return resultEventType;
+    }
+}
@@ -18,6 +18,7 @@ import com.espertech.esper.epl.join.table.EventTable;
 import com.espertech.esper.schedule.ScheduleHandleCallback;
 import com.espertech.esper.schedule.ScheduleSlot;
 import com.espertech.esper.schedule.SchedulingService;
+import com.espertech.esper.schedule.TimeAbacus;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -58,8 +59,29 @@ public class DataCacheExpiringImpl implements DataCache, ScheduleHandleCallback
                                  ScheduleSlot scheduleSlot,
                                  EPStatementAgentInstanceHandle epStatementAgentInstanceHandle)
     {
-        this.maxAgeMSec = (long) maxAgeSec * 1000;
-        this.purgeIntervalMSec = (long) purgeIntervalSec * 1000;
+        this(maxAgeSec, purgeIntervalSec, cacheReferenceType, schedulingService, scheduleSlot, epStatementAgentInstanceHandle, TimeAbacus.MILLISECONDS);
+    }
+
+    /**
+     * Ctor.
+     * @param maxAgeSec is the maximum age in seconds
+     * @param purgeIntervalSec is the purge interval in seconds
+     * @param cacheReferenceType indicates whether hard, soft or weak references are used in the cache
+     * @param schedulingService is a service for call backs at a scheduled time, for purging
+     * @param scheduleSlot slot for scheduling callbacks for this cache
+     * @param epStatementAgentInstanceHandle is the statements-own handle for use in registering callbacks with services
+     * @param timeAbacus for converting seconds to the engine time unit
+     */
+    public DataCacheExpiringImpl(double maxAgeSec,
+                                 double purgeIntervalSec,
+                                 ConfigurationCacheReferenceType cacheReferenceType,
+                                 SchedulingService schedulingService,
+                                 ScheduleSlot scheduleSlot,
+                                 EPStatementAgentInstanceHandle epStatementAgentInstanceHandle,
+                                 TimeAbacus timeAbacus)
+    {
+        this.maxAgeMSec = (long) maxAgeSec * timeAbacus.getOneSecond();
+        this.purgeIntervalMSec = (long) purgeIntervalSec * timeAbacus.getOneSecond();
         this.schedulingService = schedulingService;
         this.scheduleSlot = scheduleSlot;
 
@@ -14,6 +14,7 @@ import com.espertech.esper.client.ConfigurationExpiryTimeCache;
 import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
 import com.espertech.esper.schedule.ScheduleBucket;
 import com.espertech.esper.schedule.SchedulingService;
+import com.espertech.esper.schedule.TimeAbacus;
 
 /**
  * Factory for data caches for use caching database query results and method invocation results.
@@ -26,12 +27,14 @@ public class DataCacheFactory
      * @param epStatementAgentInstanceHandle statement handle for timer invocations
      * @param schedulingService scheduling service for time-based caches
      * @param scheduleBucket for ordered timer invokation
+     * @param timeAbacus for converting the configured seconds to the engine time unit
      * @return data cache implementation
      */
     public static DataCache getDataCache(ConfigurationDataCache cacheDesc,
                                          EPStatementAgentInstanceHandle epStatementAgentInstanceHandle,
                                          SchedulingService schedulingService,
-                                         ScheduleBucket scheduleBucket)
+                                         ScheduleBucket scheduleBucket,
+                                         TimeAbacus timeAbacus)
     {
         if (cacheDesc == null)
         {
@@ -48,7 +51,7 @@ public class DataCacheFactory
         {
             ConfigurationExpiryTimeCache expCache = (ConfigurationExpiryTimeCache) cacheDesc;
             return new DataCacheExpiringImpl(expCache.getMaxAgeSeconds(), expCache.getPurgeIntervalSeconds(), expCache.getCacheReferenceType(),
-                    schedulingService, scheduleBucket.allocateSlot(), epStatementAgentInstanceHandle);
+                    schedulingService, scheduleBucket.allocateSlot(), epStatementAgentInstanceHandle, timeAbacus);
         }
 
         throw new IllegalStateException("Cache implementation class not configured");
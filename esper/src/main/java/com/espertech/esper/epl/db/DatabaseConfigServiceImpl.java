@@ -13,6 +13,7 @@ import com.espertech.esper.client.ConfigurationDataCache;
 import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
 import com.espertech.esper.schedule.SchedulingService;
 import com.espertech.esper.schedule.ScheduleBucket;
+import com.espertech.esper.schedule.TimeAbacus;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -27,6 +28,7 @@ public class DatabaseConfigServiceImpl implements DatabaseConfigService
     private final Map<String, DatabaseConnectionFactory> connectionFactories;
     private final SchedulingService schedulingService;
     private final ScheduleBucket scheduleBucket;
+    private final TimeAbacus timeAbacus;
 
     /**
      * Ctor.
@@ -37,11 +39,27 @@ public class DatabaseConfigServiceImpl implements DatabaseConfigService
     public DatabaseConfigServiceImpl(Map<String, ConfigurationDBRef> mapDatabaseRef,
                                      SchedulingService schedulingService,
                                      ScheduleBucket scheduleBucket)
+    {
+        this(mapDatabaseRef, schedulingService, scheduleBucket, TimeAbacus.MILLISECONDS);
+    }
+
+    /**
+     * Ctor.
+     * @param mapDatabaseRef is a map of database name and database configuration entries
+     * @param schedulingService is for scheduling callbacks for a cache
+     * @param scheduleBucket is a system bucket for all scheduling callbacks for caches
+     * @param timeAbacus for converting cache expiry seconds to the engine time unit
+     */
+    public DatabaseConfigServiceImpl(Map<String, ConfigurationDBRef> mapDatabaseRef,
+                                     SchedulingService schedulingService,
+                                     ScheduleBucket scheduleBucket,
+                                     TimeAbacus timeAbacus)
     {
         this.mapDatabaseRef = mapDatabaseRef;
         this.connectionFactories = new HashMap<String, DatabaseConnectionFactory>();
         this.schedulingService = schedulingService;
         this.scheduleBucket = scheduleBucket;
+        this.timeAbacus = timeAbacus;
     }
 
     public ConnectionCache getConnectionCache(String databaseName, String preparedStatementText) throws DatabaseConfigException
@@ -119,7 +137,7 @@ public class DatabaseConfigServiceImpl implements DatabaseConfigService
         }
 
         ConfigurationDataCache dataCacheDesc = config.getDataCacheDesc();
-        return DataCacheFactory.getDataCache(dataCacheDesc, epStatementAgentInstanceHandle, schedulingService, scheduleBucket);
+        return DataCacheFactory.getDataCache(dataCacheDesc, epStatementAgentInstanceHandle, schedulingService, scheduleBucket, timeAbacus);
     }
 
     public ColumnSettings getQuerySetting(String databaseName) throws DatabaseConfigException
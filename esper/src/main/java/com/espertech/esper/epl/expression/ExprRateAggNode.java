@@ -39,14 +39,14 @@ public class ExprRateAggNode extends ExprAggregateNodeBase
             long intervalMSec;
             if (first instanceof ExprTimePeriod) {
                 double secInterval = (Double) ((ExprTimePeriod) first).evaluate(null, true, validationContext.getExprEvaluatorContext());
-                intervalMSec = Math.round(secInterval * 1000d);
+                intervalMSec = validationContext.getMethodResolutionService().getEngineImportService().getTimeAbacus().deltaForSecondsDouble(secInterval);
             }
             else if (ExprNodeUtility.isConstantValueExpr(first)) {
                 if (!JavaClassHelper.isNumeric(first.getExprEvaluator().getType())) {
                     throw new ExprValidationException(message);
                 }
                 Number num = (Number) first.getExprEvaluator().evaluate(null, true, validationContext.getExprEvaluatorContext());
-                intervalMSec = Math.round(num.doubleValue() * 1000d);
+                intervalMSec = validationContext.getMethodResolutionService().getEngineImportService().getTimeAbacus().deltaForSecondsDouble(num.doubleValue());
             }
             else {
                 throw new ExprValidationException(message);
@@ -50,6 +50,15 @@ public class ExprRelationalOpNodeImpl extends ExprNodeBase implements ExprEvalua
         return relationalOpEnum;
     }
 
+    /**
+     * Returns the computer that compares the coerced values of the left and right child node, available after validation.
+     * @return computer
+     */
+    public RelationalOpEnum.Computer getComputer()
+    {
+        return computer;
+    }
+
     public void validate(ExprValidationContext validationContext) throws ExprValidationException
     {
         // Must have 2 child nodes
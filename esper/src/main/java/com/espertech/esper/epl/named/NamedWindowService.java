@@ -97,6 +97,12 @@ public interface NamedWindowService
      */
     public boolean dispatch(ExprEvaluatorContext exprEvaluatorContext);
 
+    /**
+     * Returns true if the current thread has consumer dispatches waiting.
+     * @return indicator whether there are dispatches for the current thread
+     */
+    public boolean isDispatchWaiting();
+
     /**
      * For use to add a result of a named window that must be dispatched to consuming views.
      * @param delta is the result to dispatch
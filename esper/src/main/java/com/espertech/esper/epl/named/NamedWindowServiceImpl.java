@@ -191,6 +191,11 @@ public class NamedWindowServiceImpl implements NamedWindowService
         }
     }
 
+    public boolean isDispatchWaiting()
+    {
+        return !threadLocal.get().isEmpty();
+    }
+
     public boolean dispatch(ExprEvaluatorContext exprEvaluatorContext)
     {
         List<NamedWindowConsumerDispatchUnit> dispatches = threadLocal.get();
@@ -12,6 +12,7 @@
 package com.espertech.esper.epl.spec;
 
 import com.espertech.esper.epl.expression.*;
+import com.espertech.esper.schedule.TimeAbacus;
 import com.espertech.esper.util.MetaDefItem;
 
 import java.io.Serializable;
@@ -43,13 +44,14 @@ public class MatchRecognizeInterval implements MetaDefItem, Serializable
     }
 
     /**
-     * Returns the number of milliseconds.
-     * @return msec
+     * Returns the interval in engine time units.
+     * @param timeAbacus for converting seconds to the engine time unit
+     * @return interval
      */
-    public long getMSec()
+    public long getTimeDelta(TimeAbacus timeAbacus)
     {
         double seconds = (Double) timePeriodExpr.evaluate(null, true, null);
-        return (long) (seconds * 1000);
+        return (long) (seconds * timeAbacus.getOneSecond());
     }
 
     public void validate(ExprValidationContext validationContext) throws ExprValidationException {
@@ -343,7 +343,7 @@ public class PatternStreamSpecRaw extends StreamSpecBase implements StreamSpecRa
                 if (expr instanceof ExprTimePeriod) {
                     Double secondsExpire = (Double) ((ExprTimePeriod) expr).evaluate(null, true, evaluatorContext);
                     if ((secondsExpire != null) && (secondsExpire > 0)) {
-                        msecToExpire = Math.round(1000d * secondsExpire);
+                        msecToExpire = context.getTimeAbacus().deltaForSecondsDouble(secondsExpire);
                     }
                     log.debug("Setting every-distinct msec-to-expire to " + msecToExpire);
                 }
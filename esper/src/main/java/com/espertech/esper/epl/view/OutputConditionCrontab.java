@@ -31,6 +31,7 @@ public final class OutputConditionCrontab extends OutputConditionBase implements
     private final OutputConditionCrontabFactory factory;
 
     private final ScheduleSlot scheduleSlot;
+    private final EPStatementHandleCallback handle;
     private Long currentReferencePoint;
     private boolean isCallbackScheduled;
 
@@ -39,6 +40,16 @@ public final class OutputConditionCrontab extends OutputConditionBase implements
         this.context = context;
         this.factory = factory;
         scheduleSlot = context.getStatementContext().getScheduleBucket().allocateSlot();
+
+        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
+            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
+            {
+                OutputConditionCrontab.this.isCallbackScheduled = false;
+                OutputConditionCrontab.this.outputCallback.continueOutputProcessing(DO_OUTPUT, FORCE_UPDATE);
+                scheduleCallback();
+            }
+        };
+        handle = new EPStatementHandleCallback(context.getEpStatementAgentInstanceHandle(), callback);
     }
 
     public final void updateOutputCondition(int newEventsCount, int oldEventsCount)
@@ -81,17 +92,8 @@ public final class OutputConditionCrontab extends OutputConditionBase implements
                     " spec=" + factory.getScheduleSpec());
         }
 
-        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
-            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
-            {
-                OutputConditionCrontab.this.isCallbackScheduled = false;
-                OutputConditionCrontab.this.outputCallback.continueOutputProcessing(DO_OUTPUT, FORCE_UPDATE);
-                scheduleCallback();
-            }
-        };
-        EPStatementHandleCallback handle = new EPStatementHandleCallback(context.getEpStatementAgentInstanceHandle(), callback);
         SchedulingService schedulingService = context.getStatementContext().getSchedulingService();
-        long nextScheduledTime = ScheduleComputeHelper.computeDeltaNextOccurance(factory.getScheduleSpec(), schedulingService.getTime());
+        long nextScheduledTime = ScheduleComputeHelper.computeDeltaNextOccurance(factory.getScheduleSpec(), schedulingService.getTime(), context.getStatementContext().getTimeAbacus(), context.getStatementContext().getScheduleOccurrenceCacheService());
         schedulingService.add(nextScheduledTime, handle, scheduleSlot);
     }
 
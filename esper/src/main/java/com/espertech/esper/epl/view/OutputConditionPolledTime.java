@@ -46,7 +46,7 @@ public final class OutputConditionPolledTime implements OutputConditionPolled
         {
             throw new IllegalArgumentException("Output condition by time requires a interval size of at least 1 msec or a variable");
         }
-        this.msecIntervalSize = Math.round(1000 * numSeconds);
+        this.msecIntervalSize = context.getStatementContext().getTimeAbacus().deltaForSecondsDouble(numSeconds);
         this.lastUpdate = -msecIntervalSize - 1;
     }
 
@@ -58,7 +58,7 @@ public final class OutputConditionPolledTime implements OutputConditionPolled
             Double numSeconds = (Double) timePeriod.evaluate(null, true, context);
             if (numSeconds != null)
             {
-                long newMsecIntervalSize = Math.round(1000 * numSeconds);
+                long newMsecIntervalSize = context.getStatementContext().getTimeAbacus().deltaForSecondsDouble(numSeconds);
                 this.msecIntervalSize = newMsecIntervalSize;
             }
         }
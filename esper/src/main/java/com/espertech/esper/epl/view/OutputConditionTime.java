@@ -34,7 +34,7 @@ public final class OutputConditionTime extends OutputConditionBase implements Ou
     private long msecIntervalSize;
     private Long currentReferencePoint;
     private boolean isCallbackScheduled;
-    private EPStatementHandleCallback handle;
+    private final EPStatementHandleCallback handle;
 
     public OutputConditionTime(OutputCallback outputCallback, AgentInstanceContext context, OutputConditionTimeFactory outputConditionTimeFactory) {
         super(outputCallback);
@@ -43,6 +43,17 @@ public final class OutputConditionTime extends OutputConditionBase implements Ou
 
         this.scheduleSlot = context.getStatementContext().getScheduleBucket().allocateSlot();
         msecIntervalSize = parent.getMsecIntervalSize();
+
+        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
+            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
+            {
+                OutputConditionTime.this.isCallbackScheduled = false;
+                OutputConditionTime.this.outputCallback.continueOutputProcessing(DO_OUTPUT, FORCE_UPDATE);
+                scheduleCallback();
+            }
+        };
+        this.handle = new EPStatementHandleCallback(context.getEpStatementAgentInstanceHandle(), callback);
+        context.addTerminationCallback(this);
     }
 
     public final void updateOutputCondition(int newEventsCount, int oldEventsCount)
@@ -65,7 +76,7 @@ public final class OutputConditionTime extends OutputConditionBase implements Ou
             Double numSeconds = (Double) parent.getTimePeriod().evaluate(null, true, context);
             if (numSeconds != null)
             {
-                long newMsecIntervalSize = Math.round(1000 * numSeconds);
+                long newMsecIntervalSize = context.getStatementContext().getTimeAbacus().deltaForSecondsDouble(numSeconds);
 
                 // reschedule if the interval changed
                 if (newMsecIntervalSize != msecIntervalSize)
@@ -101,7 +112,7 @@ public final class OutputConditionTime extends OutputConditionBase implements Ou
             Double param = (Double) parent.getTimePeriod().evaluate(null, true, context);
             if (param != null)
             {
-                msecIntervalSize = Math.round(1000 * param);
+                msecIntervalSize = context.getStatementContext().getTimeAbacus().deltaForSecondsDouble(param);
             }
         }
 
@@ -118,17 +129,7 @@ public final class OutputConditionTime extends OutputConditionBase implements Ou
                     " msecIntervalSize=" + msecIntervalSize);
         }
 
-        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
-            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
-            {
-                OutputConditionTime.this.isCallbackScheduled = false;
-                OutputConditionTime.this.outputCallback.continueOutputProcessing(DO_OUTPUT, FORCE_UPDATE);
-                scheduleCallback();
-            }
-        };
-        handle = new EPStatementHandleCallback(context.getEpStatementAgentInstanceHandle(), callback);
         context.getStatementContext().getSchedulingService().add(afterMSec, handle, scheduleSlot);
-        context.addTerminationCallback(this);
     }
 
     public void stop() {
@@ -40,7 +40,7 @@ public final class OutputConditionTimeFactory implements OutputConditionFactory
         {
             throw new IllegalArgumentException("Output condition by time requires a interval size of at least 1 msec or a variable");
         }
-        this.msecIntervalSize = Math.round(1000 * numSeconds);
+        this.msecIntervalSize = statementContext.getTimeAbacus().deltaForSecondsDouble(numSeconds);
     }
 
     public OutputCondition make(AgentInstanceContext agentInstanceContext, OutputCallback outputCallback) {
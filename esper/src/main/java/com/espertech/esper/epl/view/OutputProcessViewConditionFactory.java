@@ -61,7 +61,7 @@ public class OutputProcessViewConditionFactory extends OutputProcessViewDirectDi
             else
             {
                 double sec = ((Number) result).doubleValue();
-                long msec = (long) (sec * 1000.0);
+                long msec = (long) (sec * agentInstanceContext.getStatementContext().getTimeAbacus().getOneSecond());
                 afterConditionTime = agentInstanceContext.getStatementContext().getTimeProvider().getTime() + msec;
             }
         }
@@ -74,7 +74,7 @@ public class OutputProcessViewDirectDistinctOrAfterFactory extends OutputProcess
             else
             {
                 double sec = ((Number) result).doubleValue();
-                long msec = (long) (sec * 1000.0);
+                long msec = (long) (sec * agentInstanceContext.getStatementContext().getTimeAbacus().getOneSecond());
                 afterConditionTime = agentInstanceContext.getStatementContext().getTimeProvider().getTime() + msec;
             }
         }
@@ -20,6 +20,7 @@ import org.w3c.dom.Node;
 
 import java.io.Serializable;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -242,6 +243,17 @@ public interface EventAdapterService
      */
     public EventType addXMLDOMType(String eventTypeName, ConfigurationEventTypeXMLDOM configurationEventTypeXMLDOM, SchemaModel optionalSchemaModel, boolean isPreconfiguredStatic);
 
+    /**
+     * Adds a flat-buffer event type.
+     * @param eventTypeName is the name to add the type for
+     * @param config is the record layout
+     * @param isPreconfiguredStatic true if configured before engine start
+     * @param namedWindow true for the type of a named window holding events of another flat-buffer type
+     * @return event type
+     * @throws EventAdapterException if name already exists and doesn't match the record layout
+     */
+    public EventType addFlatBufferType(String eventTypeName, ConfigurationEventTypeFlatBuffer config, boolean isPreconfiguredStatic, boolean namedWindow) throws EventAdapterException;
+
     /**
      * Sets the configured legacy Java class information.
      * @param classLegacyInfo is configured legacy
@@ -352,6 +364,14 @@ public interface EventAdapterService
     public Map<String, EventType> getDeclaredEventTypes();
 
     public EventBean adapterForTypedObjectArray(Object[] props, EventType resultEventType);
+
+    /**
+     * Returns an adapter for the record at the position of the buffer, without copying the record bytes.
+     * @param buffer holding the record
+     * @param eventType flat-buffer event type
+     * @return event
+     */
+    public EventBean adapterForTypedFlatBuffer(ByteBuffer buffer, EventType eventType);
     public EventType createAnonymousObjectArrayType(String typeName, Map<String, Object> propertyTypes);
     public EventType addNestableObjectArrayType(String eventTypeName, Map<String, Object> propertyTypes, ConfigurationEventTypeObjectArray typeConfig, boolean isPreconfiguredStatic, boolean isPreconfigured, boolean isConfigured, boolean namedWindow, boolean insertInto) throws EventAdapterException;
     public void updateObjectArrayEventType(String objectArrayEventTypeName, Map<String, Object> typeMap);
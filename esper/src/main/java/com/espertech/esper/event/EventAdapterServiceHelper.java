@@ -16,6 +16,8 @@ import com.espertech.esper.event.bean.BeanEventBean;
 import com.espertech.esper.event.bean.BeanEventType;
 import com.espertech.esper.event.bean.EventBeanManufacturerBean;
 import com.espertech.esper.event.bean.PropertyHelper;
+import com.espertech.esper.event.flat.FlatBufferEventBean;
+import com.espertech.esper.event.flat.FlatBufferEventType;
 import com.espertech.esper.event.map.MapEventBean;
 import com.espertech.esper.event.map.MapEventType;
 import com.espertech.esper.event.xml.BaseXMLEventType;
@@ -23,6 +25,7 @@ import com.espertech.esper.event.xml.XMLEventBean;
 import com.espertech.esper.util.JavaClassHelper;
 import org.w3c.dom.Node;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -49,6 +52,9 @@ public class EventAdapterServiceHelper
         if (type instanceof BaseXMLEventType) {
             return new EventBeanFactoryXML(type, eventAdapterService);
         }
+        if (type instanceof FlatBufferEventType) {
+            return new EventBeanFactoryFlatBuffer(type, eventAdapterService);
+        }
         throw new IllegalArgumentException("Cannot create event bean factory for event type '" + type.getName() + "': " + type.getClass().getName() + " is not a recognized event type or supported wrap event type");
     }
 
@@ -69,6 +75,16 @@ public class EventAdapterServiceHelper
             return PropertyHelper.getWritableProperties(beanEventType.getUnderlyingType());
         }
         EventTypeSPI typeSPI = (EventTypeSPI) eventType;
+        if (eventType instanceof FlatBufferEventType)
+        {
+            // records are always written field-by-field, including for named windows
+            Set<WriteablePropertyDescriptor> writables = new LinkedHashSet<WriteablePropertyDescriptor>();
+            for (EventPropertyDescriptor desc : typeSPI.getWriteableProperties())
+            {
+                writables.add(new WriteablePropertyDescriptor(desc.getPropertyName(), desc.getPropertyType(), null));
+            }
+            return writables;
+        }
         if (!allowAnyType && (!typeSPI.getMetadata().isApplicationConfigured() && typeSPI.getMetadata().getTypeClass() != EventTypeMetadata.TypeClass.ANONYMOUS))
         {
             return null;
@@ -129,6 +145,10 @@ public class EventAdapterServiceHelper
         {
             return eventAdapterService.adapterForTypedDOM((Node) theEvent, eventType);
         }
+        else if (eventType instanceof FlatBufferEventType)
+        {
+            return eventAdapterService.adapterForTypedFlatBuffer((ByteBuffer) theEvent, eventType);
+        }
         else
         {
             return null;
@@ -156,6 +176,10 @@ public class EventAdapterServiceHelper
             BeanEventType beanEventType = (BeanEventType) eventType;
             return new EventBeanManufacturerBean(beanEventType, eventAdapterService, properties, engineImportService);
         }
+        if (eventType instanceof FlatBufferEventType)
+        {
+            return new EventBeanManufacturerFlatBuffer((FlatBufferEventType) eventType, properties);
+        }
         EventTypeSPI typeSPI = (EventTypeSPI) eventType;
         if (!allowAnyType && (!typeSPI.getMetadata().isApplicationConfigured() && typeSPI.getMetadata().getTypeClass() != EventTypeMetadata.TypeClass.ANONYMOUS))
         {
@@ -238,9 +262,30 @@ public class EventAdapterServiceHelper
         if (eventType instanceof BaseXMLEventType) {
             return new XMLEventBean(null, eventType);
         }
+        if (eventType instanceof FlatBufferEventType) {
+            return new FlatBufferEventBean(null, 0, (FlatBufferEventType) eventType);
+        }
         throw new EventAdapterException("Event type '" + eventType.getName() + "' is not an engine-native event type");
     }
 
+    /**
+     * Returns the message for an event type name that does not refer to an event type of the expected kind.
+     * @param eventTypeName event type name
+     * @param existingType type by that name, or null if undefined
+     * @param typeOfEventType expected kind of event type, for example "Map"
+     * @return message
+     */
+    public static String getMessageExpecting(String eventTypeName, EventType existingType, String typeOfEventType) {
+        String message = "Event type named '" + eventTypeName + "' has not been defined or is not a " + typeOfEventType + " event type";
+        if (existingType != null) {
+            message += ", the name '" + eventTypeName + "' refers to a " + JavaClassHelper.getClassNameFullyQualPretty(existingType.getUnderlyingType()) + " event type";
+        }
+        else {
+            message += ", the name '" + eventTypeName + "' has not been defined as an event type";
+        }
+        return message;
+    }
+
     public static EventBeanAdapterFactory getAdapterFactoryForType(EventType eventType) {
         if (eventType instanceof BeanEventType) {
             return new EventBeanAdapterFactoryBean(eventType);
@@ -254,6 +299,9 @@ public class EventAdapterServiceHelper
         if (eventType instanceof BaseXMLEventType) {
             return new EventBeanAdapterFactoryXml(eventType);
         }
+        if (eventType instanceof FlatBufferEventType) {
+            return new EventBeanAdapterFactoryFlatBuffer(eventType);
+        }
         throw new EventAdapterException("Event type '" + eventType.getName() + "' is not an engine-native event type");
     }
 
@@ -304,4 +352,17 @@ public class EventAdapterServiceHelper
             return new XMLEventBean((Node) underlying, eventType);
         }
     }
+
+    public static class EventBeanAdapterFactoryFlatBuffer implements EventBeanAdapterFactory {
+        private final FlatBufferEventType eventType;
+
+        public EventBeanAdapterFactoryFlatBuffer(EventType eventType) {
+            this.eventType = (FlatBufferEventType) eventType;
+        }
+
+        public EventBean makeAdapter(Object underlying) {
+            ByteBuffer record = eventType.toTypeOrder((ByteBuffer) underlying);
+            return new FlatBufferEventBean(record, record.position(), eventType);
+        }
+    }
 }
@@ -19,11 +19,13 @@ import com.espertech.esper.event.bean.BeanEventAdapter;
 import com.espertech.esper.event.bean.BeanEventBean;
 import com.espertech.esper.event.bean.BeanEventType;
 import com.espertech.esper.event.bean.BeanEventTypeFactory;
+import com.espertech.esper.event.flat.FlatBufferEventBean;
+import com.espertech.esper.event.flat.FlatBufferEventType;
 import com.espertech.esper.event.map.MapEventBean;
 import com.espertech.esper.event.map.MapEventType;
+import com.espertech.esper.event.map.MapObjectArrayEventBean;
 import com.espertech.esper.event.xml.*;
 import com.espertech.esper.plugin.*;
-import com.espertech.esper.util.JavaClassHelper;
 import com.espertech.esper.util.URIUtil;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +35,7 @@ import org.w3c.dom.Node;
 
 import java.io.Serializable;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -223,10 +226,18 @@ public class EventAdapterServiceImpl implements EventAdapterService
         {
             return new EventSenderObjectArray(runtimeEventSender, (ObjectArrayEventType) eventType, this, threadingService);
         }
+        if (eventType instanceof StAXXMLEventType)
+        {
+            return new EventSenderStAXXML(runtimeEventSender, (StAXXMLEventType) eventType, this, threadingService);
+        }
         if (eventType instanceof BaseXMLEventType)
         {
             return new EventSenderXMLDOM(runtimeEventSender, (BaseXMLEventType) eventType, this, threadingService);
         }
+        if (eventType instanceof FlatBufferEventType)
+        {
+            return new EventSenderFlatBuffer(runtimeEventSender, (FlatBufferEventType) eventType, threadingService);
+        }
 
         PlugInEventTypeHandler handlers = nameToHandlerMap.get(eventTypeName);
         if (handlers != null)
@@ -558,9 +569,13 @@ public class EventAdapterServiceImpl implements EventAdapterService
     {
         EventType existingType = nameToTypeMap.get(eventTypeName);
         if (!(existingType instanceof MapEventType)) {
-            throw new EPException(getMessageExpecting(eventTypeName, existingType, "Map"));
+            throw new EPException(EventAdapterServiceHelper.getMessageExpecting(eventTypeName, existingType, "Map"));
         }
 
+        MapEventType mapEventType = (MapEventType) existingType;
+        if (mapEventType.isConvertToObjectArray()) {
+            return new MapObjectArrayEventBean(theEvent, mapEventType);
+        }
         return adapterForTypedMap(theEvent, existingType);
     }
 
@@ -568,7 +583,7 @@ public class EventAdapterServiceImpl implements EventAdapterService
     {
         EventType existingType = nameToTypeMap.get(eventTypeName);
         if (!(existingType instanceof ObjectArrayEventType)) {
-            throw new EPException(getMessageExpecting(eventTypeName, existingType, "Object-array"));
+            throw new EPException(EventAdapterServiceHelper.getMessageExpecting(eventTypeName, existingType, "Object-array"));
         }
 
         return adapterForTypedObjectArray(theEvent, existingType);
@@ -661,7 +676,15 @@ public class EventAdapterServiceImpl implements EventAdapterService
 
         EventTypeMetadata metadata = EventTypeMetadata.createXMLType(eventTypeName, isPreconfiguredStatic, configurationEventTypeXMLDOM.getSchemaResource() == null && configurationEventTypeXMLDOM.getSchemaText() == null);
         EventType type;
-        if ((configurationEventTypeXMLDOM.getSchemaResource() == null) && (configurationEventTypeXMLDOM.getSchemaText() == null))
+        if (configurationEventTypeXMLDOM.isStreaming())
+        {
+            if ((configurationEventTypeXMLDOM.getSchemaResource() != null) || (configurationEventTypeXMLDOM.getSchemaText() != null))
+            {
+                throw new EventAdapterException("Streaming is not supported for XML event types that have a schema");
+            }
+            type = new StAXXMLEventType(metadata, eventTypeIdGenerator.getTypeId(eventTypeName), configurationEventTypeXMLDOM, this);
+        }
+        else if ((configurationEventTypeXMLDOM.getSchemaResource() == null) && (configurationEventTypeXMLDOM.getSchemaText() == null))
         {
             type = new SimpleXMLEventType(metadata, eventTypeIdGenerator.getTypeId(eventTypeName), configurationEventTypeXMLDOM, this);
         }
@@ -680,6 +703,24 @@ public class EventAdapterServiceImpl implements EventAdapterService
         return type;
     }
 
+    public synchronized EventType addFlatBufferType(String eventTypeName, ConfigurationEventTypeFlatBuffer config, boolean isPreconfiguredStatic, boolean namedWindow) throws EventAdapterException
+    {
+        EventType existingType = nameToTypeMap.get(eventTypeName);
+        if (existingType != null)
+        {
+            if (!(existingType instanceof FlatBufferEventType) || !((FlatBufferEventType) existingType).getConfig().equals(config))
+            {
+                throw new EventAdapterException("Event type named '" + eventTypeName + "' has already been declared with differing column name or type information");
+            }
+            return existingType;
+        }
+
+        EventTypeMetadata metadata = EventTypeMetadata.createNonPojoApplicationType(EventTypeMetadata.ApplicationType.FLATBUFFER, eventTypeName, isPreconfiguredStatic, !namedWindow, !namedWindow, namedWindow, false);
+        FlatBufferEventType type = new FlatBufferEventType(metadata, eventTypeIdGenerator.getTypeId(eventTypeName), config);
+        nameToTypeMap.put(eventTypeName, type);
+        return type;
+    }
+
     public final EventBean adapterForType(Object theEvent, EventType eventType) {
         return EventAdapterServiceHelper.adapterForType(theEvent, eventType, this);
     }
@@ -694,6 +735,13 @@ public class EventAdapterServiceImpl implements EventAdapterService
         return new ObjectArrayEventBean(properties, eventType);
     }
 
+    public final EventBean adapterForTypedFlatBuffer(ByteBuffer buffer, EventType eventType)
+    {
+        FlatBufferEventType flatBufferEventType = (FlatBufferEventType) eventType;
+        ByteBuffer record = flatBufferEventType.toTypeOrder(buffer);
+        return new FlatBufferEventBean(record, record.position(), flatBufferEventType);
+    }
+
     public synchronized EventType addWrapperType(String eventTypeName, EventType underlyingEventType, Map<String, Object> propertyTypes, boolean isNamedWindow, boolean isInsertInto) throws EventAdapterException
 	{
         // If we are wrapping an underlying type that is itself a wrapper, then this is a special case
@@ -949,17 +997,6 @@ public class EventAdapterServiceImpl implements EventAdapterService
         return EventAdapterServiceHelper.getShellForType(eventType);
     }
 
-    private String getMessageExpecting(String eventTypeName, EventType existingType, String typeOfEventType) {
-        String message = "Event type named '" + eventTypeName + "' has not been defined or is not a " + typeOfEventType + " event type";
-        if (existingType != null) {
-            message += ", the name '" + eventTypeName + "' refers to a " + JavaClassHelper.getClassNameFullyQualPretty(existingType.getUnderlyingType()) + " event type";
-        }
-        else {
-            message += ", the name '" + eventTypeName + "' has not been defined as an event type";
-        }
-        return message;
-    }
-
     public EventBeanAdapterFactory getAdapterFactoryForType(EventType eventType) {
         return EventAdapterServiceHelper.getAdapterFactoryForType(eventType);
     }
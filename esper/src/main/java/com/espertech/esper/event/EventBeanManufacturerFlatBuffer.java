@@ -0,0 +1,54 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.flat.FlatBufferEventBean;
+import com.espertech.esper.event.flat.FlatBufferEventPropertyWriter;
+import com.espertech.esper.event.flat.FlatBufferEventType;
+
+/**
+ * Factory for flat-buffer events, writing property values into a newly allocated record.
+ */
+public class EventBeanManufacturerFlatBuffer implements EventBeanManufacturer
+{
+    private final FlatBufferEventType eventType;
+    private final FlatBufferEventPropertyWriter[] writers;
+
+    /**
+     * Ctor.
+     * @param eventType type to create
+     * @param properties written properties
+     */
+    public EventBeanManufacturerFlatBuffer(FlatBufferEventType eventType, WriteablePropertyDescriptor[] properties)
+    {
+        this.eventType = eventType;
+        writers = new FlatBufferEventPropertyWriter[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            String propertyName = properties[i].getPropertyName();
+            writers[i] = eventType.getWriter(propertyName);
+            if (writers[i] == null) {
+                throw new IllegalStateException("Failed to find field '" + propertyName + "' among the record fields");
+            }
+        }
+    }
+
+    public EventBean make(Object[] properties)
+    {
+        FlatBufferEventBean theEvent = eventType.getAllocator().allocate();
+        for (int i = 0; i < writers.length; i++) {
+            writers[i].write(properties[i], theEvent.getBuffer(), theEvent.getOffset());
+        }
+        return theEvent;
+    }
+
+    public Object makeUnderlying(Object[] properties) {
+        return make(properties).getUnderlying();
+    }
+}
@@ -0,0 +1,30 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.PropertyAccessException;
+
+/**
+ * Getter that can read the value of a property of primitive integral type (byte, short, char, int or long)
+ * without boxing it.
+ * <p>
+ * Callers must only use {@link #getLong(EventBean)} for properties of primitive integral type.
+ */
+public interface EventPropertyGetterPrimitive extends EventPropertyGetter
+{
+    /**
+     * Returns the property value widened to long, without boxing.
+     * @param eventBean to read the property of
+     * @return value
+     * @throws PropertyAccessException to indicate that property access failed
+     */
+    public long getLong(EventBean eventBean) throws PropertyAccessException;
+}
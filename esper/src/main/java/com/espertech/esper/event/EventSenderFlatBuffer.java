@@ -0,0 +1,90 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventSender;
+import com.espertech.esper.core.service.EPRuntimeEventSender;
+import com.espertech.esper.core.thread.InboundUnitSendWrapped;
+import com.espertech.esper.core.thread.ThreadingOption;
+import com.espertech.esper.core.thread.ThreadingService;
+import com.espertech.esper.event.flat.FlatBufferEventType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Event sender for flat-buffer events.
+ * <p>
+ * Allows sending only raw record bytes, as a byte array holding exactly one record or as a {@link ByteBuffer}
+ * holding at least one record at its position. The record bytes are copied into memory of the event type without
+ * decoding them, so the caller may reuse the array or buffer. Sending a buffer advances its position past the record,
+ * so a buffer holding several records can be sent by repeated calls. Any other event object generates an error.
+ */
+public class EventSenderFlatBuffer implements EventSender
+{
+    private final EPRuntimeEventSender runtimeEventSender;
+    private final FlatBufferEventType flatBufferEventType;
+    private final ThreadingService threadingService;
+
+    /**
+     * Ctor.
+     * @param runtimeEventSender for processing events
+     * @param flatBufferEventType the event type
+     * @param threadingService for inbound threading
+     */
+    public EventSenderFlatBuffer(EPRuntimeEventSender runtimeEventSender, FlatBufferEventType flatBufferEventType, ThreadingService threadingService)
+    {
+        this.runtimeEventSender = runtimeEventSender;
+        this.flatBufferEventType = flatBufferEventType;
+        this.threadingService = threadingService;
+    }
+
+    public void sendEvent(Object theEvent)
+    {
+        EventBean flatEvent = allocate(theEvent);
+
+        if ((ThreadingOption.isThreadingEnabled) && (threadingService.isInboundThreading()))
+        {
+            threadingService.submitInbound(new InboundUnitSendWrapped(flatEvent, runtimeEventSender));
+        }
+        else
+        {
+            runtimeEventSender.processWrappedEvent(flatEvent);
+        }
+    }
+
+    public void route(Object theEvent)
+    {
+        runtimeEventSender.routeEventBean(allocate(theEvent));
+    }
+
+    private EventBean allocate(Object theEvent)
+    {
+        if (theEvent instanceof byte[])
+        {
+            byte[] bytes = (byte[]) theEvent;
+            if (bytes.length != flatBufferEventType.getRecordSize())
+            {
+                throw new EPException("Unexpected byte array of length " + bytes.length + ", expected a record of " + flatBufferEventType.getRecordSize() + " bytes for event type '" + flatBufferEventType.getName() + "'");
+            }
+            return flatBufferEventType.getAllocator().allocate(bytes, 0);
+        }
+        if (theEvent instanceof ByteBuffer)
+        {
+            ByteBuffer buffer = (ByteBuffer) theEvent;
+            if (buffer.remaining() < flatBufferEventType.getRecordSize())
+            {
+                throw new EPException("Unexpected buffer with " + buffer.remaining() + " remaining bytes, expected a record of " + flatBufferEventType.getRecordSize() + " bytes for event type '" + flatBufferEventType.getName() + "'");
+            }
+            return flatBufferEventType.getAllocator().allocate(buffer);
+        }
+        throw new EPException("Unexpected event object of type " + theEvent.getClass().getName() + ", expected byte[] or " + ByteBuffer.class.getName());
+    }
+}
@@ -16,6 +16,7 @@ import com.espertech.esper.core.thread.InboundUnitSendWrapped;
 import com.espertech.esper.core.thread.ThreadingOption;
 import com.espertech.esper.core.thread.ThreadingService;
 import com.espertech.esper.event.map.MapEventType;
+import com.espertech.esper.event.map.MapObjectArrayEventBean;
 
 import java.util.Map;
 
@@ -23,6 +24,7 @@ import java.util.Map;
  * Event sender for map-backed events.
  * <p>
  * Allows sending only event objects of type map, does not check map contents. Any other event object generates an error.
+ * For event types that convert to object-array, the map is converted when the event is sent.
  */
 public class EventSenderMap implements EventSender
 {
@@ -54,7 +56,7 @@ public class EventSenderMap implements EventSender
         }
         
         Map<String, Object> map = (Map<String, Object>) theEvent;
-        EventBean mapEvent = eventAdapterService.adapterForTypedMap(map, mapEventType);
+        EventBean mapEvent = wrap(map);
 
         if ((ThreadingOption.isThreadingEnabled) && (threadingService.isInboundThreading()))
         {
@@ -73,7 +75,16 @@ public class EventSenderMap implements EventSender
             throw new EPException("Unexpected event object of type " + theEvent.getClass().getName() + ", expected " + Map.class.getName());
         }
         Map<String, Object> map = (Map<String, Object>) theEvent;
-        EventBean mapEvent = eventAdapterService.adapterForTypedMap(map, mapEventType);
+        EventBean mapEvent = wrap(map);
         runtimeEventSender.routeEventBean(mapEvent);
     }
+
+    private EventBean wrap(Map<String, Object> map)
+    {
+        if (mapEventType.isConvertToObjectArray())
+        {
+            return new MapObjectArrayEventBean(map, mapEventType);
+        }
+        return eventAdapterService.adapterForTypedMap(map, mapEventType);
+    }
 }
@@ -0,0 +1,89 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventSender;
+import com.espertech.esper.core.service.EPRuntimeEventSender;
+import com.espertech.esper.core.thread.InboundUnitSendWrapped;
+import com.espertech.esper.core.thread.ThreadingOption;
+import com.espertech.esper.core.thread.ThreadingService;
+import com.espertech.esper.event.xml.StAXXMLEventType;
+import org.w3c.dom.Node;
+
+/**
+ * Event sender for XML events parsed by streaming.
+ * <p>
+ * Allows sending XML documents as String or byte array, which are parsed once by streaming to extract the
+ * properties used by statements. Checks the root name of the XML document if so configured.
+ * Nodes or Documents are processed as XML DOM events. Any other event object generates an error.
+ */
+public class EventSenderStAXXML implements EventSender
+{
+    private final EPRuntimeEventSender runtimeEventSender;
+    private final StAXXMLEventType eventType;
+    private final boolean validateRootElement;
+    private final EventSenderXMLDOM domSender;
+    private final ThreadingService threadingService;
+
+    /**
+     * Ctor.
+     * @param runtimeEventSender for processing events
+     * @param eventType the event type
+     * @param eventAdapterService for event bean creation
+     * @param threadingService for inbound threading
+     */
+    public EventSenderStAXXML(EPRuntimeEventSender runtimeEventSender, StAXXMLEventType eventType, EventAdapterService eventAdapterService, ThreadingService threadingService)
+    {
+        this.runtimeEventSender = runtimeEventSender;
+        this.eventType = eventType;
+        this.validateRootElement = eventType.getConfigurationEventTypeXMLDOM().isEventSenderValidatesRoot();
+        this.domSender = new EventSenderXMLDOM(runtimeEventSender, eventType, eventAdapterService, threadingService);
+        this.threadingService = threadingService;
+    }
+
+    public void sendEvent(Object theEvent) throws EPException
+    {
+        if (theEvent instanceof Node)
+        {
+            domSender.sendEvent(theEvent);
+            return;
+        }
+
+        EventBean xmlEvent = parse(theEvent);
+        if ((ThreadingOption.isThreadingEnabled) && (threadingService.isInboundThreading()))
+        {
+            threadingService.submitInbound(new InboundUnitSendWrapped(xmlEvent, runtimeEventSender));
+        }
+        else
+        {
+            runtimeEventSender.processWrappedEvent(xmlEvent);
+        }
+    }
+
+    public void route(Object theEvent) throws EPException
+    {
+        if (theEvent instanceof Node)
+        {
+            domSender.route(theEvent);
+            return;
+        }
+        runtimeEventSender.routeEventBean(parse(theEvent));
+    }
+
+    private EventBean parse(Object theEvent)
+    {
+        if (!(theEvent instanceof String) && !(theEvent instanceof byte[]))
+        {
+            throw new EPException("Unexpected event object type '" + theEvent.getClass().getName() + "' encountered, please supply a String, byte array or org.w3c.dom.Document or Element node");
+        }
+        return eventType.parse(theEvent, validateRootElement);
+    }
+}
@@ -322,6 +322,11 @@ public class EventTypeMetadata
          */
         OBJECTARR,
 
+        /**
+         * Flat-buffer type.
+         */
+        FLATBUFFER,
+
         /**
          * Class type.
          */
@@ -0,0 +1,41 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.bean;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.EventPropertyGetterAndIndexed;
+
+import java.lang.reflect.Method;
+
+/**
+ * Generated getter of an array property identified by a given index,
+ * see {@link BeanGeneratedPropertyGetterFactory}.
+ */
+public class BeanGeneratedArrayPropertyGetter extends BeanGeneratedPropertyGetter implements EventPropertyGetterAndIndexed
+{
+    /**
+     * Ctor.
+     * @param methods read method returning the array
+     * @param indexes holds the index within the array to get the property from
+     * @param eventAdapterService factory for event beans and event types
+     * @param returnType type of the entry returned
+     * @param genericType generic type parameter of the entry returned, if any
+     */
+    public BeanGeneratedArrayPropertyGetter(Method[] methods, int[] indexes, EventAdapterService eventAdapterService, Class returnType, Class genericType)
+    {
+        super(methods, indexes, eventAdapterService, returnType, genericType);
+    }
+
+    public Object get(EventBean eventBean, int index) throws PropertyAccessException
+    {
+        return getBeanPropInternal(eventBean.getUnderlying(), index);
+    }
+}
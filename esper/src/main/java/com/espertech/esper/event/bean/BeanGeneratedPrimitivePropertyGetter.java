@@ -0,0 +1,59 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.bean;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.EventPropertyGetterPrimitive;
+import com.espertech.esper.event.vaevent.PropertyUtility;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Generated getter of a simple property of primitive integral type that also reads the value
+ * without boxing, see {@link BeanGeneratedPropertyGetterFactory}.
+ */
+public class BeanGeneratedPrimitivePropertyGetter extends BeanGeneratedPropertyGetter implements EventPropertyGetterPrimitive
+{
+    /**
+     * Ctor.
+     * @param methods read method
+     * @param indexes not used, -1
+     * @param eventAdapterService factory for event beans and event types
+     * @param returnType type of the entry returned
+     * @param genericType generic type parameter of the entry returned, if any
+     */
+    public BeanGeneratedPrimitivePropertyGetter(Method[] methods, int[] indexes, EventAdapterService eventAdapterService, Class returnType, Class genericType)
+    {
+        super(methods, indexes, eventAdapterService, returnType, genericType);
+    }
+
+    public long getLong(EventBean eventBean) throws PropertyAccessException
+    {
+        Object underlying = eventBean.getUnderlying();
+        try
+        {
+            return getReader().readLong(underlying);
+        }
+        catch (ClassCastException e)
+        {
+            throw PropertyUtility.getMismatchException(getMethods()[0], underlying, e);
+        }
+        catch (PropertyAccessException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw PropertyUtility.getInvocationTargetException(getMethods()[0], new InvocationTargetException(e));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.bean;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.vaevent.PropertyUtility;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Getter for a property path of bean events that reads the property through a reader class generated
+ * by {@link BeanGeneratedPropertyGetterFactory}.
+ * <p>
+ * The reader class is obtained on first use of the getter, so that no class is generated for properties
+ * that are never read, and is shared by all getters for the same property path.
+ */
+public class BeanGeneratedPropertyGetter extends BaseNativePropertyGetter implements BeanEventPropertyGetter
+{
+    private final Method[] methods;
+    private final int[] indexes;
+    private final int index;
+    private volatile BeanGeneratedPropertyReader reader;
+
+    /**
+     * Ctor.
+     * @param methods read methods of the property path, the first method being invoked on the underlying object
+     * @param indexes index into the array returned by each read method, or -1 for read methods that are not indexed
+     * @param eventAdapterService factory for event beans and event types
+     * @param returnType type of the entry returned
+     * @param genericType generic type parameter of the entry returned, if any
+     */
+    public BeanGeneratedPropertyGetter(Method[] methods, int[] indexes, EventAdapterService eventAdapterService, Class returnType, Class genericType)
+    {
+        super(eventAdapterService, returnType, genericType);
+        this.methods = methods;
+        this.indexes = indexes;
+        this.index = indexes[indexes.length - 1];
+    }
+
+    /**
+     * Returns the reader for the property path, obtaining it on first use.
+     * @return reader
+     */
+    protected BeanGeneratedPropertyReader getReader()
+    {
+        BeanGeneratedPropertyReader current = reader;
+        if (current == null)
+        {
+            current = BeanGeneratedPropertyGetterFactory.getReader(methods, indexes, this instanceof BeanGeneratedPrimitivePropertyGetter);
+            reader = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the reader if already obtained, for testing.
+     * @return reader or null if the getter has not been used
+     */
+    BeanGeneratedPropertyReader getReaderIfResolved()
+    {
+        return reader;
+    }
+
+    /**
+     * Returns the read methods of the property path.
+     * @return read methods
+     */
+    public Method[] getMethods()
+    {
+        return methods;
+    }
+
+    /**
+     * Returns the index into the array returned by the last read method, or -1 if the property is not indexed.
+     * @return index
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Returns the index into the array returned by each read method, or -1 for read methods that are not indexed.
+     * @return indexes
+     */
+    public int[] getIndexes()
+    {
+        return indexes;
+    }
+
+    public Object getBeanProp(Object object) throws PropertyAccessException
+    {
+        return getBeanPropInternal(object, index);
+    }
+
+    /**
+     * Reads the property value translating exceptions.
+     * @param object underlying object
+     * @param index index into the array returned by the last read method, if the property is indexed
+     * @return property value
+     * @throws PropertyAccessException if the object does not match or a read method threw an exception
+     */
+    protected Object getBeanPropInternal(Object object, int index) throws PropertyAccessException
+    {
+        try
+        {
+            return getReader().read(object, index);
+        }
+        catch (ClassCastException e)
+        {
+            throw PropertyUtility.getMismatchException(methods[0], object, e);
+        }
+        catch (PropertyAccessException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw PropertyUtility.getInvocationTargetException(methods[0], new InvocationTargetException(e));
+        }
+    }
+
+    public boolean isBeanExistsProperty(Object object)
+    {
+        return true; // Property exists as the property is not dynamic (unchecked)
+    }
+
+    public final Object get(EventBean obj) throws PropertyAccessException
+    {
+        return getBeanPropInternal(obj.getUnderlying(), index);
+    }
+
+    public boolean isExistsProperty(EventBean eventBean)
+    {
+        return true; // Property exists as the property is not dynamic (unchecked)
+    }
+
+    public String toString()
+    {
+        return this.getClass().getSimpleName() +
+                " methods=" + Arrays.toString(methods) +
+                " indexes=" + Arrays.toString(indexes);
+    }
+}
@@ -0,0 +1,509 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.bean;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.util.JavaClassHelper;
+import net.sf.cglib.asm.ClassWriter;
+import net.sf.cglib.asm.Label;
+import net.sf.cglib.asm.MethodVisitor;
+import net.sf.cglib.asm.Opcodes;
+import net.sf.cglib.asm.Type;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes property getters for bean events that read the property through a generated reader class, see
+ * {@link BeanGeneratedPropertyGetter}.
+ * <p>
+ * The reader class is generated on first use of a getter and shared by all getters for the same property path,
+ * that is by read methods and indexes. Reader classes are defined by one class loader per class loader of the
+ * underlying classes, which is released when no reader defined by it remains in use.
+ * <p>
+ * The generated class invokes each read method of the path directly, with a null check between nested
+ * read methods and array bounds checks for indexed properties, and boxes primitive values.
+ * Getters for simple properties of primitive integral type also read the value without boxing.
+ * Generation requires public read methods declared by public classes that are visible to the class loader of
+ * the underlying class; the factory methods return null otherwise so that the caller falls back to the
+ * CGLib or reflection getters.
+ */
+public class BeanGeneratedPropertyGetterFactory
+{
+    private static final Log log = LogFactory.getLog(BeanGeneratedPropertyGetterFactory.class);
+
+    private static final AtomicInteger CLASS_NUMBER = new AtomicInteger();
+    private static final Map<ClassLoader, WeakReference<GeneratedClassLoader>> CLASS_LOADERS = new WeakHashMap<ClassLoader, WeakReference<GeneratedClassLoader>>();
+    private static final String CTOR_DESCRIPTOR = "()V";
+    private static final String READ_DESCRIPTOR = "(" + Type.getDescriptor(Object.class) + "I)" + Type.getDescriptor(Object.class);
+    private static final String READ_LONG_DESCRIPTOR = "(" + Type.getDescriptor(Object.class) + ")J";
+
+    /**
+     * Returns a generated getter for a simple property.
+     * @param method read method
+     * @param eventAdapterService factory for event beans and event types
+     * @return getter or null if the getter cannot be generated
+     */
+    public static BeanGeneratedPropertyGetter makeGetter(Method method, EventAdapterService eventAdapterService)
+    {
+        Class<? extends BeanGeneratedPropertyGetter> getterClass = isIntegral(method.getReturnType()) ? BeanGeneratedPrimitivePropertyGetter.class : BeanGeneratedPropertyGetter.class;
+        return make(new Method[] {method}, new int[] {-1}, getterClass,
+                eventAdapterService, method.getReturnType(), JavaClassHelper.getGenericReturnType(method, true));
+    }
+
+    /**
+     * Returns a generated getter for an array property identified by a given index.
+     * @param method read method returning the array
+     * @param index is the index within the array to get the property from
+     * @param eventAdapterService factory for event beans and event types
+     * @return getter or null if the getter cannot be generated
+     */
+    public static BeanGeneratedArrayPropertyGetter makeArrayGetter(Method method, int index, EventAdapterService eventAdapterService)
+    {
+        if (index < 0)
+        {
+            throw new IllegalArgumentException("Invalid negative index value");
+        }
+        if (!method.getReturnType().isArray())
+        {
+            return null;
+        }
+        return (BeanGeneratedArrayPropertyGetter) make(new Method[] {method}, new int[] {index}, BeanGeneratedArrayPropertyGetter.class,
+                eventAdapterService, method.getReturnType().getComponentType(), null);
+    }
+
+    /**
+     * Returns a single generated getter for a nested property, if all getters of the chain are generated getters.
+     * @param getterChain is the chain of getters to retrieve each nested property
+     * @param eventAdapterService factory for event beans and event types
+     * @param finalPropertyType type of the entry returned
+     * @param finalGenericType generic type parameter of the entry returned, if any
+     * @return getter or null if the getter cannot be generated
+     */
+    public static BeanGeneratedPropertyGetter makeNestedGetter(List<EventPropertyGetter> getterChain, EventAdapterService eventAdapterService, Class finalPropertyType, Class finalGenericType)
+    {
+        List<Method> methods = new ArrayList<Method>();
+        List<Integer> indexes = new ArrayList<Integer>();
+        for (EventPropertyGetter getter : getterChain)
+        {
+            if (!(getter instanceof BeanGeneratedPropertyGetter))
+            {
+                return null;
+            }
+            BeanGeneratedPropertyGetter generated = (BeanGeneratedPropertyGetter) getter;
+            Method[] getterMethods = generated.getMethods();
+            int[] getterIndexes = generated.getIndexes();
+            for (int i = 0; i < getterMethods.length; i++)
+            {
+                methods.add(getterMethods[i]);
+                indexes.add(getterIndexes[i]);
+            }
+        }
+
+        int[] indexArray = new int[indexes.size()];
+        for (int i = 0; i < indexArray.length; i++)
+        {
+            indexArray[i] = indexes.get(i);
+        }
+        return make(methods.toArray(new Method[methods.size()]), indexArray, BeanGeneratedPropertyGetter.class,
+                eventAdapterService, finalPropertyType, finalGenericType);
+    }
+
+    private static BeanGeneratedPropertyGetter make(Method[] methods, int[] indexes, Class<? extends BeanGeneratedPropertyGetter> getterClass,
+                                                    EventAdapterService eventAdapterService, Class returnType, Class genericType)
+    {
+        if (!isSupported(methods, indexes))
+        {
+            return null;
+        }
+
+        GeneratedClassLoader classLoader = getClassLoader(methods[0].getDeclaringClass().getClassLoader());
+        for (Method method : methods)
+        {
+            if (!classLoader.isVisible(method.getDeclaringClass()) || !classLoader.isVisible(method.getReturnType()))
+            {
+                return null;
+            }
+        }
+
+        // the reader class is generated on first use of the getter
+        if (getterClass == BeanGeneratedPrimitivePropertyGetter.class)
+        {
+            return new BeanGeneratedPrimitivePropertyGetter(methods, indexes, eventAdapterService, returnType, genericType);
+        }
+        if (getterClass == BeanGeneratedArrayPropertyGetter.class)
+        {
+            return new BeanGeneratedArrayPropertyGetter(methods, indexes, eventAdapterService, returnType, genericType);
+        }
+        return new BeanGeneratedPropertyGetter(methods, indexes, eventAdapterService, returnType, genericType);
+    }
+
+    /**
+     * Returns the reader for a property path, generating the reader class if no getter for the same property path
+     * has obtained a reader from the class loader of the underlying class before.
+     * <p>
+     * Falls back to a reader that uses reflection if the class cannot be generated.
+     * @param methods read methods of the property path
+     * @param indexes index into the array returned by each read method, or -1 for read methods that are not indexed
+     * @param isPrimitive true to also read the value of a simple property of primitive integral type without boxing
+     * @return reader
+     */
+    protected static BeanGeneratedPropertyReader getReader(Method[] methods, int[] indexes, boolean isPrimitive)
+    {
+        Class rootClass = methods[0].getDeclaringClass();
+        GeneratedClassLoader classLoader = getClassLoader(rootClass.getClassLoader());
+        ReaderKey key = new ReaderKey(methods, indexes, isPrimitive);
+        synchronized (classLoader)
+        {
+            BeanGeneratedPropertyReader reader = classLoader.readers.get(key);
+            if (reader != null)
+            {
+                return reader;
+            }
+
+            String className = BeanGeneratedPropertyReader.class.getName() + "_" + CLASS_NUMBER.incrementAndGet();
+            try
+            {
+                byte[] bytes = generateClass(className.replace('.', '/'), methods, indexes, isPrimitive);
+                reader = (BeanGeneratedPropertyReader) classLoader.define(className, bytes).newInstance();
+            }
+            catch (Throwable ex)
+            {
+                log.warn(".getReader Unable to generate property reader for class " + rootClass.getName() +
+                        " method " + methods[0].getName() + ", error msg is " + ex.getMessage(), ex);
+                reader = new ReflectionPropertyReader(methods, indexes);
+            }
+            classLoader.readers.put(key, reader);
+            return reader;
+        }
+    }
+
+    private static GeneratedClassLoader getClassLoader(ClassLoader parent)
+    {
+        synchronized (CLASS_LOADERS)
+        {
+            WeakReference<GeneratedClassLoader> ref = CLASS_LOADERS.get(parent);
+            GeneratedClassLoader classLoader = ref == null ? null : ref.get();
+            if (classLoader == null)
+            {
+                classLoader = new GeneratedClassLoader(parent);
+                CLASS_LOADERS.put(parent, new WeakReference<GeneratedClassLoader>(classLoader));
+            }
+            return classLoader;
+        }
+    }
+
+    private static boolean isSupported(Method[] methods, int[] indexes)
+    {
+        for (int i = 0; i < methods.length; i++)
+        {
+            Method method = methods[i];
+            if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers()) ||
+                !Modifier.isPublic(method.getDeclaringClass().getModifiers()) ||
+                method.getParameterTypes().length != 0 || method.getReturnType() == void.class)
+            {
+                return false;
+            }
+            Class valueType = method.getReturnType();
+            if (indexes[i] >= 0)
+            {
+                if (!valueType.isArray())
+                {
+                    return false;
+                }
+                valueType = valueType.getComponentType();
+            }
+            // only the last value may be primitive
+            if ((i < methods.length - 1) && valueType.isPrimitive())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIntegral(Class type)
+    {
+        return (type == long.class) || (type == int.class) || (type == short.class) || (type == byte.class) || (type == char.class);
+    }
+
+    private static byte[] generateClass(String internalName, Method[] methods, int[] indexes, boolean isPrimitive)
+    {
+        String baseInternalName = Type.getInternalName(BeanGeneratedPropertyReader.class);
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null, baseInternalName, null);
+
+        MethodVisitor ctor = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CTOR_DESCRIPTOR, null, null);
+        ctor.visitCode();
+        ctor.visitVarInsn(Opcodes.ALOAD, 0);
+        ctor.visitMethodInsn(Opcodes.INVOKESPECIAL, baseInternalName, "<init>", CTOR_DESCRIPTOR);
+        ctor.visitInsn(Opcodes.RETURN);
+        ctor.visitMaxs(0, 0);
+        ctor.visitEnd();
+
+        // locals: 1 is the underlying object, 2 is the index into the last array, 3 holds an array
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "read", READ_DESCRIPTOR, null, new String[] {Type.getInternalName(Exception.class)});
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        Class valueType = Object.class;
+        for (int i = 0; i < methods.length; i++)
+        {
+            Method method = methods[i];
+            Class declaring = method.getDeclaringClass();
+
+            // return the null value when the object or the nested value is null
+            Label notNull = new Label();
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitJumpInsn(Opcodes.IFNONNULL, notNull);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitLabel(notNull);
+
+            if (!declaring.isAssignableFrom(valueType))
+            {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(declaring));
+            }
+            int invoke = declaring.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+            mv.visitMethodInsn(invoke, Type.getInternalName(declaring), method.getName(), Type.getMethodDescriptor(method));
+            valueType = method.getReturnType();
+
+            if (indexes[i] >= 0)
+            {
+                boolean isLast = i == methods.length - 1;
+                Label arrayNotNull = new Label();
+                Label inBounds = new Label();
+                mv.visitVarInsn(Opcodes.ASTORE, 3);
+                mv.visitVarInsn(Opcodes.ALOAD, 3);
+                mv.visitJumpInsn(Opcodes.IFNONNULL, arrayNotNull);
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                mv.visitInsn(Opcodes.ARETURN);
+                mv.visitLabel(arrayNotNull);
+                pushIndex(mv, isLast, indexes[i]);
+                mv.visitVarInsn(Opcodes.ALOAD, 3);
+                mv.visitInsn(Opcodes.ARRAYLENGTH);
+                mv.visitJumpInsn(Opcodes.IF_ICMPLT, inBounds);
+                mv.visitInsn(Opcodes.ACONST_NULL);
+                mv.visitInsn(Opcodes.ARETURN);
+                mv.visitLabel(inBounds);
+                mv.visitVarInsn(Opcodes.ALOAD, 3);
+                pushIndex(mv, isLast, indexes[i]);
+                valueType = valueType.getComponentType();
+                mv.visitInsn(Type.getType(valueType).getOpcode(Opcodes.IALOAD));
+            }
+        }
+
+        if (valueType.isPrimitive())
+        {
+            Class boxed = JavaClassHelper.getBoxedType(valueType);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(boxed), "valueOf",
+                    "(" + Type.getDescriptor(valueType) + ")" + Type.getDescriptor(boxed));
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        if (isPrimitive)
+        {
+            // simple property of primitive integral type, widened to long
+            Method method = methods[0];
+            Class declaring = method.getDeclaringClass();
+            MethodVisitor mvLong = cw.visitMethod(Opcodes.ACC_PUBLIC, "readLong", READ_LONG_DESCRIPTOR, null, new String[] {Type.getInternalName(Exception.class)});
+            mvLong.visitCode();
+            mvLong.visitVarInsn(Opcodes.ALOAD, 1);
+            mvLong.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(declaring));
+            int invoke = declaring.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+            mvLong.visitMethodInsn(invoke, Type.getInternalName(declaring), method.getName(), Type.getMethodDescriptor(method));
+            if (method.getReturnType() != long.class)
+            {
+                mvLong.visitInsn(Opcodes.I2L);
+            }
+            mvLong.visitInsn(Opcodes.LRETURN);
+            mvLong.visitMaxs(0, 0);
+            mvLong.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void pushIndex(MethodVisitor mv, boolean isLast, int index)
+    {
+        // the index of the last array is a parameter, for use with indexed getters
+        if (isLast)
+        {
+            mv.visitVarInsn(Opcodes.ILOAD, 2);
+        }
+        else
+        {
+            mv.visitLdcInsn(index);
+        }
+    }
+
+    /**
+     * Loads generated reader classes, resolving the underlying classes through the class loader of the underlying
+     * classes and the reader base class through the engine class loader, and keeps the readers by property path.
+     */
+    private static class GeneratedClassLoader extends ClassLoader
+    {
+        private final Map<ReaderKey, BeanGeneratedPropertyReader> readers = new HashMap<ReaderKey, BeanGeneratedPropertyReader>();
+
+        private GeneratedClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            if (name.equals(BeanGeneratedPropertyReader.class.getName()))
+            {
+                return BeanGeneratedPropertyReader.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        private boolean isVisible(Class clazz)
+        {
+            while (clazz.isArray())
+            {
+                clazz = clazz.getComponentType();
+            }
+            if (clazz.isPrimitive())
+            {
+                return true;
+            }
+            try
+            {
+                return Class.forName(clazz.getName(), false, this) == clazz;
+            }
+            catch (ClassNotFoundException ex)
+            {
+                return false;
+            }
+        }
+
+        private Class<?> define(String name, byte[] bytes)
+        {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Identifies a reader by property path: the index into the last array is a parameter of the reader
+     * and only whether the last read method is indexed is part of the key.
+     */
+    private static class ReaderKey
+    {
+        private final Method[] methods;
+        private final int[] indexes;
+        private final boolean isPrimitive;
+
+        private ReaderKey(Method[] methods, int[] indexes, boolean isPrimitive)
+        {
+            this.methods = methods;
+            this.indexes = indexes.clone();
+            int last = indexes.length - 1;
+            this.indexes[last] = indexes[last] >= 0 ? 0 : -1;
+            this.isPrimitive = isPrimitive;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof ReaderKey))
+            {
+                return false;
+            }
+            ReaderKey other = (ReaderKey) o;
+            return isPrimitive == other.isPrimitive && Arrays.equals(methods, other.methods) && Arrays.equals(indexes, other.indexes);
+        }
+
+        public int hashCode()
+        {
+            return 31 * Arrays.hashCode(methods) + Arrays.hashCode(indexes);
+        }
+    }
+
+    /**
+     * Reader for use when the reader class cannot be generated, invoking the read methods through reflection.
+     */
+    private static class ReflectionPropertyReader extends BeanGeneratedPropertyReader
+    {
+        private final Method[] methods;
+        private final int[] indexes;
+
+        private ReflectionPropertyReader(Method[] methods, int[] indexes)
+        {
+            this.methods = methods;
+            this.indexes = indexes;
+        }
+
+        public Object read(Object object, int index) throws Exception
+        {
+            Object value = object;
+            for (int i = 0; i < methods.length; i++)
+            {
+                if (value == null)
+                {
+                    return null;
+                }
+                if (!methods[i].getDeclaringClass().isInstance(value))
+                {
+                    throw new ClassCastException(value.getClass().getName() + " cannot be cast to " + methods[i].getDeclaringClass().getName());
+                }
+                try
+                {
+                    value = methods[i].invoke(value);
+                }
+                catch (InvocationTargetException ex)
+                {
+                    if (ex.getCause() instanceof Exception)
+                    {
+                        throw (Exception) ex.getCause();
+                    }
+                    throw ex;
+                }
+                if (indexes[i] >= 0)
+                {
+                    int arrayIndex = i == methods.length - 1 ? index : indexes[i];
+                    if (value == null || arrayIndex >= Array.getLength(value))
+                    {
+                        return null;
+                    }
+                    value = Array.get(value, arrayIndex);
+                }
+            }
+            return value;
+        }
+
+        public long readLong(Object object) throws Exception
+        {
+            Object value = read(object, -1);
+            if (value instanceof Character)
+            {
+                return (Character) value;
+            }
+            return ((Number) value).longValue();
+        }
+    }
+}
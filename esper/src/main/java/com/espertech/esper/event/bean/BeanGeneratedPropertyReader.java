@@ -0,0 +1,39 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.bean;
+
+/**
+ * Base class for the reader classes generated by {@link BeanGeneratedPropertyGetterFactory}, one per
+ * property path and class loader, shared by all generated getters for the same property path.
+ * <p>
+ * The reader holds no state and invokes the read methods of the property path directly, returning null
+ * when the underlying object or any nested value is null.
+ */
+public abstract class BeanGeneratedPropertyReader
+{
+    /**
+     * Reads the property value.
+     * @param object underlying object
+     * @param index index into the array returned by the last read method, if the property is indexed
+     * @return property value
+     * @throws Exception any exception thrown by a read method
+     */
+    public abstract Object read(Object object, int index) throws Exception;
+
+    /**
+     * Reads the value of a simple property of primitive integral type widened to long.
+     * @param object underlying object
+     * @return property value
+     * @throws Exception any exception thrown by the read method
+     */
+    public long readLong(Object object) throws Exception
+    {
+        throw new UnsupportedOperationException("Property is not of primitive integral type");
+    }
+}
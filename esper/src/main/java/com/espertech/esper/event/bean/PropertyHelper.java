@@ -28,7 +28,8 @@ import java.util.*;
 public class PropertyHelper
 {
     /**
-     * Return getter for the given method and CGLIB FastClass.
+     * Return getter for the given method and CGLIB FastClass: a generated getter class when code generation is
+     * enabled, falling back to the CGLib fast method or reflection.
      * @param method to return getter for
      * @param fastClass is the CGLIB fast classs to make FastMethod for
      * @param eventAdapterService factory for event beans and event types
@@ -36,6 +37,16 @@ public class PropertyHelper
      */
     public static EventPropertyGetter getGetter(Method method, FastClass fastClass, EventAdapterService eventAdapterService)
     {
+        // Generate a getter class invoking the method directly
+        if (fastClass != null)
+        {
+            EventPropertyGetter generated = BeanGeneratedPropertyGetterFactory.makeGetter(method, eventAdapterService);
+            if (generated != null)
+            {
+                return generated;
+            }
+        }
+
         // Get CGLib fast method handle
         FastMethod fastMethod = null;
         try
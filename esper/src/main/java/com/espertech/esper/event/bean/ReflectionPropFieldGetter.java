@@ -11,6 +11,7 @@ package com.espertech.esper.event.bean;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.PropertyAccessException;
 import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.EventPropertyGetterPrimitive;
 import com.espertech.esper.event.vaevent.PropertyUtility;
 import com.espertech.esper.util.JavaClassHelper;
 
@@ -19,7 +20,7 @@ import java.lang.reflect.Field;
 /**
  * Property getter for fields using Java's vanilla reflection.
  */
-public final class ReflectionPropFieldGetter extends BaseNativePropertyGetter implements BeanEventPropertyGetter
+public final class ReflectionPropFieldGetter extends BaseNativePropertyGetter implements BeanEventPropertyGetter, EventPropertyGetterPrimitive
 {
     private final Field field;
 
@@ -50,6 +51,22 @@ public final class ReflectionPropFieldGetter extends BaseNativePropertyGetter im
         }
     }
 
+    public long getLong(EventBean obj) throws PropertyAccessException
+    {
+        try
+        {
+            return field.getLong(obj.getUnderlying());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw PropertyUtility.getIllegalArgumentException(field, e);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw PropertyUtility.getIllegalAccessException(field, e);
+        }
+    }
+
     public boolean isBeanExistsProperty(Object object)
     {
         return true; // Property exists as the property is not dynamic (unchecked)
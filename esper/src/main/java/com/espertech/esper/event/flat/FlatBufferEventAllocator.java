@@ -0,0 +1,156 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocates the records of flat-buffer events from chunks of heap or direct memory, such that each event takes
+ * only its record bytes and a small event bean, rather than a buffer object per event.
+ * <p>
+ * Each thread allocates from its own chunk, so that threads sending events of the same type do not contend.
+ * <p>
+ * Chunks are not recycled: a chunk is garbage-collected, and its direct memory released,
+ * once no event refers to any of its records any longer. A single retained event therefore keeps its
+ * whole chunk, and the chunk size should be chosen to fit how long events are retained,
+ * see {@link com.espertech.esper.client.ConfigurationEventTypeFlatBuffer#setRecordsPerChunk(int)}.
+ */
+public class FlatBufferEventAllocator
+{
+    /**
+     * Default chunk size in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final FlatBufferEventType eventType;
+    private final int recordSize;
+    private final int chunkSize;
+    private final boolean direct;
+    private final ByteOrder byteOrder;
+
+    private final ThreadLocal<Chunk> chunks = new ThreadLocal<Chunk>();
+
+    /**
+     * Ctor.
+     * @param eventType type of events to allocate
+     * @param chunkSize chunk size in bytes, rounded down to whole records and enlarged to hold at least one record
+     * @param direct true for direct memory
+     */
+    public FlatBufferEventAllocator(FlatBufferEventType eventType, int chunkSize, boolean direct)
+    {
+        this.eventType = eventType;
+        this.recordSize = eventType.getRecordSize();
+        this.chunkSize = Math.max(recordSize, chunkSize - chunkSize % Math.max(1, recordSize));
+        this.direct = direct;
+        this.byteOrder = eventType.getByteOrder();
+    }
+
+    /**
+     * Allocates an event copying the record bytes from the source buffer, starting at its position,
+     * and advances the source position past the record.
+     * @param source buffer holding the record
+     * @return event
+     */
+    public FlatBufferEventBean allocate(ByteBuffer source)
+    {
+        int limit = source.limit();
+        source.limit(source.position() + recordSize);
+        try
+        {
+            Chunk chunk = nextChunk();
+            int offset = chunk.writeView.position();
+            chunk.writeView.put(source);
+            return new FlatBufferEventBean(chunk.buffer, offset, eventType);
+        }
+        finally
+        {
+            source.limit(limit);
+        }
+    }
+
+    /**
+     * Allocates an event copying the record bytes from the source array.
+     * @param source array holding the record
+     * @param sourceOffset offset of the record in the array
+     * @return event
+     */
+    public FlatBufferEventBean allocate(byte[] source, int sourceOffset)
+    {
+        Chunk chunk = nextChunk();
+        int offset = chunk.writeView.position();
+        chunk.writeView.put(source, sourceOffset, recordSize);
+        return new FlatBufferEventBean(chunk.buffer, offset, eventType);
+    }
+
+    /**
+     * Allocates an event holding zero bytes only.
+     * @return event
+     */
+    public FlatBufferEventBean allocate()
+    {
+        Chunk chunk = nextChunk();
+        int offset = chunk.writeView.position();
+        chunk.writeView.position(offset + recordSize);
+        return new FlatBufferEventBean(chunk.buffer, offset, eventType);
+    }
+
+    /**
+     * Returns the chunk size in bytes.
+     * @return chunk size
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Allocates an event copying the record bytes of another event of the same layout.
+     * @param theEvent to copy
+     * @return event
+     */
+    public FlatBufferEventBean copy(FlatBufferEventBean theEvent)
+    {
+        ByteBuffer buffer = theEvent.getBuffer();
+        if (buffer.hasArray())
+        {
+            return allocate(buffer.array(), buffer.arrayOffset() + theEvent.getOffset());
+        }
+        // the event buffer may be shared and is only ever read using absolute positions
+        ByteBuffer source = buffer.duplicate();
+        source.position(theEvent.getOffset());
+        return allocate(source);
+    }
+
+    // returns the current thread's chunk, with the write position at the next free record
+    private Chunk nextChunk()
+    {
+        Chunk chunk = chunks.get();
+        if (chunk == null || chunk.writeView.remaining() < recordSize)
+        {
+            ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+            buffer.order(byteOrder);
+            chunk = new Chunk(buffer);
+            chunks.set(chunk);
+        }
+        return chunk;
+    }
+
+    private static class Chunk
+    {
+        private final ByteBuffer buffer;
+        private final ByteBuffer writeView;
+
+        private Chunk(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+            this.writeView = buffer.duplicate();
+        }
+    }
+}
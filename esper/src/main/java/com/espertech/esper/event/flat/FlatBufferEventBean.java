@@ -0,0 +1,113 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventBeanSPI;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Event bean for flat-buffer events, referring to a record at an offset of a buffer that may hold further records.
+ * <p>
+ * The buffer is shared and must only be read using absolute positions.
+ * The underlying object is a read-only buffer holding only the record, positioned at zero.
+ */
+public class FlatBufferEventBean implements EventBeanSPI
+{
+    private ByteBuffer buffer;
+    private int offset;
+    private FlatBufferEventType eventType;
+
+    /**
+     * Ctor.
+     * @param buffer holding the record, in the byte order of the type
+     * @param offset absolute offset of the record in the buffer
+     * @param eventType the event type
+     */
+    public FlatBufferEventBean(ByteBuffer buffer, int offset, FlatBufferEventType eventType)
+    {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.eventType = eventType;
+    }
+
+    /**
+     * Returns the buffer holding the record.
+     * @return buffer
+     */
+    public ByteBuffer getBuffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Returns the absolute offset of the record in the buffer.
+     * @return offset
+     */
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    public EventType getEventType()
+    {
+        return eventType;
+    }
+
+    public Object getUnderlying()
+    {
+        ByteBuffer record = buffer.duplicate();
+        record.limit(offset + eventType.getRecordSize());
+        record.position(offset);
+        return record.slice().asReadOnlyBuffer().order(eventType.getByteOrder());
+    }
+
+    public void setUnderlying(Object underlying)
+    {
+        ByteBuffer record = eventType.toTypeOrder((ByteBuffer) underlying);
+        this.buffer = record;
+        this.offset = record.position();
+    }
+
+    /**
+     * Returns a copy of the record bytes, which is the serialized form of the event.
+     * @return record bytes
+     */
+    public byte[] toBytes()
+    {
+        byte[] bytes = new byte[eventType.getRecordSize()];
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        record.get(bytes);
+        return bytes;
+    }
+
+    public Object get(String property) throws PropertyAccessException
+    {
+        EventPropertyGetter getter = eventType.getGetter(property);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + property + "' is not a valid property name for this type");
+        }
+        return getter.get(this);
+    }
+
+    public Object getFragment(String propertyExpression) throws PropertyAccessException
+    {
+        EventPropertyGetter getter = eventType.getGetter(propertyExpression);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + propertyExpression + "' is not a valid property name for this type");
+        }
+        return getter.getFragment(this);
+    }
+}
@@ -0,0 +1,34 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.EventBeanCopyMethod;
+
+/**
+ * Copy method for flat-buffer events, copying the record bytes into memory of the event type.
+ */
+public class FlatBufferEventBeanCopyMethod implements EventBeanCopyMethod
+{
+    private final FlatBufferEventType eventType;
+
+    /**
+     * Ctor.
+     * @param eventType type of events to copy
+     */
+    public FlatBufferEventBeanCopyMethod(FlatBufferEventType eventType)
+    {
+        this.eventType = eventType;
+    }
+
+    public EventBean copy(EventBean theEvent)
+    {
+        return eventType.getAllocator().copy((FlatBufferEventBean) theEvent);
+    }
+}
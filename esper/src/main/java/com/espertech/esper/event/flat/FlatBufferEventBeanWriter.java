@@ -0,0 +1,38 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.EventBeanWriter;
+
+/**
+ * Writer for a set of fields of flat-buffer events.
+ */
+public class FlatBufferEventBeanWriter implements EventBeanWriter
+{
+    private final FlatBufferEventPropertyWriter[] writers;
+
+    /**
+     * Ctor.
+     * @param writers writers of the fields to write
+     */
+    public FlatBufferEventBeanWriter(FlatBufferEventPropertyWriter[] writers)
+    {
+        this.writers = writers;
+    }
+
+    public void write(Object[] values, EventBean theEvent)
+    {
+        FlatBufferEventBean flatEvent = (FlatBufferEventBean) theEvent;
+        for (int i = 0; i < writers.length; i++)
+        {
+            writers[i].write(values[i], flatEvent.getBuffer(), flatEvent.getOffset());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.EventPropertyWriter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writer for a field of flat-buffer events, writing the value into the record bytes.
+ * <p>
+ * Records cannot hold null values: writing null writes zero bytes, i.e. false, zero or the empty string.
+ */
+public class FlatBufferEventPropertyWriter implements EventPropertyWriter
+{
+    private final int fieldOffset;
+    private final FlatBufferFieldType fieldType;
+    private final int length;
+
+    /**
+     * Ctor.
+     * @param fieldOffset offset of the field within the record
+     * @param fieldType field type
+     * @param length number of characters for strings
+     */
+    public FlatBufferEventPropertyWriter(int fieldOffset, FlatBufferFieldType fieldType, int length)
+    {
+        this.fieldOffset = fieldOffset;
+        this.fieldType = fieldType;
+        this.length = length;
+    }
+
+    public void write(Object value, EventBean target)
+    {
+        FlatBufferEventBean flatEvent = (FlatBufferEventBean) target;
+        write(value, flatEvent.getBuffer(), flatEvent.getOffset());
+    }
+
+    /**
+     * Writes the value into a record.
+     * @param value to write
+     * @param buffer holding the record
+     * @param recordOffset absolute offset of the record
+     */
+    public void write(Object value, ByteBuffer buffer, int recordOffset)
+    {
+        int position = recordOffset + fieldOffset;
+        if (value == null)
+        {
+            int size = fieldType.getSize(length);
+            for (int i = 0; i < size; i++)
+            {
+                buffer.put(position + i, (byte) 0);
+            }
+            return;
+        }
+        fieldType.write(buffer, position, length, value);
+    }
+}
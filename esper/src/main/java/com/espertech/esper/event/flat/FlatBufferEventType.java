@@ -0,0 +1,297 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.event.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * Event type for events represented by a fixed-layout record of bytes, see {@link ConfigurationEventTypeFlatBuffer}.
+ * <p>
+ * Properties are the fields of the record. Each field value is read from the record bytes when accessed:
+ * integral fields offer getters that do not box the value. Fields can be written for update and merge.
+ */
+public class FlatBufferEventType implements EventTypeSPI
+{
+    private final EventTypeMetadata metadata;
+    private final int eventTypeId;
+    private final ConfigurationEventTypeFlatBuffer config;
+    private final ByteOrder byteOrder;
+    private final int recordSize;
+    private final String[] propertyNames;
+    private final EventPropertyDescriptor[] propertyDescriptors;
+    private final Map<String, EventPropertyDescriptor> propertyDescriptorMap;
+    private final Map<String, FlatBufferPropertyGetter> getters;
+    private final Map<String, FlatBufferEventPropertyWriter> writers;
+    private final Map<String, Integer> fieldOffsets;
+    private final FlatBufferEventAllocator allocator;
+
+    /**
+     * Ctor.
+     * @param metadata event type metadata
+     * @param eventTypeId type id
+     * @param config record layout
+     */
+    public FlatBufferEventType(EventTypeMetadata metadata, int eventTypeId, ConfigurationEventTypeFlatBuffer config)
+    {
+        this.metadata = metadata;
+        this.eventTypeId = eventTypeId;
+        this.config = config;
+        this.byteOrder = config.isLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+        List<ConfigurationEventTypeFlatBuffer.FieldDesc> fields = config.getFields();
+        if (fields.isEmpty())
+        {
+            throw new EventAdapterException("Flat-buffer event type '" + metadata.getPublicName() + "' does not declare any fields");
+        }
+        propertyNames = new String[fields.size()];
+        propertyDescriptors = new EventPropertyDescriptor[fields.size()];
+        propertyDescriptorMap = new HashMap<String, EventPropertyDescriptor>();
+        getters = new HashMap<String, FlatBufferPropertyGetter>();
+        writers = new HashMap<String, FlatBufferEventPropertyWriter>();
+        fieldOffsets = new LinkedHashMap<String, Integer>();
+
+        int offset = 0;
+        for (int i = 0; i < fields.size(); i++)
+        {
+            ConfigurationEventTypeFlatBuffer.FieldDesc field = fields.get(i);
+            FlatBufferFieldType fieldType = FlatBufferFieldType.fromType(field.getType());
+            if (fieldType == null)
+            {
+                throw new EventAdapterException("Field '" + field.getName() + "' of type '" + field.getType().getName() + "' is not a supported field type");
+            }
+            propertyNames[i] = field.getName();
+            propertyDescriptors[i] = new EventPropertyDescriptor(field.getName(), field.getType(), null, false, false, false, false, false);
+            propertyDescriptorMap.put(field.getName(), propertyDescriptors[i]);
+            if (fieldType.isIntegral())
+            {
+                getters.put(field.getName(), new FlatBufferIntegralPropertyGetter(offset, fieldType));
+            }
+            else
+            {
+                getters.put(field.getName(), new FlatBufferPropertyGetter(offset, fieldType, field.getLength()));
+            }
+            writers.put(field.getName(), new FlatBufferEventPropertyWriter(offset, fieldType, field.getLength()));
+            fieldOffsets.put(field.getName(), offset);
+            offset += fieldType.getSize(field.getLength());
+        }
+        recordSize = offset;
+        int chunkSize = config.getRecordsPerChunk() > 0 ? config.getRecordsPerChunk() * recordSize : FlatBufferEventAllocator.DEFAULT_CHUNK_SIZE;
+        allocator = new FlatBufferEventAllocator(this, chunkSize, config.isDirect());
+    }
+
+    /**
+     * Returns the record layout.
+     * @return configuration
+     */
+    public ConfigurationEventTypeFlatBuffer getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * Returns the number of bytes of a record.
+     * @return record size
+     */
+    public int getRecordSize()
+    {
+        return recordSize;
+    }
+
+    /**
+     * Returns the byte order of records.
+     * @return byte order
+     */
+    public ByteOrder getByteOrder()
+    {
+        return byteOrder;
+    }
+
+    /**
+     * Returns the offset of each field within the record, in layout order.
+     * @return offset per property name
+     */
+    public Map<String, Integer> getFieldOffsets()
+    {
+        return fieldOffsets;
+    }
+
+    /**
+     * Returns the allocator for the records of events of this type.
+     * @return allocator
+     */
+    public FlatBufferEventAllocator getAllocator()
+    {
+        return allocator;
+    }
+
+    /**
+     * Returns the buffer, or a view of the buffer, in the byte order of this type and validates that the buffer
+     * holds a record at its position.
+     * @param buffer to check
+     * @return buffer in type byte order
+     * @throws EPException if the buffer holds less than a record
+     */
+    public ByteBuffer toTypeOrder(ByteBuffer buffer)
+    {
+        if (buffer.remaining() < recordSize)
+        {
+            throw new EPException("Buffer holds " + buffer.remaining() + " remaining bytes, expected a record of " + recordSize + " bytes for event type '" + getName() + "'");
+        }
+        if (buffer.order() == byteOrder)
+        {
+            return buffer;
+        }
+        return buffer.duplicate().order(byteOrder);
+    }
+
+    public Class getPropertyType(String propertyExpression)
+    {
+        EventPropertyDescriptor desc = propertyDescriptorMap.get(propertyExpression);
+        return desc == null ? null : desc.getPropertyType();
+    }
+
+    public boolean isProperty(String propertyExpression)
+    {
+        return propertyDescriptorMap.containsKey(propertyExpression);
+    }
+
+    public EventPropertyGetter getGetter(String propertyExpression)
+    {
+        return getters.get(propertyExpression);
+    }
+
+    public FragmentEventType getFragmentType(String propertyExpression)
+    {
+        return null;
+    }
+
+    public Class getUnderlyingType()
+    {
+        return ByteBuffer.class;
+    }
+
+    public String[] getPropertyNames()
+    {
+        return propertyNames;
+    }
+
+    public EventPropertyDescriptor[] getPropertyDescriptors()
+    {
+        return propertyDescriptors;
+    }
+
+    public EventPropertyDescriptor getPropertyDescriptor(String propertyName)
+    {
+        return propertyDescriptorMap.get(propertyName);
+    }
+
+    public EventType[] getSuperTypes()
+    {
+        return null;
+    }
+
+    public Iterator<EventType> getDeepSuperTypes()
+    {
+        return Collections.<EventType>emptyList().iterator();
+    }
+
+    public String getName()
+    {
+        return metadata.getPublicName();
+    }
+
+    public EventPropertyGetterMapped getGetterMapped(String mappedPropertyName)
+    {
+        return null;
+    }
+
+    public EventPropertyGetterIndexed getGetterIndexed(String indexedPropertyName)
+    {
+        return null;
+    }
+
+    public int getEventTypeId()
+    {
+        return eventTypeId;
+    }
+
+    public String getStartTimestampPropertyName()
+    {
+        return null;
+    }
+
+    public String getEndTimestampPropertyName()
+    {
+        return null;
+    }
+
+    public EventTypeMetadata getMetadata()
+    {
+        return metadata;
+    }
+
+    public FlatBufferEventPropertyWriter getWriter(String propertyName)
+    {
+        return writers.get(propertyName);
+    }
+
+    public EventPropertyDescriptor[] getWriteableProperties()
+    {
+        return propertyDescriptors;
+    }
+
+    public EventPropertyDescriptor getWritableProperty(String propertyName)
+    {
+        return propertyDescriptorMap.get(propertyName);
+    }
+
+    public EventBeanCopyMethod getCopyMethod(String[] properties)
+    {
+        return new FlatBufferEventBeanCopyMethod(this);
+    }
+
+    public EventBeanWriter getWriter(String[] properties)
+    {
+        FlatBufferEventPropertyWriter[] writersSelected = new FlatBufferEventPropertyWriter[properties.length];
+        for (int i = 0; i < properties.length; i++)
+        {
+            writersSelected[i] = writers.get(properties[i]);
+            if (writersSelected[i] == null)
+            {
+                return null;
+            }
+        }
+        return new FlatBufferEventBeanWriter(writersSelected);
+    }
+
+    public EventBeanReader getReader()
+    {
+        return null;
+    }
+
+    public boolean equalsCompareType(EventType eventType)
+    {
+        if (!(eventType instanceof FlatBufferEventType))
+        {
+            return false;
+        }
+        FlatBufferEventType other = (FlatBufferEventType) eventType;
+        return config.equals(other.config);
+    }
+
+    public String toString()
+    {
+        return "FlatBufferEventType name=" + getName() + " recordSize=" + recordSize;
+    }
+}
@@ -0,0 +1,241 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EPException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Field types of flat-buffer records, reading and writing values at an absolute position of a buffer.
+ */
+public enum FlatBufferFieldType
+{
+    /**
+     * Boolean, one byte that is zero for false.
+     */
+    BOOLEAN(boolean.class, 1) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.get(position) != 0;
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.put(position, ((Boolean) value) ? (byte) 1 : (byte) 0);
+        }
+    },
+
+    /**
+     * Byte.
+     */
+    BYTE(byte.class, 1) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.get(position);
+        }
+        public long readLong(ByteBuffer buffer, int position) {
+            return buffer.get(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.put(position, ((Number) value).byteValue());
+        }
+    },
+
+    /**
+     * Character.
+     */
+    CHAR(char.class, 2) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.getChar(position);
+        }
+        public long readLong(ByteBuffer buffer, int position) {
+            return buffer.getChar(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.putChar(position, (Character) value);
+        }
+    },
+
+    /**
+     * Short.
+     */
+    SHORT(short.class, 2) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.getShort(position);
+        }
+        public long readLong(ByteBuffer buffer, int position) {
+            return buffer.getShort(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.putShort(position, ((Number) value).shortValue());
+        }
+    },
+
+    /**
+     * Integer.
+     */
+    INT(int.class, 4) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.getInt(position);
+        }
+        public long readLong(ByteBuffer buffer, int position) {
+            return buffer.getInt(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.putInt(position, ((Number) value).intValue());
+        }
+    },
+
+    /**
+     * Long.
+     */
+    LONG(long.class, 8) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.getLong(position);
+        }
+        public long readLong(ByteBuffer buffer, int position) {
+            return buffer.getLong(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.putLong(position, ((Number) value).longValue());
+        }
+    },
+
+    /**
+     * Float.
+     */
+    FLOAT(float.class, 4) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.getFloat(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.putFloat(position, ((Number) value).floatValue());
+        }
+    },
+
+    /**
+     * Double.
+     */
+    DOUBLE(double.class, 8) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            return buffer.getDouble(position);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            buffer.putDouble(position, ((Number) value).doubleValue());
+        }
+    },
+
+    /**
+     * Fixed-length string of ISO-8859-1 characters, padded with zero bytes.
+     */
+    STRING(String.class, 0) {
+        public Object read(ByteBuffer buffer, int position, int length) {
+            char[] chars = new char[length];
+            int count = 0;
+            while (count < length) {
+                byte b = buffer.get(position + count);
+                if (b == 0) {
+                    break;
+                }
+                chars[count++] = (char) (b & 0xff);
+            }
+            return new String(chars, 0, count);
+        }
+        public void write(ByteBuffer buffer, int position, int length, Object value) {
+            String text = value.toString();
+            if (text.length() > length) {
+                throw new EPException("String value of length " + text.length() + " exceeds the field length of " + length);
+            }
+            for (int i = 0; i < length; i++) {
+                char c = i < text.length() ? text.charAt(i) : 0;
+                buffer.put(position + i, (byte) (c > 0xff ? '?' : c));
+            }
+        }
+    };
+
+    private final Class type;
+    private final int size;
+
+    private FlatBufferFieldType(Class type, int size)
+    {
+        this.type = type;
+        this.size = size;
+    }
+
+    /**
+     * Returns the property type.
+     * @return primitive type or String
+     */
+    public Class getType()
+    {
+        return type;
+    }
+
+    /**
+     * Returns the number of bytes a value takes.
+     * @param length number of characters for strings
+     * @return number of bytes
+     */
+    public int getSize(int length)
+    {
+        return this == STRING ? length : size;
+    }
+
+    /**
+     * Returns true for byte, short, char, int and long values that can be read as long without boxing.
+     * @return indicator
+     */
+    public boolean isIntegral()
+    {
+        return this == BYTE || this == SHORT || this == CHAR || this == INT || this == LONG;
+    }
+
+    /**
+     * Reads a value.
+     * @param buffer to read
+     * @param position absolute position of the value
+     * @param length number of characters for strings
+     * @return boxed value
+     */
+    public abstract Object read(ByteBuffer buffer, int position, int length);
+
+    /**
+     * Writes a value.
+     * @param buffer to write
+     * @param position absolute position of the value
+     * @param length number of characters for strings
+     * @param value value to write, not null
+     */
+    public abstract void write(ByteBuffer buffer, int position, int length, Object value);
+
+    /**
+     * Reads an integral value as long.
+     * @param buffer to read
+     * @param position absolute position of the value
+     * @return value
+     */
+    public long readLong(ByteBuffer buffer, int position)
+    {
+        throw new UnsupportedOperationException("Field type " + this + " is not integral");
+    }
+
+    /**
+     * Returns the field type for a primitive type or String.
+     * @param type the type
+     * @return field type or null if not supported
+     */
+    public static FlatBufferFieldType fromType(Class type)
+    {
+        for (FlatBufferFieldType fieldType : values())
+        {
+            if (fieldType.type == type)
+            {
+                return fieldType;
+            }
+        }
+        return null;
+    }
+}
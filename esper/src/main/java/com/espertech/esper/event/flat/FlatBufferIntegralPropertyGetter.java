@@ -0,0 +1,35 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventPropertyGetterPrimitive;
+
+/**
+ * Getter for an integral field of flat-buffer events that can also read the value without boxing.
+ */
+public class FlatBufferIntegralPropertyGetter extends FlatBufferPropertyGetter implements EventPropertyGetterPrimitive
+{
+    /**
+     * Ctor.
+     * @param fieldOffset offset of the field within the record
+     * @param fieldType integral field type
+     */
+    public FlatBufferIntegralPropertyGetter(int fieldOffset, FlatBufferFieldType fieldType)
+    {
+        super(fieldOffset, fieldType, 0);
+    }
+
+    public long getLong(EventBean eventBean) throws PropertyAccessException
+    {
+        FlatBufferEventBean flatEvent = checkedCast(eventBean);
+        return fieldType.readLong(flatEvent.getBuffer(), flatEvent.getOffset() + fieldOffset);
+    }
+}
@@ -0,0 +1,75 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.PropertyAccessException;
+
+/**
+ * Getter for a field of flat-buffer events, reading the value from the record bytes.
+ */
+public class FlatBufferPropertyGetter implements EventPropertyGetter
+{
+    /**
+     * Offset of the field within the record.
+     */
+    protected final int fieldOffset;
+
+    /**
+     * Field type.
+     */
+    protected final FlatBufferFieldType fieldType;
+
+    private final int length;
+
+    /**
+     * Ctor.
+     * @param fieldOffset offset of the field within the record
+     * @param fieldType field type
+     * @param length number of characters for strings
+     */
+    public FlatBufferPropertyGetter(int fieldOffset, FlatBufferFieldType fieldType, int length)
+    {
+        this.fieldOffset = fieldOffset;
+        this.fieldType = fieldType;
+        this.length = length;
+    }
+
+    public Object get(EventBean eventBean) throws PropertyAccessException
+    {
+        FlatBufferEventBean flatEvent = checkedCast(eventBean);
+        return fieldType.read(flatEvent.getBuffer(), flatEvent.getOffset() + fieldOffset, length);
+    }
+
+    public boolean isExistsProperty(EventBean eventBean)
+    {
+        return true; // Property exists as the property is not dynamic (unchecked)
+    }
+
+    public Object getFragment(EventBean eventBean) throws PropertyAccessException
+    {
+        return null;
+    }
+
+    /**
+     * Casts to a flat-buffer event.
+     * @param eventBean to cast
+     * @return flat-buffer event
+     * @throws PropertyAccessException if the event is not a flat-buffer event
+     */
+    protected static FlatBufferEventBean checkedCast(EventBean eventBean) throws PropertyAccessException
+    {
+        if (!(eventBean instanceof FlatBufferEventBean))
+        {
+            throw new PropertyAccessException("Mismatched getter instance to event bean type, expected a flat-buffer event but received " + eventBean.getClass().getName());
+        }
+        return (FlatBufferEventBean) eventBean;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.map;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.arr.EventTypeNestableGetterFactoryObjectArray;
+import com.espertech.esper.event.arr.ObjectArrayEventPropertyGetter;
+import com.espertech.esper.event.bean.BeanEventType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Getter factory for Map event types that convert events to object-array, assigning each simple property
+ * a position in the property array and providing getters that read by position.
+ * <p>
+ * Nested, indexed, mapped and fragment properties are read from the Map.
+ */
+public class EventTypeNestableGetterFactoryMapObjectArray extends EventTypeNestableGetterFactoryMap {
+
+    private final Map<String, Integer> propertiesIndex;
+    private final EventTypeNestableGetterFactoryObjectArray objectArrayFactory;
+    private volatile String[] propertyNames;
+
+    public EventTypeNestableGetterFactoryMapObjectArray(String eventTypeName) {
+        this.propertiesIndex = new ConcurrentHashMap<String, Integer>();
+        this.objectArrayFactory = new EventTypeNestableGetterFactoryObjectArray(eventTypeName, propertiesIndex);
+        this.propertyNames = new String[0];
+    }
+
+    public synchronized EventPropertyGetter getGetterProperty(String name, BeanEventType nativeFragmentType, EventAdapterService eventAdapterService) {
+        Integer index = propertiesIndex.get(name);
+        if (index == null) {
+            index = propertyNames.length;
+            propertiesIndex.put(name, index);
+            String[] names = new String[index + 1];
+            System.arraycopy(propertyNames, 0, names, 0, index);
+            names[index] = name;
+            propertyNames = names;
+        }
+        MapEventPropertyGetter mapGetter = (MapEventPropertyGetter) super.getGetterProperty(name, nativeFragmentType, eventAdapterService);
+        ObjectArrayEventPropertyGetter arrayGetter = (ObjectArrayEventPropertyGetter) objectArrayFactory.getGetterProperty(name, nativeFragmentType, eventAdapterService);
+        return new MapObjectArrayPropertyGetter(index, arrayGetter, mapGetter);
+    }
+
+    /**
+     * Returns the values of the simple properties of a Map event in the positions of the property array.
+     * @param map event
+     * @return property array
+     */
+    public Object[] toObjectArray(Map<String, Object> map) {
+        // positions are assigned before the names are published, a position may not yet have a slot
+        Object[] array = new Object[propertyNames.length];
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                continue;
+            }
+            Integer index = propertiesIndex.get(entry.getKey());
+            if (index != null && index < array.length) {
+                array[index] = entry.getValue();
+            }
+        }
+        return array;
+    }
+}
@@ -38,7 +38,31 @@ public class MapEventType extends BaseNestableEventType
                         EventType[] optionalSuperTypes,
                         Set<EventType> optionalDeepSupertypes,
                         ConfigurationEventTypeMap configMapType) {
-        super(metadata, typeName, eventTypeId, eventAdapterService, propertyTypes, optionalSuperTypes, optionalDeepSupertypes, configMapType, GETTER_FACTORY);
+        super(metadata, typeName, eventTypeId, eventAdapterService, propertyTypes, optionalSuperTypes, optionalDeepSupertypes, configMapType, getGetterFactory(typeName, configMapType));
+    }
+
+    private static EventTypeNestableGetterFactory getGetterFactory(String typeName, ConfigurationEventTypeMap configMapType) {
+        if (configMapType != null && configMapType.isConvertToObjectArray()) {
+            return new EventTypeNestableGetterFactoryMapObjectArray(typeName);
+        }
+        return GETTER_FACTORY;
+    }
+
+    /**
+     * Returns true if the engine converts Map events sent into the engine into an object-array representation.
+     * @return conversion indicator
+     */
+    public boolean isConvertToObjectArray() {
+        return getterFactory instanceof EventTypeNestableGetterFactoryMapObjectArray;
+    }
+
+    /**
+     * Converts a Map event into the object-array representation, for use when the type converts events.
+     * @param map event
+     * @return values of simple properties by position
+     */
+    public Object[] toObjectArray(Map<String, Object> map) {
+        return ((EventTypeNestableGetterFactoryMapObjectArray) getterFactory).toObjectArray(map);
     }
 
     protected void postUpdateNestableTypes() {
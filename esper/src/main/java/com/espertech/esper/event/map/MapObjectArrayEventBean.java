@@ -0,0 +1,57 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.map;
+
+import java.util.Map;
+
+/**
+ * Wrapper for Map events that the engine converted into an object-array representation when the event was sent.
+ * <p>
+ * Simple properties are read by position from the property array, while the underlying event object remains the Map
+ * as provided by the application. The property array holds the property values as of the time of conversion.
+ */
+public class MapObjectArrayEventBean extends MapEventBean
+{
+    private final MapEventType mapEventType;
+    private Object[] propertyArray;
+
+    /**
+     * Ctor.
+     * @param properties is the event property values
+     * @param mapEventType is the type of the event, which must convert to object-array
+     */
+    public MapObjectArrayEventBean(Map<String, Object> properties, MapEventType mapEventType)
+    {
+        super(properties, mapEventType);
+        this.mapEventType = mapEventType;
+        this.propertyArray = mapEventType.toObjectArray(properties);
+    }
+
+    /**
+     * Returns the property values in the order of the positions assigned by the event type.
+     * @return property array
+     */
+    public Object[] getPropertyArray()
+    {
+        return propertyArray;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setUnderlying(Object underlying)
+    {
+        super.setUnderlying(underlying);
+        propertyArray = mapEventType.toObjectArray((Map<String, Object>) underlying);
+    }
+
+    public String toString()
+    {
+        return "MapObjectArrayEventBean " +
+                "eventType=" + getEventType();
+    }
+}
@@ -0,0 +1,73 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.map;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.arr.ObjectArrayEventPropertyGetter;
+
+import java.util.Map;
+
+/**
+ * Getter for a simple property of a Map event type that converts events to object-array, reading
+ * the property by position for converted events and from the Map for all other events of the type.
+ */
+public class MapObjectArrayPropertyGetter implements MapEventPropertyGetter
+{
+    private final int propertyIndex;
+    private final ObjectArrayEventPropertyGetter arrayGetter;
+    private final MapEventPropertyGetter mapGetter;
+
+    /**
+     * Ctor.
+     * @param propertyIndex position of the property in the property array
+     * @param arrayGetter getter reading the property array
+     * @param mapGetter getter reading the Map
+     */
+    public MapObjectArrayPropertyGetter(int propertyIndex, ObjectArrayEventPropertyGetter arrayGetter, MapEventPropertyGetter mapGetter)
+    {
+        this.propertyIndex = propertyIndex;
+        this.arrayGetter = arrayGetter;
+        this.mapGetter = mapGetter;
+    }
+
+    public Object getMap(Map<String, Object> map) throws PropertyAccessException
+    {
+        return mapGetter.getMap(map);
+    }
+
+    public boolean isMapExistsProperty(Map<String, Object> map)
+    {
+        return mapGetter.isMapExistsProperty(map);
+    }
+
+    public Object get(EventBean eventBean) throws PropertyAccessException
+    {
+        if (eventBean instanceof MapObjectArrayEventBean)
+        {
+            Object[] array = ((MapObjectArrayEventBean) eventBean).getPropertyArray();
+            // events converted before properties were added to the type do not hold the added properties
+            if (propertyIndex < array.length)
+            {
+                return arrayGetter.getObjectArray(array);
+            }
+        }
+        return mapGetter.get(eventBean);
+    }
+
+    public boolean isExistsProperty(EventBean eventBean)
+    {
+        return mapGetter.isExistsProperty(eventBean);
+    }
+
+    public Object getFragment(EventBean eventBean) throws PropertyAccessException
+    {
+        return mapGetter.getFragment(eventBean);
+    }
+}
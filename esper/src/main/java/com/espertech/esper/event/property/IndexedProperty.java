@@ -107,6 +107,11 @@ public class IndexedProperty extends PropertyBase
                 Method method = propertyDesc.getReadMethod();
                 if (fastClass != null)
                 {
+                    EventPropertyGetterAndIndexed generated = BeanGeneratedPropertyGetterFactory.makeArrayGetter(method, index, eventAdapterService);
+                    if (generated != null)
+                    {
+                        return generated;
+                    }
                     FastMethod fastMethod = fastClass.getMethod(method);
                     return new ArrayFastPropertyGetter(fastMethod, index, eventAdapterService);
                 }
@@ -0,0 +1,104 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventBeanSPI;
+import org.w3c.dom.Node;
+
+/**
+ * EventBean wrapper for XML documents parsed by streaming, holding the document text and the values of the
+ * properties extracted when parsing.
+ * <p>
+ * The DOM of the document is built only when the underlying node is requested, such as for fragments or
+ * for properties that were not extracted.
+ */
+public class StAXXMLEventBean implements EventBeanSPI
+{
+    private final StAXXMLEventType eventType;
+    private Object document;
+    private String[] values;
+    private volatile Node node;
+
+    /**
+     * Ctor.
+     * @param document the document as String or byte array
+     * @param values extracted property values by position
+     * @param eventType the event type
+     */
+    public StAXXMLEventBean(Object document, String[] values, StAXXMLEventType eventType)
+    {
+        this.document = document;
+        this.values = values;
+        this.eventType = eventType;
+    }
+
+    /**
+     * Returns the extracted property values by position.
+     * @return values
+     */
+    public String[] getValues()
+    {
+        return values;
+    }
+
+    /**
+     * Returns the document as String or byte array, or null if the underlying node was set.
+     * @return document
+     */
+    public Object getDocument()
+    {
+        return document;
+    }
+
+    public EventType getEventType()
+    {
+        return eventType;
+    }
+
+    public void setUnderlying(Object underlying)
+    {
+        node = (Node) underlying;
+        document = null;
+        values = new String[0];
+    }
+
+    public Object getUnderlying()
+    {
+        Node result = node;
+        if (result == null)
+        {
+            result = eventType.parseDOM(document);
+            node = result;
+        }
+        return result;
+    }
+
+    public Object get(String property) throws PropertyAccessException
+    {
+        EventPropertyGetter getter = eventType.getGetter(property);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + property + "' is not a valid property name for this type");
+        }
+        return getter.get(this);
+    }
+
+    public Object getFragment(String propertyExpression) throws PropertyAccessException
+    {
+        EventPropertyGetter getter = eventType.getGetter(propertyExpression);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + propertyExpression + "' is not a valid property name for this type");
+        }
+        return getter.getFragment(this);
+    }
+}
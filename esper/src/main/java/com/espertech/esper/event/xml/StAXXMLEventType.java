@@ -0,0 +1,218 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.ConfigurationEventTypeXMLDOM;
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.EventTypeMetadata;
+import com.espertech.esper.event.property.NestedProperty;
+import com.espertech.esper.event.property.Property;
+import com.espertech.esper.event.property.PropertyParser;
+import com.espertech.esper.event.property.SimpleProperty;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * XML event type for documents that are sent as text and parsed by streaming (StAX) rather than into a DOM.
+ * <p>
+ * Each simple or nested property requested by statements is assigned a position and parsing extracts the values of all
+ * properties requested so far in a single pass, stopping as soon as all values are found.
+ * Other properties, such as indexed, mapped and dynamic properties, explicit XPath properties and fragments,
+ * are evaluated against a DOM that is built from the document text on first use.
+ * When properties are configured to resolve as XPath expressions, all properties are evaluated against the DOM.
+ */
+public class StAXXMLEventType extends SimpleXMLEventType
+{
+    private final XMLInputFactory inputFactory;
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final Map<String, EventPropertyGetter> streamGetterCache;
+    private final Map<List<String>, Integer> paths;
+    private volatile StAXXMLPathTree pathTree;
+
+    /**
+     * Ctor.
+     * @param eventTypeMetadata event type metadata
+     * @param eventTypeId type id
+     * @param configurationEventTypeXMLDOM configures the event type
+     * @param eventAdapterService for type looking and registration
+     */
+    public StAXXMLEventType(EventTypeMetadata eventTypeMetadata, int eventTypeId, ConfigurationEventTypeXMLDOM configurationEventTypeXMLDOM, EventAdapterService eventAdapterService)
+    {
+        super(eventTypeMetadata, eventTypeId, configurationEventTypeXMLDOM, eventAdapterService);
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+
+        // documents come from the sender and must not declare a DTD or resolve external entities
+        documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        documentBuilderFactory.setExpandEntityReferences(false);
+        try
+        {
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            documentBuilderFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            documentBuilderFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        }
+        catch (ParserConfigurationException ex)
+        {
+            throw new EPException("Failed to configure XML parser for event type '" + getName() + "': " + ex.getMessage(), ex);
+        }
+        streamGetterCache = new HashMap<String, EventPropertyGetter>();
+        paths = new LinkedHashMap<List<String>, Integer>();
+        pathTree = new StAXXMLPathTree(Collections.<String[]>emptyList());
+    }
+
+    protected synchronized EventPropertyGetter doResolvePropertyGetter(String propertyExpression)
+    {
+        EventPropertyGetter getter = streamGetterCache.get(propertyExpression);
+        if (getter != null)
+        {
+            return getter;
+        }
+
+        EventPropertyGetter domGetter = super.doResolvePropertyGetter(propertyExpression);
+        if (getConfigurationEventTypeXMLDOM().isXPathPropertyExpr())
+        {
+            return domGetter;
+        }
+        List<String> path = getPath(propertyExpression);
+        if (path == null)
+        {
+            return domGetter;
+        }
+
+        Integer valueNum = paths.get(path);
+        if (valueNum == null)
+        {
+            valueNum = paths.size();
+            paths.put(path, valueNum);
+            List<String[]> pathList = new ArrayList<String[]>();
+            for (List<String> existing : paths.keySet())
+            {
+                pathList.add(existing.toArray(new String[existing.size()]));
+            }
+            pathTree = new StAXXMLPathTree(pathList);
+        }
+        getter = new StAXXMLPropertyGetter(valueNum, domGetter);
+        streamGetterCache.put(propertyExpression, getter);
+        return getter;
+    }
+
+    /**
+     * Parses a document, extracting the values of properties requested so far.
+     * @param document String or byte array
+     * @param validateRootElement true to validate the root element name
+     * @return event
+     * @throws EPException if the document cannot be parsed
+     */
+    public StAXXMLEventBean parse(Object document, boolean validateRootElement) throws EPException
+    {
+        XMLStreamReader reader = null;
+        try
+        {
+            if (document instanceof String)
+            {
+                reader = inputFactory.createXMLStreamReader(new StringReader((String) document));
+            }
+            else
+            {
+                reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream((byte[]) document));
+            }
+            String[] values = pathTree.extract(reader, validateRootElement ? getRootElementName() : null);
+            return new StAXXMLEventBean(document, values, this);
+        }
+        catch (XMLStreamException ex)
+        {
+            throw new EPException("Failed to parse XML document for event type '" + getName() + "': " + ex.getMessage(), ex);
+        }
+        finally
+        {
+            if (reader != null)
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch (XMLStreamException ex)
+                {
+                    // no action required
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the DOM of a document.
+     * @param document String or byte array
+     * @return root element
+     * @throws EPException if the document cannot be parsed
+     */
+    public Node parseDOM(Object document) throws EPException
+    {
+        try
+        {
+            DocumentBuilder builder;
+            synchronized (documentBuilderFactory)
+            {
+                builder = documentBuilderFactory.newDocumentBuilder();
+            }
+            Document dom;
+            if (document instanceof String)
+            {
+                dom = builder.parse(new InputSource(new StringReader((String) document)));
+            }
+            else
+            {
+                dom = builder.parse(new ByteArrayInputStream((byte[]) document));
+            }
+            return dom.getDocumentElement();
+        }
+        catch (Exception ex)
+        {
+            throw new EPException("Failed to build DOM of XML document for event type '" + getName() + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    private static List<String> getPath(String propertyExpression)
+    {
+        Property property = PropertyParser.parse(propertyExpression, false);
+        if (property instanceof SimpleProperty)
+        {
+            return Collections.singletonList(((SimpleProperty) property).getPropertyNameAtomic());
+        }
+        if (!(property instanceof NestedProperty))
+        {
+            return null;
+        }
+        List<String> path = new ArrayList<String>();
+        for (Property nested : ((NestedProperty) property).getProperties())
+        {
+            if (!(nested instanceof SimpleProperty))
+            {
+                return null;
+            }
+            path.add(((SimpleProperty) nested).getPropertyNameAtomic());
+        }
+        return path;
+    }
+}
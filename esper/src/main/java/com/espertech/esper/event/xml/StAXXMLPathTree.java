@@ -0,0 +1,208 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.EPException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tree of the property paths to extract from XML documents in a single streaming pass, in which each path is
+ * assigned a position in the value array that extraction returns.
+ * <p>
+ * Paths are relative to the root element and consist of element names, with the last name matching either an attribute
+ * or an element. As with DOM property getters, attributes take precedence over elements of the same name,
+ * only the first element of a given name is considered and the value of an element is its text content.
+ * <p>
+ * The tree is immutable and may be used by multiple threads.
+ */
+public class StAXXMLPathTree
+{
+    private final PathNode root;
+    private final int numValues;
+    private final int numNodes;
+
+    /**
+     * Ctor.
+     * @param paths element and attribute names of each path, the position in the list being the position of the value
+     */
+    public StAXXMLPathTree(List<String[]> paths)
+    {
+        root = new PathNode(0);
+        int count = 1;
+        for (int i = 0; i < paths.size(); i++)
+        {
+            PathNode node = root;
+            for (String name : paths.get(i))
+            {
+                PathNode child = node.children.get(name);
+                if (child == null)
+                {
+                    child = new PathNode(count++);
+                    node.children.put(name, child);
+                }
+                node = child;
+            }
+            node.valueNum = i;
+        }
+        numValues = paths.size();
+        numNodes = count;
+    }
+
+    /**
+     * Returns the number of values extracted.
+     * @return number of paths
+     */
+    public int getNumValues()
+    {
+        return numValues;
+    }
+
+    /**
+     * Reads a document and returns the value of each path, stopping as soon as all values are found.
+     * @param reader positioned at the start of the document
+     * @param expectedRootElementName root element name to validate, or null if not validating
+     * @return values by position, null for paths not found
+     * @throws XMLStreamException if the document cannot be read
+     * @throws EPException if the root element name does not match
+     */
+    public String[] extract(XMLStreamReader reader, String expectedRootElementName) throws XMLStreamException
+    {
+        String[] values = new String[numValues];
+        boolean[] visited = new boolean[numNodes];
+        int remaining = numValues;
+        PathNode[] active = new PathNode[16];
+        StringBuilder[] captures = new StringBuilder[16];
+        int numCaptures = 0;
+        int depth = -1;
+
+        while (reader.hasNext())
+        {
+            int eventType = reader.next();
+            if (eventType == XMLStreamConstants.START_ELEMENT)
+            {
+                depth++;
+                if (depth == active.length)
+                {
+                    PathNode[] activeGrown = new PathNode[depth * 2];
+                    System.arraycopy(active, 0, activeGrown, 0, depth);
+                    active = activeGrown;
+                    StringBuilder[] capturesGrown = new StringBuilder[depth * 2];
+                    System.arraycopy(captures, 0, capturesGrown, 0, depth);
+                    captures = capturesGrown;
+                }
+
+                PathNode node = null;
+                if (depth == 0)
+                {
+                    if ((expectedRootElementName != null) && (!expectedRootElementName.equals(reader.getLocalName())))
+                    {
+                        throw new EPException("Unexpected root element name '" + reader.getLocalName() + "' encountered, expected a root element name of '" + expectedRootElementName + "'");
+                    }
+                    node = root;
+                }
+                else if (active[depth - 1] != null)
+                {
+                    PathNode child = active[depth - 1].children.get(reader.getLocalName());
+                    if ((child != null) && (!visited[child.nodeNum]))
+                    {
+                        visited[child.nodeNum] = true;
+                        node = child;
+                    }
+                }
+                active[depth] = node;
+                captures[depth] = null;
+                if (node == null)
+                {
+                    continue;
+                }
+
+                if (node.valueNum != -1 && depth > 0)
+                {
+                    captures[depth] = new StringBuilder();
+                    numCaptures++;
+                }
+                if (!node.children.isEmpty())
+                {
+                    for (int i = 0; i < reader.getAttributeCount(); i++)
+                    {
+                        PathNode attribute = node.children.get(reader.getAttributeLocalName(i));
+                        if ((attribute == null) || (visited[attribute.nodeNum]))
+                        {
+                            continue;
+                        }
+                        // an attribute hides an element of the same name, including any elements nested within
+                        visited[attribute.nodeNum] = true;
+                        if (attribute.valueNum != -1)
+                        {
+                            values[attribute.valueNum] = reader.getAttributeValue(i);
+                            remaining--;
+                        }
+                    }
+                }
+            }
+            else if ((eventType == XMLStreamConstants.CHARACTERS) || (eventType == XMLStreamConstants.CDATA) || (eventType == XMLStreamConstants.SPACE))
+            {
+                if (numCaptures == 0)
+                {
+                    continue;
+                }
+                for (int i = 1; i <= depth; i++)
+                {
+                    if (captures[i] != null)
+                    {
+                        captures[i].append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                continue;
+            }
+            else if (eventType == XMLStreamConstants.END_ELEMENT)
+            {
+                if (captures[depth] != null)
+                {
+                    values[active[depth].valueNum] = captures[depth].toString();
+                    captures[depth] = null;
+                    numCaptures--;
+                    remaining--;
+                }
+                active[depth] = null;
+                depth--;
+            }
+            else
+            {
+                continue;
+            }
+
+            if ((remaining == 0) && (numCaptures == 0))
+            {
+                break;
+            }
+        }
+        return values;
+    }
+
+    private static class PathNode
+    {
+        private final int nodeNum;
+        private final Map<String, PathNode> children;
+        private int valueNum;
+
+        private PathNode(int nodeNum)
+        {
+            this.nodeNum = nodeNum;
+            this.children = new HashMap<String, PathNode>();
+            this.valueNum = -1;
+        }
+    }
+}
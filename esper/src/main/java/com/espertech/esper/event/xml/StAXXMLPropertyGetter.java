@@ -0,0 +1,57 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.PropertyAccessException;
+
+/**
+ * Getter for a property extracted by position when a streamed XML event was parsed, using the DOM getter for
+ * events parsed before the property was first requested and for events that are DOM nodes.
+ */
+public class StAXXMLPropertyGetter implements EventPropertyGetter
+{
+    private final int valueNum;
+    private final EventPropertyGetter domGetter;
+
+    /**
+     * Ctor.
+     * @param valueNum position of the value
+     * @param domGetter getter against the DOM
+     */
+    public StAXXMLPropertyGetter(int valueNum, EventPropertyGetter domGetter)
+    {
+        this.valueNum = valueNum;
+        this.domGetter = domGetter;
+    }
+
+    public Object get(EventBean eventBean) throws PropertyAccessException
+    {
+        if (eventBean instanceof StAXXMLEventBean)
+        {
+            String[] values = ((StAXXMLEventBean) eventBean).getValues();
+            if (valueNum < values.length)
+            {
+                return values[valueNum];
+            }
+        }
+        return domGetter.get(eventBean);
+    }
+
+    public boolean isExistsProperty(EventBean eventBean)
+    {
+        return domGetter.isExistsProperty(eventBean);
+    }
+
+    public Object getFragment(EventBean eventBean) throws PropertyAccessException
+    {
+        return domGetter.getFragment(eventBean);
+    }
+}
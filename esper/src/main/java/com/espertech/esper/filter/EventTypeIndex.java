@@ -13,12 +13,14 @@ import com.espertech.esper.client.EventType;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Mapping of event type to a tree-like structure
@@ -28,19 +30,36 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * and (2) asking the subtree for this event type to evaluate the event.
  * <p>
  * The class performs all the locking required for multithreaded access.
+ * <p>
+ * For each event type evaluated the class caches the root nodes to visit, i.e. the root node of the event type
+ * itself and of each of its supertypes, if any. The cache is versioned and becomes stale only when event types
+ * are added, replaced or removed, and not when filters are added to or removed from an existing root node.
  */
 public class EventTypeIndex implements EventEvaluator
 {
+    private static final FilterHandleSetNode[] NO_ROOT_NODES = new FilterHandleSetNode[0];
+
     private Map<EventType, FilterHandleSetNode> eventTypes;
     private ReadWriteLock eventTypesRWLock;
+    private final Map<EventType, RootNodes> rootNodesCache = new ConcurrentHashMap<EventType, RootNodes>();
+    private final AtomicInteger version = new AtomicInteger();
 
     /**
      * Constructor.
      */
     public EventTypeIndex()
     {
-        eventTypes = new HashMap<EventType, FilterHandleSetNode>();
-        eventTypesRWLock = new ReentrantReadWriteLock();
+        this(FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency supplies the lock and map
+     */
+    public EventTypeIndex(FilterIndexConcurrency concurrency)
+    {
+        eventTypes = concurrency.makeMap();
+        eventTypesRWLock = concurrency.obtainNew();
     }
 
     /**
@@ -49,6 +68,8 @@ public class EventTypeIndex implements EventEvaluator
     public void destroy()
     {
         eventTypes.clear();
+        version.incrementAndGet();
+        rootNodesCache.clear();
     }
 
     /**
@@ -67,6 +88,7 @@ public class EventTypeIndex implements EventEvaluator
                 throw new IllegalStateException("Event type already in index, add not performed, type=" + eventType);
             }
             eventTypes.put(eventType, rootNode);
+            version.incrementAndGet();
         }
         finally
         {
@@ -74,12 +96,32 @@ public class EventTypeIndex implements EventEvaluator
         }
     }
 
+    /**
+     * Replace the root node of the subtree of an event type, or add the event type if not already in the index.
+     * @param eventType is the event type to replace the subtree for
+     * @param rootNode is the new root node of the subtree for filter constant indizes and callbacks
+     */
+    public void replace(EventType eventType, FilterHandleSetNode rootNode)
+    {
+        eventTypesRWLock.writeLock().lock();
+        try
+        {
+            eventTypes.put(eventType, rootNode);
+            version.incrementAndGet();
+        }
+        finally
+        {
+            eventTypesRWLock.writeLock().unlock();
+        }
+    }
 
     public void removeType(EventType type) {
         eventTypesRWLock.writeLock().lock();
         try
         {
             eventTypes.remove(type);
+            version.incrementAndGet();
+            rootNodesCache.remove(type);
         }
         finally
         {
@@ -103,22 +145,35 @@ public class EventTypeIndex implements EventEvaluator
 
     public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
     {
-        EventType eventType = theEvent.getEventType();
-
-        // Attempt to match exact type
-        matchType(eventType, theEvent, matches);
-
-        // No supertype means we are done
-        if (eventType.getSuperTypes() == null)
-        {
-            return;
-        }
+        matchEventTimed(theEvent, matches);
+    }
 
-        for (Iterator<EventType> it = eventType.getDeepSuperTypes(); it.hasNext();)
+    /**
+     * Matches the event and, when profiling, times the evaluation once per root node and adds the time
+     * to the statistics of the root node.
+     * @param theEvent is the event to match
+     * @param matches is populated with handles of matching filters
+     * @return nanoseconds spent when profiling, or zero when not profiling
+     */
+    public long matchEventTimed(EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        FilterHandleSetNode[] rootNodes = getRootNodes(theEvent.getEventType());
+        long totalNanos = 0;
+        for (FilterHandleSetNode rootNode : rootNodes)
         {
-            EventType superType = it.next();
-            matchType(superType, theEvent, matches);
+            FilterEvaluatorStatistics stats = rootNode.getStatistics();
+            if ((stats == null) || (!stats.isProfiling()))
+            {
+                rootNode.matchEvent(theEvent, matches);
+                continue;
+            }
+            long startNanos = System.nanoTime();
+            rootNode.matchEvent(theEvent, matches);
+            long nanos = System.nanoTime() - startNanos;
+            stats.addNanos(nanos);
+            totalNanos += nanos;
         }
+        return totalNanos;
     }
 
     /**
@@ -148,27 +203,71 @@ public class EventTypeIndex implements EventEvaluator
         return count;
     }
 
-    private void matchType(EventType eventType, EventBean eventBean, Collection<FilterHandle> matches)
+    /**
+     * Returns the root nodes to visit for an event of the given event type, that is the root node of the event type
+     * itself followed by the root nodes of its supertypes, for those types that have a root node.
+     * @param eventType is an event type
+     * @return root nodes
+     */
+    protected FilterHandleSetNode[] getRootNodes(EventType eventType)
+    {
+        // Only a stale entry is written, so that evaluating events does not write shared state
+        int currentVersion = version.get();
+        RootNodes cached = rootNodesCache.get(eventType);
+        if ((cached == null) || (cached.version != currentVersion))
+        {
+            // The version is read before the index, a concurrent change makes the result stale and recomputed next time
+            cached = new RootNodes(currentVersion, computeRootNodes(eventType));
+            rootNodesCache.put(eventType, cached);
+        }
+        return cached.rootNodes;
+    }
+
+    private FilterHandleSetNode[] computeRootNodes(EventType eventType)
     {
+        List<FilterHandleSetNode> rootNodes = new ArrayList<FilterHandleSetNode>(2);
         eventTypesRWLock.readLock().lock();
-        FilterHandleSetNode rootNode = null;
         try
         {
-            rootNode = eventTypes.get(eventType);
+            FilterHandleSetNode rootNode = eventTypes.get(eventType);
+            if (rootNode != null)
+            {
+                rootNodes.add(rootNode);
+            }
+            if (eventType.getSuperTypes() != null)
+            {
+                for (Iterator<EventType> it = eventType.getDeepSuperTypes(); it.hasNext();)
+                {
+                    rootNode = eventTypes.get(it.next());
+                    if (rootNode != null)
+                    {
+                        rootNodes.add(rootNode);
+                    }
+                }
+            }
         }
         finally
         {
             eventTypesRWLock.readLock().unlock();
         }
 
-        // If the top class node is null, no filters have yet been registered for this event type.
-        // In this case, log a message and done.
-        if (rootNode == null)
+        if (rootNodes.isEmpty())
         {
-            return;
+            return NO_ROOT_NODES;
         }
+        return rootNodes.toArray(new FilterHandleSetNode[rootNodes.size()]);
+    }
+
+    private static final class RootNodes
+    {
+        private final int version;
+        private final FilterHandleSetNode[] rootNodes;
 
-        rootNode.matchEvent(eventBean, matches);
+        private RootNodes(int version, FilterHandleSetNode[] rootNodes)
+        {
+            this.version = version;
+            this.rootNodes = rootNodes;
+        }
     }
 
     private static final Log log = LogFactory.getLog(EventTypeIndex.class);
@@ -12,30 +12,98 @@ import com.espertech.esper.client.EventType;
 import com.espertech.esper.collection.Pair;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class is responsible for changes to {@link EventTypeIndex} for addition and removal of filters.
  * It delegates the work to make modifications to the filter parameter tree to an {@link IndexTreeBuilder}.
  * It enforces a policy that a filter callback can only be added once.
+ * <p>
+ * For statement-scoped evaluation it tracks the filters of each statement and, on first request, builds
+ * a secondary index holding only that statement's filters, which it then maintains along with the main index.
+ * The number of such secondary indexes is bounded: when the bound is reached, the index of the statement
+ * least recently evaluated is evicted and is rebuilt should it be requested again.
+ * <p>
+ * When collecting statistics, it can reorder the filter index tree of an event type such that the filter indexes
+ * that pass on the fewest events to the next level come first, see {@link #reorder()}.
  */
 public class EventTypeIndexBuilder
 {
     private final Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair> callbacks;
     private final Lock callbacksLock;
+    private final Map<String, Set<FilterHandle>> statementCallbacks;
+    private final ConcurrentHashMap<String, EventTypeIndexBuilderStatementIndex> statementIndexes;
+    private final int maxStatementIndexes;
     private final EventTypeIndex eventTypeIndex;
+    private final FilterIndexConcurrency concurrency;
+    private final FilterEvaluatorStatistics.Level statisticsLevel;
+    private final ReadWriteLock rebuildLock;
+    private final Lock reorderLock;
+    private final Map<EventType, Map<Pair<FilterSpecLookupable, FilterOperator>, Double>> selectivities;
+
+    private static final long MIN_LOOKUPS_SELECTIVITY = 100;
+    private static final double SELECTIVITY_TOLERANCE = 0.1d;
+
+    /**
+     * Default maximum number of statement-scoped secondary indexes kept.
+     */
+    public static final int DEFAULT_MAX_STATEMENT_INDEXES = 100;
 
     /**
      * Constructor - takes the event type index to manipulate as its parameter.
      * @param eventTypeIndex - index to manipulate
      */
     public EventTypeIndexBuilder(EventTypeIndex eventTypeIndex)
+    {
+        this(eventTypeIndex, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructor - takes the event type index to manipulate as its parameter.
+     * @param eventTypeIndex - index to manipulate
+     * @param concurrency supplies locks and collections to new nodes and indexes
+     */
+    public EventTypeIndexBuilder(EventTypeIndex eventTypeIndex, FilterIndexConcurrency concurrency)
+    {
+        this(eventTypeIndex, concurrency, FilterEvaluatorStatistics.Level.NONE);
+    }
+
+    /**
+     * Constructor - takes the event type index to manipulate as its parameter.
+     * @param eventTypeIndex - index to manipulate
+     * @param concurrency supplies locks and collections to new nodes and indexes
+     * @param statisticsLevel level of statistics for nodes and indexes to keep, reordering requires lookups to be counted
+     */
+    public EventTypeIndexBuilder(EventTypeIndex eventTypeIndex, FilterIndexConcurrency concurrency, FilterEvaluatorStatistics.Level statisticsLevel)
+    {
+        this(eventTypeIndex, concurrency, statisticsLevel, DEFAULT_MAX_STATEMENT_INDEXES);
+    }
+
+    /**
+     * Constructor - takes the event type index to manipulate as its parameter.
+     * @param eventTypeIndex - index to manipulate
+     * @param concurrency supplies locks and collections to new nodes and indexes
+     * @param statisticsLevel level of statistics for nodes and indexes to keep, reordering requires lookups to be counted
+     * @param maxStatementIndexes maximum number of statement-scoped secondary indexes to keep
+     */
+    public EventTypeIndexBuilder(EventTypeIndex eventTypeIndex, FilterIndexConcurrency concurrency, FilterEvaluatorStatistics.Level statisticsLevel, int maxStatementIndexes)
     {
         this.eventTypeIndex = eventTypeIndex;
+        this.concurrency = concurrency;
+        this.statisticsLevel = statisticsLevel;
+        this.rebuildLock = new ReentrantReadWriteLock();
+        this.reorderLock = new ReentrantLock();
+        this.selectivities = new HashMap<EventType, Map<Pair<FilterSpecLookupable, FilterOperator>, Double>>();
 
         this.callbacks = new HashMap<FilterHandle, EventTypeIndexBuilderValueIndexesPair>();
         this.callbacksLock = new ReentrantLock();
+        this.statementCallbacks = new HashMap<String, Set<FilterHandle>>();
+        this.statementIndexes = new ConcurrentHashMap<String, EventTypeIndexBuilderStatementIndex>();
+        this.maxStatementIndexes = maxStatementIndexes;
     }
 
     /**
@@ -44,6 +112,9 @@ public class EventTypeIndexBuilder
     public void destroy()
     {
         callbacks.clear();
+        statementCallbacks.clear();
+        statementIndexes.clear();
+        selectivities.clear();
     }
 
     /**
@@ -53,6 +124,19 @@ public class EventTypeIndexBuilder
      * @param filterCallback is the callback
      */
     public final void add(FilterValueSet filterValueSet, FilterHandle filterCallback)
+    {
+        rebuildLock.readLock().lock();
+        try
+        {
+            addInternal(filterValueSet, filterCallback);
+        }
+        finally
+        {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void addInternal(FilterValueSet filterValueSet, FilterHandle filterCallback)
     {
         EventType eventType = filterValueSet.getEventType();
 
@@ -68,7 +152,7 @@ public class EventTypeIndexBuilder
                 rootNode = eventTypeIndex.get(eventType);
                 if (rootNode == null)
                 {
-                    rootNode = new FilterHandleSetNode();
+                    rootNode = createRootNode();
                     eventTypeIndex.add(eventType, rootNode);
                 }
             }
@@ -93,8 +177,8 @@ public class EventTypeIndexBuilder
         }
 
         // Now add to tree
-        IndexTreeBuilder treeBuilder = new IndexTreeBuilder();
-        IndexTreePath path = treeBuilder.add(filterValueSet, filterCallback, rootNode);
+        IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency, statisticsLevel);
+        IndexTreePath path = treeBuilder.add(getTreeValueSet(filterValueSet), filterCallback, rootNode);
         EventTypeIndexBuilderIndexLookupablePair[] pathArray = path.toArray();
         EventTypeIndexBuilderValueIndexesPair pair = new EventTypeIndexBuilderValueIndexesPair(filterValueSet, pathArray);
 
@@ -102,6 +186,7 @@ public class EventTypeIndexBuilder
         try
         {
             callbacks.put(filterCallback, pair);
+            addStatementCallback(filterValueSet, filterCallback);
         }
         finally
         {
@@ -114,6 +199,19 @@ public class EventTypeIndexBuilder
      * @param filterCallback is the callback to remove
      */
     public final void remove(FilterHandle filterCallback)
+    {
+        rebuildLock.readLock().lock();
+        try
+        {
+            removeInternal(filterCallback);
+        }
+        finally
+        {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(FilterHandle filterCallback)
     {
         EventTypeIndexBuilderValueIndexesPair pair = null;
         callbacksLock.lock();
@@ -136,7 +234,7 @@ public class EventTypeIndexBuilder
 
         // Now remove from tree
         if (rootNode != null) {
-            IndexTreeBuilder treeBuilder = new IndexTreeBuilder();
+            IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency);
             treeBuilder.remove(eventType, filterCallback, new EventTypeIndexBuilderIndexLookupableIterator(pair.getIndexPairs()), rootNode);
         }
 
@@ -145,6 +243,213 @@ public class EventTypeIndexBuilder
         try
         {
             callbacks.remove(filterCallback);
+            removeStatementCallback(filterCallback);
+        }
+        finally
+        {
+            callbacksLock.unlock();
+        }
+    }
+
+    /**
+     * Add a batch of filters, acquiring the callbacks lock once for checking and once for registering the batch.
+     * Throws an IllegalStateException exception if any callback is already registered or occurs twice in the batch,
+     * in which case none of the filters are added.
+     * @param filters filters to add
+     */
+    public final void addAll(Collection<FilterSetEntry> filters)
+    {
+        rebuildLock.readLock().lock();
+        try
+        {
+            addAllInternal(filters);
+        }
+        finally
+        {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void addAllInternal(Collection<FilterSetEntry> filters)
+    {
+        if (filters.isEmpty())
+        {
+            return;
+        }
+
+        // Make sure no callback already exists and obtain the root node for each event type
+        Map<EventType, FilterHandleSetNode> rootNodes = new LinkedHashMap<EventType, FilterHandleSetNode>();
+        callbacksLock.lock();
+        try
+        {
+            Set<FilterHandle> batchHandles = new HashSet<FilterHandle>();
+            for (FilterSetEntry entry : filters)
+            {
+                if (callbacks.containsKey(entry.getHandle()) || !batchHandles.add(entry.getHandle()))
+                {
+                    throw new IllegalStateException("Callback for filter specification already exists in collection");
+                }
+            }
+
+            for (FilterSetEntry entry : filters)
+            {
+                EventType eventType = entry.getFilterValueSet().getEventType();
+                if (rootNodes.containsKey(eventType))
+                {
+                    continue;
+                }
+                FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+                if (rootNode == null)
+                {
+                    rootNode = createRootNode();
+                    eventTypeIndex.add(eventType, rootNode);
+                }
+                rootNodes.put(eventType, rootNode);
+            }
+        }
+        finally
+        {
+            callbacksLock.unlock();
+        }
+
+        // Now add to tree, holding the root node write lock once per event type for all filters of the type
+        IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency, statisticsLevel);
+        Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair> pairs = new HashMap<FilterHandle, EventTypeIndexBuilderValueIndexesPair>();
+        for (Map.Entry<EventType, FilterHandleSetNode> rootEntry : rootNodes.entrySet())
+        {
+            FilterHandleSetNode rootNode = rootEntry.getValue();
+            rootNode.getNodeRWLock().writeLock().lock();
+            try
+            {
+                for (FilterSetEntry entry : filters)
+                {
+                    FilterValueSet filterValueSet = entry.getFilterValueSet();
+                    if (filterValueSet.getEventType() != rootEntry.getKey())
+                    {
+                        continue;
+                    }
+                    IndexTreePath path = treeBuilder.add(getTreeValueSet(filterValueSet), entry.getHandle(), rootNode);
+                    pairs.put(entry.getHandle(), new EventTypeIndexBuilderValueIndexesPair(filterValueSet, path.toArray()));
+                }
+            }
+            finally
+            {
+                rootNode.getNodeRWLock().writeLock().unlock();
+            }
+        }
+        treeBuilder.buildChangedIndexes();
+
+        callbacksLock.lock();
+        try
+        {
+            for (FilterSetEntry entry : filters)
+            {
+                callbacks.put(entry.getHandle(), pairs.get(entry.getHandle()));
+                addStatementCallback(entry.getFilterValueSet(), entry.getHandle());
+            }
+        }
+        finally
+        {
+            callbacksLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a batch of filter callbacks, acquiring the callbacks lock once for looking up and once for
+     * unregistering the batch. Callbacks that are not registered are ignored.
+     * @param filterCallbacks callbacks to remove
+     */
+    public final void removeAll(Collection<FilterHandle> filterCallbacks)
+    {
+        rebuildLock.readLock().lock();
+        try
+        {
+            removeAllInternal(filterCallbacks);
+        }
+        finally
+        {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void removeAllInternal(Collection<FilterHandle> filterCallbacks)
+    {
+        if (filterCallbacks.isEmpty())
+        {
+            return;
+        }
+
+        List<FilterHandle> handles = new ArrayList<FilterHandle>(filterCallbacks.size());
+        List<EventTypeIndexBuilderValueIndexesPair> pairs = new ArrayList<EventTypeIndexBuilderValueIndexesPair>(filterCallbacks.size());
+        callbacksLock.lock();
+        try
+        {
+            for (FilterHandle filterCallback : filterCallbacks)
+            {
+                EventTypeIndexBuilderValueIndexesPair pair = callbacks.get(filterCallback);
+                if (pair != null)
+                {
+                    handles.add(filterCallback);
+                    pairs.add(pair);
+                }
+            }
+        }
+        finally
+        {
+            callbacksLock.unlock();
+        }
+
+        if (handles.isEmpty())
+        {
+            return;
+        }
+
+        // Now remove from tree, holding the root node write lock once per event type for all filters of the type
+        Map<EventType, List<Integer>> positionsPerType = new LinkedHashMap<EventType, List<Integer>>();
+        for (int i = 0; i < handles.size(); i++)
+        {
+            EventType eventType = pairs.get(i).getFilterValueSet().getEventType();
+            List<Integer> positions = positionsPerType.get(eventType);
+            if (positions == null)
+            {
+                positions = new ArrayList<Integer>();
+                positionsPerType.put(eventType, positions);
+            }
+            positions.add(i);
+        }
+        IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency);
+        for (Map.Entry<EventType, List<Integer>> typeEntry : positionsPerType.entrySet())
+        {
+            EventType eventType = typeEntry.getKey();
+            FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+            if (rootNode == null)
+            {
+                continue;
+            }
+            rootNode.getNodeRWLock().writeLock().lock();
+            try
+            {
+                for (int i : typeEntry.getValue())
+                {
+                    treeBuilder.remove(eventType, handles.get(i), new EventTypeIndexBuilderIndexLookupableIterator(pairs.get(i).getIndexPairs()), rootNode);
+                }
+            }
+            finally
+            {
+                rootNode.getNodeRWLock().writeLock().unlock();
+            }
+        }
+        treeBuilder.buildChangedIndexes();
+
+        // Remove from callbacks list
+        callbacksLock.lock();
+        try
+        {
+            for (FilterHandle filterCallback : handles)
+            {
+                callbacks.remove(filterCallback);
+                removeStatementCallback(filterCallback);
+            }
         }
         finally
         {
@@ -158,8 +463,22 @@ public class EventTypeIndexBuilder
      * @return set of filters for taken statements
      */
     public final FilterSet take(Set<String> statementIds)
+    {
+        rebuildLock.readLock().lock();
+        try
+        {
+            return takeInternal(statementIds);
+        }
+        finally
+        {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private FilterSet takeInternal(Set<String> statementIds)
     {
         List<FilterSetEntry> list = new ArrayList<FilterSetEntry>();
+        IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency);
         callbacksLock.lock();
         try
         {
@@ -174,14 +493,15 @@ public class EventTypeIndexBuilder
                     FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
 
                     // Now remove from tree
-                    IndexTreeBuilder treeBuilder = new IndexTreeBuilder();
                     treeBuilder.remove(eventType, entry.getKey(), new EventTypeIndexBuilderIndexLookupableIterator(pair.getIndexPairs()), rootNode);
                 }
             }
+            treeBuilder.buildChangedIndexes();
             
             for (FilterSetEntry removed : list)
             {
                 callbacks.remove(removed.getHandle());
+                removeStatementCallback(removed.getHandle());
             }
         }
         finally
@@ -192,15 +512,632 @@ public class EventTypeIndexBuilder
         return new FilterSet(list);
     }
 
+    /**
+     * Returns the index holding only the filters of the given statement, building the index if none is kept
+     * for the statement. Returning an index already kept does not acquire any lock.
+     * @param statementId statement id
+     * @return index or null if the statement has no filters
+     */
+    public final EventTypeIndex getStatementIndex(String statementId)
+    {
+        EventTypeIndexBuilderStatementIndex statementIndex = statementIndexes.get(statementId);
+        if (statementIndex != null)
+        {
+            statementIndex.touch();
+            return statementIndex.getEventTypeIndex();
+        }
+
+        callbacksLock.lock();
+        try
+        {
+            statementIndex = statementIndexes.get(statementId);
+            if (statementIndex != null)
+            {
+                statementIndex.touch();
+                return statementIndex.getEventTypeIndex();
+            }
+
+            Set<FilterHandle> handles = statementCallbacks.get(statementId);
+            if (handles == null)
+            {
+                return null;
+            }
+
+            if (statementIndexes.size() >= maxStatementIndexes)
+            {
+                evictStatementIndex();
+            }
+
+            statementIndex = new EventTypeIndexBuilderStatementIndex(concurrency);
+            for (FilterHandle handle : handles)
+            {
+                statementIndex.add(callbacks.get(handle).getFilterValueSet(), handle);
+            }
+            statementIndex.touch();
+            statementIndexes.put(statementId, statementIndex);
+            return statementIndex.getEventTypeIndex();
+        }
+        finally
+        {
+            callbacksLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of statement-scoped secondary indexes currently kept.
+     * @return number of statement indexes
+     */
+    public final int getStatementIndexCount()
+    {
+        return statementIndexes.size();
+    }
+
+    /**
+     * Removes all filters of the event type, including those held by statement-scoped secondary indexes,
+     * and forgets the selectivity measured for the type.
+     * @param eventType type to remove
+     */
+    public final void removeType(EventType eventType)
+    {
+        rebuildLock.writeLock().lock();
+        try
+        {
+            callbacksLock.lock();
+            try
+            {
+                Iterator<Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair>> it = callbacks.entrySet().iterator();
+                while (it.hasNext())
+                {
+                    Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair> entry = it.next();
+                    if (entry.getValue().getFilterValueSet().getEventType() == eventType)
+                    {
+                        it.remove();
+                        removeStatementCallback(entry.getKey());
+                    }
+                }
+                for (EventTypeIndexBuilderStatementIndex statementIndex : statementIndexes.values())
+                {
+                    statementIndex.removeType(eventType);
+                }
+                selectivities.remove(eventType);
+                eventTypeIndex.removeType(eventType);
+            }
+            finally
+            {
+                callbacksLock.unlock();
+            }
+        }
+        finally
+        {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
     /**
      * Add the filters, from previously-taken filters.
      * @param filterSet to add
      */
     public void apply(FilterSet filterSet)
     {
-        for (FilterSetEntry entry : filterSet.getFilters())
+        addAll(filterSet.getFilters());
+    }
+
+    /**
+     * Reorders the filter index tree of each event type based on the statistics kept by the filter indexes, such that
+     * the filter indexes that pass on the fewest events to the next level are nested first.
+     * <p>
+     * Only the trees of event types for which the order of filter parameters changes for any filter are rebuilt.
+     * A tree is rebuilt off to the side without holding any lock, so that events continue to be evaluated against
+     * the current tree and filters can be added and removed while rebuilding. The rebuilt tree then replaces the
+     * current tree under the rebuild lock, after applying the filter additions and removals that occurred
+     * while rebuilding. Reorders are serialized.
+     * @return number of event types for which the filter index tree was rebuilt
+     */
+    public final int reorder()
+    {
+        if (statisticsLevel == FilterEvaluatorStatistics.Level.NONE)
+        {
+            return 0;
+        }
+
+        reorderLock.lock();
+        try
+        {
+            // Group filters by event type
+            Map<EventType, Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair>> filtersPerType = new LinkedHashMap<EventType, Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair>>();
+            Map<EventType, Map<Pair<FilterSpecLookupable, FilterOperator>, Double>> currentSelectivities;
+            rebuildLock.readLock().lock();
+            try
+            {
+                currentSelectivities = new HashMap<EventType, Map<Pair<FilterSpecLookupable, FilterOperator>, Double>>(selectivities);
+                callbacksLock.lock();
+                try
+                {
+                    for (Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair> entry : callbacks.entrySet())
+                    {
+                        EventType eventType = entry.getValue().getFilterValueSet().getEventType();
+                        Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair> filters = filtersPerType.get(eventType);
+                        if (filters == null)
+                        {
+                            filters = new LinkedHashMap<FilterHandle, EventTypeIndexBuilderValueIndexesPair>();
+                            filtersPerType.put(eventType, filters);
+                        }
+                        filters.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                finally
+                {
+                    callbacksLock.unlock();
+                }
+            }
+            finally
+            {
+                rebuildLock.readLock().unlock();
+            }
+
+            int count = 0;
+            for (Map.Entry<EventType, Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair>> entry : filtersPerType.entrySet())
+            {
+                if (reorderType(entry.getKey(), entry.getValue(), currentSelectivities.get(entry.getKey())))
+                {
+                    count++;
+                }
+            }
+            return count;
+        }
+        finally
+        {
+            reorderLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics kept by the nodes and indexes of the filter index tree of each event type,
+     * optionally resetting the statistics.
+     * @param reset true to reset statistics after taking the snapshot
+     * @return profile of the root node per event type name, empty if not keeping statistics
+     */
+    public final Map<String, FilterEvaluatorProfile> getProfile(boolean reset)
+    {
+        Map<String, FilterEvaluatorProfile> result = new LinkedHashMap<String, FilterEvaluatorProfile>();
+        if (statisticsLevel == FilterEvaluatorStatistics.Level.NONE)
+        {
+            return result;
+        }
+
+        rebuildLock.readLock().lock();
+        try
+        {
+            // Determine from the filter paths the event types and, per index, the evaluators at the next level
+            Set<EventType> eventTypes = new LinkedHashSet<EventType>();
+            Map<FilterParamIndexBase, Map<Object, EventEvaluator>> next = new IdentityHashMap<FilterParamIndexBase, Map<Object, EventEvaluator>>();
+            callbacksLock.lock();
+            try
+            {
+                for (EventTypeIndexBuilderValueIndexesPair pair : callbacks.values())
+                {
+                    eventTypes.add(pair.getFilterValueSet().getEventType());
+                    for (EventTypeIndexBuilderIndexLookupablePair indexPair : pair.getIndexPairs())
+                    {
+                        FilterParamIndexBase index = indexPair.getIndex();
+                        Map<Object, EventEvaluator> values = next.get(index);
+                        if (values == null)
+                        {
+                            values = new LinkedHashMap<Object, EventEvaluator>();
+                            next.put(index, values);
+                        }
+                        if (values.containsKey(indexPair.getLookupable()))
+                        {
+                            continue;
+                        }
+                        EventEvaluator evaluator;
+                        index.getReadWriteLock().readLock().lock();
+                        try
+                        {
+                            evaluator = index.get(indexPair.getLookupable());
+                        }
+                        finally
+                        {
+                            index.getReadWriteLock().readLock().unlock();
+                        }
+                        if (evaluator != null)
+                        {
+                            values.put(indexPair.getLookupable(), evaluator);
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                callbacksLock.unlock();
+            }
+
+            for (EventType eventType : eventTypes)
+            {
+                FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+                if (rootNode != null)
+                {
+                    result.put(eventType.getName(), profileNode(rootNode, null, next, reset));
+                }
+            }
+            return result;
+        }
+        finally
+        {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private static FilterEvaluatorProfile profileNode(FilterHandleSetNode node, String filterConstant, Map<FilterParamIndexBase, Map<Object, EventEvaluator>> next, boolean reset)
+    {
+        List<FilterParamIndexBase> indizes;
+        int size;
+        node.getNodeRWLock().readLock().lock();
+        try
+        {
+            indizes = new ArrayList<FilterParamIndexBase>(node.getIndizes());
+            size = node.getFilterCallbackCount();
+        }
+        finally
+        {
+            node.getNodeRWLock().readLock().unlock();
+        }
+
+        List<FilterEvaluatorProfile> children = new ArrayList<FilterEvaluatorProfile>();
+        for (FilterParamIndexBase index : indizes)
+        {
+            children.add(profileIndex(index, null, next, reset));
+        }
+        return makeProfile("node", filterConstant, size, node.getStatistics(), children, reset);
+    }
+
+    private static FilterEvaluatorProfile profileIndex(FilterParamIndexBase index, String filterConstant, Map<FilterParamIndexBase, Map<Object, EventEvaluator>> next, boolean reset)
+    {
+        int size;
+        index.getReadWriteLock().readLock().lock();
+        try
+        {
+            size = index.size();
+        }
+        finally
+        {
+            index.getReadWriteLock().readLock().unlock();
+        }
+
+        List<FilterEvaluatorProfile> children = new ArrayList<FilterEvaluatorProfile>();
+        Map<Object, EventEvaluator> values = next.get(index);
+        if (values != null)
+        {
+            for (Map.Entry<Object, EventEvaluator> entry : values.entrySet())
+            {
+                String constant = String.valueOf(entry.getKey());
+                if (entry.getValue() instanceof FilterHandleSetNode)
+                {
+                    children.add(profileNode((FilterHandleSetNode) entry.getValue(), constant, next, reset));
+                }
+                else
+                {
+                    children.add(profileIndex((FilterParamIndexBase) entry.getValue(), constant, next, reset));
+                }
+            }
+        }
+
+        String description;
+        if (index instanceof FilterParamIndexLookupableBase)
+        {
+            description = ((FilterParamIndexLookupableBase) index).getLookupable().getExpression() + " " + index.getFilterOperator();
+        }
+        else
+        {
+            description = index.getFilterOperator().toString();
+        }
+        return makeProfile(description, filterConstant, size, index.getStatistics(), children, reset);
+    }
+
+    private static FilterEvaluatorProfile makeProfile(String description, String filterConstant, int size, FilterEvaluatorStatistics statistics, List<FilterEvaluatorProfile> children, boolean reset)
+    {
+        long fanOut = 0;
+        for (FilterEvaluatorProfile child : children)
+        {
+            fanOut += child.getNumLookups();
+        }
+        if (statistics == null)
+        {
+            return new FilterEvaluatorProfile(description, filterConstant, size, 0, 0, 0, fanOut, children);
+        }
+        FilterEvaluatorProfile profile = new FilterEvaluatorProfile(description, filterConstant, size, statistics.getNumLookups(), statistics.getNumMatches(), statistics.getNumNanos(), fanOut, children);
+        if (reset)
+        {
+            statistics.reset();
+        }
+        return profile;
+    }
+
+    // Called under the reorder lock, with the filters of the type as of the start of the reorder
+    private boolean reorderType(EventType eventType, Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair> filters, Map<Pair<FilterSpecLookupable, FilterOperator>, Double> current)
+    {
+        Map<Pair<FilterSpecLookupable, FilterOperator>, Double> updated = new HashMap<Pair<FilterSpecLookupable, FilterOperator>, Double>();
+        if (current != null)
+        {
+            updated.putAll(current);
+        }
+
+        // Take measured selectivities that differ sufficiently, so similar indexes do not swap places back and forth
+        for (Map.Entry<Pair<FilterSpecLookupable, FilterOperator>, Double> measured : measureSelectivity(filters.values()).entrySet())
+        {
+            Double previous = updated.get(measured.getKey());
+            double value = measured.getValue();
+            if ((previous == null) || (Math.abs(previous - value) > SELECTIVITY_TOLERANCE * Math.max(previous, value)))
+            {
+                updated.put(measured.getKey(), value);
+            }
+        }
+
+        // Determine whether the parameter order changes for any filter
+        boolean changed = false;
+        for (EventTypeIndexBuilderValueIndexesPair pair : filters.values())
+        {
+            FilterValueSetParam[] parameters = pair.getFilterValueSet().getParameters();
+            FilterValueSetParam[] before = current == null ? parameters : sortParameters(parameters, current);
+            FilterValueSetParam[] after = sortParameters(parameters, updated);
+            for (int i = 0; i < before.length; i++)
+            {
+                if (before[i] != after[i])
+                {
+                    changed = true;
+                    break;
+                }
+            }
+            if (changed)
+            {
+                break;
+            }
+        }
+        if (!changed)
+        {
+            rebuildLock.writeLock().lock();
+            try
+            {
+                if (eventTypeIndex.get(eventType) != null)
+                {
+                    selectivities.put(eventType, updated);
+                }
+            }
+            finally
+            {
+                rebuildLock.writeLock().unlock();
+            }
+            return false;
+        }
+
+        // Rebuild the tree off to the side, without holding locks
+        FilterHandleSetNode rootNode = createRootNode();
+        IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency, statisticsLevel);
+        Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair> rebuilt = new HashMap<FilterHandle, EventTypeIndexBuilderValueIndexesPair>();
+        for (Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair> entry : filters.entrySet())
+        {
+            FilterValueSet filterValueSet = entry.getValue().getFilterValueSet();
+            FilterValueSet treeValueSet = new FilterValueSetImpl(eventType, sortParameters(filterValueSet.getParameters(), updated));
+            IndexTreePath path = treeBuilder.add(treeValueSet, entry.getKey(), rootNode);
+            rebuilt.put(entry.getKey(), new EventTypeIndexBuilderValueIndexesPair(filterValueSet, path.toArray()));
+        }
+        treeBuilder.buildChangedIndexes();
+
+        // Apply the changes that occurred while rebuilding and replace the tree, adds and removes wait for this step only
+        rebuildLock.writeLock().lock();
+        try
+        {
+            if (eventTypeIndex.get(eventType) == null)
+            {
+                return false;   // type removed while rebuilding
+            }
+
+            callbacksLock.lock();
+            try
+            {
+                // Filters removed, or removed and added again, while rebuilding
+                for (Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair> entry : filters.entrySet())
+                {
+                    if (callbacks.get(entry.getKey()) != entry.getValue())
+                    {
+                        EventTypeIndexBuilderValueIndexesPair rebuiltPair = rebuilt.remove(entry.getKey());
+                        treeBuilder.remove(eventType, entry.getKey(), new EventTypeIndexBuilderIndexLookupableIterator(rebuiltPair.getIndexPairs()), rootNode);
+                    }
+                }
+
+                // Filters added while rebuilding
+                for (Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair> entry : callbacks.entrySet())
+                {
+                    FilterValueSet filterValueSet = entry.getValue().getFilterValueSet();
+                    if ((filterValueSet.getEventType() != eventType) || (filters.get(entry.getKey()) == entry.getValue()))
+                    {
+                        continue;
+                    }
+                    FilterValueSet treeValueSet = new FilterValueSetImpl(eventType, sortParameters(filterValueSet.getParameters(), updated));
+                    IndexTreePath path = treeBuilder.add(treeValueSet, entry.getKey(), rootNode);
+                    rebuilt.put(entry.getKey(), new EventTypeIndexBuilderValueIndexesPair(filterValueSet, path.toArray()));
+                }
+
+                treeBuilder.buildChangedIndexes();
+                selectivities.put(eventType, updated);
+                eventTypeIndex.replace(eventType, rootNode);
+                callbacks.putAll(rebuilt);
+            }
+            finally
+            {
+                callbacksLock.unlock();
+            }
+        }
+        finally
+        {
+            rebuildLock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    // Selectivity is the number of events an index passes on to the next level per event evaluated by the index
+    private static Map<Pair<FilterSpecLookupable, FilterOperator>, Double> measureSelectivity(Collection<EventTypeIndexBuilderValueIndexesPair> filters)
+    {
+        Map<Pair<FilterSpecLookupable, FilterOperator>, long[]> counts = new HashMap<Pair<FilterSpecLookupable, FilterOperator>, long[]>();
+        Set<EventEvaluator> visitedIndexes = Collections.newSetFromMap(new IdentityHashMap<EventEvaluator, Boolean>());
+        Set<EventEvaluator> visitedNext = Collections.newSetFromMap(new IdentityHashMap<EventEvaluator, Boolean>());
+        for (EventTypeIndexBuilderValueIndexesPair pair : filters)
+        {
+            for (EventTypeIndexBuilderIndexLookupablePair indexPair : pair.getIndexPairs())
+            {
+                FilterParamIndexBase index = indexPair.getIndex();
+                if ((!(index instanceof FilterParamIndexLookupableBase)) || (index.getStatistics() == null))
+                {
+                    continue;
+                }
+                Pair<FilterSpecLookupable, FilterOperator> key = new Pair<FilterSpecLookupable, FilterOperator>(((FilterParamIndexLookupableBase) index).getLookupable(), index.getFilterOperator());
+                long[] count = counts.get(key);
+                if (count == null)
+                {
+                    count = new long[2];
+                    counts.put(key, count);
+                }
+                if (visitedIndexes.add(index))
+                {
+                    count[0] += index.getStatistics().getNumLookups();
+                }
+
+                EventEvaluator next;
+                index.getReadWriteLock().readLock().lock();
+                try
+                {
+                    next = index.get(indexPair.getLookupable());
+                }
+                finally
+                {
+                    index.getReadWriteLock().readLock().unlock();
+                }
+                if ((next != null) && (visitedNext.add(next)))
+                {
+                    FilterEvaluatorStatistics nextStatistics = next instanceof FilterHandleSetNode ?
+                            ((FilterHandleSetNode) next).getStatistics() : ((FilterParamIndexBase) next).getStatistics();
+                    if (nextStatistics != null)
+                    {
+                        count[1] += nextStatistics.getNumLookups();
+                    }
+                }
+            }
+        }
+
+        Map<Pair<FilterSpecLookupable, FilterOperator>, Double> result = new HashMap<Pair<FilterSpecLookupable, FilterOperator>, Double>();
+        for (Map.Entry<Pair<FilterSpecLookupable, FilterOperator>, long[]> entry : counts.entrySet())
+        {
+            long[] count = entry.getValue();
+            if (count[0] >= MIN_LOOKUPS_SELECTIVITY)
+            {
+                result.put(entry.getKey(), (double) count[1] / count[0]);
+            }
+        }
+        return result;
+    }
+
+    // Sorts parameters by ascending selectivity, parameters without selectivity keep their order after those with,
+    // and boolean expressions remain last as the index tree builder expects
+    private static FilterValueSetParam[] sortParameters(FilterValueSetParam[] parameters, final Map<Pair<FilterSpecLookupable, FilterOperator>, Double> selectivity)
+    {
+        FilterValueSetParam[] sorted = parameters.clone();
+        Arrays.sort(sorted, new Comparator<FilterValueSetParam>()
+        {
+            public int compare(FilterValueSetParam first, FilterValueSetParam second)
+            {
+                return Double.compare(rank(first), rank(second));
+            }
+
+            private double rank(FilterValueSetParam parameter)
+            {
+                if (parameter.getFilterOperator() == FilterOperator.BOOLEAN_EXPRESSION)
+                {
+                    return Double.POSITIVE_INFINITY;
+                }
+                Double value = selectivity.get(new Pair<FilterSpecLookupable, FilterOperator>(parameter.getLookupable(), parameter.getFilterOperator()));
+                return value == null ? Double.MAX_VALUE : value;
+            }
+        });
+        return sorted;
+    }
+
+    // Called under the rebuild read lock
+    private FilterValueSet getTreeValueSet(FilterValueSet filterValueSet)
+    {
+        Map<Pair<FilterSpecLookupable, FilterOperator>, Double> selectivity = selectivities.get(filterValueSet.getEventType());
+        if (selectivity == null)
+        {
+            return filterValueSet;
+        }
+        return new FilterValueSetImpl(filterValueSet.getEventType(), sortParameters(filterValueSet.getParameters(), selectivity));
+    }
+
+    private FilterHandleSetNode createRootNode()
+    {
+        FilterHandleSetNode rootNode = new FilterHandleSetNode(concurrency);
+        rootNode.setStatistics(FilterEvaluatorStatistics.make(statisticsLevel));
+        return rootNode;
+    }
+
+    // Called under the callbacks lock, evicts the statement index least recently evaluated
+    private void evictStatementIndex()
+    {
+        String oldestStatementId = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<String, EventTypeIndexBuilderStatementIndex> entry : statementIndexes.entrySet())
+        {
+            if (entry.getValue().getLastUsed() < oldest)
+            {
+                oldest = entry.getValue().getLastUsed();
+                oldestStatementId = entry.getKey();
+            }
+        }
+        if (oldestStatementId != null)
+        {
+            statementIndexes.remove(oldestStatementId);
+        }
+    }
+
+    // Called under the callbacks lock
+    private void addStatementCallback(FilterValueSet filterValueSet, FilterHandle filterCallback)
+    {
+        String statementId = filterCallback.getStatementId();
+        Set<FilterHandle> handles = statementCallbacks.get(statementId);
+        if (handles == null)
+        {
+            handles = new LinkedHashSet<FilterHandle>();
+            statementCallbacks.put(statementId, handles);
+        }
+        handles.add(filterCallback);
+
+        EventTypeIndexBuilderStatementIndex statementIndex = statementIndexes.get(statementId);
+        if (statementIndex != null)
+        {
+            statementIndex.add(filterValueSet, filterCallback);
+        }
+    }
+
+    // Called under the callbacks lock
+    private void removeStatementCallback(FilterHandle filterCallback)
+    {
+        String statementId = filterCallback.getStatementId();
+        Set<FilterHandle> handles = statementCallbacks.get(statementId);
+        if (handles == null)
+        {
+            return;
+        }
+        handles.remove(filterCallback);
+
+        EventTypeIndexBuilderStatementIndex statementIndex = statementIndexes.get(statementId);
+        if (statementIndex != null)
+        {
+            statementIndex.remove(filterCallback);
+        }
+
+        if (handles.isEmpty())
         {
-            add(entry.getFilterValueSet(), entry.getHandle());
+            statementCallbacks.remove(statementId);
+            statementIndexes.remove(statementId);
         }
     }
 }
@@ -0,0 +1,134 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventType;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Secondary index that holds the filters of a single statement only, for re-evaluating an event
+ * against the filters of that statement without matching the event against all filters of the engine.
+ * <p>
+ * Callers must serialize changes; event evaluation against {@link #getEventTypeIndex()} may occur concurrently.
+ * The time of last use is updated without synchronization and serves only to choose an index for eviction.
+ */
+public class EventTypeIndexBuilderStatementIndex
+{
+    private final FilterIndexConcurrency concurrency;
+    private final EventTypeIndex eventTypeIndex;
+    private final Map<FilterHandle, EventTypeIndexBuilderValueIndexesPair> callbacks;
+    private long lastUsed;
+
+    /**
+     * Ctor.
+     * @param concurrency supplies locks and collections to nodes and indexes
+     */
+    public EventTypeIndexBuilderStatementIndex(FilterIndexConcurrency concurrency)
+    {
+        this.concurrency = concurrency;
+        this.eventTypeIndex = new EventTypeIndex(concurrency);
+        this.callbacks = new HashMap<FilterHandle, EventTypeIndexBuilderValueIndexesPair>();
+    }
+
+    /**
+     * Returns the index of the statement's filters for event evaluation.
+     * @return index
+     */
+    public EventTypeIndex getEventTypeIndex()
+    {
+        return eventTypeIndex;
+    }
+
+    /**
+     * Add a filter of the statement.
+     * @param filterValueSet is the filter information
+     * @param filterCallback is the callback
+     */
+    public void add(FilterValueSet filterValueSet, FilterHandle filterCallback)
+    {
+        EventType eventType = filterValueSet.getEventType();
+        FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+        if (rootNode == null)
+        {
+            rootNode = new FilterHandleSetNode(concurrency);
+            eventTypeIndex.add(eventType, rootNode);
+        }
+
+        IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency);
+        IndexTreePath path = treeBuilder.add(filterValueSet, filterCallback, rootNode);
+        callbacks.put(filterCallback, new EventTypeIndexBuilderValueIndexesPair(filterValueSet, path.toArray()));
+    }
+
+    /**
+     * Remove a filter of the statement.
+     * @param filterCallback is the callback to remove
+     */
+    public void remove(FilterHandle filterCallback)
+    {
+        EventTypeIndexBuilderValueIndexesPair pair = callbacks.remove(filterCallback);
+        if (pair == null)
+        {
+            return;
+        }
+
+        EventType eventType = pair.getFilterValueSet().getEventType();
+        FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+        if (rootNode != null)
+        {
+            IndexTreeBuilder treeBuilder = new IndexTreeBuilder(concurrency);
+            treeBuilder.remove(eventType, filterCallback, new EventTypeIndexBuilderIndexLookupableIterator(pair.getIndexPairs()), rootNode);
+        }
+    }
+
+    /**
+     * Remove all filters of the statement for the event type.
+     * @param eventType type to remove
+     */
+    public void removeType(EventType eventType)
+    {
+        Iterator<Map.Entry<FilterHandle, EventTypeIndexBuilderValueIndexesPair>> it = callbacks.entrySet().iterator();
+        while (it.hasNext())
+        {
+            if (it.next().getValue().getFilterValueSet().getEventType() == eventType)
+            {
+                it.remove();
+            }
+        }
+        eventTypeIndex.removeType(eventType);
+    }
+
+    /**
+     * Records that the index is in use.
+     */
+    public void touch()
+    {
+        lastUsed = System.nanoTime();
+    }
+
+    /**
+     * Returns the time of last use.
+     * @return nanosecond time
+     */
+    public long getLastUsed()
+    {
+        return lastUsed;
+    }
+
+    /**
+     * Returns true if the statement has no more filters.
+     * @return indicator
+     */
+    public boolean isEmpty()
+    {
+        return callbacks.isEmpty();
+    }
+}
@@ -0,0 +1,172 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Snapshot of the counters of a filter node or filter parameter index and, recursively, of the evaluators
+ * at the next level of the filter index tree.
+ * <p>
+ * Nanoseconds spent are timed once per evaluation at the root node of the event type and include the time spent
+ * in all evaluators of the tree; nodes and indexes below the root report zero nanoseconds. Matches are the number
+ * of filter handles matched at or below the evaluator. Fan-out is, for indexes, the number of evaluations of the evaluators at
+ * the next level. Counters other than lookups are only available when profiling.
+ */
+public class FilterEvaluatorProfile implements Serializable
+{
+    private static final long serialVersionUID = -2539412380934815163L;
+
+    private final String description;
+    private final String filterConstant;
+    private final int size;
+    private final long numLookups;
+    private final long numMatches;
+    private final long numNanos;
+    private final long numFanOut;
+    private final List<FilterEvaluatorProfile> children;
+
+    /**
+     * Ctor.
+     * @param description describes the node or index, for indexes the expression and operator
+     * @param filterConstant text of the constant under which the evaluator is stored by the index at the previous level, or null if none
+     * @param size number of filter handles for a node or of distinct constants for an index
+     * @param numLookups number of events evaluated
+     * @param numMatches number of filter handles matched
+     * @param numNanos nanoseconds spent
+     * @param numFanOut number of evaluations at the next level
+     * @param children evaluators at the next level
+     */
+    public FilterEvaluatorProfile(String description, String filterConstant, int size, long numLookups, long numMatches, long numNanos, long numFanOut, List<FilterEvaluatorProfile> children)
+    {
+        this.description = description;
+        this.filterConstant = filterConstant;
+        this.size = size;
+        this.numLookups = numLookups;
+        this.numMatches = numMatches;
+        this.numNanos = numNanos;
+        this.numFanOut = numFanOut;
+        this.children = children;
+    }
+
+    /**
+     * Returns a description of the node or index.
+     * @return description
+     */
+    public String getDescription()
+    {
+        return description;
+    }
+
+    /**
+     * Returns the text of the constant under which the evaluator is stored by the index at the previous level, if any.
+     * @return constant text or null
+     */
+    public String getFilterConstant()
+    {
+        return filterConstant;
+    }
+
+    /**
+     * Returns the number of filter handles of a node or of distinct constants of an index.
+     * @return size
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of events evaluated.
+     * @return lookups
+     */
+    public long getNumLookups()
+    {
+        return numLookups;
+    }
+
+    /**
+     * Returns the number of filter handles matched.
+     * @return matches
+     */
+    public long getNumMatches()
+    {
+        return numMatches;
+    }
+
+    /**
+     * Returns the nanoseconds spent, for the root node of an event type only.
+     * @return nanoseconds
+     */
+    public long getNumNanos()
+    {
+        return numNanos;
+    }
+
+    /**
+     * Returns the number of evaluations of the evaluators at the next level.
+     * @return fan-out
+     */
+    public long getNumFanOut()
+    {
+        return numFanOut;
+    }
+
+    /**
+     * Returns the evaluators at the next level.
+     * @return children
+     */
+    public List<FilterEvaluatorProfile> getChildren()
+    {
+        return children;
+    }
+
+    /**
+     * Renders the profile and the profiles at the next levels, one line per evaluator.
+     * @param writer to write to
+     * @param indent number of spaces to indent
+     */
+    public void appendTo(StringWriter writer, int indent)
+    {
+        for (int i = 0; i < indent; i++)
+        {
+            writer.append(' ');
+        }
+        if (filterConstant != null)
+        {
+            writer.append(filterConstant);
+            writer.append(" -> ");
+        }
+        writer.append(description);
+        writer.append(" size=");
+        writer.append(Integer.toString(size));
+        writer.append(" lookups=");
+        writer.append(Long.toString(numLookups));
+        writer.append(" matches=");
+        writer.append(Long.toString(numMatches));
+        writer.append(" nanos=");
+        writer.append(Long.toString(numNanos));
+        writer.append(" fanOut=");
+        writer.append(Long.toString(numFanOut));
+        writer.append('\n');
+        for (FilterEvaluatorProfile child : children)
+        {
+            child.appendTo(writer, indent + 2);
+        }
+    }
+
+    public String toString()
+    {
+        StringWriter writer = new StringWriter();
+        appendTo(writer, 0);
+        return writer.toString();
+    }
+}
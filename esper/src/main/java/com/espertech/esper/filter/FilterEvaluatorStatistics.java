@@ -0,0 +1,181 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters kept by a filter parameter index or filter node of the filter index tree, when the filter service
+ * collects statistics.
+ * <p>
+ * Counters are striped by thread: each thread adds to the stripe selected by its thread id, so that threads
+ * evaluating events concurrently do not lose updates and rarely contend for the same counters. Reading a counter
+ * sums the stripes.
+ */
+public final class FilterEvaluatorStatistics
+{
+    private static final int NUM_STRIPES = numStripes();
+    private static final int STRIDE = 4;    // lookups, matches, nanos and one slot of padding per stripe
+    private static final int LOOKUPS = 0;
+    private static final int MATCHES = 1;
+    private static final int NANOS = 2;
+
+    private final boolean profiling;
+    private final AtomicLongArray counters;
+
+    /**
+     * Ctor.
+     * @param profiling true to count matches and time spent in addition to lookups
+     */
+    public FilterEvaluatorStatistics(boolean profiling)
+    {
+        this.profiling = profiling;
+        this.counters = new AtomicLongArray(NUM_STRIPES * STRIDE);
+    }
+
+    /**
+     * Returns new statistics for the level, or null for no statistics.
+     * @param level statistics level
+     * @return statistics or null
+     */
+    public static FilterEvaluatorStatistics make(Level level)
+    {
+        if (level == Level.NONE)
+        {
+            return null;
+        }
+        return new FilterEvaluatorStatistics(level == Level.PROFILE);
+    }
+
+    /**
+     * Returns true to count matches and time spent in addition to lookups.
+     * @return profiling indicator
+     */
+    public boolean isProfiling()
+    {
+        return profiling;
+    }
+
+    /**
+     * Count an evaluation of an event.
+     */
+    public void incrementLookups()
+    {
+        counters.incrementAndGet(stripe() + LOOKUPS);
+    }
+
+    /**
+     * Count an evaluation of an event when profiling.
+     * @param matched number of filter handles added to matches by the evaluation
+     */
+    public void addLookup(int matched)
+    {
+        int stripe = stripe();
+        counters.incrementAndGet(stripe + LOOKUPS);
+        if (matched != 0)
+        {
+            counters.addAndGet(stripe + MATCHES, matched);
+        }
+    }
+
+    /**
+     * Add time spent evaluating, when profiling.
+     * @param nanos nanoseconds spent evaluating, including the evaluators at the next level
+     */
+    public void addNanos(long nanos)
+    {
+        counters.addAndGet(stripe() + NANOS, nanos);
+    }
+
+    /**
+     * Returns the number of events evaluated.
+     * @return count
+     */
+    public long getNumLookups()
+    {
+        return sum(LOOKUPS);
+    }
+
+    /**
+     * Returns the number of filter handles matched, when profiling.
+     * @return count
+     */
+    public long getNumMatches()
+    {
+        return sum(MATCHES);
+    }
+
+    /**
+     * Returns the nanoseconds spent evaluating, when profiling.
+     * @return nanoseconds
+     */
+    public long getNumNanos()
+    {
+        return sum(NANOS);
+    }
+
+    /**
+     * Reset counters.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < counters.length(); i++)
+        {
+            counters.set(i, 0);
+        }
+    }
+
+    private long sum(int counter)
+    {
+        long total = 0;
+        for (int i = counter; i < counters.length(); i += STRIDE)
+        {
+            total += counters.get(i);
+        }
+        return total;
+    }
+
+    private static int stripe()
+    {
+        long threadId = Thread.currentThread().getId();
+        return ((int) threadId & (NUM_STRIPES - 1)) * STRIDE;
+    }
+
+    private static int numStripes()
+    {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+        int stripes = 1;
+        while (stripes < processors)
+        {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * Level of statistics kept by filter indexes and filter nodes.
+     */
+    public enum Level
+    {
+        /**
+         * No statistics.
+         */
+        NONE,
+
+        /**
+         * Count lookups, as required for reordering filter indexes.
+         */
+        LOOKUPS,
+
+        /**
+         * Count lookups, matches and time spent.
+         */
+        PROFILE
+    }
+}
@@ -10,7 +10,6 @@ package com.espertech.esper.filter;
 
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.espertech.esper.client.EventBean;
 import org.apache.commons.logging.LogFactory;
@@ -29,15 +28,25 @@ public final class FilterHandleSetNode implements EventEvaluator
     private final Set<FilterHandle> callbackSet;
     private final List<FilterParamIndexBase> indizes;
     private final ReadWriteLock nodeRWLock;
+    private FilterEvaluatorStatistics statistics;
 
     /**
      * Constructor.
      */
     public FilterHandleSetNode()
     {
-        callbackSet = new LinkedHashSet<FilterHandle>();
-        indizes = new LinkedList<FilterParamIndexBase>();
-        nodeRWLock = new ReentrantReadWriteLock();
+        this(FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency supplies the lock and collections
+     */
+    public FilterHandleSetNode(FilterIndexConcurrency concurrency)
+    {
+        callbackSet = concurrency.makeOrderedSet();
+        indizes = concurrency.makeList();
+        nodeRWLock = concurrency.obtainNew();
     }
 
     /**
@@ -71,6 +80,24 @@ public final class FilterHandleSetNode implements EventEvaluator
         return nodeRWLock;
     }
 
+    /**
+     * Returns the counters of the node, or null if the filter service does not collect statistics.
+     * @return statistics or null
+     */
+    public final FilterEvaluatorStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * Sets the counters of the node.
+     * @param statistics statistics or null for no statistics
+     */
+    protected final void setStatistics(FilterEvaluatorStatistics statistics)
+    {
+        this.statistics = statistics;
+    }
+
     /**
      * Returns list of indexes - not returning an iterator. Client classes should not change this collection.
      * @return list of indizes
@@ -88,6 +115,26 @@ public final class FilterHandleSetNode implements EventEvaluator
      * @param matches is the list of callbacks to add to for any matches found
      */
     public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        FilterEvaluatorStatistics stats = statistics;
+        if (stats == null)
+        {
+            matchEventInternal(theEvent, matches);
+        }
+        else if (!stats.isProfiling())
+        {
+            stats.incrementLookups();
+            matchEventInternal(theEvent, matches);
+        }
+        else
+        {
+            int numMatches = matches.size();
+            matchEventInternal(theEvent, matches);
+            stats.addLookup(matches.size() - numMatches);
+        }
+    }
+
+    private void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         nodeRWLock.readLock().lock();
         try {
@@ -0,0 +1,80 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.collection.LongObjectHashMap;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Supplies the locks and collections that make up the filter index tree, i.e. the {@link EventTypeIndex},
+ * the {@link FilterHandleSetNode} nodes and the {@link FilterParamIndexBase} indexes.
+ * <p>
+ * The strategy decides whether event evaluation and filter changes coordinate via read-write locks
+ * or whether event evaluation reads concurrent-safe collections without any locking.
+ */
+public interface FilterIndexConcurrency
+{
+    /**
+     * Returns a new lock for a node or index.
+     * @return lock
+     */
+    public ReadWriteLock obtainNew();
+
+    /**
+     * Returns the lock that the filter service holds for the duration of a filter change.
+     * @return lock serializing filter changes
+     */
+    public Lock getFilterChangeLock();
+
+    /**
+     * Returns a new hash-based map.
+     * @return map
+     */
+    public <K, V> Map<K, V> makeMap();
+
+    /**
+     * Returns a new map that iterates in insertion order.
+     * @return map
+     */
+    public <K, V> Map<K, V> makeOrderedMap();
+
+    /**
+     * Returns a new sorted map.
+     * @param comparator for sorting the keys, or null for natural ordering
+     * @return map
+     */
+    public <K, V> NavigableMap<K, V> makeSortedMap(Comparator<? super K> comparator);
+
+    /**
+     * Returns a new hash-based set.
+     * @return set
+     */
+    public <E> Set<E> makeSet();
+
+    /**
+     * Returns a new set that iterates in insertion order.
+     * @return set
+     */
+    public <E> Set<E> makeOrderedSet();
+
+    /**
+     * Returns a new list.
+     * @return list
+     */
+    public <E> List<E> makeList();
+
+    /**
+     * Returns a new map keyed by primitive long.
+     * @return map
+     */
+    public <V> LongObjectHashMap<V> makeLongMap();
+}
@@ -0,0 +1,80 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.collection.CopyOnWriteLinkedMap;
+import com.espertech.esper.collection.LongObjectHashMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Filter index concurrency for read-mostly use: event evaluation takes no locks and reads collections
+ * that are safe for unsynchronized readers. Hash-based maps, lists and ordered sets are copy-on-write and
+ * publish a new immutable copy on each change, sorted maps are concurrent skip-list maps.
+ * <p>
+ * Filter changes are serialized by a single lock held by the filter service, the node and index locks do not lock.
+ * <p>
+ * Each filter service must obtain its own instance.
+ */
+public final class FilterIndexConcurrencyLockFree implements FilterIndexConcurrency
+{
+    private final Lock filterChangeLock = new ReentrantLock();
+
+    public ReadWriteLock obtainNew()
+    {
+        return FilterIndexVoidReadWriteLock.INSTANCE;
+    }
+
+    public Lock getFilterChangeLock()
+    {
+        return filterChangeLock;
+    }
+
+    public <K, V> Map<K, V> makeMap()
+    {
+        return new CopyOnWriteLinkedMap<K, V>();
+    }
+
+    public <K, V> Map<K, V> makeOrderedMap()
+    {
+        return new CopyOnWriteLinkedMap<K, V>();
+    }
+
+    public <K, V> NavigableMap<K, V> makeSortedMap(Comparator<? super K> comparator)
+    {
+        return new ConcurrentSkipListMap<K, V>(comparator);
+    }
+
+    public <E> Set<E> makeSet()
+    {
+        return Collections.newSetFromMap(new ConcurrentHashMap<E, Boolean>());
+    }
+
+    public <E> Set<E> makeOrderedSet()
+    {
+        return new CopyOnWriteArraySet<E>();
+    }
+
+    public <E> List<E> makeList()
+    {
+        return new CopyOnWriteArrayList<E>();
+    }
+
+    public <V> LongObjectHashMap<V> makeLongMap()
+    {
+        return new LongObjectHashMap<V>(true);
+    }
+}
@@ -0,0 +1,77 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.collection.LongObjectHashMap;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Default filter index concurrency: each node and index has its own read-write lock that event evaluation
+ * takes as a read lock, filter changes may proceed concurrently and lock each node and index they change.
+ */
+public final class FilterIndexConcurrencyLocking implements FilterIndexConcurrency
+{
+    /**
+     * Shared instance.
+     */
+    public final static FilterIndexConcurrencyLocking INSTANCE = new FilterIndexConcurrencyLocking();
+
+    private FilterIndexConcurrencyLocking()
+    {
+    }
+
+    public ReadWriteLock obtainNew()
+    {
+        return new ReentrantReadWriteLock();
+    }
+
+    public Lock getFilterChangeLock()
+    {
+        return FilterIndexVoidReadWriteLock.VOID_LOCK;
+    }
+
+    public <K, V> Map<K, V> makeMap()
+    {
+        return new HashMap<K, V>();
+    }
+
+    public <K, V> Map<K, V> makeOrderedMap()
+    {
+        return new LinkedHashMap<K, V>();
+    }
+
+    public <K, V> NavigableMap<K, V> makeSortedMap(Comparator<? super K> comparator)
+    {
+        return new TreeMap<K, V>(comparator);
+    }
+
+    public <E> Set<E> makeSet()
+    {
+        return new HashSet<E>();
+    }
+
+    public <E> Set<E> makeOrderedSet()
+    {
+        return new LinkedHashSet<E>();
+    }
+
+    public <E> List<E> makeList()
+    {
+        return new LinkedList<E>();
+    }
+
+    public <V> LongObjectHashMap<V> makeLongMap()
+    {
+        return new LongObjectHashMap<V>(false);
+    }
+}
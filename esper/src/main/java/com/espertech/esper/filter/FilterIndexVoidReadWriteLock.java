@@ -0,0 +1,75 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Read-write lock that does not lock, for use by filter index nodes when filter changes are serialized
+ * by the filter service and event evaluation does not require locking.
+ */
+public final class FilterIndexVoidReadWriteLock implements ReadWriteLock
+{
+    /**
+     * Shared instance.
+     */
+    public final static FilterIndexVoidReadWriteLock INSTANCE = new FilterIndexVoidReadWriteLock();
+
+    /**
+     * Shared lock that does not lock.
+     */
+    public final static Lock VOID_LOCK = new VoidLock();
+
+    private FilterIndexVoidReadWriteLock()
+    {
+    }
+
+    public Lock readLock()
+    {
+        return VOID_LOCK;
+    }
+
+    public Lock writeLock()
+    {
+        return VOID_LOCK;
+    }
+
+    private static class VoidLock implements Lock
+    {
+        public void lock()
+        {
+        }
+
+        public void lockInterruptibly() throws InterruptedException
+        {
+        }
+
+        public boolean tryLock()
+        {
+            return true;
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+        {
+            return true;
+        }
+
+        public void unlock()
+        {
+        }
+
+        public Condition newCondition()
+        {
+            throw new UnsupportedOperationException("Conditions are not supported by this lock");
+        }
+    }
+}
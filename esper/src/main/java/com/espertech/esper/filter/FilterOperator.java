@@ -110,6 +110,16 @@ public enum FilterOperator
      */
     NOT_IN_LIST_OF_VALUES("!in"),
 
+    /**
+     * Pattern match using the 'like' operator
+     */
+    LIKE("like"),
+
+    /**
+     * Pattern match using the 'regexp' operator
+     */
+    REGEXP("regexp"),
+
     /**
      * Boolean expression filter operator
      */
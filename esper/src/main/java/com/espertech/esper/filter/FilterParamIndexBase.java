@@ -8,6 +8,9 @@
  **************************************************************************************/
 package com.espertech.esper.filter;
 
+import com.espertech.esper.client.EventBean;
+
+import java.util.Collection;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -23,6 +26,7 @@ import java.util.concurrent.locks.ReadWriteLock;
 public abstract class FilterParamIndexBase implements EventEvaluator
 {
     private final FilterOperator filterOperator;
+    private FilterEvaluatorStatistics statistics;
 
     /**
      * Constructor.
@@ -33,6 +37,34 @@ public abstract class FilterParamIndexBase implements EventEvaluator
         this.filterOperator = filterOperator;
     }
 
+    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        FilterEvaluatorStatistics stats = statistics;
+        if (stats == null)
+        {
+            matchEventInternal(theEvent, matches);
+        }
+        else if (!stats.isProfiling())
+        {
+            stats.incrementLookups();
+            matchEventInternal(theEvent, matches);
+        }
+        else
+        {
+            int numMatches = matches.size();
+            matchEventInternal(theEvent, matches);
+            stats.addLookup(matches.size() - numMatches);
+        }
+    }
+
+    /**
+     * Matches the event against the filter parameter constants of the index, and evaluates the event evaluation
+     * instance of each matching constant.
+     * @param theEvent is the event to match
+     * @param matches is populated with handles of matching filters
+     */
+    protected abstract void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches);
+
     /**
      * Get the event evaluation instance associated with the constant. Returns null if no entry found for the constant.
      * The calling class must make sure that access to the underlying resource is protected
@@ -85,6 +117,24 @@ public abstract class FilterParamIndexBase implements EventEvaluator
         return filterOperator;
     }
 
+    /**
+     * Returns the counters of the index, or null if the filter service does not collect statistics.
+     * @return statistics or null
+     */
+    public final FilterEvaluatorStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * Sets the counters of the index.
+     * @param statistics statistics or null for no statistics
+     */
+    protected final void setStatistics(FilterEvaluatorStatistics statistics)
+    {
+        this.statistics = statistics;
+    }
+
     public String toString()
     {
         return "filterOperator=" + filterOperator;
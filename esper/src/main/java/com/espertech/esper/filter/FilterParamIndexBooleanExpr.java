@@ -12,30 +12,55 @@ import com.espertech.esper.client.EventBean;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Index that simply maintains a list of boolean expressions.
+ * Index that maintains a list of boolean expressions.
+ * <p>
+ * Boolean expressions that compare the same sub-expression against a constant, such as "a.b.c.someMethod() &gt; 10"
+ * of one statement and "a.b.c.someMethod() = 20" of another statement, are grouped so that the sub-expression
+ * is evaluated only once per event, see {@link FilterParamIndexBooleanExprShared}. Expressions are matched in the
+ * order they were added, whether their sub-expression is shared or not.
+ * <p>
+ * Adding or removing an expression only marks the grouping as outdated, see {@link FilterParamIndexDeferredBuild},
+ * so that registering many statements does not regroup the expressions for each statement.
  */
-public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase
+public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase implements FilterParamIndexDeferredBuild
 {
     private final Map<ExprNodeAdapterBase, EventEvaluator> evaluatorsMap;
+    private final Map<ExprNodeAdapterBase, FilterParamIndexBooleanExprShared.Comparison> comparisons;
     private final ReadWriteLock constantsMapRWLock;
+    private volatile long version;
+    private volatile EvaluationPlan plan;
+    private final ThreadLocal<Scratch> scratches = new ThreadLocal<Scratch>();
 
     /**
      * Constructs the index for multiple-exact matches.
      */
     public FilterParamIndexBooleanExpr()
+    {
+        this(FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructs the index for multiple-exact matches.
+     * @param concurrency supplies the lock and map
+     */
+    public FilterParamIndexBooleanExpr(FilterIndexConcurrency concurrency)
     {
         super(FilterOperator.BOOLEAN_EXPRESSION);
 
-        evaluatorsMap = new LinkedHashMap<ExprNodeAdapterBase, EventEvaluator>();
-        constantsMapRWLock = new ReentrantReadWriteLock();
+        evaluatorsMap = concurrency.makeOrderedMap();
+        comparisons = concurrency.makeMap();
+        constantsMapRWLock = concurrency.obtainNew();
+        plan = EvaluationPlan.EMPTY;
     }
 
     public final EventEvaluator get(Object filterConstant)
@@ -48,12 +73,28 @@ public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase
     {
         ExprNodeAdapterBase keys = (ExprNodeAdapterBase) filterConstant;
         evaluatorsMap.put(keys, evaluator);
+        FilterParamIndexBooleanExprShared.Comparison comparison = FilterParamIndexBooleanExprShared.getComparison(keys, evaluator);
+        if (comparison != null)
+        {
+            comparisons.put(keys, comparison);
+        }
+        else
+        {
+            comparisons.remove(keys);
+        }
+        version++;
     }
 
     public final boolean remove(Object filterConstant)
     {
         ExprNodeAdapterBase keys = (ExprNodeAdapterBase) filterConstant;
-        return evaluatorsMap.remove(keys) != null;
+        if (evaluatorsMap.remove(keys) == null)
+        {
+            return false;
+        }
+        comparisons.remove(keys);
+        version++;
+        return true;
     }
 
     public final int size()
@@ -66,22 +107,222 @@ public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase
         return constantsMapRWLock;
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    public final void build()
+    {
+        makePlan();
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         constantsMapRWLock.readLock().lock();
         try {
-            for (Map.Entry<ExprNodeAdapterBase, EventEvaluator> evals : evaluatorsMap.entrySet())
+            EvaluationPlan current = plan;
+            if (current.version != version)
             {
-                if (evals.getKey().evaluate(theEvent))
+                current = makePlan();
+            }
+            if (current.shared.length == 0)
+            {
+                ExprNodeAdapterBase[] adapters = current.adapters;
+                for (int i = 0; i < adapters.length; i++)
+                {
+                    if (adapters[i].evaluate(theEvent))
+                    {
+                        current.evaluators[i].matchEvent(theEvent, matches);
+                    }
+                }
+                return;
+            }
+
+            // a shared sub-expression is evaluated when the first expression of its group comes up
+            Scratch scratch = allocateScratch(current);
+            try {
+                scratch.eventsPerStream[0] = theEvent;
+                for (int i = 0; i < current.adapters.length; i++)
                 {
-                    evals.getValue().matchEvent(theEvent, matches);
+                    int group = current.groups[i];
+                    boolean result;
+                    if (group == -1)
+                    {
+                        result = current.adapters[i].evaluate(theEvent);
+                    }
+                    else
+                    {
+                        if (!scratch.groupsEvaluated[group])
+                        {
+                            current.shared[group].evaluate(scratch.eventsPerStream, scratch.results, current.offsets[group]);
+                            scratch.groupsEvaluated[group] = true;
+                        }
+                        result = scratch.results[current.members[i]];
+                    }
+                    if (result)
+                    {
+                        current.evaluators[i].matchEvent(theEvent, matches);
+                    }
                 }
             }
+            finally {
+                scratch.eventsPerStream[0] = null;
+                scratch.inUse = false;
+            }
         }
         finally {
             constantsMapRWLock.readLock().unlock();
         }
     }
 
+    // Obtains the scratch arrays of the thread for the plan, or new arrays if the thread is already evaluating this index
+    private Scratch allocateScratch(EvaluationPlan current)
+    {
+        Scratch scratch = scratches.get();
+        if ((scratch == null) || (scratch.groupsEvaluated.length < current.shared.length) || (scratch.results.length < current.numMembers))
+        {
+            scratch = new Scratch(current.shared.length, current.numMembers);
+            scratches.set(scratch);
+        }
+        else if (scratch.inUse)
+        {
+            scratch = new Scratch(current.shared.length, current.numMembers);
+        }
+        else
+        {
+            Arrays.fill(scratch.groupsEvaluated, false);
+        }
+        scratch.inUse = true;
+        return scratch;
+    }
+
+    // Called by the writer completing a batch, or by evaluation if outdated; the version is read before the maps
+    // so that a plan made from maps that changed meanwhile remains outdated
+    private synchronized EvaluationPlan makePlan()
+    {
+        long madeVersion = version;
+        if (plan.version == madeVersion)
+        {
+            return plan;
+        }
+
+        // group comparisons by sub-expression
+        Map<String, List<List<FilterParamIndexBooleanExprShared.Comparison>>> groupsByText = new LinkedHashMap<String, List<List<FilterParamIndexBooleanExprShared.Comparison>>>();
+        for (Map.Entry<ExprNodeAdapterBase, EventEvaluator> entry : evaluatorsMap.entrySet())
+        {
+            FilterParamIndexBooleanExprShared.Comparison comparison = comparisons.get(entry.getKey());
+            if (comparison == null)
+            {
+                continue;
+            }
+            List<List<FilterParamIndexBooleanExprShared.Comparison>> groups = groupsByText.get(comparison.getSubExpressionText());
+            if (groups == null)
+            {
+                groups = new ArrayList<List<FilterParamIndexBooleanExprShared.Comparison>>(1);
+                groupsByText.put(comparison.getSubExpressionText(), groups);
+            }
+            List<FilterParamIndexBooleanExprShared.Comparison> group = null;
+            for (List<FilterParamIndexBooleanExprShared.Comparison> candidate : groups)
+            {
+                if (candidate.get(0).isSameSubExpression(comparison))
+                {
+                    group = candidate;
+                    break;
+                }
+            }
+            if (group == null)
+            {
+                group = new ArrayList<FilterParamIndexBooleanExprShared.Comparison>();
+                groups.add(group);
+            }
+            group.add(comparison);
+        }
+
+        // a sub-expression that is not shared is evaluated as part of its expression
+        List<FilterParamIndexBooleanExprShared> shared = new ArrayList<FilterParamIndexBooleanExprShared>();
+        Map<ExprNodeAdapterBase, int[]> positions = new HashMap<ExprNodeAdapterBase, int[]>();
+        List<Integer> offsets = new ArrayList<Integer>();
+        int numMembers = 0;
+        for (List<List<FilterParamIndexBooleanExprShared.Comparison>> groups : groupsByText.values())
+        {
+            for (List<FilterParamIndexBooleanExprShared.Comparison> group : groups)
+            {
+                if (group.size() == 1)
+                {
+                    continue;
+                }
+                for (int i = 0; i < group.size(); i++)
+                {
+                    positions.put(group.get(i).getAdapter(), new int[] {shared.size(), numMembers + i});
+                }
+                shared.add(new FilterParamIndexBooleanExprShared(group));
+                offsets.add(numMembers);
+                numMembers += group.size();
+            }
+        }
+
+        // keep the order of expressions
+        int size = evaluatorsMap.size();
+        ExprNodeAdapterBase[] adapters = new ExprNodeAdapterBase[size];
+        EventEvaluator[] evaluators = new EventEvaluator[size];
+        int[] groups = new int[size];
+        int[] members = new int[size];
+        int count = 0;
+        for (Map.Entry<ExprNodeAdapterBase, EventEvaluator> entry : evaluatorsMap.entrySet())
+        {
+            adapters[count] = entry.getKey();
+            evaluators[count] = entry.getValue();
+            int[] position = positions.get(entry.getKey());
+            groups[count] = position == null ? -1 : position[0];
+            members[count] = position == null ? -1 : position[1];
+            count++;
+        }
+        int[] offsetsArray = new int[offsets.size()];
+        for (int i = 0; i < offsetsArray.length; i++)
+        {
+            offsetsArray[i] = offsets.get(i);
+        }
+        plan = new EvaluationPlan(madeVersion, adapters, evaluators, groups, members,
+                shared.toArray(new FilterParamIndexBooleanExprShared[shared.size()]), offsetsArray, numMembers);
+        return plan;
+    }
+
+    private static final class EvaluationPlan
+    {
+        private final static EvaluationPlan EMPTY = new EvaluationPlan(0, new ExprNodeAdapterBase[0], new EventEvaluator[0], new int[0], new int[0], new FilterParamIndexBooleanExprShared[0], new int[0], 0);
+
+        private final long version;
+        private final ExprNodeAdapterBase[] adapters;
+        private final EventEvaluator[] evaluators;
+        private final int[] groups;
+        private final int[] members;
+        private final FilterParamIndexBooleanExprShared[] shared;
+        private final int[] offsets;
+        private final int numMembers;
+
+        private EvaluationPlan(long version, ExprNodeAdapterBase[] adapters, EventEvaluator[] evaluators, int[] groups, int[] members, FilterParamIndexBooleanExprShared[] shared, int[] offsets, int numMembers)
+        {
+            this.version = version;
+            this.adapters = adapters;
+            this.evaluators = evaluators;
+            this.groups = groups;
+            this.members = members;
+            this.shared = shared;
+            this.offsets = offsets;
+            this.numMembers = numMembers;
+        }
+    }
+
+    // Per-thread arrays for evaluating shared sub-expressions, sized to fit the largest plan seen by the thread
+    private static final class Scratch
+    {
+        private final EventBean[] eventsPerStream = new EventBean[1];
+        private final boolean[] groupsEvaluated;
+        private final boolean[] results;
+        private boolean inUse;
+
+        private Scratch(int numGroups, int numMembers)
+        {
+            this.groupsEvaluated = new boolean[numGroups];
+            this.results = new boolean[numMembers];
+        }
+    }
+
     private static final Log log = LogFactory.getLog(FilterParamIndexBooleanExpr.class);
 }
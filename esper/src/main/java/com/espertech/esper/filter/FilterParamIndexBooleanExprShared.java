@@ -0,0 +1,362 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.expression.*;
+import com.espertech.esper.type.RelationalOpEnum;
+import com.espertech.esper.util.JavaClassHelper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Group of boolean expressions of a {@link FilterParamIndexBooleanExpr} that each compare the same sub-expression
+ * against a constant, such as "a.b.c.someMethod() = 10" and "a.b.c.someMethod() &gt; 20", for evaluating the
+ * sub-expression only once per event.
+ * <p>
+ * Equals-comparisons are looked up by constant, other comparisons compare the sub-expression result
+ * against each constant in turn. The group only determines which of its members are true, so that the index can
+ * match the members in the order of the expressions.
+ */
+public final class FilterParamIndexBooleanExprShared
+{
+    private static final Log log = LogFactory.getLog(FilterParamIndexBooleanExprShared.class);
+
+    private final Comparison first;
+    private final int size;
+    private final Map<Object, int[]> equalsLookup;
+    private final Comparison[] comparisons;
+    private final int[] comparisonMembers;
+
+    /**
+     * Ctor.
+     * @param members comparisons that share the same sub-expression
+     */
+    protected FilterParamIndexBooleanExprShared(List<Comparison> members)
+    {
+        first = members.get(0);
+        size = members.size();
+
+        Map<Object, List<Integer>> equals = new HashMap<Object, List<Integer>>();
+        List<Comparison> others = new ArrayList<Comparison>();
+        List<Integer> otherMembers = new ArrayList<Integer>();
+        for (int i = 0; i < members.size(); i++)
+        {
+            Comparison member = members.get(i);
+            if (member.kind != ComparisonKind.EQUALS)
+            {
+                others.add(member);
+                otherMembers.add(i);
+                continue;
+            }
+            List<Integer> indexes = equals.get(member.constant);
+            if (indexes == null)
+            {
+                indexes = new ArrayList<Integer>(2);
+                equals.put(member.constant, indexes);
+            }
+            indexes.add(i);
+        }
+
+        if (equals.isEmpty())
+        {
+            equalsLookup = null;
+        }
+        else
+        {
+            equalsLookup = new HashMap<Object, int[]>();
+            for (Map.Entry<Object, List<Integer>> entry : equals.entrySet())
+            {
+                equalsLookup.put(entry.getKey(), toArray(entry.getValue()));
+            }
+        }
+        comparisons = others.toArray(new Comparison[others.size()]);
+        comparisonMembers = toArray(otherMembers);
+    }
+
+    /**
+     * Returns the number of members.
+     * @return size
+     */
+    public final int size()
+    {
+        return size;
+    }
+
+    /**
+     * Evaluates the shared sub-expression and determines the members whose comparison is true.
+     * @param eventsPerStream the event as stream zero
+     * @param result receives, at the offset plus the position of each member, true if the comparison of the member is true
+     * @param offset position of the first member in the result
+     */
+    public final void evaluate(EventBean[] eventsPerStream, boolean[] result, int offset)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            result[offset + i] = false;
+        }
+
+        Object value;
+        try
+        {
+            value = first.subExpressionEval.evaluate(eventsPerStream, true, first.adapter.evaluatorContext);
+        }
+        catch (RuntimeException ex)
+        {
+            log.error("Error evaluating expression '" + first.subExpression.toExpressionString() + "' statement '" + first.adapter.statementName + "': " + ex.getMessage(), ex);
+            return;
+        }
+
+        // null compares as false for both equals and relational operators
+        if (value == null)
+        {
+            return;
+        }
+
+        if (equalsLookup != null)
+        {
+            int[] indexes = equalsLookup.get(value);
+            if (indexes != null)
+            {
+                for (int index : indexes)
+                {
+                    result[offset + index] = true;
+                }
+            }
+        }
+
+        for (int i = 0; i < comparisons.length; i++)
+        {
+            if (comparisons[i].compare(value))
+            {
+                result[offset + comparisonMembers[i]] = true;
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> values)
+    {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the comparison of a sub-expression against a constant that the expression of the adapter
+     * consists of, or null if the expression is not such comparison or the sub-expression cannot be shared
+     * between statements.
+     * @param adapter the boolean expression
+     * @param evaluator the evaluator to match when the expression is true
+     * @return comparison or null if the expression cannot be shared
+     */
+    protected static Comparison getComparison(ExprNodeAdapterBase adapter, EventEvaluator evaluator)
+    {
+        // Expressions with variables, subqueries or multiple streams have specialized adapters
+        if (adapter.getClass() != ExprNodeAdapterBase.class)
+        {
+            return null;
+        }
+        ExprNode node = adapter.exprNode;
+        if (!(node instanceof ExprEqualsNodeImpl) && !(node instanceof ExprRelationalOpNodeImpl))
+        {
+            return null;
+        }
+        ExprNode[] childNodes = node.getChildNodes();
+        if (childNodes.length != 2)
+        {
+            return null;
+        }
+        boolean constantLeft;
+        if (childNodes[1].isConstantResult())
+        {
+            constantLeft = false;
+        }
+        else if (childNodes[0].isConstantResult())
+        {
+            constantLeft = true;
+        }
+        else
+        {
+            return null;
+        }
+        ExprNode constantNode = constantLeft ? childNodes[0] : childNodes[1];
+        ExprNode subExpression = constantLeft ? childNodes[1] : childNodes[0];
+        if (subExpression.isConstantResult() || !isShareable(subExpression))
+        {
+            return null;
+        }
+
+        Object constant;
+        try
+        {
+            constant = constantNode.getExprEvaluator().evaluate(null, true, adapter.evaluatorContext);
+        }
+        catch (RuntimeException ex)
+        {
+            return null;
+        }
+        if (constant == null)
+        {
+            return null;
+        }
+
+        if (node instanceof ExprRelationalOpNodeImpl)
+        {
+            RelationalOpEnum.Computer computer = ((ExprRelationalOpNodeImpl) node).getComputer();
+            if (computer == null)
+            {
+                return null;
+            }
+            return new Comparison(adapter, evaluator, subExpression, ComparisonKind.RELATIONAL, constant, constantLeft, computer);
+        }
+
+        // Equals-comparisons only when no coercion is required, so that the constant can serve as a lookup key
+        ExprEqualsNodeImpl equalsNode = (ExprEqualsNodeImpl) node;
+        if (equalsNode.isIs())
+        {
+            return null;
+        }
+        Class subExpressionType = JavaClassHelper.getBoxedType(subExpression.getExprEvaluator().getType());
+        Class constantType = JavaClassHelper.getBoxedType(constantNode.getExprEvaluator().getType());
+        if ((subExpressionType == null) || (subExpressionType != constantType) || (constant.getClass() != subExpressionType))
+        {
+            return null;
+        }
+        ComparisonKind kind = equalsNode.isNotEquals() ? ComparisonKind.NOT_EQUALS : ComparisonKind.EQUALS;
+        return new Comparison(adapter, evaluator, subExpression, kind, constant, constantLeft, null);
+    }
+
+    // The result of the sub-expression must only depend on the event and not on the statement or context partition
+    private static boolean isShareable(ExprNode subExpression)
+    {
+        ExprNodeSummaryVisitor summaryVisitor = new ExprNodeSummaryVisitor();
+        subExpression.accept(summaryVisitor);
+        if (summaryVisitor.isHasAggregation() || summaryVisitor.isHasSubselect() || summaryVisitor.isHasPreviousPrior())
+        {
+            return false;
+        }
+        ExprNodeVariableVisitor variableVisitor = new ExprNodeVariableVisitor();
+        subExpression.accept(variableVisitor);
+        if (variableVisitor.isHasVariables())
+        {
+            return false;
+        }
+        ExprNodeContextPropertiesVisitor contextPropertiesVisitor = new ExprNodeContextPropertiesVisitor();
+        subExpression.accept(contextPropertiesVisitor);
+        return !contextPropertiesVisitor.isFound();
+    }
+
+    /**
+     * Kind of comparison.
+     */
+    protected enum ComparisonKind
+    {
+        /**
+         * Equals.
+         */
+        EQUALS,
+
+        /**
+         * Not-equals.
+         */
+        NOT_EQUALS,
+
+        /**
+         * Less, less-or-equal, greater or greater-or-equal.
+         */
+        RELATIONAL
+    }
+
+    /**
+     * Comparison of a sub-expression against a constant, for a boolean expression.
+     */
+    protected static final class Comparison
+    {
+        private final ExprNodeAdapterBase adapter;
+        private final EventEvaluator evaluator;
+        private final ExprNode subExpression;
+        private final ExprEvaluator subExpressionEval;
+        private final String subExpressionText;
+        private final ComparisonKind kind;
+        private final Object constant;
+        private final boolean constantLeft;
+        private final RelationalOpEnum.Computer computer;
+
+        private Comparison(ExprNodeAdapterBase adapter, EventEvaluator evaluator, ExprNode subExpression, ComparisonKind kind, Object constant, boolean constantLeft, RelationalOpEnum.Computer computer)
+        {
+            this.adapter = adapter;
+            this.evaluator = evaluator;
+            this.subExpression = subExpression;
+            this.subExpressionEval = subExpression.getExprEvaluator();
+            this.subExpressionText = subExpression.toExpressionString();
+            this.kind = kind;
+            this.constant = constant;
+            this.constantLeft = constantLeft;
+            this.computer = computer;
+        }
+
+        /**
+         * Returns the boolean expression.
+         * @return adapter
+         */
+        protected ExprNodeAdapterBase getAdapter()
+        {
+            return adapter;
+        }
+
+        /**
+         * Returns the evaluator to match when the expression is true.
+         * @return evaluator
+         */
+        protected EventEvaluator getEvaluator()
+        {
+            return evaluator;
+        }
+
+        /**
+         * Returns the text of the sub-expression, for grouping comparisons.
+         * @return text
+         */
+        protected String getSubExpressionText()
+        {
+            return subExpressionText;
+        }
+
+        /**
+         * Returns true if the sub-expression of this and the other comparison are the same.
+         * @param other to compare to
+         * @return indicator
+         */
+        protected boolean isSameSubExpression(Comparison other)
+        {
+            return subExpressionText.equals(other.subExpressionText) && ExprNodeUtility.deepEquals(subExpression, other.subExpression);
+        }
+
+        private boolean compare(Object value)
+        {
+            switch (kind)
+            {
+                case EQUALS:
+                    return value.equals(constant);
+                case NOT_EQUALS:
+                    return !value.equals(constant);
+                default:
+                    return constantLeft ? computer.compare(constant, value) : computer.compare(value, constant);
+            }
+        }
+    }
+}
@@ -15,9 +15,8 @@ import org.apache.commons.logging.LogFactory;
 
 import java.util.Collection;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.NavigableMap;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Index for filter parameter constants for the comparison operators (less, greater, etc).
@@ -27,14 +26,18 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public final class FilterParamIndexCompareString extends FilterParamIndexLookupableBase
 {
-    private final TreeMap<Object, EventEvaluator> constantsMap;
+    private final NavigableMap<Object, EventEvaluator> constantsMap;
     private final ReadWriteLock constantsMapRWLock;
 
     public FilterParamIndexCompareString(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
+        this(lookupable, filterOperator, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexCompareString(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
         super(filterOperator, lookupable);
 
-        constantsMap = new TreeMap<Object, EventEvaluator>();
-        constantsMapRWLock = new ReentrantReadWriteLock();
+        constantsMap = concurrency.makeSortedMap(null);
+        constantsMapRWLock = concurrency.obtainNew();
 
         if ((filterOperator != FilterOperator.GREATER) &&
             (filterOperator != FilterOperator.GREATER_OR_EQUAL) &&
@@ -75,7 +78,7 @@ public final class FilterParamIndexCompareString extends FilterParamIndexLookupa
         return constantsMapRWLock;
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object propertyValue = lookupable.getGetter().get(theEvent);
 
@@ -0,0 +1,27 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+/**
+ * Index that derives a lookup structure from its entries, such as an automaton over all patterns,
+ * and rebuilds it once per filter change rather than on each put and remove.
+ * <p>
+ * Puts and removes only mark the lookup structure as outdated. Adding or removing a batch of filters builds it once
+ * when the batch completes, see {@link IndexTreeBuilder#buildChangedIndexes()}. After adding or removing a single
+ * filter the next event evaluation builds it, so that statements created one after the other without events in
+ * between also build it once.
+ */
+public interface FilterParamIndexDeferredBuild
+{
+    /**
+     * Builds the lookup structure if entries were put or removed since it was last built.
+     * To be called by the writer holding the write lock of the index.
+     */
+    public void build();
+}
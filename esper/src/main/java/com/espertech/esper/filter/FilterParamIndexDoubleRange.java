@@ -13,25 +13,27 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.SortedMap;
 
 /**
  * Index for filter parameter constants for the range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
+ * The implementation is based on an interval tree and stores only expression
  * parameter values of type DoubleRange.
  */
 public final class FilterParamIndexDoubleRange extends FilterParamIndexDoubleRangeBase
 {
     public FilterParamIndexDoubleRange(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
-        super(lookupable, filterOperator);
+        this(lookupable, filterOperator, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexDoubleRange(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
+        super(lookupable, filterOperator, concurrency);
         if (!(filterOperator.isRangeOperator()))
         {
             throw new IllegalArgumentException("Invalid filter operator " + filterOperator);
         }
     }
     
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object objAttributeValue = lookupable.getGetter().get(theEvent);
 
@@ -41,58 +43,27 @@ public final class FilterParamIndexDoubleRange extends FilterParamIndexDoubleRan
         }
 
         double attributeValue = ((Number) objAttributeValue).doubleValue();
+        if (Double.isNaN(attributeValue))   // not comparable to any endpoint
+        {
+            return;
+        }
+        Double value = attributeValue;
 
-        DoubleRange rangeStart = new DoubleRange(attributeValue - largestRangeValueDouble, attributeValue);
-        DoubleRange rangeEnd = new DoubleRange(attributeValue, Double.MAX_VALUE);
-
-        SortedMap<DoubleRange, EventEvaluator> subMap = ranges.subMap(rangeStart, rangeEnd);
-
-        // For not including either endpoint
-        // A bit awkward to duplicate the loop code, however better than checking the boolean many times over
-        // This may be a bit of an early performance optimization - the optimizer after all may do this better
         if (this.getFilterOperator() == FilterOperator.RANGE_OPEN)  // include neither endpoint
         {
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if ((attributeValue > entry.getKey().getMin()) &&
-                    (attributeValue < entry.getKey().getMax()))
-                {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, false, false, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.RANGE_CLOSED)   // include all endpoints
         {
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if ((attributeValue >= entry.getKey().getMin()) &&
-                    (attributeValue <= entry.getKey().getMax()))
-                {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, true, true, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_CLOSED) // include high endpoint not low endpoint
         {
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if ((attributeValue > entry.getKey().getMin()) &&
-                    (attributeValue <= entry.getKey().getMax()))
-                {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, false, true, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_OPEN) // include low endpoint not high endpoint
         {
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if ((attributeValue >= entry.getKey().getMin()) &&
-                    (attributeValue < entry.getKey().getMax()))
-                {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, true, false, theEvent, matches);
         }
         else
         {
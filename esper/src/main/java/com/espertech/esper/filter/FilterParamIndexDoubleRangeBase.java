@@ -11,30 +11,29 @@ package com.espertech.esper.filter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.Comparator;
 import java.util.IdentityHashMap;
-import java.util.TreeMap;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Index for filter parameter constants for the range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
+ * The implementation is based on an interval tree and stores only expression
  * parameter values of type DoubleRange.
  */
 public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLookupableBase
 {
-    protected final TreeMap<DoubleRange, EventEvaluator> ranges;
+    private static final Comparator<Double> ENDPOINT_COMPARATOR = new EndpointComparator();
+
+    protected final RangeIntervalTree<Double> ranges;
     private final IdentityHashMap<DoubleRange, EventEvaluator> rangesNullEndpoints;
     private final ReadWriteLock rangesRWLock;
 
-    protected double largestRangeValueDouble = Double.MIN_VALUE;
-
-    protected FilterParamIndexDoubleRangeBase(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
+    protected FilterParamIndexDoubleRangeBase(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
         super(filterOperator, lookupable);
 
-        ranges = new TreeMap<DoubleRange, EventEvaluator>(new DoubleRangeComparator());
+        ranges = new RangeIntervalTree<Double>(ENDPOINT_COMPARATOR);
         rangesNullEndpoints = new IdentityHashMap<DoubleRange, EventEvaluator>();
-        rangesRWLock = new ReentrantReadWriteLock();
+        rangesRWLock = concurrency.obtainNew();
     }
 
     public final EventEvaluator get(Object expressionValue)
@@ -50,7 +49,7 @@ public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLo
             return rangesNullEndpoints.get(range);
         }
 
-        return ranges.get(range);
+        return ranges.get(range.getMin(), range.getMax());
     }
 
     public final void put(Object expressionValue, EventEvaluator matcher)
@@ -67,12 +66,7 @@ public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLo
             return;
         }
 
-        if ( Math.abs(range.getMax() - range.getMin()) > largestRangeValueDouble)
-        {
-            largestRangeValueDouble = Math.abs(range.getMax() - range.getMin());
-        }
-
-        ranges.put(range, matcher);
+        ranges.put(range.getMin(), range.getMax(), matcher);
     }
 
     public final boolean remove(Object filterConstant)
@@ -84,7 +78,7 @@ public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLo
             return rangesNullEndpoints.remove(range) != null;
         }
 
-        return ranges.remove(range) != null;
+        return ranges.remove(range.getMin(), range.getMax());
     }
 
     public final int size()
@@ -97,5 +91,26 @@ public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLo
         return rangesRWLock;
     }
 
+    /**
+     * Compares endpoints like the primitive comparison operators do, the same as {@link DoubleRangeComparator}.
+     */
+    private static final class EndpointComparator implements Comparator<Double>
+    {
+        public int compare(Double one, Double two)
+        {
+            double valueOne = one;
+            double valueTwo = two;
+            if (valueOne < valueTwo)
+            {
+                return -1;
+            }
+            if (valueOne > valueTwo)
+            {
+                return 1;
+            }
+            return 0;
+        }
+    }
+
     private static final Log log = LogFactory.getLog(FilterParamIndexDoubleRangeBase.class);
 }
@@ -20,10 +20,14 @@ import java.util.Collection;
 public final class FilterParamIndexEquals extends FilterParamIndexEqualsBase
 {
     public FilterParamIndexEquals(FilterSpecLookupable lookupable) {
-        super(lookupable, FilterOperator.EQUAL);
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    public FilterParamIndexEquals(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency) {
+        super(lookupable, FilterOperator.EQUAL, concurrency);
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object attributeValue = lookupable.getGetter().get(theEvent);
         if (attributeValue == null) {   //  null cannot match, not even null: requires use of "is"
@@ -10,10 +10,8 @@ package com.espertech.esper.filter;
 
 import com.espertech.esper.client.EventPropertyGetter;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Index for filter parameter constants to match using the equals (=) operator.
@@ -24,11 +22,11 @@ public abstract class FilterParamIndexEqualsBase extends FilterParamIndexLookupa
     protected final Map<Object, EventEvaluator> constantsMap;
     protected final ReadWriteLock constantsMapRWLock;
 
-    protected FilterParamIndexEqualsBase(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
+    protected FilterParamIndexEqualsBase(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
         super(filterOperator, lookupable);
 
-        constantsMap = new HashMap<Object, EventEvaluator>();
-        constantsMapRWLock = new ReentrantReadWriteLock();
+        constantsMap = concurrency.makeMap();
+        constantsMapRWLock = concurrency.obtainNew();
     }
 
     public final EventEvaluator get(Object filterConstant)
@@ -0,0 +1,144 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.collection.LongObjectHashMap;
+import com.espertech.esper.event.EventPropertyGetterPrimitive;
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the equals (=) operator, for event properties of
+ * type int or long or their boxed types.
+ * <p>
+ * The implementation is based on a map keyed by primitive long. If the getter can read the primitive property value
+ * then evaluating an event does not box the value. Constants that are not of the boxed property type cannot
+ * equal a property value and are kept in a regular map.
+ */
+public final class FilterParamIndexEqualsIntegral extends FilterParamIndexLookupableBase
+{
+    private final Class keyType;
+    private final LongObjectHashMap<EventEvaluator> constantsMap;
+    private final Map<Object, EventEvaluator> otherConstantsMap;
+    private final ReadWriteLock constantsMapRWLock;
+    private final EventPropertyGetterPrimitive primitiveGetter;
+
+    public FilterParamIndexEqualsIntegral(FilterSpecLookupable lookupable) {
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexEqualsIntegral(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency) {
+        super(FilterOperator.EQUAL, lookupable);
+
+        keyType = JavaClassHelper.getBoxedType(lookupable.getReturnType());
+        if ((keyType != Long.class) && (keyType != Integer.class)) {
+            throw new IllegalArgumentException("Unsupported property type " + lookupable.getReturnType() + " for integral index");
+        }
+        constantsMap = concurrency.makeLongMap();
+        otherConstantsMap = concurrency.makeMap();
+        constantsMapRWLock = concurrency.obtainNew();
+
+        EventPropertyGetter getter = lookupable.getGetter();
+        if (lookupable.getReturnType().isPrimitive() && (getter instanceof EventPropertyGetterPrimitive)) {
+            primitiveGetter = (EventPropertyGetterPrimitive) getter;
+        }
+        else {
+            primitiveGetter = null;
+        }
+    }
+
+    public final EventEvaluator get(Object filterConstant)
+    {
+        if (isKeyType(filterConstant)) {
+            return constantsMap.get(((Number) filterConstant).longValue());
+        }
+        return otherConstantsMap.get(filterConstant);
+    }
+
+    public final void put(Object filterConstant, EventEvaluator evaluator)
+    {
+        if (isKeyType(filterConstant)) {
+            constantsMap.put(((Number) filterConstant).longValue(), evaluator);
+        }
+        else {
+            otherConstantsMap.put(filterConstant, evaluator);
+        }
+    }
+
+    public final boolean remove(Object filterConstant)
+    {
+        if (isKeyType(filterConstant)) {
+            return constantsMap.remove(((Number) filterConstant).longValue()) != null;
+        }
+        return otherConstantsMap.remove(filterConstant) != null;
+    }
+
+    public final int size()
+    {
+        return constantsMap.size() + otherConstantsMap.size();
+    }
+
+    public final ReadWriteLock getReadWriteLock()
+    {
+        return constantsMapRWLock;
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        EventEvaluator evaluator;
+        if (primitiveGetter != null) {
+            long attributeValue = primitiveGetter.getLong(theEvent);
+
+            // Look up in hashtable
+            constantsMapRWLock.readLock().lock();
+            try
+            {
+                evaluator = constantsMap.get(attributeValue);
+            }
+            finally
+            {
+                constantsMapRWLock.readLock().unlock();
+            }
+        }
+        else {
+            Object attributeValue = lookupable.getGetter().get(theEvent);
+            if (attributeValue == null) {   //  null cannot match, not even null: requires use of "is"
+                return;
+            }
+
+            // Look up in hashtable
+            constantsMapRWLock.readLock().lock();
+            try
+            {
+                evaluator = get(attributeValue);
+            }
+            finally
+            {
+                constantsMapRWLock.readLock().unlock();
+            }
+        }
+
+        // No listener found for the value, return
+        if (evaluator == null)
+        {
+            return;
+        }
+
+        evaluator.matchEvent(theEvent, matches);
+    }
+
+    private boolean isKeyType(Object filterConstant) {
+        return (filterConstant != null) && (filterConstant.getClass() == keyType);
+    }
+}
@@ -21,10 +21,14 @@ import java.util.Collection;
 public final class FilterParamIndexEqualsIs extends FilterParamIndexEqualsBase
 {
     public FilterParamIndexEqualsIs(FilterSpecLookupable lookupable) {
-        super(lookupable, FilterOperator.IS);
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    public FilterParamIndexEqualsIs(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency) {
+        super(lookupable, FilterOperator.IS, concurrency);
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object attributeValue = lookupable.getGetter().get(theEvent);
 
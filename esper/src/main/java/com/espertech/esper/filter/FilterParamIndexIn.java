@@ -16,7 +16,6 @@ import org.apache.commons.logging.LogFactory;
 
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Index for filter parameter constants to match using the 'in' operator to match against a supplied set of values
@@ -28,13 +27,19 @@ public final class FilterParamIndexIn extends FilterParamIndexLookupableBase
     private final Map<Object, List<EventEvaluator>> constantsMap;
     private final Map<MultiKeyUntyped, EventEvaluator> evaluatorsMap;
     private final ReadWriteLock constantsMapRWLock;
+    private final FilterIndexConcurrency concurrency;
 
     public FilterParamIndexIn(FilterSpecLookupable lookupable) {
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexIn(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency) {
         super(FilterOperator.IN_LIST_OF_VALUES, lookupable);
 
-        constantsMap = new HashMap<Object, List<EventEvaluator>>();
-        evaluatorsMap = new HashMap<MultiKeyUntyped, EventEvaluator>();
-        constantsMapRWLock = new ReentrantReadWriteLock();
+        constantsMap = concurrency.makeMap();
+        evaluatorsMap = concurrency.makeMap();
+        constantsMapRWLock = concurrency.obtainNew();
+        this.concurrency = concurrency;
     }
 
     public final EventEvaluator get(Object filterConstant)
@@ -58,7 +63,7 @@ public final class FilterParamIndexIn extends FilterParamIndexLookupableBase
             List<EventEvaluator> evaluators = constantsMap.get(keyValues[i]);
             if (evaluators == null)
             {
-                evaluators = new LinkedList<EventEvaluator>();
+                evaluators = concurrency.makeList();
                 constantsMap.put(keyValues[i], evaluators);
             }
             else
@@ -110,7 +115,7 @@ public final class FilterParamIndexIn extends FilterParamIndexLookupableBase
         return constantsMapRWLock;
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object attributeValue = lookupable.getGetter().get(theEvent);
 
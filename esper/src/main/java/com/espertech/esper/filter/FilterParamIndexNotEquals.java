@@ -24,10 +24,14 @@ import java.util.Map;
 public final class FilterParamIndexNotEquals extends FilterParamIndexNotEqualsBase
 {
     public FilterParamIndexNotEquals(FilterSpecLookupable lookupable) {
-        super(lookupable, FilterOperator.NOT_EQUAL);
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    public FilterParamIndexNotEquals(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency) {
+        super(lookupable, FilterOperator.NOT_EQUAL, concurrency);
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object attributeValue = lookupable.getGetter().get(theEvent);
         if (attributeValue == null) {   // null cannot match any other value, not even null (use "is" or "is not", i.e. null != null returns null)
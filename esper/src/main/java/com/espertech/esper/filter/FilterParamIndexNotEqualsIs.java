@@ -24,10 +24,14 @@ import java.util.Map;
 public final class FilterParamIndexNotEqualsIs extends FilterParamIndexNotEqualsBase
 {
     public FilterParamIndexNotEqualsIs(FilterSpecLookupable lookupable) {
-        super(lookupable, FilterOperator.IS_NOT);
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    public FilterParamIndexNotEqualsIs(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency) {
+        super(lookupable, FilterOperator.IS_NOT, concurrency);
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object attributeValue = lookupable.getGetter().get(theEvent);
 
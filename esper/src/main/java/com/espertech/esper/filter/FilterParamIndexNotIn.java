@@ -15,7 +15,6 @@ import org.apache.commons.logging.LogFactory;
 
 import java.util.*;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Index for filter parameter constants to match using the 'not in' operator to match against a
@@ -27,15 +26,22 @@ public final class FilterParamIndexNotIn extends FilterParamIndexLookupableBase
     private final Map<MultiKeyUntyped, EventEvaluator> filterValueEvaluators;
     private final Set<EventEvaluator> evaluatorsSet;
     private final ReadWriteLock constantsMapRWLock;
+    private final FilterIndexConcurrency concurrency;
 
     public FilterParamIndexNotIn(FilterSpecLookupable lookupable)
+    {
+        this(lookupable, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexNotIn(FilterSpecLookupable lookupable, FilterIndexConcurrency concurrency)
     {
         super(FilterOperator.NOT_IN_LIST_OF_VALUES, lookupable);
 
-        constantsMap = new HashMap<Object, Set<EventEvaluator>>();
-        filterValueEvaluators = new HashMap<MultiKeyUntyped, EventEvaluator>();
-        evaluatorsSet = new HashSet<EventEvaluator>();
-        constantsMapRWLock = new ReentrantReadWriteLock();
+        constantsMap = concurrency.makeMap();
+        filterValueEvaluators = concurrency.makeMap();
+        evaluatorsSet = concurrency.makeSet();
+        constantsMapRWLock = concurrency.obtainNew();
+        this.concurrency = concurrency;
     }
 
     public final EventEvaluator get(Object filterConstant)
@@ -58,7 +64,7 @@ public final class FilterParamIndexNotIn extends FilterParamIndexLookupableBase
             Set<EventEvaluator> evaluators = constantsMap.get(keyValue);
             if (evaluators == null)
             {
-                evaluators = new HashSet<EventEvaluator>();
+                evaluators = concurrency.makeSet();
                 constantsMap.put(keyValue, evaluators);
             }
             evaluators.add(evaluator);
@@ -104,7 +110,7 @@ public final class FilterParamIndexNotIn extends FilterParamIndexLookupableBase
         return constantsMapRWLock;
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object attributeValue = lookupable.getGetter().get(theEvent);
 
@@ -0,0 +1,235 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the 'like' or 'regexp' operator.
+ * <p>
+ * The literal text that each pattern requires is compiled into a single {@link StringPatternAutomaton}, so that one
+ * scan of the event property value finds the candidate patterns and only the candidates are matched against
+ * the value. Patterns without any required literal are matched against every value.
+ * <p>
+ * Adding or removing a pattern only marks the automaton as outdated, see {@link FilterParamIndexDeferredBuild},
+ * so that registering many statements does not rebuild the automaton for each pattern.
+ */
+public final class FilterParamIndexStringPattern extends FilterParamIndexLookupableBase implements FilterParamIndexDeferredBuild
+{
+    private final Map<StringPattern, EventEvaluator> patternsMap;
+    private final ReadWriteLock patternsMapRWLock;
+    private volatile long version;
+    private volatile PatternSet patternSet;
+    private final ThreadLocal<boolean[]> foundPerThread = new ThreadLocal<boolean[]>();
+
+    /**
+     * Constructs the index.
+     * @param lookupable is the lookupable
+     * @param filterOperator is the type of pattern, either 'like' or 'regexp'
+     */
+    public FilterParamIndexStringPattern(FilterSpecLookupable lookupable, FilterOperator filterOperator)
+    {
+        this(lookupable, filterOperator, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructs the index.
+     * @param lookupable is the lookupable
+     * @param filterOperator is the type of pattern, either 'like' or 'regexp'
+     * @param concurrency supplies the lock and map
+     */
+    public FilterParamIndexStringPattern(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency)
+    {
+        super(filterOperator, lookupable);
+
+        if ((filterOperator != FilterOperator.LIKE) && (filterOperator != FilterOperator.REGEXP))
+        {
+            throw new IllegalArgumentException("Invalid filter operator " + filterOperator);
+        }
+
+        patternsMap = concurrency.makeMap();
+        patternsMapRWLock = concurrency.obtainNew();
+        patternSet = PatternSet.EMPTY;
+    }
+
+    public final EventEvaluator get(Object filterConstant)
+    {
+        return patternsMap.get(filterConstant);
+    }
+
+    public final void put(Object filterConstant, EventEvaluator evaluator)
+    {
+        if (!(filterConstant instanceof StringPattern))
+        {
+            throw new IllegalArgumentException("Supplied filter constant is not a pattern");
+        }
+        patternsMap.put((StringPattern) filterConstant, evaluator);
+        version++;
+    }
+
+    public final boolean remove(Object filterConstant)
+    {
+        if (patternsMap.remove(filterConstant) == null)
+        {
+            return false;
+        }
+        version++;
+        return true;
+    }
+
+    public final int size()
+    {
+        return patternsMap.size();
+    }
+
+    public final ReadWriteLock getReadWriteLock()
+    {
+        return patternsMapRWLock;
+    }
+
+    public final void build()
+    {
+        buildPatternSet();
+    }
+
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        Object attributeValue = lookupable.getGetter().get(theEvent);
+        if (attributeValue == null)
+        {
+            return;
+        }
+        String value = attributeValue.toString();
+
+        patternsMapRWLock.readLock().lock();
+        try {
+            PatternSet current = patternSet;
+            if (current.version != version)
+            {
+                current = buildPatternSet();
+            }
+
+            for (int i = 0; i < current.unconditionalPatterns.length; i++)
+            {
+                if (current.unconditionalPatterns[i].isMatch(value))
+                {
+                    current.unconditionalEvaluators[i].matchEvent(theEvent, matches);
+                }
+            }
+
+            if (current.automaton == null)
+            {
+                return;
+            }
+            int numLiterals = current.automaton.getNumLiterals();
+            boolean[] found = foundPerThread.get();
+            if ((found == null) || (found.length < numLiterals))
+            {
+                found = new boolean[numLiterals];
+                foundPerThread.set(found);
+            }
+            else
+            {
+                Arrays.fill(found, 0, numLiterals, false);
+            }
+            if (current.automaton.find(value, found) == 0)
+            {
+                return;
+            }
+            for (int i = 0; i < numLiterals; i++)
+            {
+                if (found[i] && current.literalPatterns[i].isMatch(value))
+                {
+                    current.literalEvaluators[i].matchEvent(theEvent, matches);
+                }
+            }
+        }
+        finally {
+            patternsMapRWLock.readLock().unlock();
+        }
+    }
+
+    // Called by the writer completing a batch, or by evaluation if outdated; the version is read before the map
+    // so that a pattern set built from a map that changed meanwhile remains outdated
+    private synchronized PatternSet buildPatternSet()
+    {
+        long builtVersion = version;
+        if (patternSet.version == builtVersion)
+        {
+            return patternSet;
+        }
+
+        List<String> literals = new ArrayList<String>();
+        List<StringPattern> literalPatterns = new ArrayList<StringPattern>();
+        List<EventEvaluator> literalEvaluators = new ArrayList<EventEvaluator>();
+        List<StringPattern> unconditionalPatterns = new ArrayList<StringPattern>();
+        List<EventEvaluator> unconditionalEvaluators = new ArrayList<EventEvaluator>();
+        for (Map.Entry<StringPattern, EventEvaluator> entry : patternsMap.entrySet())
+        {
+            String literal = entry.getKey().getRequiredLiteral();
+            if (literal == null)
+            {
+                unconditionalPatterns.add(entry.getKey());
+                unconditionalEvaluators.add(entry.getValue());
+            }
+            else
+            {
+                literals.add(literal);
+                literalPatterns.add(entry.getKey());
+                literalEvaluators.add(entry.getValue());
+            }
+        }
+
+        StringPatternAutomaton automaton = literals.isEmpty() ? null : new StringPatternAutomaton(literals.toArray(new String[literals.size()]));
+        PatternSet current = new PatternSet(builtVersion, automaton,
+                literalPatterns.toArray(new StringPattern[literalPatterns.size()]),
+                literalEvaluators.toArray(new EventEvaluator[literalEvaluators.size()]),
+                unconditionalPatterns.toArray(new StringPattern[unconditionalPatterns.size()]),
+                unconditionalEvaluators.toArray(new EventEvaluator[unconditionalEvaluators.size()]));
+        if (log.isDebugEnabled())
+        {
+            log.debug(".buildPatternSet Built for " + literals.size() + " patterns with literals and " + unconditionalPatterns.size() + " patterns without");
+        }
+        patternSet = current;
+        return current;
+    }
+
+    private static final class PatternSet
+    {
+        private final static PatternSet EMPTY = new PatternSet(0, null, new StringPattern[0], new EventEvaluator[0], new StringPattern[0], new EventEvaluator[0]);
+
+        private final long version;
+        private final StringPatternAutomaton automaton;
+        private final StringPattern[] literalPatterns;
+        private final EventEvaluator[] literalEvaluators;
+        private final StringPattern[] unconditionalPatterns;
+        private final EventEvaluator[] unconditionalEvaluators;
+
+        private PatternSet(long version, StringPatternAutomaton automaton, StringPattern[] literalPatterns, EventEvaluator[] literalEvaluators, StringPattern[] unconditionalPatterns, EventEvaluator[] unconditionalEvaluators)
+        {
+            this.version = version;
+            this.automaton = automaton;
+            this.literalPatterns = literalPatterns;
+            this.literalEvaluators = literalEvaluators;
+            this.unconditionalPatterns = unconditionalPatterns;
+            this.unconditionalEvaluators = unconditionalEvaluators;
+        }
+    }
+
+    private static final Log log = LogFactory.getLog(FilterParamIndexStringPattern.class);
+}
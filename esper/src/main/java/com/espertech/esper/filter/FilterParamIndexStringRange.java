@@ -22,13 +22,17 @@ import java.util.*;
 
 /**
  * Index for filter parameter constants for the range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
+ * The implementation is based on an interval tree and stores only expression
  * parameter values of type DoubleRange.
  */
 public final class FilterParamIndexStringRange extends FilterParamIndexStringRangeBase
 {
     public FilterParamIndexStringRange(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
-        super(lookupable, filterOperator);
+        this(lookupable, filterOperator, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexStringRange(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
+        super(lookupable, filterOperator, concurrency);
 
         if (!(filterOperator.isRangeOperator()))
         {
@@ -36,7 +40,7 @@ public final class FilterParamIndexStringRange extends FilterParamIndexStringRan
         }
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object objAttributeValue = lookupable.getGetter().get(theEvent);
 
@@ -44,51 +48,24 @@ public final class FilterParamIndexStringRange extends FilterParamIndexStringRan
         {
             return;
         }
-        
-        String attributeValue = (String) objAttributeValue;
 
-        StringRange rangeStart = new StringRange(null, attributeValue);
-        StringRange rangeEnd = new StringRange(attributeValue, null);
-        SortedMap<StringRange, EventEvaluator> subMap = ranges.subMap(rangeStart, true, rangeEnd, true);
+        String value = (String) objAttributeValue;
 
-        // For not including either endpoint
-        // A bit awkward to duplicate the loop code, however better than checking the boolean many times over
-        // This may be a bit of an early performance optimization - the optimizer after all may do this better
         if (this.getFilterOperator() == FilterOperator.RANGE_OPEN)  // include neither endpoint
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if (entry.getKey().getMin().compareTo(attributeValue) < 0 && entry.getKey().getMax().compareTo(attributeValue) > 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, false, false, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.RANGE_CLOSED)   // include all endpoints
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if (entry.getKey().getMin().compareTo(attributeValue) <= 0 && entry.getKey().getMax().compareTo(attributeValue) >= 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, true, true, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_CLOSED) // include high endpoint not low endpoint
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if (entry.getKey().getMin().compareTo(attributeValue) < 0 && entry.getKey().getMax().compareTo(attributeValue) >= 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, false, true, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_OPEN) // include low endpoint not high endpoint
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet())
-            {
-                if (entry.getKey().getMin().compareTo(attributeValue) <= 0 && entry.getKey().getMax().compareTo(attributeValue) > 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchContaining(value, true, false, theEvent, matches);
         }
         else
         {
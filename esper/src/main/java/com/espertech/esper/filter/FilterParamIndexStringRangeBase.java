@@ -16,23 +16,24 @@ import com.espertech.esper.client.EventPropertyGetter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.Comparator;
 import java.util.IdentityHashMap;
-import java.util.TreeMap;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLookupableBase
 {
-    protected final TreeMap<StringRange, EventEvaluator> ranges;
+    private static final Comparator<String> ENDPOINT_COMPARATOR = new EndpointComparator();
+
+    protected final RangeIntervalTree<String> ranges;
     private final IdentityHashMap<StringRange, EventEvaluator> rangesNullEndpoints;
     private final ReadWriteLock rangesRWLock;
 
-    protected FilterParamIndexStringRangeBase(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
+    protected FilterParamIndexStringRangeBase(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
         super(filterOperator, lookupable);
 
-        ranges = new TreeMap<StringRange, EventEvaluator>(new StringRangeComparator());
+        ranges = new RangeIntervalTree<String>(ENDPOINT_COMPARATOR);
         rangesNullEndpoints = new IdentityHashMap<StringRange, EventEvaluator>();
-        rangesRWLock = new ReentrantReadWriteLock();
+        rangesRWLock = concurrency.obtainNew();
     }
 
     public final EventEvaluator get(Object expressionValue)
@@ -49,7 +50,7 @@ public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLo
             return rangesNullEndpoints.get(range);
         }
 
-        return ranges.get(range);
+        return ranges.get(range.getMin(), range.getMax());
     }
 
     public final void put(Object expressionValue, EventEvaluator matcher)
@@ -66,7 +67,7 @@ public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLo
             return;
         }
 
-        ranges.put(range, matcher);
+        ranges.put(range.getMin(), range.getMax(), matcher);
     }
 
     public final boolean remove(Object filterConstant)
@@ -78,7 +79,7 @@ public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLo
             return rangesNullEndpoints.remove(range) != null;
         }
 
-        return ranges.remove(range) != null;
+        return ranges.remove(range.getMin(), range.getMax());
     }
 
     public final int size()
@@ -91,5 +92,13 @@ public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLo
         return rangesRWLock;
     }
 
+    private static final class EndpointComparator implements Comparator<String>
+    {
+        public int compare(String one, String two)
+        {
+            return one.compareTo(two);
+        }
+    }
+
     private static final Log log = LogFactory.getLog(FilterParamIndexStringRangeBase.class);
 }
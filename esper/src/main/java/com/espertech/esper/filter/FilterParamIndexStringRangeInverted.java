@@ -15,24 +15,27 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.Collection;
-import java.util.Map;
 
 /**
  * Index for filter parameter constants for the not range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
+ * The implementation is based on an interval tree and stores only expression
  * parameter values of type StringRange.
  */
 public final class FilterParamIndexStringRangeInverted extends FilterParamIndexStringRangeBase
 {
     public FilterParamIndexStringRangeInverted(FilterSpecLookupable lookupable, FilterOperator filterOperator) {
-        super(lookupable, filterOperator);
+        this(lookupable, filterOperator, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    public FilterParamIndexStringRangeInverted(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency) {
+        super(lookupable, filterOperator, concurrency);
         if (!(filterOperator.isInvertedRangeOperator()))
         {
             throw new IllegalArgumentException("Invalid filter operator " + filterOperator);
         }
     }
 
-    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches)
+    protected final void matchEventInternal(EventBean theEvent, Collection<FilterHandle> matches)
     {
         Object objAttributeValue = lookupable.getGetter().get(theEvent);
 
@@ -41,38 +44,23 @@ public final class FilterParamIndexStringRangeInverted extends FilterParamIndexS
             return;
         }
 
-        String attributeValue = (String) objAttributeValue;
+        String value = (String) objAttributeValue;
 
-        if (this.getFilterOperator() == FilterOperator.NOT_RANGE_CLOSED)   // include all endpoints
+        if (this.getFilterOperator() == FilterOperator.NOT_RANGE_OPEN)  // include neither endpoint
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : ranges.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) > 0 || entry.getKey().getMax().compareTo(attributeValue) < 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchNotContaining(value, false, false, theEvent, matches);
         }
-        else if (this.getFilterOperator() == FilterOperator.NOT_RANGE_OPEN) {  // include neither endpoint
-            for (Map.Entry<StringRange, EventEvaluator> entry : ranges.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) >= 0 || entry.getKey().getMax().compareTo(attributeValue) <= 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+        else if (this.getFilterOperator() == FilterOperator.NOT_RANGE_CLOSED)   // include all endpoints
+        {
+            ranges.matchNotContaining(value, true, true, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.NOT_RANGE_HALF_CLOSED) // include high endpoint not low endpoint
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : ranges.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) >= 0 || entry.getKey().getMax().compareTo(attributeValue) < 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchNotContaining(value, false, true, theEvent, matches);
         }
         else if (this.getFilterOperator() == FilterOperator.NOT_RANGE_HALF_OPEN) // include low endpoint not high endpoint
         {
-            for (Map.Entry<StringRange, EventEvaluator> entry : ranges.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) > 0 || entry.getKey().getMax().compareTo(attributeValue) <= 0) {
-                    entry.getValue().matchEvent(theEvent, matches);
-                }
-            }
+            ranges.matchNotContaining(value, true, false, theEvent, matches);
         }
         else
         {
@@ -60,6 +60,18 @@ public interface FilterService
      */
     public void remove(FilterHandle callback);
 
+    /**
+     * Add a batch of filters, each with its callback, as a single filter change that increments the filter version once.
+     * @param filters filter specifications and callbacks to add
+     */
+    public void addAll(Collection<FilterSetEntry> filters);
+
+    /**
+     * Remove a batch of filter callbacks as a single filter change that increments the filter version once.
+     * @param callbacks callbacks to be removed
+     */
+    public void removeAll(Collection<FilterHandle> callbacks);
+
     /**
      * Return a count of the number of events evaluated by this service.
      * @return count of invocations of evaluate method
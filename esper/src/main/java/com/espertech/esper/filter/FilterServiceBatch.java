@@ -0,0 +1,109 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter changes collected by a thread between begin and end of a batch, for applying the changes
+ * to the filter service as a single removal and a single addition.
+ * <p>
+ * Removing a filter that was added in the same batch cancels the addition.
+ */
+public class FilterServiceBatch
+{
+    private int depth;
+    private Map<FilterHandle, FilterSetEntry> adds = new LinkedHashMap<FilterHandle, FilterSetEntry>();
+    private List<FilterHandle> removes = new ArrayList<FilterHandle>();
+
+    /**
+     * Returns true if the thread is within a batch.
+     * @return indicator
+     */
+    public boolean isActive()
+    {
+        return depth > 0;
+    }
+
+    /**
+     * Enter a batch, batches may nest.
+     */
+    public void begin()
+    {
+        depth++;
+    }
+
+    /**
+     * Leave a batch.
+     * @throws IllegalStateException if not within a batch
+     */
+    public void end()
+    {
+        if (depth == 0)
+        {
+            throw new IllegalStateException("Filter batch has not been started");
+        }
+        depth--;
+    }
+
+    /**
+     * Add a filter to the batch.
+     * @param filterValueSet is the filter information
+     * @param filterCallback is the callback
+     */
+    public void add(FilterValueSet filterValueSet, FilterHandle filterCallback)
+    {
+        adds.put(filterCallback, new FilterSetEntry(filterCallback, filterValueSet));
+    }
+
+    /**
+     * Remove a filter as part of the batch.
+     * @param filterCallback is the callback
+     */
+    public void remove(FilterHandle filterCallback)
+    {
+        if (adds.remove(filterCallback) == null)
+        {
+            removes.add(filterCallback);
+        }
+    }
+
+    /**
+     * Returns and clears the filters to add.
+     * @return filters to add
+     */
+    public List<FilterSetEntry> takeAdds()
+    {
+        if (adds.isEmpty())
+        {
+            return null;
+        }
+        List<FilterSetEntry> result = new ArrayList<FilterSetEntry>(adds.values());
+        adds.clear();
+        return result;
+    }
+
+    /**
+     * Returns and clears the filters to remove.
+     * @return filters to remove
+     */
+    public List<FilterHandle> takeRemoves()
+    {
+        if (removes.isEmpty())
+        {
+            return null;
+        }
+        List<FilterHandle> result = removes;
+        removes = new ArrayList<FilterHandle>();
+        return result;
+    }
+}
@@ -16,11 +16,21 @@ import com.espertech.esper.util.AuditPath;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.ArrayDeque;
+import java.io.StringWriter;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.LockSupport;
 
 /**
@@ -35,15 +45,55 @@ public final class FilterServiceImpl implements FilterServiceSPI
     private final AtomicLong numEventsEvaluated = new AtomicLong();
     private volatile long filtersVersion = 1;
     private final CopyOnWriteArraySet<FilterServiceListener> filterServiceListeners;
+    private final Lock filterChangeLock;
+    private final long indexReorderThreshold;
+    private final AtomicBoolean reorderPending = new AtomicBoolean();
+    private final ConcurrentHashMap<String, FilterEvaluatorStatistics> statementStatistics;
+    private ExecutorService reorderExecutor;
+    private final ThreadLocal<FilterServiceBatch> batches = new ThreadLocal<FilterServiceBatch>() {
+        protected synchronized FilterServiceBatch initialValue() {
+            return new FilterServiceBatch();
+        }
+    };
 
     /**
      * Constructor.
      */
     protected FilterServiceImpl()
     {
-        eventTypeIndex = new EventTypeIndex();
-        indexBuilder = new EventTypeIndexBuilder(eventTypeIndex);
+        this(FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency supplies locks and collections to the filter index tree
+     */
+    protected FilterServiceImpl(FilterIndexConcurrency concurrency)
+    {
+        this(concurrency, 0, false);
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency supplies locks and collections to the filter index tree
+     * @param indexReorderThreshold number of events evaluated after which to reorder filter indexes, or zero for none
+     * @param indexProfiling true to have filter nodes and indexes count matches and time spent
+     */
+    protected FilterServiceImpl(FilterIndexConcurrency concurrency, long indexReorderThreshold, boolean indexProfiling)
+    {
+        this.indexReorderThreshold = indexReorderThreshold;
+        FilterEvaluatorStatistics.Level statisticsLevel = FilterEvaluatorStatistics.Level.NONE;
+        if (indexProfiling) {
+            statisticsLevel = FilterEvaluatorStatistics.Level.PROFILE;
+        }
+        else if (indexReorderThreshold > 0) {
+            statisticsLevel = FilterEvaluatorStatistics.Level.LOOKUPS;
+        }
+        statementStatistics = indexProfiling ? new ConcurrentHashMap<String, FilterEvaluatorStatistics>() : null;
+        eventTypeIndex = new EventTypeIndex(concurrency);
+        indexBuilder = new EventTypeIndexBuilder(eventTypeIndex, concurrency, statisticsLevel);
         filterServiceListeners = new CopyOnWriteArraySet<FilterServiceListener>();
+        filterChangeLock = concurrency.getFilterChangeLock();
     }
 
     public long getFiltersVersion() {
@@ -53,29 +103,113 @@ public final class FilterServiceImpl implements FilterServiceSPI
     public void destroy()
     {
         log.debug("Destroying filter service");
+        synchronized (this) {
+            if (reorderExecutor != null) {
+                reorderExecutor.shutdownNow();
+            }
+        }
         eventTypeIndex.destroy();
         indexBuilder.destroy();
     }
 
     public final void add(FilterValueSet filterValueSet, FilterHandle filterCallback)
     {
-        indexBuilder.add(filterValueSet, filterCallback);
-        filtersVersion++;
+        FilterServiceBatch batch = batches.get();
+        if (batch.isActive()) {
+            batch.add(filterValueSet, filterCallback);
+            return;
+        }
+        filterChangeLock.lock();
+        try {
+            indexBuilder.add(filterValueSet, filterCallback);
+            filtersVersion++;
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
     }
 
     public final void remove(FilterHandle filterCallback)
     {
-        indexBuilder.remove(filterCallback);
-        filtersVersion++;
+        FilterServiceBatch batch = batches.get();
+        if (batch.isActive()) {
+            batch.remove(filterCallback);
+            return;
+        }
+        filterChangeLock.lock();
+        try {
+            indexBuilder.remove(filterCallback);
+            filtersVersion++;
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
+    }
+
+    public final void addAll(Collection<FilterSetEntry> filters)
+    {
+        FilterServiceBatch batch = batches.get();
+        if (batch.isActive()) {
+            for (FilterSetEntry entry : filters) {
+                batch.add(entry.getFilterValueSet(), entry.getHandle());
+            }
+            return;
+        }
+        addAllInternal(filters);
+    }
+
+    private void addAllInternal(Collection<FilterSetEntry> filters)
+    {
+        filterChangeLock.lock();
+        try {
+            indexBuilder.addAll(filters);
+            filtersVersion++;
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
+    }
+
+    public final void removeAll(Collection<FilterHandle> filterCallbacks)
+    {
+        FilterServiceBatch batch = batches.get();
+        if (batch.isActive()) {
+            for (FilterHandle filterCallback : filterCallbacks) {
+                batch.remove(filterCallback);
+            }
+            return;
+        }
+        removeAllInternal(filterCallbacks);
+    }
+
+    private void removeAllInternal(Collection<FilterHandle> filterCallbacks)
+    {
+        filterChangeLock.lock();
+        try {
+            indexBuilder.removeAll(filterCallbacks);
+            filtersVersion++;
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
     }
 
     public final long evaluate(EventBean theEvent, Collection<FilterHandle> matches)
     {
         long version = filtersVersion;
-        numEventsEvaluated.incrementAndGet();
+        long numEvaluated = numEventsEvaluated.incrementAndGet();
 
         // Finds all matching filters and return their callbacks.
-        retryableMatchEvent(theEvent, matches);
+        int numMatches = matches.size();
+        long nanos = retryableMatchEvent(eventTypeIndex, theEvent, matches);
+        if (statementStatistics != null) {
+            profileStatements(matches, numMatches, nanos);
+        }
+
+        // Reorder filter indexes by selectivity when reaching the threshold, in the background
+        if ((indexReorderThreshold > 0) && (numEvaluated % indexReorderThreshold == 0)) {
+            scheduleReorder();
+        }
 
         if ((AuditPath.isAuditEnabled) && (!filterServiceListeners.isEmpty())) {
             for (FilterServiceListener listener : filterServiceListeners) {
@@ -91,15 +225,13 @@ public final class FilterServiceImpl implements FilterServiceSPI
         long version = filtersVersion;
         numEventsEvaluated.incrementAndGet();
 
-        ArrayDeque<FilterHandle> allMatches = new ArrayDeque<FilterHandle>();
-
-        // Finds all matching filters
-        retryableMatchEvent(theEvent, allMatches);
-
-        // Add statement matches to collection passed
-        for (FilterHandle match : allMatches) {
-            if (match.getStatementId().equals(statementId)) {
-                matches.add(match);
+        // Finds matching filters of the statement only, using the index that holds the statement's filters
+        EventTypeIndex statementIndex = indexBuilder.getStatementIndex(statementId);
+        if (statementIndex != null) {
+            int numMatches = matches.size();
+            long nanos = retryableMatchEvent(statementIndex, theEvent, matches);
+            if (statementStatistics != null) {
+                profileStatements(matches, numMatches, nanos);
             }
         }
 
@@ -123,6 +255,86 @@ public final class FilterServiceImpl implements FilterServiceSPI
         numEventsEvaluated.set(0);
     }
 
+    /**
+     * Reorders filter indexes by the selectivity observed by each filter index, returning the number of event types
+     * for which the filter index tree was rebuilt. Has no effect unless the filter service collects statistics, i.e.
+     * unless a reorder threshold is configured.
+     * <p>
+     * Rebuilt trees replace the current trees atomically. Event evaluation and filter changes proceed while rebuilding.
+     * @return number of event types reordered
+     */
+    @JmxOperation(description = "Reorder filter indexes by selectivity")
+    public int reorderFilterIndexes() {
+        int count = indexBuilder.reorder();
+        if ((count > 0) && (log.isDebugEnabled())) {
+            log.debug("Reordered filter indexes for " + count + " event types");
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if a reorder of filter indexes has been scheduled and has not completed.
+     * @return indicator
+     */
+    public boolean isReorderPending() {
+        return reorderPending.get();
+    }
+
+    // Runs the reorder on the reorder thread, unless a reorder is already pending
+    private void scheduleReorder() {
+        if (!reorderPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getReorderExecutor().execute(new Runnable() {
+                public void run() {
+                    try {
+                        reorderFilterIndexes();
+                    }
+                    catch (RuntimeException ex) {
+                        log.error("Failed to reorder filter indexes: " + ex.getMessage(), ex);
+                    }
+                    finally {
+                        reorderPending.set(false);
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException ex) {
+            reorderPending.set(false);    // destroyed
+        }
+    }
+
+    private synchronized ExecutorService getReorderExecutor() {
+        if (reorderExecutor == null) {
+            reorderExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "com.espertech.esper.FilterIndexReorder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return reorderExecutor;
+    }
+
+    public void beginBatch() {
+        batches.get().begin();
+    }
+
+    public void endBatch() {
+        FilterServiceBatch batch = batches.get();
+        batch.end();
+        List<FilterHandle> removes = batch.takeRemoves();
+        List<FilterSetEntry> adds = batch.takeAdds();
+        if (removes != null) {
+            removeAllInternal(removes);
+        }
+        if (adds != null) {
+            addAllInternal(adds);
+        }
+    }
+
     public void addFilterServiceListener(FilterServiceListener filterServiceListener) {
         filterServiceListeners.add(filterServiceListener);
     }
@@ -133,14 +345,71 @@ public final class FilterServiceImpl implements FilterServiceSPI
 
     public FilterSet take(Set<String> statementIds)
     {
-        filtersVersion++;
-        return indexBuilder.take(statementIds);
+        filterChangeLock.lock();
+        try {
+            filtersVersion++;
+            return indexBuilder.take(statementIds);
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
     }
 
     public void apply(FilterSet filterSet)
     {
-        filtersVersion++;
-        indexBuilder.apply(filterSet);
+        filterChangeLock.lock();
+        try {
+            filtersVersion++;
+            indexBuilder.apply(filterSet);
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
+    }
+
+    public Map<String, FilterEvaluatorProfile> getFilterIndexProfile() {
+        return indexBuilder.getProfile(false);
+    }
+
+    @JmxGetter(name="FilterIndexProfile", description = "Filter index tree per event type with counters per node and index (when profiling)")
+    public String getFilterIndexProfileText() {
+        StringWriter writer = new StringWriter();
+        for (Map.Entry<String, FilterEvaluatorProfile> entry : getFilterIndexProfile().entrySet()) {
+            writer.append(entry.getKey());
+            writer.append('\n');
+            entry.getValue().appendTo(writer, 2);
+        }
+        return writer.toString();
+    }
+
+    public Map<String, FilterStatementProfile> getFilterStatementProfile() {
+        Map<String, FilterStatementProfile> result = new TreeMap<String, FilterStatementProfile>();
+        if (statementStatistics == null) {
+            return result;
+        }
+        for (Map.Entry<String, FilterEvaluatorStatistics> entry : statementStatistics.entrySet()) {
+            FilterEvaluatorStatistics stats = entry.getValue();
+            result.put(entry.getKey(), new FilterStatementProfile(entry.getKey(), stats.getNumMatches(), stats.getNumNanos()));
+        }
+        return result;
+    }
+
+    @JmxGetter(name="FilterStatementProfile", description = "Filter matches and filter evaluation time per statement (when profiling)")
+    public String getFilterStatementProfileText() {
+        StringWriter writer = new StringWriter();
+        for (FilterStatementProfile profile : getFilterStatementProfile().values()) {
+            writer.append(profile.toString());
+            writer.append('\n');
+        }
+        return writer.toString();
+    }
+
+    @JmxOperation(description = "Reset counters per node and index of the filter index tree and per statement")
+    public void resetFilterIndexProfile() {
+        indexBuilder.getProfile(true);
+        if (statementStatistics != null) {
+            statementStatistics.clear();
+        }
     }
 
     @JmxGetter(name="NumFiltersApprox", description = "Number of filters managed (approximately)")
@@ -154,13 +423,51 @@ public final class FilterServiceImpl implements FilterServiceSPI
     }
 
     public void removeType(EventType type) {
-        eventTypeIndex.removeType(type);
+        filterChangeLock.lock();
+        try {
+            indexBuilder.removeType(type);
+        }
+        finally {
+            filterChangeLock.unlock();
+        }
+    }
+
+    // Attributes the filter handles matched by an evaluation, and the time it took, to their statements
+    private void profileStatements(Collection<FilterHandle> matches, int numMatchesBefore, long nanos) {
+        if (matches.size() < numMatchesBefore) {
+            numMatchesBefore = 0;   // matches were cleared for retry
+        }
+        int numMatched = matches.size() - numMatchesBefore;
+        if (numMatched == 0) {
+            return;
+        }
+        long nanosPerMatch = nanos / numMatched;
+        int count = 0;
+        for (FilterHandle handle : matches) {
+            if (count++ < numMatchesBefore) {
+                continue;
+            }
+            String statementId = handle.getStatementId();
+            if (statementId == null) {
+                continue;
+            }
+            FilterEvaluatorStatistics stats = statementStatistics.get(statementId);
+            if (stats == null) {
+                stats = new FilterEvaluatorStatistics(true);
+                FilterEvaluatorStatistics existing = statementStatistics.putIfAbsent(statementId, stats);
+                if (existing != null) {
+                    stats = existing;
+                }
+            }
+            stats.addLookup(1);
+            stats.addNanos(nanosPerMatch);
+        }
     }
 
-    private void retryableMatchEvent(EventBean theEvent, Collection<FilterHandle> matches) {
+    private long retryableMatchEvent(EventTypeIndex index, EventBean theEvent, Collection<FilterHandle> matches) {
         // Install lock backoff exception handler that retries the evaluation.
         try {
-            eventTypeIndex.matchEvent(theEvent, matches);
+            return index.matchEventTimed(theEvent, matches);
         }
         catch (FilterLockBackoffException ex) {
             // retry on lock back-off
@@ -185,8 +492,7 @@ public final class FilterServiceImpl implements FilterServiceSPI
 
                     // evaluate
                     matches.clear();
-                    eventTypeIndex.matchEvent(theEvent, matches);
-                    break;
+                    return index.matchEventTimed(theEvent, matches);
                 }
                 catch (FilterLockBackoffException ex2) {
                     // retried
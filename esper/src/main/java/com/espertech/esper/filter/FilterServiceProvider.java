@@ -8,6 +8,8 @@
  **************************************************************************************/
 package com.espertech.esper.filter;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
+
 /**
  * Static factory for implementations of the {@link FilterService} interface.
  */
@@ -21,4 +23,39 @@ public final class FilterServiceProvider
     {
         return new FilterServiceImpl();
     }
+
+    /**
+     * Creates an implementation of the FilterEvaluationService interface for the given profile.
+     * @param profile filter service profile
+     * @return implementation
+     */
+    public static FilterServiceSPI newService(ConfigurationEngineDefaults.FilterServiceProfile profile)
+    {
+        return newService(profile, 0, false);
+    }
+
+    /**
+     * Creates an implementation of the FilterEvaluationService interface for the engine execution settings.
+     * @param execution engine execution settings
+     * @return implementation
+     */
+    public static FilterServiceSPI newService(ConfigurationEngineDefaults.Execution execution)
+    {
+        return newService(execution.getFilterServiceProfile(), execution.getFilterIndexReorderThreshold(), execution.isFilterIndexProfiling());
+    }
+
+    /**
+     * Creates an implementation of the FilterEvaluationService interface for the given profile.
+     * @param profile filter service profile
+     * @param indexReorderThreshold number of events evaluated after which to reorder filter indexes, or zero for none
+     * @param indexProfiling true to have filter nodes and indexes count matches and time spent
+     * @return implementation
+     */
+    public static FilterServiceSPI newService(ConfigurationEngineDefaults.FilterServiceProfile profile, long indexReorderThreshold, boolean indexProfiling)
+    {
+        if (profile == ConfigurationEngineDefaults.FilterServiceProfile.READMOSTLY) {
+            return new FilterServiceImpl(new FilterIndexConcurrencyLockFree(), indexReorderThreshold, indexProfiling);
+        }
+        return new FilterServiceImpl(FilterIndexConcurrencyLocking.INSTANCE, indexReorderThreshold, indexProfiling);
+    }
 }
@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.filter;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -40,7 +41,38 @@ public interface FilterServiceSPI extends FilterService
      */
     public void removeFilterServiceListener(FilterServiceListener filterServiceListener);
 
+    /**
+     * Start collecting the filter additions and removals of the current thread, for applying them as a batch
+     * when the batch ends. Batches may nest.
+     */
+    public void beginBatch();
+
+    /**
+     * Apply the filter additions and removals collected by the current thread since the batch started,
+     * removals first, as one batch removal and one batch addition.
+     */
+    public void endBatch();
+
     public int getFilterCountApprox();
 
     public int getCountTypes();
+
+    /**
+     * Returns a snapshot of the filter index tree of each event type with the counters kept by each filter node
+     * and filter index, which are only available when filter index profiling or reordering is enabled.
+     * @return profile of the root node per event type name
+     */
+    public Map<String, FilterEvaluatorProfile> getFilterIndexProfile();
+
+    /**
+     * Returns the number of filter handles matched and the filter evaluation time attributed to each statement,
+     * which are only available when filter index profiling is enabled.
+     * @return profile per statement id
+     */
+    public Map<String, FilterStatementProfile> getFilterStatementProfile();
+
+    /**
+     * Reset the counters kept by each filter node and filter index and per statement.
+     */
+    public void resetFilterIndexProfile();
 }
\ No newline at end of file
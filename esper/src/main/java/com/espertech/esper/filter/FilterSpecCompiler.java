@@ -44,6 +44,7 @@ import java.io.StringWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Helper to compile (validate and optimize) filter expressions as used in pattern and filter-based streams.
@@ -557,6 +558,15 @@ public final class FilterSpecCompiler
             }
         }
 
+        if ((constituent instanceof ExprLikeNode) || (constituent instanceof ExprRegexpNode))
+        {
+            FilterSpecParam param = handleStringPattern(constituent, exprEvaluatorContext);
+            if (param != null)
+            {
+                return param;
+            }
+        }
+
         if (constituent instanceof ExprPlugInSingleRowNode) {
             FilterSpecParam param = handlePlugInSingleRow((ExprPlugInSingleRowNode) constituent, exprEvaluatorContext, statementName);
             if (param != null)
@@ -579,6 +589,71 @@ public final class FilterSpecCompiler
         return new FilterSpecParamConstant(lookupable, FilterOperator.EQUAL, true);
     }
 
+    private static FilterSpecParam handleStringPattern(ExprNode constituent, ExprEvaluatorContext exprEvaluatorContext)
+    {
+        boolean isRegexp = constituent instanceof ExprRegexpNode;
+        boolean isNot = isRegexp ? ((ExprRegexpNode) constituent).isNot() : ((ExprLikeNode) constituent).isNot();
+        if (isNot)
+        {
+            return null;
+        }
+
+        // the left-hand side must be a String-typed property and the pattern and escape constants
+        ExprNode[] childNodes = constituent.getChildNodes();
+        if (!(childNodes[0] instanceof ExprFilterOptimizableNode))
+        {
+            return null;
+        }
+        ExprFilterOptimizableNode filterOptimizableNode = (ExprFilterOptimizableNode) childNodes[0];
+        if (!filterOptimizableNode.getFilterLookupEligible())
+        {
+            return null;
+        }
+        FilterSpecLookupable lookupable = filterOptimizableNode.getFilterLookupable();
+        if (lookupable.getReturnType() != String.class)
+        {
+            return null;
+        }
+        for (int i = 1; i < childNodes.length; i++)
+        {
+            if (!ExprNodeUtility.isConstantValueExpr(childNodes[i]))
+            {
+                return null;
+            }
+        }
+        String patternText = (String) ((ExprConstantNode) childNodes[1]).evaluate(null, true, exprEvaluatorContext);
+        if (patternText == null)
+        {
+            return null;
+        }
+
+        if (isRegexp)
+        {
+            StringPattern pattern;
+            try
+            {
+                pattern = new StringPattern(patternText, null, true);
+            }
+            catch (PatternSyntaxException ex)
+            {
+                return null;    // report when evaluating, as the expression does
+            }
+            return new FilterSpecParamConstant(lookupable, FilterOperator.REGEXP, pattern);
+        }
+
+        String escape = "\\";
+        if (childNodes.length == 3)
+        {
+            escape = (String) ((ExprConstantNode) childNodes[2]).evaluate(null, true, exprEvaluatorContext);
+            if (escape == null)
+            {
+                return null;
+            }
+        }
+        Character escapeCharacter = escape.length() > 0 ? escape.charAt(0) : null;
+        return new FilterSpecParamConstant(lookupable, FilterOperator.LIKE, new StringPattern(patternText, escapeCharacter, false));
+    }
+
     private static FilterSpecParam handleRangeNode(ExprBetweenNode betweenNode, LinkedHashMap<String, Pair<EventType, String>> arrayEventTypes, ExprEvaluatorContext exprEvaluatorContext, String statementName)
     {
         ExprNode left = betweenNode.getChildNodes()[0];
@@ -44,6 +44,8 @@ public class FilterSpecParamComparator implements Comparator<FilterOperator>, Me
             FilterOperator.NOT_IN_LIST_OF_VALUES,
             FilterOperator.NOT_EQUAL,
             FilterOperator.IS_NOT,
+            FilterOperator.LIKE,
+            FilterOperator.REGEXP,
             FilterOperator.BOOLEAN_EXPRESSION
      };
 
@@ -0,0 +1,71 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the filter matches of a statement, when filter index profiling.
+ * <p>
+ * The time of each evaluation of an event against the filter index tree is apportioned evenly among the filter
+ * handles that the evaluation matched.
+ */
+public class FilterStatementProfile implements Serializable
+{
+    private static final long serialVersionUID = 4786232409187420231L;
+
+    private final String statementId;
+    private final long numMatches;
+    private final long numNanos;
+
+    /**
+     * Ctor.
+     * @param statementId statement id
+     * @param numMatches number of filter handles of the statement matched
+     * @param numNanos nanoseconds of filter evaluation attributed to the statement
+     */
+    public FilterStatementProfile(String statementId, long numMatches, long numNanos)
+    {
+        this.statementId = statementId;
+        this.numMatches = numMatches;
+        this.numNanos = numNanos;
+    }
+
+    /**
+     * Returns the statement id.
+     * @return statement id
+     */
+    public String getStatementId()
+    {
+        return statementId;
+    }
+
+    /**
+     * Returns the number of filter handles of the statement matched.
+     * @return matches
+     */
+    public long getNumMatches()
+    {
+        return numMatches;
+    }
+
+    /**
+     * Returns the nanoseconds of filter evaluation attributed to the statement.
+     * @return nanoseconds
+     */
+    public long getNumNanos()
+    {
+        return numNanos;
+    }
+
+    public String toString()
+    {
+        return statementId + " matches=" + numMatches + " nanos=" + numNanos;
+    }
+}
@@ -9,6 +9,7 @@
 package com.espertech.esper.filter;
 
 import com.espertech.esper.client.EventType;
+import com.espertech.esper.util.JavaClassHelper;
 
 /**
  * Factory for {@link FilterParamIndexBase} instances based on event property name and filter operator type.
@@ -20,37 +21,59 @@ public class IndexFactory
      * operator.
      * <p>Does not perform any check of validity of property name.
      *
+     * @param lookupable is the lookupable
      * @param filterOperator is the type of index to use
      * @return the proper index based on the filter operator type
      */
     public static FilterParamIndexBase createIndex(FilterSpecLookupable lookupable, FilterOperator filterOperator)
+    {
+        return createIndex(lookupable, filterOperator, FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Factory for indexes that store filter parameter constants for a given event property and filter
+     * operator.
+     * <p>Does not perform any check of validity of property name.
+     *
+     * @param lookupable is the lookupable
+     * @param filterOperator is the type of index to use
+     * @param concurrency supplies locks and collections to the index
+     * @return the proper index based on the filter operator type
+     */
+    public static FilterParamIndexBase createIndex(FilterSpecLookupable lookupable, FilterOperator filterOperator, FilterIndexConcurrency concurrency)
     {
         FilterParamIndexBase index;
         Class returnValueType = lookupable.getReturnType();
 
-        // Handle all EQUAL comparisons
+        // Handle all EQUAL comparisons, int and long properties have their own index
         if (filterOperator == FilterOperator.EQUAL)
         {
-            index = new FilterParamIndexEquals(lookupable);
+            Class keyType = JavaClassHelper.getBoxedType(returnValueType);
+            if ((keyType == Long.class) || (keyType == Integer.class)) {
+                index = new FilterParamIndexEqualsIntegral(lookupable, concurrency);
+            }
+            else {
+                index = new FilterParamIndexEquals(lookupable, concurrency);
+            }
             return index;
         }
 
         // Handle all NOT-EQUAL comparisons
         if (filterOperator == FilterOperator.NOT_EQUAL)
         {
-            index = new FilterParamIndexNotEquals(lookupable);
+            index = new FilterParamIndexNotEquals(lookupable, concurrency);
             return index;
         }
 
         if (filterOperator == FilterOperator.IS)
         {
-            index = new FilterParamIndexEqualsIs(lookupable);
+            index = new FilterParamIndexEqualsIs(lookupable, concurrency);
             return index;
         }
 
         if (filterOperator == FilterOperator.IS_NOT)
         {
-            index = new FilterParamIndexNotEqualsIs(lookupable);
+            index = new FilterParamIndexNotEqualsIs(lookupable, concurrency);
             return index;
         }
 
@@ -61,10 +84,10 @@ public class IndexFactory
             (filterOperator == FilterOperator.LESS_OR_EQUAL))
         {
             if (returnValueType != String.class) {
-                index = new FilterParamIndexCompare(lookupable, filterOperator);
+                index = new FilterParamIndexCompare(lookupable, filterOperator, concurrency);
             }
             else {
-                index = new FilterParamIndexCompareString(lookupable, filterOperator);
+                index = new FilterParamIndexCompareString(lookupable, filterOperator, concurrency);
             }
             return index;
         }
@@ -73,37 +96,43 @@ public class IndexFactory
         if (filterOperator.isRangeOperator())
         {
             if (returnValueType != String.class) {
-                index = new FilterParamIndexDoubleRange(lookupable, filterOperator);
+                index = new FilterParamIndexDoubleRange(lookupable, filterOperator, concurrency);
             }
             else {
-                index = new FilterParamIndexStringRange(lookupable, filterOperator);
+                index = new FilterParamIndexStringRange(lookupable, filterOperator, concurrency);
             }
             return index;
         }
         if (filterOperator.isInvertedRangeOperator())
         {
             if (returnValueType != String.class) {
-                return new FilterParamIndexDoubleRangeInverted(lookupable, filterOperator);
+                return new FilterParamIndexDoubleRangeInverted(lookupable, filterOperator, concurrency);
             }
             else {
-                return new FilterParamIndexStringRangeInverted(lookupable, filterOperator);
+                return new FilterParamIndexStringRangeInverted(lookupable, filterOperator, concurrency);
             }
         }
 
         // Handle all IN and NOT IN comparisons
         if (filterOperator == FilterOperator.IN_LIST_OF_VALUES)
         {
-            return new FilterParamIndexIn(lookupable);
+            return new FilterParamIndexIn(lookupable, concurrency);
         }
         if (filterOperator == FilterOperator.NOT_IN_LIST_OF_VALUES)
         {
-            return new FilterParamIndexNotIn(lookupable);
+            return new FilterParamIndexNotIn(lookupable, concurrency);
+        }
+
+        // Handle all 'like' and 'regexp' comparisons
+        if ((filterOperator == FilterOperator.LIKE) || (filterOperator == FilterOperator.REGEXP))
+        {
+            return new FilterParamIndexStringPattern(lookupable, filterOperator, concurrency);
         }
 
         // Handle all boolean expression
         if (filterOperator == FilterOperator.BOOLEAN_EXPRESSION)
         {
-            return new FilterParamIndexBooleanExpr();
+            return new FilterParamIndexBooleanExpr(concurrency);
         }
         throw new IllegalArgumentException("Cannot create filter index instance for filter operator " + filterOperator);
     }
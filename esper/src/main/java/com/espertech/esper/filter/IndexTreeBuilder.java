@@ -16,6 +16,8 @@ import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Builder manipulates a tree structure consisting of {@link FilterHandleSetNode} and {@link FilterParamIndexBase} instances.
@@ -29,12 +31,36 @@ public final class IndexTreeBuilder
     private ArrayDeque<FilterValueSetParam> remainingParameters;
     private FilterHandle filterCallback;
     private long currentThreadId;
+    private final FilterIndexConcurrency concurrency;
+    private final FilterEvaluatorStatistics.Level statisticsLevel;
+    private final Set<FilterParamIndexDeferredBuild> changedIndexes = new LinkedHashSet<FilterParamIndexDeferredBuild>();
 
     /**
      * Constructor.
      */
     public IndexTreeBuilder()
     {
+        this(FilterIndexConcurrencyLocking.INSTANCE);
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency supplies locks and collections to new nodes and indexes
+     */
+    public IndexTreeBuilder(FilterIndexConcurrency concurrency)
+    {
+        this(concurrency, FilterEvaluatorStatistics.Level.NONE);
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency supplies locks and collections to new nodes and indexes
+     * @param statisticsLevel level of statistics for new nodes and indexes to keep
+     */
+    public IndexTreeBuilder(FilterIndexConcurrency concurrency, FilterEvaluatorStatistics.Level statisticsLevel)
+    {
+        this.concurrency = concurrency;
+        this.statisticsLevel = statisticsLevel;
     }
 
     /**
@@ -101,6 +127,29 @@ public final class IndexTreeBuilder
         this.filterCallback = null;
     }
 
+    /**
+     * Builds the lookup structures of the indexes that this builder put entries to or removed entries from, see
+     * {@link FilterParamIndexDeferredBuild}, once for all adds and removes since the last call.
+     * To be called when a batch of adds or removes completes.
+     */
+    public final void buildChangedIndexes()
+    {
+        for (FilterParamIndexDeferredBuild changed : changedIndexes)
+        {
+            FilterParamIndexBase index = (FilterParamIndexBase) changed;
+            index.getReadWriteLock().writeLock().lock();
+            try
+            {
+                changed.build();
+            }
+            finally
+            {
+                index.getReadWriteLock().writeLock().unlock();
+            }
+        }
+        changedIndexes.clear();
+    }
+
     /**
      * Add to the current node building up the tree path information.
      * @param currentNode is the node to add to
@@ -173,7 +222,7 @@ public final class IndexTreeBuilder
             // Pick the next parameter for an index
             FilterValueSetParam parameterPickedForIndex = remainingParameters.removeFirst();
 
-            FilterParamIndexBase index = IndexFactory.createIndex(parameterPickedForIndex.getLookupable(), parameterPickedForIndex.getFilterOperator());
+            FilterParamIndexBase index = createIndex(parameterPickedForIndex);
 
             currentNode.getIndizes().add(index);
             treePathInfo.add(index, parameterPickedForIndex.getFilterForValue());
@@ -277,6 +326,7 @@ public final class IndexTreeBuilder
                     // Since we are holding a write lock to this index, there should not be a chance that
                     // another thread had been adding anything to this FilterHandleSetNode
                     index.remove(filterForValue);
+                    addChanged(index);
                 }
                 int size = index.size();
 
@@ -310,6 +360,7 @@ public final class IndexTreeBuilder
                 // Since we are holding a write lock to this index, there should not be a chance that
                 // another thread had been adding anything to this FilterHandleSetNode
                 index.remove(filterForValue);
+                addChanged(index);
             }
             int size = index.size();
 
@@ -376,9 +427,10 @@ public final class IndexTreeBuilder
 
                 // The found eventEvaluator must be converted to a new FilterHandleSetNode
                 FilterParamIndexBase nextIndex = (FilterParamIndexBase) eventEvaluator;
-                FilterHandleSetNode newNode = new FilterHandleSetNode();
+                FilterHandleSetNode newNode = createNode();
                 newNode.add(nextIndex);
                 index.put(filterForValue, newNode);
+                addChanged(index);
                 addToNode(newNode, treePathInfo);
 
                 return;
@@ -388,18 +440,20 @@ public final class IndexTreeBuilder
             // if there are no remaining parameters, create a node
             if (remainingParameters.isEmpty())
             {
-                FilterHandleSetNode node = new FilterHandleSetNode();
+                FilterHandleSetNode node = createNode();
                 addToNode(node, treePathInfo);
                 index.put(filterForValue, node);
+                addChanged(index);
                 return;
             }
 
             // If there are remaining parameters, create a new index for the next parameter
             FilterValueSetParam parameterPickedForIndex = remainingParameters.removeFirst();
 
-            FilterParamIndexBase nextIndex = IndexFactory.createIndex(parameterPickedForIndex.getLookupable(), parameterPickedForIndex.getFilterOperator());
+            FilterParamIndexBase nextIndex = createIndex(parameterPickedForIndex);
 
             index.put(filterForValue, nextIndex);
+            addChanged(index);
             treePathInfo.add(nextIndex, parameterPickedForIndex.getFilterForValue());
             addToIndex(nextIndex, parameterPickedForIndex.getFilterForValue(), treePathInfo);
         }
@@ -441,6 +495,28 @@ public final class IndexTreeBuilder
     }
 
 
+    private void addChanged(FilterParamIndexBase index)
+    {
+        if (index instanceof FilterParamIndexDeferredBuild)
+        {
+            changedIndexes.add((FilterParamIndexDeferredBuild) index);
+        }
+    }
+
+    private FilterParamIndexBase createIndex(FilterValueSetParam parameter)
+    {
+        FilterParamIndexBase index = IndexFactory.createIndex(parameter.getLookupable(), parameter.getFilterOperator(), concurrency);
+        index.setStatistics(FilterEvaluatorStatistics.make(statisticsLevel));
+        return index;
+    }
+
+    private FilterHandleSetNode createNode()
+    {
+        FilterHandleSetNode node = new FilterHandleSetNode(concurrency);
+        node.setStatistics(FilterEvaluatorStatistics.make(statisticsLevel));
+        return node;
+    }
+
     private String printRemainingParameters()
     {
         StringBuilder buffer = new StringBuilder();
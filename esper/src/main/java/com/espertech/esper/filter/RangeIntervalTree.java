@@ -0,0 +1,291 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Interval tree for filter range constants, for finding the ranges that contain, or that do not contain,
+ * an event property value without visiting each range.
+ * <p>
+ * The tree is a treap ordered by low endpoint and then high endpoint. Each node carries the largest and the smallest
+ * high endpoint of its subtree, so that a query skips subtrees that cannot have a match and
+ * visits O(log n) nodes per matching range.
+ * <p>
+ * Nodes are immutable: changes copy the path from the root to the changed node and publish the new root,
+ * so that queries never lock and see a consistent tree. Changes are synchronized with each other.
+ */
+public final class RangeIntervalTree<E>
+{
+    private final Comparator<E> comparator;
+    private final Random random = new Random();
+    private volatile Node<E> root;
+    private volatile int size;
+
+    /**
+     * Ctor.
+     * @param comparator for comparing endpoints and values
+     */
+    public RangeIntervalTree(Comparator<E> comparator)
+    {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Returns the evaluator for the range.
+     * @param low low endpoint
+     * @param high high endpoint
+     * @return evaluator or null if not found
+     */
+    public EventEvaluator get(E low, E high)
+    {
+        Node<E> node = root;
+        while (node != null)
+        {
+            int comp = compareKey(low, high, node);
+            if (comp == 0)
+            {
+                return node.value;
+            }
+            node = comp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Adds or replaces the evaluator for the range.
+     * @param low low endpoint
+     * @param high high endpoint
+     * @param value evaluator
+     */
+    public synchronized void put(E low, E high, EventEvaluator value)
+    {
+        Node<E> newRoot = insert(root, low, high, value, random.nextInt());
+        if (get(low, high) == null)
+        {
+            size++;
+        }
+        root = newRoot;
+    }
+
+    /**
+     * Removes the range.
+     * @param low low endpoint
+     * @param high high endpoint
+     * @return true if removed, false if not found
+     */
+    public synchronized boolean remove(E low, E high)
+    {
+        if (get(low, high) == null)
+        {
+            return false;
+        }
+        root = delete(root, low, high);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of ranges.
+     * @return size
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Indicate the event to the evaluators of all ranges that contain the value, in the order of ranges.
+     * @param value to find ranges for
+     * @param lowInclusive true if a range contains its low endpoint
+     * @param highInclusive true if a range contains its high endpoint
+     * @param theEvent event to indicate
+     * @param matches to collect matches
+     */
+    public void matchContaining(E value, boolean lowInclusive, boolean highInclusive, EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        matchContaining(root, value, lowInclusive, highInclusive, theEvent, matches);
+    }
+
+    /**
+     * Indicate the event to the evaluators of all ranges that do not contain the value, in the order of ranges.
+     * @param value to find ranges for
+     * @param lowInclusive true if a range contains its low endpoint
+     * @param highInclusive true if a range contains its high endpoint
+     * @param theEvent event to indicate
+     * @param matches to collect matches
+     */
+    public void matchNotContaining(E value, boolean lowInclusive, boolean highInclusive, EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        matchNotContaining(root, value, lowInclusive, highInclusive, theEvent, matches);
+    }
+
+    private void matchContaining(Node<E> node, E value, boolean lowInclusive, boolean highInclusive, EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        while (node != null)
+        {
+            // no range in this subtree reaches up to the value
+            if (comparator.compare(node.maxHigh, value) < 0)
+            {
+                return;
+            }
+
+            matchContaining(node.left, value, lowInclusive, highInclusive, theEvent, matches);
+
+            // this range and all ranges to the right start above the value
+            int compLow = comparator.compare(node.low, value);
+            if (compLow > 0)
+            {
+                return;
+            }
+
+            int compHigh = comparator.compare(node.high, value);
+            if ((lowInclusive ? compLow <= 0 : compLow < 0) && (highInclusive ? compHigh >= 0 : compHigh > 0))
+            {
+                node.value.matchEvent(theEvent, matches);
+            }
+            node = node.right;
+        }
+    }
+
+    private void matchNotContaining(Node<E> node, E value, boolean lowInclusive, boolean highInclusive, EventBean theEvent, Collection<FilterHandle> matches)
+    {
+        while (node != null)
+        {
+            // when all ranges of this subtree end above the value, only ranges that start at or above the value can match
+            boolean highCannotMatch = comparator.compare(node.minHigh, value) > 0;
+            int compLow = comparator.compare(node.low, value);
+            if (!highCannotMatch || compLow >= 0)
+            {
+                matchNotContaining(node.left, value, lowInclusive, highInclusive, theEvent, matches);
+
+                int compHigh = comparator.compare(node.high, value);
+                if ((lowInclusive ? compLow > 0 : compLow >= 0) || (highInclusive ? compHigh < 0 : compHigh <= 0))
+                {
+                    node.value.matchEvent(theEvent, matches);
+                }
+            }
+            node = node.right;
+        }
+    }
+
+    private int compareKey(E low, E high, Node<E> node)
+    {
+        int comp = comparator.compare(low, node.low);
+        if (comp != 0)
+        {
+            return comp;
+        }
+        return comparator.compare(high, node.high);
+    }
+
+    private Node<E> insert(Node<E> node, E low, E high, EventEvaluator value, int priority)
+    {
+        if (node == null)
+        {
+            return new Node<E>(low, high, value, priority, null, null, comparator);
+        }
+        int comp = compareKey(low, high, node);
+        if (comp == 0)
+        {
+            return new Node<E>(node.low, node.high, value, node.priority, node.left, node.right, comparator);
+        }
+        if (comp < 0)
+        {
+            Node<E> left = insert(node.left, low, high, value, priority);
+            if (left.priority > node.priority)
+            {
+                // rotate right
+                Node<E> lowered = new Node<E>(node.low, node.high, node.value, node.priority, left.right, node.right, comparator);
+                return new Node<E>(left.low, left.high, left.value, left.priority, left.left, lowered, comparator);
+            }
+            return new Node<E>(node.low, node.high, node.value, node.priority, left, node.right, comparator);
+        }
+        Node<E> right = insert(node.right, low, high, value, priority);
+        if (right.priority > node.priority)
+        {
+            // rotate left
+            Node<E> lowered = new Node<E>(node.low, node.high, node.value, node.priority, node.left, right.left, comparator);
+            return new Node<E>(right.low, right.high, right.value, right.priority, lowered, right.right, comparator);
+        }
+        return new Node<E>(node.low, node.high, node.value, node.priority, node.left, right, comparator);
+    }
+
+    private Node<E> delete(Node<E> node, E low, E high)
+    {
+        int comp = compareKey(low, high, node);
+        if (comp == 0)
+        {
+            return merge(node.left, node.right);
+        }
+        if (comp < 0)
+        {
+            return new Node<E>(node.low, node.high, node.value, node.priority, delete(node.left, low, high), node.right, comparator);
+        }
+        return new Node<E>(node.low, node.high, node.value, node.priority, node.left, delete(node.right, low, high), comparator);
+    }
+
+    private Node<E> merge(Node<E> left, Node<E> right)
+    {
+        if (left == null)
+        {
+            return right;
+        }
+        if (right == null)
+        {
+            return left;
+        }
+        if (left.priority > right.priority)
+        {
+            return new Node<E>(left.low, left.high, left.value, left.priority, left.left, merge(left.right, right), comparator);
+        }
+        return new Node<E>(right.low, right.high, right.value, right.priority, merge(left, right.left), right.right, comparator);
+    }
+
+    private static final class Node<E>
+    {
+        private final E low;
+        private final E high;
+        private final EventEvaluator value;
+        private final int priority;
+        private final Node<E> left;
+        private final Node<E> right;
+        private final E maxHigh;
+        private final E minHigh;
+
+        private Node(E low, E high, EventEvaluator value, int priority, Node<E> left, Node<E> right, Comparator<E> comparator)
+        {
+            this.low = low;
+            this.high = high;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+
+            E max = high;
+            E min = high;
+            if (left != null)
+            {
+                max = comparator.compare(left.maxHigh, max) > 0 ? left.maxHigh : max;
+                min = comparator.compare(left.minHigh, min) < 0 ? left.minHigh : min;
+            }
+            if (right != null)
+            {
+                max = comparator.compare(right.maxHigh, max) > 0 ? right.maxHigh : max;
+                min = comparator.compare(right.minHigh, min) < 0 ? right.minHigh : min;
+            }
+            this.maxHigh = max;
+            this.minHigh = min;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import com.espertech.esper.util.LikeUtil;
+
+import java.io.Serializable;
+import java.util.regex.Pattern;
+
+/**
+ * Holds a 'like' or 'regexp' pattern as a filter parameter constant, for use by
+ * {@link FilterParamIndexStringPattern}.
+ * <p>
+ * Provides a literal text that any string matching the pattern must contain, if there is such text,
+ * so that the index can find candidate patterns by scanning a string for the literals of all its patterns at once.
+ */
+public final class StringPattern implements Serializable
+{
+    private static final long serialVersionUID = 5012479377251862236L;
+    private static final String SIMPLE_ESCAPES = "dDsSwWbBAGZztnrfae";
+
+    private final String pattern;
+    private final Character escape;
+    private final boolean regexp;
+    private final String requiredLiteral;
+    private final LikeUtil likeUtil;
+    private final Pattern regexPattern;
+    private final int hashCode;
+
+    /**
+     * Constructor.
+     * @param pattern is the 'like' pattern or regular expression
+     * @param escape is the escape character for a 'like' pattern, or null for none
+     * @param regexp true for a regular expression, false for a 'like' pattern
+     * @throws java.util.regex.PatternSyntaxException if the regular expression is invalid
+     */
+    public StringPattern(String pattern, Character escape, boolean regexp)
+    {
+        this.pattern = pattern;
+        this.escape = escape;
+        this.regexp = regexp;
+        if (regexp)
+        {
+            regexPattern = Pattern.compile(pattern);
+            likeUtil = null;
+            requiredLiteral = getRegexpRequiredLiteral(pattern);
+        }
+        else
+        {
+            likeUtil = new LikeUtil(pattern, escape, false);
+            regexPattern = null;
+            requiredLiteral = getLikeRequiredLiteral(pattern, escape);
+        }
+
+        int hash = pattern.hashCode();
+        hash = 31 * hash + (escape != null ? escape.hashCode() : 0);
+        hashCode = 31 * hash + (regexp ? 1 : 0);
+    }
+
+    /**
+     * Returns the pattern text.
+     * @return pattern
+     */
+    public String getPattern()
+    {
+        return pattern;
+    }
+
+    /**
+     * Returns the escape character of a 'like' pattern.
+     * @return escape character or null if none
+     */
+    public Character getEscape()
+    {
+        return escape;
+    }
+
+    /**
+     * Returns true for a regular expression, false for a 'like' pattern.
+     * @return indicator
+     */
+    public boolean isRegexp()
+    {
+        return regexp;
+    }
+
+    /**
+     * Returns the longest literal text that any string matching the pattern contains.
+     * @return literal or null if the pattern does not require any particular text
+     */
+    public String getRequiredLiteral()
+    {
+        return requiredLiteral;
+    }
+
+    /**
+     * Returns true if the value matches the pattern, with the same semantics as the 'like' and 'regexp' operators.
+     * @param value to match, not null
+     * @return true for match
+     */
+    public boolean isMatch(String value)
+    {
+        if (regexp)
+        {
+            return regexPattern.matcher(value).matches();
+        }
+        return likeUtil.compare(value);
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StringPattern that = (StringPattern) o;
+
+        if (hashCode != that.hashCode) return false;
+        if (regexp != that.regexp) return false;
+        if (escape != null ? !escape.equals(that.escape) : that.escape != null) return false;
+        return pattern.equals(that.pattern);
+    }
+
+    public int hashCode() {
+        return hashCode;
+    }
+
+    public final String toString()
+    {
+        return "StringPattern" +
+               " pattern=" + pattern +
+               " regexp=" + regexp;
+    }
+
+    // The longest run of characters between wildcards
+    private static String getLikeRequiredLiteral(String pattern, Character escape)
+    {
+        String best = "";
+        StringBuilder current = new StringBuilder();
+        boolean escaping = false;
+        for (int i = 0; i < pattern.length(); i++)
+        {
+            char c = pattern.charAt(i);
+            if (!escaping)
+            {
+                if ((escape != null) && (escape == c))
+                {
+                    escaping = true;
+                    continue;
+                }
+                if ((c == '_') || (c == '%'))
+                {
+                    best = longer(best, current);
+                    current.setLength(0);
+                    continue;
+                }
+            }
+            escaping = false;
+            current.append(c);
+        }
+        best = longer(best, current);
+        return best.length() == 0 ? null : best;
+    }
+
+    // The longest run of literal characters outside of groups and character classes,
+    // giving up for top-level alternation and for constructs such as inline flags and quoting
+    private static String getRegexpRequiredLiteral(String regex)
+    {
+        String best = "";
+        StringBuilder current = new StringBuilder();
+        boolean lastLiteral = false;
+        int i = 0;
+        while (i < regex.length())
+        {
+            char c = regex.charAt(i);
+            if (c == '\\')
+            {
+                if (i + 1 >= regex.length())
+                {
+                    return null;
+                }
+                char next = regex.charAt(i + 1);
+                i += 2;
+                if (Character.isLetterOrDigit(next))
+                {
+                    // predefined character class or boundary, while escapes spanning more characters end the analysis
+                    if (SIMPLE_ESCAPES.indexOf(next) == -1)
+                    {
+                        return null;
+                    }
+                    best = longer(best, current);
+                    current.setLength(0);
+                    lastLiteral = false;
+                    continue;
+                }
+                current.append(next);
+                lastLiteral = true;
+                continue;
+            }
+            if ((c == '?') || (c == '*') || (c == '{'))
+            {
+                // the quantified character may not occur
+                if (lastLiteral)
+                {
+                    current.setLength(current.length() - 1);
+                }
+                best = longer(best, current);
+                current.setLength(0);
+                lastLiteral = false;
+                if (c == '{')
+                {
+                    int end = regex.indexOf('}', i);
+                    if (end == -1)
+                    {
+                        return null;
+                    }
+                    i = end;
+                }
+                i++;
+                continue;
+            }
+            if (c == '|')
+            {
+                return null;
+            }
+            if ((c == '(') || (c == '['))
+            {
+                if ((c == '(') && (i + 1 < regex.length()) && (regex.charAt(i + 1) == '?'))
+                {
+                    return null;
+                }
+                best = longer(best, current);
+                current.setLength(0);
+                lastLiteral = false;
+                i = skipGroup(regex, i);
+                if (i == -1)
+                {
+                    return null;
+                }
+                continue;
+            }
+            if ((c == '+') || (c == '.') || (c == '^') || (c == '$') || (c == ')'))
+            {
+                best = longer(best, current);
+                current.setLength(0);
+                lastLiteral = false;
+                i++;
+                continue;
+            }
+            current.append(c);
+            lastLiteral = true;
+            i++;
+        }
+        best = longer(best, current);
+        return best.length() == 0 ? null : best;
+    }
+
+    // Returns the position after the group or character class that starts at the given position, or -1 if unbalanced
+    private static int skipGroup(String regex, int start)
+    {
+        int depthGroup = 0;
+        int depthClass = 0;
+        int i = start;
+        while (i < regex.length())
+        {
+            char c = regex.charAt(i);
+            if (c == '\\')
+            {
+                i += 2;
+                continue;
+            }
+            if (c == '[')
+            {
+                // a closing bracket first in a character class is taken literally
+                if (regex.startsWith("]", i + 1) || regex.startsWith("^]", i + 1))
+                {
+                    return -1;
+                }
+                depthClass++;
+            }
+            else if ((c == ']') && (depthClass > 0))
+            {
+                depthClass--;
+            }
+            else if ((c == '(') && (depthClass == 0))
+            {
+                depthGroup++;
+            }
+            else if ((c == ')') && (depthClass == 0))
+            {
+                depthGroup--;
+            }
+            i++;
+            if ((depthGroup == 0) && (depthClass == 0))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String longer(String best, StringBuilder current)
+    {
+        if (current.length() > best.length())
+        {
+            return current.toString();
+        }
+        return best;
+    }
+}
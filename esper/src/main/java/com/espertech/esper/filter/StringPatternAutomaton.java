@@ -0,0 +1,198 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over a set of literals that finds, in a single scan of a string,
+ * each literal that the string contains.
+ * <p>
+ * The automaton is immutable once built and can be used by multiple threads concurrently.
+ */
+public final class StringPatternAutomaton
+{
+    private static final int[] EMPTY = new int[0];
+
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+    private final int[] failure;
+    private final int[][] outputs;
+    private final int numLiterals;
+
+    /**
+     * Builds the automaton.
+     * @param literals literals to find, each not empty, the literal number is the position in the array
+     */
+    public StringPatternAutomaton(String[] literals)
+    {
+        numLiterals = literals.length;
+
+        // build the trie
+        List<TreeMap<Character, Integer>> trie = new ArrayList<TreeMap<Character, Integer>>();
+        List<List<Integer>> trieOutputs = new ArrayList<List<Integer>>();
+        trie.add(new TreeMap<Character, Integer>());
+        trieOutputs.add(new ArrayList<Integer>(1));
+        for (int literal = 0; literal < literals.length; literal++)
+        {
+            int state = 0;
+            String text = literals[literal];
+            for (int i = 0; i < text.length(); i++)
+            {
+                Integer next = trie.get(state).get(text.charAt(i));
+                if (next == null)
+                {
+                    next = trie.size();
+                    trie.add(new TreeMap<Character, Integer>());
+                    trieOutputs.add(new ArrayList<Integer>(1));
+                    trie.get(state).put(text.charAt(i), next);
+                }
+                state = next;
+            }
+            trieOutputs.get(state).add(literal);
+        }
+
+        int numStates = trie.size();
+        transitionChars = new char[numStates][];
+        transitionStates = new int[numStates][];
+        for (int state = 0; state < numStates; state++)
+        {
+            TreeMap<Character, Integer> transitions = trie.get(state);
+            char[] chars = new char[transitions.size()];
+            int[] states = new int[transitions.size()];
+            int count = 0;
+            for (Map.Entry<Character, Integer> entry : transitions.entrySet())
+            {
+                chars[count] = entry.getKey();
+                states[count] = entry.getValue();
+                count++;
+            }
+            transitionChars[state] = chars;
+            transitionStates[state] = states;
+        }
+
+        // compute failure links breadth-first, so that the outputs of the failure state are complete when merged
+        failure = new int[numStates];
+        outputs = new int[numStates][];
+        outputs[0] = toArray(trieOutputs.get(0));
+        int[] queue = new int[numStates];
+        int head = 0;
+        int tail = 0;
+        for (int child : transitionStates[0])
+        {
+            failure[child] = 0;
+            queue[tail++] = child;
+        }
+        while (head < tail)
+        {
+            int state = queue[head++];
+            outputs[state] = merge(toArray(trieOutputs.get(state)), outputs[failure[state]]);
+            for (int i = 0; i < transitionChars[state].length; i++)
+            {
+                char c = transitionChars[state][i];
+                int child = transitionStates[state][i];
+                int fallback = failure[state];
+                int target = next(fallback, c);
+                while ((target == -1) && (fallback != 0))
+                {
+                    fallback = failure[fallback];
+                    target = next(fallback, c);
+                }
+                failure[child] = target == -1 ? 0 : target;
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of literals.
+     * @return number of literals
+     */
+    public int getNumLiterals()
+    {
+        return numLiterals;
+    }
+
+    /**
+     * Scans the text and flags each literal that the text contains.
+     * @param text to scan
+     * @param found flags by literal number, set to true for each literal found
+     * @return number of literals newly flagged
+     */
+    public int find(String text, boolean[] found)
+    {
+        int numFound = 0;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            int target = next(state, c);
+            while ((target == -1) && (state != 0))
+            {
+                state = failure[state];
+                target = next(state, c);
+            }
+            state = target == -1 ? 0 : target;
+            for (int literal : outputs[state])
+            {
+                if (!found[literal])
+                {
+                    found[literal] = true;
+                    numFound++;
+                }
+            }
+        }
+        return numFound;
+    }
+
+    private int next(int state, char c)
+    {
+        char[] chars = transitionChars[state];
+        if (chars.length == 0)
+        {
+            return -1;
+        }
+        int index = Arrays.binarySearch(chars, c);
+        return index < 0 ? -1 : transitionStates[state][index];
+    }
+
+    private static int[] toArray(List<Integer> values)
+    {
+        if (values.isEmpty())
+        {
+            return EMPTY;
+        }
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    private static int[] merge(int[] one, int[] two)
+    {
+        if (two.length == 0)
+        {
+            return one;
+        }
+        if (one.length == 0)
+        {
+            return two;
+        }
+        int[] result = new int[one.length + two.length];
+        System.arraycopy(one, 0, result, 0, one.length);
+        System.arraycopy(two, 0, result, one.length, two.length);
+        return result;
+    }
+}
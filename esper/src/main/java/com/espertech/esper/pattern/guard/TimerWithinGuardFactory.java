@@ -61,7 +61,7 @@ public class TimerWithinGuardFactory implements GuardFactory, MetaDefItem, Seria
         }
 
         Number param = (Number) millisecondVal;
-        return Math.round(1000d * param.doubleValue());
+        return context.getStatementContext().getTimeAbacus().deltaForSecondsDouble(param.doubleValue());
     }
 
     public Guard makeGuard(PatternAgentInstanceContext context, MatchedEventMap matchedEventMap, Quitable quitable, EvalStateNodeNumber stateNodeId, Object guardState)
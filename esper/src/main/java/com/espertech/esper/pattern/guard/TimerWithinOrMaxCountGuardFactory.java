@@ -67,7 +67,7 @@ public class TimerWithinOrMaxCountGuardFactory implements GuardFactory, MetaDefI
             throw new EPException("Timer-within-or-max first parameter evaluated to a null-value");
         }
         Number param = (Number) millisecondVal;
-        return Math.round(1000d * param.doubleValue());
+        return context.getStatementContext().getTimeAbacus().deltaForSecondsDouble(param.doubleValue());
     }
 
     protected int computeNumCountTo(MatchedEventMap beginState, PatternAgentInstanceContext context) {
@@ -57,7 +57,7 @@ public class TimerAtObserver implements EventObserver, ScheduleHandleCallback
 
         scheduleHandle = new EPStatementHandleCallback(observerEventEvaluator.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
         SchedulingService schedulingService = observerEventEvaluator.getContext().getPatternContext().getSchedulingService();
-        long nextScheduledTime = ScheduleComputeHelper.computeDeltaNextOccurance(scheduleSpec, schedulingService.getTime());
+        long nextScheduledTime = ScheduleComputeHelper.computeDeltaNextOccurance(scheduleSpec, schedulingService.getTime(), observerEventEvaluator.getContext().getStatementContext().getTimeAbacus(), observerEventEvaluator.getContext().getStatementContext().getScheduleOccurrenceCacheService());
         schedulingService.add(nextScheduledTime, scheduleHandle, scheduleSlot);
         isTimerActive = true;
     }
@@ -62,15 +62,7 @@ public class TimerIntervalObserverFactory implements ObserverFactory, MetaDefIte
             throw new EPException("Null value returned for guard expression");
         }
 
-        Number param = (Number) result;
-        if (JavaClassHelper.isFloatingPointNumber(param))
-        {
-            return Math.round(1000d * param.doubleValue());
-        }
-        else
-        {
-            return 1000 * param.longValue();
-        }
+        return context.getStatementContext().getTimeAbacus().deltaForSecondsNumber((Number) result);
     }
 
     public EventObserver makeObserver(PatternAgentInstanceContext context, MatchedEventMap beginState, ObserverEventEvaluator observerEventEvaluator, EvalStateNodeNumber stateNodeId, Object observerState)
@@ -374,7 +374,7 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
                 long matchBeginTime = endState.getMatchBeginEventTime();
                 long current = agentInstanceContext.getStatementContext().getSchedulingService().getTime();
                 long deltaFromStart = current - matchBeginTime;
-                long deltaUntil = matchRecognizeSpec.getInterval().getMSec() - deltaFromStart;
+                long deltaUntil = matchRecognizeSpec.getInterval().getTimeDelta(agentInstanceContext.getStatementContext().getTimeAbacus()) - deltaFromStart;
 
                 if (schedule.containsKey(matchBeginTime))
                 {
@@ -1140,7 +1140,7 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
         while (true)
         {
             long firstKey = schedule.firstKey();
-            long cutOffTime = currentTime - this.matchRecognizeSpec.getInterval().getMSec();
+            long cutOffTime = currentTime - this.matchRecognizeSpec.getInterval().getTimeDelta(agentInstanceContext.getStatementContext().getTimeAbacus());
             if (firstKey > cutOffTime)
             {
                 break;
@@ -1167,7 +1167,7 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
         // schedule next
         if (!schedule.isEmpty())
         {
-            long msecAfterCurrentTime = schedule.firstKey() + this.matchRecognizeSpec.getInterval().getMSec() - agentInstanceContext.getStatementContext().getSchedulingService().getTime();
+            long msecAfterCurrentTime = schedule.firstKey() + this.matchRecognizeSpec.getInterval().getTimeDelta(agentInstanceContext.getStatementContext().getTimeAbacus()) - agentInstanceContext.getStatementContext().getSchedulingService().getTime();
             agentInstanceContext.getStatementContext().getSchedulingService().add(msecAfterCurrentTime, handle, scheduleSlot);
         }
 
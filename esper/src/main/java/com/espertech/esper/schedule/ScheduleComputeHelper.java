@@ -52,6 +52,19 @@ public final class ScheduleComputeHelper
      * @return a long date millisecond value for the next schedule occurance matching the spec
      */
     public static long computeNextOccurance(ScheduleSpec spec, long afterTimeInMillis)
+    {
+        return computeNextOccurance(spec, afterTimeInMillis, (ScheduleOccurrenceCacheService) null);
+    }
+
+    /**
+     * Computes the next lowest date in milliseconds based on a specification and the
+     * from-time passed in, consulting the occurrence cache if one is provided.
+     * @param spec defines the schedule
+     * @param afterTimeInMillis defines the start time
+     * @param cacheService engine occurrence caches, or null for no caching
+     * @return a long date millisecond value for the next schedule occurance matching the spec
+     */
+    public static long computeNextOccurance(ScheduleSpec spec, long afterTimeInMillis, ScheduleOccurrenceCacheService cacheService)
     {
         if ((ExecutionPathDebugLog.isDebugEnabled) && (log.isDebugEnabled()))
         {
@@ -71,6 +84,22 @@ public final class ScheduleComputeHelper
             afterTimeInMillis += 60 * MIN_OFFSET_MSEC;
         }
 
+        ScheduleOccurrenceCache cache = cacheService == null ? null : cacheService.getCache(spec);
+        if (cache != null)
+        {
+            return cache.next(afterTimeInMillis);
+        }
+        return compute(spec, afterTimeInMillis);
+    }
+
+    /**
+     * Computes the next date at or after the time passed in, without consulting the occurrence cache.
+     * @param spec defines the schedule
+     * @param afterTimeInMillis defines the start time
+     * @return a long date millisecond value for the schedule occurance matching the spec
+     */
+    static long computeUncached(ScheduleSpec spec, long afterTimeInMillis)
+    {
         return compute(spec, afterTimeInMillis);
     }
 
@@ -86,6 +115,37 @@ public final class ScheduleComputeHelper
         return computeNextOccurance(spec, afterTimeInMillis) - afterTimeInMillis;
     }
 
+    /**
+     * Computes the next lowest date based on a specification and the from-time passed in, both in engine time units.
+     * @param spec defines the schedule
+     * @param afterTime defines the start time in engine time units
+     * @param timeAbacus for converting between engine time units and milliseconds
+     * @param cacheService engine occurrence caches, or null for no caching
+     * @return engine time value for the next schedule occurance matching the spec
+     */
+    public static long computeNextOccurance(ScheduleSpec spec, long afterTime, TimeAbacus timeAbacus, ScheduleOccurrenceCacheService cacheService)
+    {
+        if (timeAbacus == TimeAbacus.MILLISECONDS)
+        {
+            return computeNextOccurance(spec, afterTime, cacheService);
+        }
+        return timeAbacus.fromMillis(computeNextOccurance(spec, timeAbacus.toMillis(afterTime), cacheService));
+    }
+
+    /**
+     * Computes the delta between the from-time passed in and the next lowest date based on a specification,
+     * both in engine time units.
+     * @param spec defines the schedule
+     * @param afterTime defines the start time in engine time units
+     * @param timeAbacus for converting between engine time units and milliseconds
+     * @param cacheService engine occurrence caches, or null for no caching
+     * @return delta in engine time units between current time and the next schedule occurance matching the spec
+     */
+    public static long computeDeltaNextOccurance(ScheduleSpec spec, long afterTime, TimeAbacus timeAbacus, ScheduleOccurrenceCacheService cacheService)
+    {
+        return computeNextOccurance(spec, afterTime, timeAbacus, cacheService) - afterTime;
+    }
+
     private static long compute(ScheduleSpec spec, long afterTimeInMillis)
     {
         while (true)
@@ -0,0 +1,139 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.type.ScheduleUnit;
+
+/**
+ * Caches upcoming occurrences of a crontab schedule for use by {@link ScheduleComputeHelper}.
+ * <p>
+ * Caches are kept by the engine's {@link ScheduleOccurrenceCacheService}. A cache is shared by all schedule specifications
+ * that are equal and that resolve to the same time zone, so that many statements or pattern instances re-arming the
+ * same schedule compute each occurrence only once.
+ * The cache holds a window of consecutive occurrences at the resolution of the schedule, i.e. seconds or minutes. Looking up a time within
+ * the window is a binary search and does not allocate. Looking up a time after the window computes
+ * a new window starting at that time. Times before the window are computed without caching.
+ * <p>
+ * Schedules that use day-of-month or day-of-week operators (last, weekday, last-day-of-week)
+ * and schedules restricted to certain months are not cached, as such schedules fire rarely and their
+ * occurrences are computed as before. For schedules without a time zone the JVM default time zone at the time of the
+ * lookup applies. The cache computes from its own copy of the schedule.
+ */
+final class ScheduleOccurrenceCache
+{
+    private static final int NUM_OCCURRENCES = 16;
+
+    private final ScheduleOccurrenceCacheService service;
+    private final ScheduleSpec spec;
+    private final String timeZone;
+    private final long resolution;
+    private volatile Window window;
+
+    /**
+     * Ctor.
+     * @param service owning service
+     * @param spec schedule, with the time zone set
+     * @param timeZone resolved time zone id
+     */
+    ScheduleOccurrenceCache(ScheduleOccurrenceCacheService service, ScheduleSpec spec, String timeZone)
+    {
+        this.service = service;
+        this.spec = spec;
+        this.timeZone = timeZone;
+        this.resolution = spec.getUnitValues().containsKey(ScheduleUnit.SECONDS) ? 1000 : 60 * 1000;
+    }
+
+    /**
+     * Returns the owning service.
+     * @return service
+     */
+    ScheduleOccurrenceCacheService getService()
+    {
+        return service;
+    }
+
+    /**
+     * Returns the resolved time zone id.
+     * @return time zone id
+     */
+    String getTimeZone()
+    {
+        return timeZone;
+    }
+
+    /**
+     * Returns the first occurrence at or after the time passed in, retaining the milliseconds of the time passed in.
+     * @param afterTimeInMillis time
+     * @return next occurrence
+     */
+    long next(long afterTimeInMillis)
+    {
+        long millis = floorMod(afterTimeInMillis, 1000);
+        long start = afterTimeInMillis - millis;
+        start -= floorMod(start, resolution);
+
+        Window current = window;
+        if ((current == null) || (start > current.occurrences[current.occurrences.length - 1]))
+        {
+            current = compute(start);
+            window = current;
+        }
+        else if (start < current.start)
+        {
+            return ScheduleComputeHelper.computeUncached(spec, afterTimeInMillis);
+        }
+
+        long[] occurrences = current.occurrences;
+        int low = 0;
+        int high = occurrences.length - 1;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (occurrences[mid] < start)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return occurrences[low] + millis;
+    }
+
+    private static long floorMod(long value, long divisor)
+    {
+        long mod = value % divisor;
+        return mod < 0 ? mod + divisor : mod;
+    }
+
+    private Window compute(long start)
+    {
+        long[] occurrences = new long[NUM_OCCURRENCES];
+        long time = start;
+        for (int i = 0; i < occurrences.length; i++)
+        {
+            occurrences[i] = ScheduleComputeHelper.computeUncached(spec, time);
+            time = occurrences[i] + resolution;
+        }
+        return new Window(start, occurrences);
+    }
+
+    private static class Window
+    {
+        private final long start;
+        private final long[] occurrences;
+
+        private Window(long start, long[] occurrences)
+        {
+            this.start = start;
+            this.occurrences = occurrences;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.type.ScheduleUnit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Engine-level service that keeps the occurrence caches of crontab schedules, see {@link ScheduleOccurrenceCache}.
+ * <p>
+ * Schedule specifications that are equal and that resolve to the same time zone share a cache. The number of caches
+ * is bounded, evicting the least-recently-used cache when full. A schedule that holds an evicted cache keeps using it until
+ * its time zone changes, it is just no longer shared.
+ */
+public final class ScheduleOccurrenceCacheService
+{
+    /**
+     * Default maximum number of caches.
+     */
+    public static final int DEFAULT_MAX_CACHES = 10000;
+
+    private final LruMap caches;
+
+    /**
+     * Ctor.
+     */
+    public ScheduleOccurrenceCacheService()
+    {
+        this(DEFAULT_MAX_CACHES);
+    }
+
+    /**
+     * Ctor.
+     * @param maxCaches maximum number of caches to keep
+     */
+    public ScheduleOccurrenceCacheService(int maxCaches)
+    {
+        this.caches = new LruMap(maxCaches);
+    }
+
+    /**
+     * Returns the cache for the schedule, or null if the schedule cannot be cached.
+     * @param spec schedule
+     * @return cache or null
+     */
+    ScheduleOccurrenceCache getCache(ScheduleSpec spec)
+    {
+        if ((spec.getOptionalDayOfMonthOperator() != null) || (spec.getOptionalDayOfWeekOperator() != null) ||
+            (spec.getUnitValues().get(ScheduleUnit.MONTHS) != null))
+        {
+            return null;
+        }
+
+        String timeZone = spec.getOptionalTimeZone() != null ? spec.getOptionalTimeZone() : TimeZone.getDefault().getID();
+        ScheduleOccurrenceCache cache = spec.getOccurrenceCache();
+        if ((cache != null) && (cache.getService() == this) && (cache.getTimeZone().equals(timeZone)))
+        {
+            return cache;
+        }
+
+        String key = spec.toString() + "TZ=" + timeZone;
+        synchronized (caches)
+        {
+            cache = caches.get(key);
+            if (cache == null)
+            {
+                cache = new ScheduleOccurrenceCache(this, spec.copyWithTimeZone(timeZone), timeZone);
+                caches.put(key, cache);
+            }
+        }
+        spec.setOccurrenceCache(cache);
+        return cache;
+    }
+
+    /**
+     * Returns the number of caches.
+     * @return number of caches
+     */
+    public int size()
+    {
+        synchronized (caches)
+        {
+            return caches.size();
+        }
+    }
+
+    private static class LruMap extends LinkedHashMap<String, ScheduleOccurrenceCache>
+    {
+        private static final long serialVersionUID = 8736412290178512593L;
+        private final int maxSize;
+
+        private LruMap(int maxSize)
+        {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        protected boolean removeEldestEntry(Map.Entry<String, ScheduleOccurrenceCache> eldest)
+        {
+            return size() > maxSize;
+        }
+    }
+}
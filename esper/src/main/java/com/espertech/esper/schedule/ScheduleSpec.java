@@ -29,6 +29,7 @@ public final class ScheduleSpec implements MetaDefItem, Serializable
     private String optionalTimeZone;
     private CronParameter optionalDayOfMonthOperator;
     private CronParameter optionalDayOfWeekOperator;
+    private transient volatile ScheduleOccurrenceCache occurrenceCache;
     private static final long serialVersionUID = -7050807714879367353L;
 
     /**
@@ -63,6 +64,12 @@ public final class ScheduleSpec implements MetaDefItem, Serializable
         optionalTimeZone = null;
     }
 
+    private ScheduleSpec(EnumMap<ScheduleUnit, SortedSet<Integer>> unitValues, String optionalTimeZone)
+    {
+        this.unitValues = unitValues;
+        this.optionalTimeZone = optionalTimeZone;
+    }
+
     public CronParameter getOptionalDayOfMonthOperator() {
         return optionalDayOfMonthOperator;
     }
@@ -73,6 +80,7 @@ public final class ScheduleSpec implements MetaDefItem, Serializable
 
     public void setOptionalTimeZone(String optionalTimeZone) {
         this.optionalTimeZone = optionalTimeZone;
+        this.occurrenceCache = null;
     }
 
     /**
@@ -102,6 +110,40 @@ public final class ScheduleSpec implements MetaDefItem, Serializable
             unitValues.put(element, set);
         }
         set.add(value);
+        occurrenceCache = null;
+    }
+
+    /**
+     * Returns a copy of the unit values, with the time zone passed in and without day operators.
+     * @param timeZone time zone of the copy
+     * @return copy
+     */
+    ScheduleSpec copyWithTimeZone(String timeZone)
+    {
+        EnumMap<ScheduleUnit, SortedSet<Integer>> copy = new EnumMap<ScheduleUnit, SortedSet<Integer>>(ScheduleUnit.class);
+        for (Map.Entry<ScheduleUnit, SortedSet<Integer>> entry : unitValues.entrySet())
+        {
+            copy.put(entry.getKey(), entry.getValue() == null ? null : new TreeSet<Integer>(entry.getValue()));
+        }
+        return new ScheduleSpec(copy, timeZone);
+    }
+
+    /**
+     * Returns the shared occurrence cache, if already resolved.
+     * @return cache or null
+     */
+    ScheduleOccurrenceCache getOccurrenceCache()
+    {
+        return occurrenceCache;
+    }
+
+    /**
+     * Sets the shared occurrence cache.
+     * @param occurrenceCache cache
+     */
+    void setOccurrenceCache(ScheduleOccurrenceCache occurrenceCache)
+    {
+        this.occurrenceCache = occurrenceCache;
     }
 
     @SuppressWarnings({"StringConcatenationInsideStringBufferAppend"})
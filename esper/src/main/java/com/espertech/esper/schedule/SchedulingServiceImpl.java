@@ -23,7 +23,7 @@ import java.util.*;
  * Synchronized since statement creation and event evaluation by multiple (event send) threads
  * can lead to callbacks added/removed asynchronously.
  */
-public final class SchedulingServiceImpl implements SchedulingServiceSPI
+public final class SchedulingServiceImpl implements SchedulingServiceStripe
 {
     // Map of time and handle
     private final SortedMap<Long, SortedMap<ScheduleSlot, ScheduleHandle>> timeHandleMap;
@@ -34,6 +34,9 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI
     // Current time - used for evaluation as well as for adding new handles
     private volatile long currentTime;
 
+    // Engine time unit, for rendering times as dates
+    private final TimeAbacus timeAbacus;
+
     /**
      * Constructor.
      * @param timeSourceService time source provider
@@ -43,7 +46,8 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI
         this.timeHandleMap = new TreeMap<Long, SortedMap<ScheduleSlot, ScheduleHandle>>();
         this.handleSetMap = new HashMap<ScheduleHandle, SortedMap<ScheduleSlot, ScheduleHandle>>();
         // initialize time to just before now as there is a check for duplicate external time events
-        this.currentTime = timeSourceService.getTimeMillis() - 1;
+        this.timeAbacus = timeSourceService.getTimeAbacus();
+        this.currentTime = timeSourceService.getTime() - 1;
     }
 
     public void destroy()
@@ -91,6 +95,16 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI
     }
 
     public synchronized final void evaluate(Collection<ScheduleHandle> handles)
+    {
+        evaluateInternal(handles, null);
+    }
+
+    public synchronized final void evaluateEntries(List<ScheduleSetEntry> entries)
+    {
+        evaluateInternal(null, entries);
+    }
+
+    private void evaluateInternal(Collection<ScheduleHandle> handles, List<ScheduleSetEntry> entries)
     {
         // Get the values on or before the current time - to get those that are exactly on the
         // current time we just add one to the current time for getting the head map
@@ -107,9 +121,16 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI
             Long key = entry.getKey();
             SortedMap<ScheduleSlot, ScheduleHandle> value = entry.getValue();
             removeKeys.add(key);
-            for (ScheduleHandle handle : value.values())
+            for (Map.Entry<ScheduleSlot, ScheduleHandle> handle : value.entrySet())
             {
-                handles.add(handle);
+                if (handles != null)
+                {
+                    handles.add(handle.getValue());
+                }
+                else
+                {
+                    entries.add(new ScheduleSetEntry(key, handle.getKey(), handle.getValue()));
+                }
             }
         }
 
@@ -179,12 +200,17 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI
         return timeHandleMap.size();
     }
 
+    public synchronized void addTimeHandles(Set<Long> times)
+    {
+        times.addAll(timeHandleMap.keySet());
+    }
+
     @JmxGetter(name = "FurthestTimeHandle", description = "Furthest outstanding time evaluation")
     public String getFurthestTimeHandleDate()
     {
         Long handle = getFurthestTimeHandle();
         if (handle != null) {
-            return DateTime.print(handle);
+            return DateTime.print(timeAbacus.toMillis(handle));
         }
         return null;
     }
@@ -194,7 +220,7 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI
     {
         Long handle = getNearestTimeHandle();
         if (handle != null) {
-            return DateTime.print(handle);
+            return DateTime.print(timeAbacus.toMillis(handle));
         }
         return null;
     }
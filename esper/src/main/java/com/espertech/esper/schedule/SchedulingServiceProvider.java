@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.schedule;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
 import com.espertech.esper.timer.TimeSourceService;
 
 /**
@@ -24,4 +25,53 @@ public final class SchedulingServiceProvider
     {
         return new SchedulingServiceImpl(timeSourceService);
     }
+
+    /**
+     * Creates an implementation of the SchedulingService interface for the given profile.
+     * @param timeSourceService time source provider
+     * @param profile scheduling service profile
+     * @return implementation
+     */
+    public static SchedulingServiceSPI newService(TimeSourceService timeSourceService, ConfigurationEngineDefaults.SchedulingServiceProfile profile)
+    {
+        return newStripe(timeSourceService, profile);
+    }
+
+    /**
+     * Creates an implementation of the SchedulingService interface for the engine execution settings.
+     * @param timeSourceService time source provider
+     * @param execution engine execution settings
+     * @return implementation
+     */
+    public static SchedulingServiceSPI newService(TimeSourceService timeSourceService, ConfigurationEngineDefaults.Execution execution)
+    {
+        return newService(timeSourceService, execution.getSchedulingServiceProfile(), execution.getSchedulingServiceStripes());
+    }
+
+    /**
+     * Creates an implementation of the SchedulingService interface for the given profile and number of stripes.
+     * @param timeSourceService time source provider
+     * @param profile scheduling service profile
+     * @param numStripes number of stripes, or one for a scheduling service that is not striped
+     * @return implementation
+     */
+    public static SchedulingServiceSPI newService(TimeSourceService timeSourceService, ConfigurationEngineDefaults.SchedulingServiceProfile profile, int numStripes)
+    {
+        if (numStripes <= 1) {
+            return newStripe(timeSourceService, profile);
+        }
+        SchedulingServiceStripe[] stripes = new SchedulingServiceStripe[numStripes];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = newStripe(timeSourceService, profile);
+        }
+        return new SchedulingServiceStripedImpl(timeSourceService, stripes);
+    }
+
+    private static SchedulingServiceStripe newStripe(TimeSourceService timeSourceService, ConfigurationEngineDefaults.SchedulingServiceProfile profile)
+    {
+        if (profile == ConfigurationEngineDefaults.SchedulingServiceProfile.TIMINGWHEEL) {
+            return new SchedulingServiceTimingWheelImpl(timeSourceService);
+        }
+        return new SchedulingServiceImpl(timeSourceService);
+    }
 }
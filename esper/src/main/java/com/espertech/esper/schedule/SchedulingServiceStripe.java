@@ -0,0 +1,33 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.schedule;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scheduling service that can serve as one stripe of a {@link SchedulingServiceStripedImpl}, providing
+ * the time and slot of each handle due so that due handles of all stripes can be merged.
+ */
+public interface SchedulingServiceStripe extends SchedulingServiceSPI
+{
+    /**
+     * Evaluate the current time and add to the list an entry for each handle scheduled for execution,
+     * ordered by time and slot, the entry time being the time the handle was scheduled for.
+     * @param entries is a list of entries populated by the service with any handles due
+     * for the current time
+     */
+    public void evaluateEntries(List<ScheduleSetEntry> entries);
+
+    /**
+     * Add to the set each time that handles are scheduled for, so that the distinct times of all stripes can be counted.
+     * @param times is a set populated by the service with the outstanding times
+     */
+    public void addTimeHandles(Set<Long> times);
+}
@@ -0,0 +1,252 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.client.util.DateTime;
+import com.espertech.esper.metrics.jmx.JmxGetter;
+import com.espertech.esper.timer.TimeSourceService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.*;
+
+/**
+ * Implements the schedule service by striping handles over a number of scheduling services, so that threads
+ * adding and removing handles for different statements and context partitions do not contend for a single monitor.
+ * <p>
+ * The stripe is chosen by statement id and agent instance id of the handle, so that all handles of a given
+ * agent instance are kept by the same stripe. Evaluation merges the due handles of all stripes ordered by
+ * time and {@link ScheduleSlot}, same as a single scheduling service.
+ */
+public final class SchedulingServiceStripedImpl implements SchedulingServiceSPI
+{
+    private final SchedulingServiceStripe[] stripes;
+    private final List<ScheduleSetEntry> dueEntries;
+
+    // Current time - used for evaluation as well as for adding new handles
+    private volatile long currentTime;
+
+    // Engine time unit, for rendering times as dates
+    private final TimeAbacus timeAbacus;
+
+    /**
+     * Constructor.
+     * @param timeSourceService time source provider
+     * @param stripes scheduling services to use as stripes
+     */
+    public SchedulingServiceStripedImpl(TimeSourceService timeSourceService, SchedulingServiceStripe[] stripes)
+    {
+        this.stripes = stripes;
+        this.timeAbacus = timeSourceService.getTimeAbacus();
+        this.dueEntries = new ArrayList<ScheduleSetEntry>();
+        // initialize time to just before now as there is a check for duplicate external time events
+        setTime(timeSourceService.getTime() - 1);
+    }
+
+    public void destroy()
+    {
+        log.debug("Destroying scheduling service");
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            stripe.destroy();
+        }
+    }
+
+    public long getTime()
+    {
+        // note that this.currentTime is volatile
+        return this.currentTime;
+    }
+
+    public synchronized final void setTime(long currentTime)
+    {
+        this.currentTime = currentTime;
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            stripe.setTime(currentTime);
+        }
+    }
+
+    public final void add(long afterMSec, ScheduleHandle handle, ScheduleSlot slot)
+            throws ScheduleServiceException
+    {
+        getStripe(handle).add(afterMSec, handle, slot);
+    }
+
+    public final void remove(ScheduleHandle handle, ScheduleSlot slot)
+    {
+        getStripe(handle).remove(handle, slot);
+    }
+
+    public synchronized final void evaluate(Collection<ScheduleHandle> handles)
+    {
+        int lastStripeWithDue = -1;
+        for (int i = 0; i < stripes.length; i++)
+        {
+            int size = dueEntries.size();
+            stripes[i].evaluateEntries(dueEntries);
+            if (dueEntries.size() > size)
+            {
+                lastStripeWithDue = lastStripeWithDue == -1 ? i : -2;
+            }
+        }
+        if (dueEntries.isEmpty())
+        {
+            return;
+        }
+
+        // entries of more than one stripe must be merged by time and slot, the sort being stable
+        if (lastStripeWithDue == -2)
+        {
+            Collections.sort(dueEntries, TIME_SLOT_COMPARATOR);
+        }
+        for (ScheduleSetEntry entry : dueEntries)
+        {
+            handles.add(entry.getHandle());
+        }
+        dueEntries.clear();
+    }
+
+    public ScheduleSet take(Set<String> statementIds)
+    {
+        List<ScheduleSetEntry> list = new ArrayList<ScheduleSetEntry>();
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            list.addAll(stripe.take(statementIds).getList());
+        }
+        return new ScheduleSet(list);
+    }
+
+    public void apply(ScheduleSet scheduleSet)
+    {
+        for (ScheduleSetEntry entry : scheduleSet.getList())
+        {
+            add(entry.getTime(), entry.getHandle(), entry.getSlot());
+        }
+    }
+
+    @JmxGetter(name = "TimeHandleCount", description = "Number of outstanding time evaluations")
+    public int getTimeHandleCount()
+    {
+        // a time that handles of several stripes are scheduled for counts once, as for a single stripe
+        Set<Long> times = new HashSet<Long>();
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            stripe.addTimeHandles(times);
+        }
+        return times.size();
+    }
+
+    @JmxGetter(name = "FurthestTimeHandle", description = "Furthest outstanding time evaluation")
+    public String getFurthestTimeHandleDate()
+    {
+        Long handle = getFurthestTimeHandle();
+        if (handle != null) {
+            return DateTime.print(timeAbacus.toMillis(handle));
+        }
+        return null;
+    }
+
+    @JmxGetter(name = "NearestTimeHandle", description = "Nearest outstanding time evaluation")
+    public String getNearestTimeHandleDate()
+    {
+        Long handle = getNearestTimeHandle();
+        if (handle != null) {
+            return DateTime.print(timeAbacus.toMillis(handle));
+        }
+        return null;
+    }
+
+    public Long getFurthestTimeHandle()
+    {
+        Long furthest = null;
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            Long handle = stripe.getFurthestTimeHandle();
+            if (handle != null && (furthest == null || handle > furthest))
+            {
+                furthest = handle;
+            }
+        }
+        return furthest;
+    }
+
+    public int getScheduleHandleCount()
+    {
+        int count = 0;
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            count += stripe.getScheduleHandleCount();
+        }
+        return count;
+    }
+
+    public boolean isScheduled(ScheduleHandle handle)
+    {
+        return getStripe(handle).isScheduled(handle);
+    }
+
+    public Long getNearestTimeHandle() {
+        Long nearest = null;
+        for (SchedulingServiceStripe stripe : stripes)
+        {
+            Long handle = stripe.getNearestTimeHandle();
+            if (handle != null && (nearest == null || handle < nearest))
+            {
+                nearest = handle;
+            }
+        }
+        return nearest;
+    }
+
+    public void visitSchedules(ScheduleVisitor visitor) {
+        // visit in time order across all stripes
+        final List<ScheduleVisit> visits = new ArrayList<ScheduleVisit>();
+        for (SchedulingServiceStripe stripe : stripes) {
+            stripe.visitSchedules(new ScheduleVisitor() {
+                public void visit(ScheduleVisit visit) {
+                    ScheduleVisit copy = new ScheduleVisit();
+                    copy.setTimestamp(visit.getTimestamp());
+                    copy.setStatementId(visit.getStatementId());
+                    copy.setAgentInstanceId(visit.getAgentInstanceId());
+                    visits.add(copy);
+                }
+            });
+        }
+        Collections.sort(visits, new Comparator<ScheduleVisit>() {
+            public int compare(ScheduleVisit o1, ScheduleVisit o2) {
+                return o1.getTimestamp() < o2.getTimestamp() ? -1 : (o1.getTimestamp() == o2.getTimestamp() ? 0 : 1);
+            }
+        });
+        for (ScheduleVisit visit : visits) {
+            visitor.visit(visit);
+        }
+    }
+
+    private SchedulingServiceStripe getStripe(ScheduleHandle handle)
+    {
+        String statementId = handle.getStatementId();
+        int hash = statementId == null ? 0 : statementId.hashCode();
+        hash = 31 * hash + handle.getAgentInstanceId();
+        hash ^= (hash >>> 16);
+        return stripes[(hash & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private static final Comparator<ScheduleSetEntry> TIME_SLOT_COMPARATOR = new Comparator<ScheduleSetEntry>() {
+        public int compare(ScheduleSetEntry o1, ScheduleSetEntry o2) {
+            int result = o1.getTime().compareTo(o2.getTime());
+            if (result != 0) {
+                return result;
+            }
+            return o1.getSlot().compareTo(o2.getSlot());
+        }
+    };
+
+    private static final Log log = LogFactory.getLog(SchedulingServiceStripedImpl.class);
+}
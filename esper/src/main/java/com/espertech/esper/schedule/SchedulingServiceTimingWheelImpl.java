@@ -0,0 +1,588 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.client.util.DateTime;
+import com.espertech.esper.metrics.jmx.JmxGetter;
+import com.espertech.esper.timer.TimeSourceService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.*;
+
+/**
+ * Implements the schedule service as a hierarchical timing wheel, for constant-time adding and removing of handles.
+ * <p>
+ * The wheel has four levels of 256 slots each, the slots of level zero covering a single time unit each and
+ * the slots of each further level covering a full turn of the level below. A handle goes into the lowest level
+ * that covers its time relative to the wheel time. Handles further out than the top level covers wait in a sorted
+ * overflow map. As the wheel time enters a slot of a higher level the handles of that slot move down a level.
+ * Evaluation skips empty slots using an occupancy bitmap per level, so that large jumps in time do not cost
+ * a step per time unit.
+ * <p>
+ * Handles due for the same time are returned ordered by {@link ScheduleSlot}, same as {@link SchedulingServiceImpl}.
+ * <p>
+ * Synchronized since statement creation and event evaluation by multiple (event send) threads
+ * can lead to callbacks added/removed asynchronously.
+ */
+public final class SchedulingServiceTimingWheelImpl implements SchedulingServiceStripe
+{
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int WHEEL_BITS = LEVELS * SLOT_BITS;
+
+    private static final int LEVEL_OVERFLOW = -1;
+    private static final int LEVEL_DUE = -2;
+
+    private static final Comparator<Entry> SLOT_COMPARATOR = new Comparator<Entry>() {
+        public int compare(Entry o1, Entry o2) {
+            return o1.slot.compareTo(o2.slot);
+        }
+    };
+
+    private static final Comparator<Entry> TIME_SLOT_COMPARATOR = new Comparator<Entry>() {
+        public int compare(Entry o1, Entry o2) {
+            if (o1.time != o2.time) {
+                return o1.time < o2.time ? -1 : 1;
+            }
+            return o1.slot.compareTo(o2.slot);
+        }
+    };
+
+    // Per level the list of handles for each slot, and a bitmap of non-empty slots
+    private final Entry[][] wheel;
+    private final long[][] occupied;
+    private final int[] levelCount;
+
+    // Handles further out than the wheel covers, by time
+    private final TreeMap<Long, Entry> overflow;
+
+    // Handles added for a time the wheel has already passed, by time
+    private final TreeMap<Long, Entry> due;
+
+    // Map of handle and entry for removal
+    private final Map<ScheduleHandle, Entry> handleMap;
+
+    private final ArrayList<Entry> firing;
+
+    // Earliest time not yet evaluated
+    private long wheelTime;
+
+    // Current time - used for evaluation as well as for adding new handles
+    private volatile long currentTime;
+
+    // Engine time unit, for rendering times as dates
+    private final TimeAbacus timeAbacus;
+
+    /**
+     * Constructor.
+     * @param timeSourceService time source provider
+     */
+    public SchedulingServiceTimingWheelImpl(TimeSourceService timeSourceService)
+    {
+        this.timeAbacus = timeSourceService.getTimeAbacus();
+        this.wheel = new Entry[LEVELS][SLOTS];
+        this.occupied = new long[LEVELS][SLOTS / 64];
+        this.levelCount = new int[LEVELS];
+        this.overflow = new TreeMap<Long, Entry>();
+        this.due = new TreeMap<Long, Entry>();
+        this.handleMap = new HashMap<ScheduleHandle, Entry>();
+        this.firing = new ArrayList<Entry>();
+        // initialize time to just before now as there is a check for duplicate external time events
+        this.currentTime = timeSourceService.getTime() - 1;
+        this.wheelTime = currentTime + 1;
+    }
+
+    public synchronized void destroy()
+    {
+        log.debug("Destroying scheduling service");
+        clear();
+        handleMap.clear();
+    }
+
+    public long getTime()
+    {
+        // note that this.currentTime is volatile
+        return this.currentTime;
+    }
+
+    public synchronized final void setTime(long currentTime)
+    {
+        this.currentTime = currentTime;
+        if (currentTime + 1 < wheelTime)
+        {
+            // time moved backwards: place all handles relative to the new time
+            clear();
+            wheelTime = currentTime + 1;
+            for (Entry entry : handleMap.values())
+            {
+                entry.prev = null;
+                entry.next = null;
+                place(entry);
+            }
+        }
+    }
+
+    public synchronized final void add(long afterMSec, ScheduleHandle handle, ScheduleSlot slot)
+            throws ScheduleServiceException
+    {
+        Entry entry = handleMap.get(handle);
+        if (entry != null)
+        {
+            unlink(entry);
+        }
+        else
+        {
+            entry = new Entry(handle);
+            handleMap.put(handle, entry);
+        }
+        entry.slot = slot;
+        entry.time = currentTime + afterMSec;
+        place(entry);
+    }
+
+    public synchronized final void remove(ScheduleHandle handle, ScheduleSlot slot)
+    {
+        Entry entry = handleMap.remove(handle);
+        if (entry == null)
+        {
+            // If it already has been removed then that's fine;
+            // Such could be the case when 2 timers fireStatementStopped at the same time, and one stops the other
+            return;
+        }
+        unlink(entry);
+    }
+
+    public synchronized final void evaluate(Collection<ScheduleHandle> handles)
+    {
+        evaluateInternal(handles, null);
+    }
+
+    public synchronized final void evaluateEntries(List<ScheduleSetEntry> entries)
+    {
+        evaluateInternal(null, entries);
+    }
+
+    private void evaluateInternal(Collection<ScheduleHandle> handles, List<ScheduleSetEntry> entries)
+    {
+        long target = currentTime;
+
+        // Handles added for a time already evaluated are earlier than any handle in the wheel
+        while (!due.isEmpty() && due.firstKey() <= target)
+        {
+            fire(due.pollFirstEntry().getValue(), handles, entries);
+        }
+
+        while (wheelTime <= target)
+        {
+            int level = lowestLevel();
+            if (level == -1)
+            {
+                if (overflow.isEmpty() || overflow.firstKey() > target)
+                {
+                    break;
+                }
+                advance(overflow.firstKey());
+                continue;
+            }
+
+            int shift = level * SLOT_BITS;
+            int index = nextOccupied(level, (int) (wheelTime >> shift) & SLOT_MASK);
+            long slotTime = ((wheelTime >> (shift + SLOT_BITS)) << (shift + SLOT_BITS)) | ((long) index << shift);
+            if (slotTime > target)
+            {
+                break;
+            }
+
+            if (level == 0)
+            {
+                // all handles of a level-zero slot are for the same time
+                Entry list = wheel[0][index];
+                wheel[0][index] = null;
+                occupied[0][index >> 6] &= ~(1L << index);
+                for (Entry entry = list; entry != null; entry = entry.next)
+                {
+                    levelCount[0]--;
+                }
+                fire(list, handles, entries);
+                advance(slotTime + 1);
+            }
+            else
+            {
+                advance(slotTime);
+            }
+        }
+
+        if (wheelTime <= target)
+        {
+            advance(target + 1);
+        }
+    }
+
+    public synchronized ScheduleSet take(Set<String> statementIds)
+    {
+        List<ScheduleSetEntry> list = new ArrayList<ScheduleSetEntry>();
+        long currentTime = getTime();
+        for (Entry entry : handleMap.values())
+        {
+            if (statementIds.contains(entry.handle.getStatementId()))
+            {
+                long relative = entry.time - currentTime;
+                list.add(new ScheduleSetEntry(relative, entry.slot, entry.handle));
+            }
+        }
+
+        for (ScheduleSetEntry entry : list)
+        {
+            remove(entry.getHandle(), entry.getSlot());
+        }
+
+        return new ScheduleSet(list);
+    }
+
+    public synchronized void apply(ScheduleSet scheduleSet)
+    {
+        for (ScheduleSetEntry entry : scheduleSet.getList())
+        {
+            add(entry.getTime(), entry.getHandle(), entry.getSlot());
+        }
+    }
+
+    @JmxGetter(name = "TimeHandleCount", description = "Number of outstanding time evaluations")
+    public synchronized int getTimeHandleCount()
+    {
+        Set<Long> times = new HashSet<Long>();
+        addTimeHandles(times);
+        return times.size();
+    }
+
+    public synchronized void addTimeHandles(Set<Long> times)
+    {
+        for (Entry entry : handleMap.values())
+        {
+            times.add(entry.time);
+        }
+    }
+
+    @JmxGetter(name = "FurthestTimeHandle", description = "Furthest outstanding time evaluation")
+    public String getFurthestTimeHandleDate()
+    {
+        Long handle = getFurthestTimeHandle();
+        if (handle != null) {
+            return DateTime.print(timeAbacus.toMillis(handle));
+        }
+        return null;
+    }
+
+    @JmxGetter(name = "NearestTimeHandle", description = "Nearest outstanding time evaluation")
+    public String getNearestTimeHandleDate()
+    {
+        Long handle = getNearestTimeHandle();
+        if (handle != null) {
+            return DateTime.print(timeAbacus.toMillis(handle));
+        }
+        return null;
+    }
+
+    public synchronized Long getFurthestTimeHandle()
+    {
+        if (!overflow.isEmpty())
+        {
+            return overflow.lastKey();
+        }
+        Long furthest = null;
+        for (Entry entry : handleMap.values())
+        {
+            if (furthest == null || entry.time > furthest)
+            {
+                furthest = entry.time;
+            }
+        }
+        return furthest;
+    }
+
+    public int getScheduleHandleCount()
+    {
+        return handleMap.size();
+    }
+
+    public synchronized boolean isScheduled(ScheduleHandle handle)
+    {
+        return handleMap.containsKey(handle);
+    }
+
+    public synchronized Long getNearestTimeHandle()
+    {
+        if (!due.isEmpty())
+        {
+            return due.firstKey();
+        }
+        int level = lowestLevel();
+        if (level == -1)
+        {
+            if (overflow.isEmpty())
+            {
+                return null;
+            }
+            return overflow.firstKey();
+        }
+
+        // handles in lower levels and lower slots are always earlier than those in higher levels and higher slots
+        int index = nextOccupied(level, (int) (wheelTime >> (level * SLOT_BITS)) & SLOT_MASK);
+        long nearest = Long.MAX_VALUE;
+        for (Entry entry = wheel[level][index]; entry != null; entry = entry.next)
+        {
+            if (entry.time < nearest)
+            {
+                nearest = entry.time;
+            }
+        }
+        return nearest;
+    }
+
+    public synchronized void visitSchedules(ScheduleVisitor visitor) {
+        List<Entry> entries = new ArrayList<Entry>(handleMap.values());
+        Collections.sort(entries, TIME_SLOT_COMPARATOR);
+        ScheduleVisit visit = new ScheduleVisit();
+        for (Entry entry : entries) {
+            visit.setTimestamp(entry.time);
+            visit.setStatementId(entry.handle.getStatementId());
+            visit.setAgentInstanceId(entry.handle.getAgentInstanceId());
+            visitor.visit(visit);
+        }
+    }
+
+    // Moves the wheel time forward; handles in the slots the wheel time enters move down a level
+    private void advance(long newWheelTime)
+    {
+        long oldWheelTime = wheelTime;
+        wheelTime = newWheelTime;
+
+        if ((oldWheelTime >> WHEEL_BITS) != (newWheelTime >> WHEEL_BITS))
+        {
+            SortedMap<Long, Entry> entered = overflow.headMap(((newWheelTime >> WHEEL_BITS) + 1) << WHEEL_BITS);
+            while (!entered.isEmpty())
+            {
+                Long key = entered.firstKey();
+                Entry list = overflow.remove(key);
+                placeAll(list);
+            }
+        }
+
+        for (int level = LEVELS - 1; level > 0; level--)
+        {
+            int shift = level * SLOT_BITS;
+            if ((oldWheelTime >> shift) == (newWheelTime >> shift))
+            {
+                continue;
+            }
+            int index = (int) (newWheelTime >> shift) & SLOT_MASK;
+            Entry list = wheel[level][index];
+            if (list == null)
+            {
+                continue;
+            }
+            wheel[level][index] = null;
+            occupied[level][index >> 6] &= ~(1L << index);
+            for (Entry entry = list; entry != null; entry = entry.next)
+            {
+                levelCount[level]--;
+            }
+            placeAll(list);
+        }
+    }
+
+    private void placeAll(Entry list)
+    {
+        Entry entry = list;
+        while (entry != null)
+        {
+            Entry next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void place(Entry entry)
+    {
+        long time = entry.time;
+        if (time < wheelTime)
+        {
+            entry.level = LEVEL_DUE;
+            linkMap(due, entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++)
+        {
+            int shift = (level + 1) * SLOT_BITS;
+            if ((time >> shift) == (wheelTime >> shift))
+            {
+                int index = (int) (time >> (level * SLOT_BITS)) & SLOT_MASK;
+                entry.level = level;
+                entry.index = index;
+                Entry head = wheel[level][index];
+                if (head != null)
+                {
+                    head.prev = entry;
+                }
+                entry.next = head;
+                wheel[level][index] = entry;
+                occupied[level][index >> 6] |= 1L << index;
+                levelCount[level]++;
+                return;
+            }
+        }
+        entry.level = LEVEL_OVERFLOW;
+        linkMap(overflow, entry);
+    }
+
+    private void linkMap(TreeMap<Long, Entry> map, Entry entry)
+    {
+        Entry head = map.put(entry.time, entry);
+        if (head != null)
+        {
+            head.prev = entry;
+        }
+        entry.next = head;
+    }
+
+    private void unlink(Entry entry)
+    {
+        if (entry.next != null)
+        {
+            entry.next.prev = entry.prev;
+        }
+        if (entry.prev != null)
+        {
+            entry.prev.next = entry.next;
+        }
+        else if (entry.level >= 0)
+        {
+            wheel[entry.level][entry.index] = entry.next;
+            if (entry.next == null)
+            {
+                occupied[entry.level][entry.index >> 6] &= ~(1L << entry.index);
+            }
+        }
+        else
+        {
+            TreeMap<Long, Entry> map = entry.level == LEVEL_DUE ? due : overflow;
+            if (entry.next == null)
+            {
+                map.remove(entry.time);
+            }
+            else
+            {
+                map.put(entry.time, entry.next);
+            }
+        }
+        if (entry.level >= 0)
+        {
+            levelCount[entry.level]--;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private void fire(Entry list, Collection<ScheduleHandle> handles, List<ScheduleSetEntry> entries)
+    {
+        if (list.next == null)
+        {
+            handleMap.remove(list.handle);
+            emit(list, handles, entries);
+            return;
+        }
+        for (Entry entry = list; entry != null; entry = entry.next)
+        {
+            handleMap.remove(entry.handle);
+            firing.add(entry);
+        }
+        Collections.sort(firing, SLOT_COMPARATOR);
+        for (Entry entry : firing)
+        {
+            emit(entry, handles, entries);
+        }
+        firing.clear();
+    }
+
+    private void emit(Entry entry, Collection<ScheduleHandle> handles, List<ScheduleSetEntry> entries)
+    {
+        if (handles != null)
+        {
+            handles.add(entry.handle);
+        }
+        else
+        {
+            entries.add(new ScheduleSetEntry(entry.time, entry.slot, entry.handle));
+        }
+    }
+
+    private int lowestLevel()
+    {
+        for (int level = 0; level < LEVELS; level++)
+        {
+            if (levelCount[level] > 0)
+            {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+    private int nextOccupied(int level, int fromIndex)
+    {
+        long[] bits = occupied[level];
+        int word = fromIndex >> 6;
+        long value = bits[word] & (-1L << fromIndex);
+        while (value == 0)
+        {
+            word++;
+            if (word == bits.length)
+            {
+                throw new IllegalStateException("No occupied slot at level " + level + " from " + fromIndex);
+            }
+            value = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(value);
+    }
+
+    private void clear()
+    {
+        for (int level = 0; level < LEVELS; level++)
+        {
+            Arrays.fill(wheel[level], null);
+            Arrays.fill(occupied[level], 0);
+            levelCount[level] = 0;
+        }
+        overflow.clear();
+        due.clear();
+    }
+
+    private static final class Entry
+    {
+        private final ScheduleHandle handle;
+        private ScheduleSlot slot;
+        private long time;
+        private int level;
+        private int index;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(ScheduleHandle handle)
+        {
+            this.handle = handle;
+        }
+    }
+
+    private static final Log log = LogFactory.getLog(SchedulingServiceTimingWheelImpl.class);
+}
@@ -0,0 +1,167 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts between seconds, milliseconds and the engine time unit, which is milliseconds by default
+ * and may be configured to be microseconds or nanoseconds.
+ * <p>
+ * Engine time, as provided by {@link TimeProvider} and as sent by {@link com.espertech.esper.client.time.CurrentTimeEvent},
+ * as well as schedule deltas are in the engine time unit. Time periods and time-based view parameters are in seconds.
+ */
+public final class TimeAbacus implements Serializable
+{
+    /**
+     * Engine time in milliseconds, the default.
+     */
+    public static final TimeAbacus MILLISECONDS = new TimeAbacus(TimeUnit.MILLISECONDS, 1L);
+
+    /**
+     * Engine time in microseconds.
+     */
+    public static final TimeAbacus MICROSECONDS = new TimeAbacus(TimeUnit.MICROSECONDS, 1000L);
+
+    /**
+     * Engine time in nanoseconds.
+     */
+    public static final TimeAbacus NANOSECONDS = new TimeAbacus(TimeUnit.NANOSECONDS, 1000000L);
+
+    private static final long serialVersionUID = -1739206431874425683L;
+
+    private final TimeUnit timeUnit;
+    private final long unitsPerMillisecond;
+    private final long unitsPerSecond;
+
+    private TimeAbacus(TimeUnit timeUnit, long unitsPerMillisecond)
+    {
+        this.timeUnit = timeUnit;
+        this.unitsPerMillisecond = unitsPerMillisecond;
+        this.unitsPerSecond = unitsPerMillisecond * 1000L;
+    }
+
+    /**
+     * Returns the abacus for the time unit.
+     * @param timeUnit engine time unit
+     * @return abacus
+     * @throws IllegalArgumentException if the time unit is not milliseconds, microseconds or nanoseconds
+     */
+    public static TimeAbacus getInstance(TimeUnit timeUnit)
+    {
+        if (timeUnit == null || timeUnit == TimeUnit.MILLISECONDS)
+        {
+            return MILLISECONDS;
+        }
+        if (timeUnit == TimeUnit.MICROSECONDS)
+        {
+            return MICROSECONDS;
+        }
+        if (timeUnit == TimeUnit.NANOSECONDS)
+        {
+            return NANOSECONDS;
+        }
+        throw new IllegalArgumentException("Unsupported engine time unit '" + timeUnit + "', expecting milliseconds, microseconds or nanoseconds");
+    }
+
+    /**
+     * Returns the engine time unit.
+     * @return time unit
+     */
+    public TimeUnit getTimeUnit()
+    {
+        return timeUnit;
+    }
+
+    /**
+     * Returns the number of engine time units in one second.
+     * @return units per second
+     */
+    public long getOneSecond()
+    {
+        return unitsPerSecond;
+    }
+
+    /**
+     * Returns the delta in engine time units for a number of seconds, rounded to the nearest unit.
+     * @param seconds number of seconds
+     * @return delta
+     */
+    public long deltaForSecondsDouble(double seconds)
+    {
+        return Math.round(seconds * unitsPerSecond);
+    }
+
+    /**
+     * Returns the delta in engine time units for a number of seconds that is either a floating-point
+     * or an integral number.
+     * @param seconds number of seconds
+     * @return delta
+     */
+    public long deltaForSecondsNumber(Number seconds)
+    {
+        if (JavaClassHelper.isFloatingPointNumber(seconds))
+        {
+            return deltaForSecondsDouble(seconds.doubleValue());
+        }
+        return seconds.longValue() * unitsPerSecond;
+    }
+
+    /**
+     * Returns the number of seconds for a delta in engine time units.
+     * @param delta delta
+     * @return seconds
+     */
+    public double toSeconds(long delta)
+    {
+        return delta / (double) unitsPerSecond;
+    }
+
+    /**
+     * Converts an engine time to milliseconds, dropping any sub-millisecond part.
+     * @param time engine time
+     * @return milliseconds
+     */
+    public long toMillis(long time)
+    {
+        if (unitsPerMillisecond == 1)
+        {
+            return time;
+        }
+        long millis = time / unitsPerMillisecond;
+        if (time < 0 && millis * unitsPerMillisecond != time)
+        {
+            millis--;
+        }
+        return millis;
+    }
+
+    /**
+     * Converts milliseconds to engine time.
+     * @param millis milliseconds
+     * @return engine time
+     */
+    public long fromMillis(long millis)
+    {
+        return millis * unitsPerMillisecond;
+    }
+
+    public String toString()
+    {
+        return "TimeAbacus{" + timeUnit + "}";
+    }
+
+    private Object readResolve()
+    {
+        return getInstance(timeUnit);
+    }
+}
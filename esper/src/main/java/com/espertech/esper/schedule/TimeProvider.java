@@ -16,7 +16,7 @@ package com.espertech.esper.schedule;
 public interface TimeProvider
 {
     /**
-     * Returns the current engine time.
+     * Returns the current engine time, in the engine time unit as provided by {@link TimeAbacus}.
      * @return time that has last been set
      */
     public long getTime();
@@ -8,6 +8,8 @@
  **************************************************************************************/
 package com.espertech.esper.timer;
 
+import com.espertech.esper.schedule.TimeAbacus;
+
 /**
  * Allow for different strategies for getting VM (wall clock) time.
  * See JIRA issue ESPER-191 Support nano/microsecond resolution for more
@@ -20,4 +22,16 @@ public interface TimeSourceService
      * @return time in millis
      */
     public long getTimeMillis();
+
+    /**
+     * Returns time in the engine time unit, which is milliseconds unless configured otherwise.
+     * @return time in the engine time unit
+     */
+    public long getTime();
+
+    /**
+     * Returns the engine time unit.
+     * @return time abacus for the engine time unit
+     */
+    public TimeAbacus getTimeAbacus();
 }
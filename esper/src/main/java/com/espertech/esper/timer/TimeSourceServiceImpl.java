@@ -8,16 +8,28 @@
  **************************************************************************************/
 package com.espertech.esper.timer;
 
+import com.espertech.esper.schedule.TimeAbacus;
+
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Allow for different strategies for getting VM (wall clock) time.
  * See JIRA issue ESPER-191 Support nano/microsecond resolution for more
  * information on Java system time-call performance, accuracy and drift.
+ * <p>
+ * For an engine time unit finer than milliseconds the time is derived from System.nanoTime, offset to
+ * the wall clock. As System.nanoTime and the wall clock drift apart over time, the offset is compared
+ * against System.currentTimeMillis periodically and corrected if the drift exceeds the wall clock's resolution,
+ * while never returning a time earlier than a time returned before.
  * @author Jerry Shea
  */
 public class TimeSourceServiceImpl implements TimeSourceService
 {
 	private static final long MICROS_TO_MILLIS = 1000;
 	private static final long NANOS_TO_MICROS = 1000;
+    private static final long NANOS_TO_MILLIS = 1000000;
+    private static final long DRIFT_CHECK_INTERVAL_NANOS = 1000 * NANOS_TO_MILLIS;
+    private static final long DRIFT_TOLERANCE_NANOS = 2 * NANOS_TO_MILLIS;
 
     /**
      * A public variable indicating whether to use the System millisecond time or
@@ -27,12 +39,31 @@ public class TimeSourceServiceImpl implements TimeSourceService
 
     private final long wallClockOffset;
     private final String description;
+    private final TimeAbacus timeAbacus;
+
+    // offset of wall-clock nanoseconds to System.nanoTime, corrected for drift
+    private volatile long nanoOffset;
+    private volatile long nextDriftCheck;
+    private final AtomicLong lastNanos = new AtomicLong(Long.MIN_VALUE);
 
     /**
      * Ctor.
      */
     public TimeSourceServiceImpl()
     {
+        this(TimeAbacus.MILLISECONDS);
+    }
+
+    /**
+     * Ctor.
+     * @param timeAbacus engine time unit
+     */
+    public TimeSourceServiceImpl(TimeAbacus timeAbacus)
+    {
+        this.timeAbacus = timeAbacus;
+        long nanoTime = System.nanoTime();
+        this.nanoOffset = System.currentTimeMillis() * NANOS_TO_MILLIS - nanoTime;
+        this.nextDriftCheck = nanoTime + DRIFT_CHECK_INTERVAL_NANOS;
         this.wallClockOffset = System.currentTimeMillis() * MICROS_TO_MILLIS - this.getTimeMicros();
         this.description = String.format("%s: resolution %d microsecs",
                            this.getClass().getSimpleName(), this.calculateResolution());
@@ -50,6 +81,61 @@ public class TimeSourceServiceImpl implements TimeSourceService
         return getTimeMicros() / MICROS_TO_MILLIS;
 	}
 
+    public long getTime() {
+        if (timeAbacus == TimeAbacus.MILLISECONDS)
+        {
+            return getTimeMillis();
+        }
+        long nanos = getTimeNanos();
+        if (timeAbacus == TimeAbacus.MICROSECONDS)
+        {
+            return nanos / NANOS_TO_MICROS;
+        }
+        return nanos;
+    }
+
+    public TimeAbacus getTimeAbacus() {
+        return timeAbacus;
+    }
+
+    /**
+     * Returns the wall-clock time in nanoseconds based on System.nanoTime, corrected for drift.
+     * @return wall-clock time in nanoseconds
+     */
+    protected long getTimeNanos() {
+        long nanoTime = System.nanoTime();
+        if (nanoTime - nextDriftCheck >= 0)
+        {
+            correctDrift(nanoTime);
+        }
+        long nanos = nanoTime + nanoOffset;
+        while (true)
+        {
+            long last = lastNanos.get();
+            if (nanos <= last)
+            {
+                return last;
+            }
+            if (lastNanos.compareAndSet(last, nanos))
+            {
+                return nanos;
+            }
+        }
+    }
+
+    private synchronized void correctDrift(long nanoTime) {
+        if (nanoTime - nextDriftCheck < 0)
+        {
+            return;
+        }
+        long drift = System.currentTimeMillis() * NANOS_TO_MILLIS - (nanoTime + nanoOffset);
+        if (Math.abs(drift) > DRIFT_TOLERANCE_NANOS)
+        {
+            nanoOffset += drift;
+        }
+        nextDriftCheck = nanoTime + DRIFT_CHECK_INTERVAL_NANOS;
+    }
+
     private long getTimeMicros() {
         return (System.nanoTime() / NANOS_TO_MICROS) + wallClockOffset;
     }
@@ -0,0 +1,220 @@
+/**************************************************************************************
+ * Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ * http://esper.codehaus.org                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Read-write lock for many short read sections and rare write sections, whose read side does not write shared state.
+ * <p>
+ * Each reading thread announces entering and leaving a read section in its own slot, and only checks
+ * whether a writer is active. A writer first excludes other writers using the underlying read-write lock, then
+ * announces itself and waits for the read sections that started before the announcement to drain.
+ * Readers that arrive while a writer is active wait for the writer by taking the underlying read lock.
+ * <p>
+ * Read sections are reentrant and a thread holding the write lock may also enter a read section.
+ * A thread holding a read lock that acquires the write lock does not wait for its own read section.
+ */
+public class ManagedReadWriteLockEpoch extends ManagedReadWriteLock
+{
+    private static final Log log = LogFactory.getLog(ManagedReadWriteLockEpoch.class);
+
+    private static final int SPIN_COUNT = 100;
+    private static final long PARK_NANOS = 10000;
+
+    private final String name;
+    private final CopyOnWriteArrayList<ReaderSlot> slots;
+    private final ThreadLocal<ReaderSlot> slotThreadLocal;
+
+    private volatile Thread writer;
+    private int writerDepth;
+
+    /**
+     * Ctor.
+     * @param name of lock
+     * @param isFair true if writers should be fair amongst each other, false if not
+     */
+    public ManagedReadWriteLockEpoch(String name, boolean isFair)
+    {
+        super(name, isFair);
+        this.name = name;
+        this.slots = new CopyOnWriteArrayList<ReaderSlot>();
+        this.slotThreadLocal = new ThreadLocal<ReaderSlot>()
+        {
+            protected ReaderSlot initialValue()
+            {
+                ReaderSlot slot = new ReaderSlot(Thread.currentThread());
+                slots.add(slot);
+                return slot;
+            }
+        };
+    }
+
+    public void acquireReadLock()
+    {
+        ReaderSlot slot = slotThreadLocal.get();
+        if (slot.depth > 0)
+        {
+            slot.depth++;
+            return;
+        }
+
+        while (true)
+        {
+            // announce first, then check for a writer; the writer announces first and then checks for readers
+            slot.active = true;
+            Thread currentWriter = writer;
+            if (currentWriter == null || currentWriter == Thread.currentThread())
+            {
+                break;
+            }
+
+            // back off and wait for the writer to complete
+            slot.active = false;
+            if (ThreadLogUtil.ENABLED_TRACE)
+            {
+                ThreadLogUtil.trace(ACQUIRE_TEXT + " read " + name + " waiting for writer");
+            }
+            super.acquireReadLock();
+            super.releaseReadLock();
+        }
+        slot.depth = 1;
+    }
+
+    public void releaseReadLock()
+    {
+        ReaderSlot slot = slotThreadLocal.get();
+        if (slot.depth == 0)
+        {
+            throw new IllegalMonitorStateException("Read lock " + name + " not held by current thread");
+        }
+        slot.depth--;
+        if (slot.depth == 0)
+        {
+            slot.active = false;
+        }
+    }
+
+    public void acquireWriteLock()
+    {
+        super.acquireWriteLock();
+        if (enterWriter())
+        {
+            awaitReaders(Long.MAX_VALUE);
+        }
+    }
+
+    public boolean tryWriteLock(long msec)
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(msec);
+        if (!super.tryWriteLock(msec))
+        {
+            return false;
+        }
+        if (!enterWriter())
+        {
+            return true;
+        }
+        if (awaitReaders(deadline))
+        {
+            return true;
+        }
+        releaseWriteLock();
+        return false;
+    }
+
+    public void releaseWriteLock()
+    {
+        writerDepth--;
+        if (writerDepth == 0)
+        {
+            writer = null;
+        }
+        super.releaseWriteLock();
+    }
+
+    /**
+     * Returns the number of threads that have registered for read sections and not yet been removed.
+     * @return number of reader slots
+     */
+    public int getNumReaderSlots()
+    {
+        return slots.size();
+    }
+
+    private boolean enterWriter()
+    {
+        writerDepth++;
+        if (writerDepth > 1)
+        {
+            return false;
+        }
+        writer = Thread.currentThread();
+        return true;
+    }
+
+    private boolean awaitReaders(long deadline)
+    {
+        Thread current = Thread.currentThread();
+        for (Iterator<ReaderSlot> it = slots.iterator(); it.hasNext();)
+        {
+            ReaderSlot slot = it.next();
+            Thread owner = slot.owner.get();
+            if (owner == current)
+            {
+                continue;
+            }
+            if (owner == null && !slot.active)
+            {
+                slots.remove(slot);
+                continue;
+            }
+
+            int spins = 0;
+            while (slot.active)
+            {
+                if (spins < SPIN_COUNT)
+                {
+                    spins++;
+                    Thread.yield();
+                    continue;
+                }
+                if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0)
+                {
+                    if (log.isDebugEnabled())
+                    {
+                        log.debug("Timeout waiting for readers to drain for lock " + name);
+                    }
+                    return false;
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    private static class ReaderSlot
+    {
+        private final WeakReference<Thread> owner;
+        private volatile boolean active;
+        private int depth;
+
+        private ReaderSlot(Thread owner)
+        {
+            this.owner = new WeakReference<Thread>(owner);
+        }
+    }
+}
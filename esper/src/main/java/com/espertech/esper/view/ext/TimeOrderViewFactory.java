@@ -68,15 +68,7 @@ public class TimeOrderViewFactory implements DataWindowViewFactory, DataWindowVi
         }
         else
         {
-            Number param = (Number) parameter;
-            if (JavaClassHelper.isFloatingPointNumber(param))
-            {
-                intervalSize = Math.round(1000d * param.doubleValue());
-            }
-            else
-            {
-                intervalSize = 1000 * param.longValue();
-            }
+            intervalSize = statementContext.getTimeAbacus().deltaForSecondsNumber((Number) parameter);
         }
 
         if (intervalSize < 1)
@@ -55,8 +55,9 @@ public class GroupByViewReclaimAged extends ViewSupport implements CloneableView
         this.agentInstanceContext = agentInstanceContext;
         this.criteriaExpressions = criteriaExpressions;
         this.criteriaEvaluators = criteriaEvaluators;
-        this.reclaimMaxAge = (long) (reclaimMaxAge * 1000d);
-        this.reclaimFrequency = (long) (reclaimFrequency * 1000d);
+        long oneSecond = agentInstanceContext.getStatementContext().getTimeAbacus().getOneSecond();
+        this.reclaimMaxAge = (long) (reclaimMaxAge * oneSecond);
+        this.reclaimFrequency = (long) (reclaimFrequency * oneSecond);
 
         propertyNames = new String[criteriaExpressions.length];
         for (int i = 0; i < criteriaExpressions.length; i++)
@@ -72,15 +72,7 @@ public class ExternallyTimedBatchViewFactory implements DataWindowBatchingViewFa
         }
         else
         {
-            Number param = (Number) parameter;
-            if (JavaClassHelper.isFloatingPointNumber(param))
-            {
-                millisecondsBeforeExpiry = Math.round(1000d * param.doubleValue());
-            }
-            else
-            {
-                millisecondsBeforeExpiry = 1000 * param.longValue();
-            }
+            millisecondsBeforeExpiry = statementContext.getTimeAbacus().deltaForSecondsNumber((Number) parameter);
         }
 
         // validate optional parameters
@@ -69,15 +69,7 @@ public class ExternallyTimedWindowViewFactory implements DataWindowViewFactory,
         }
         else
         {
-            Number param = (Number) parameter;
-            if (JavaClassHelper.isFloatingPointNumber(param))
-            {
-                millisecondsBeforeExpiry = Math.round(1000d * param.doubleValue());
-            }
-            else
-            {
-                millisecondsBeforeExpiry = 1000 * param.longValue();
-            }
+            millisecondsBeforeExpiry = statementContext.getTimeAbacus().deltaForSecondsNumber((Number) parameter);
         }
 
         this.eventType = parentEventType;
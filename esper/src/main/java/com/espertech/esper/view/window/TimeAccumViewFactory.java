@@ -12,7 +12,6 @@ import com.espertech.esper.client.EventType;
 import com.espertech.esper.core.context.util.AgentInstanceViewFactoryChainContext;
 import com.espertech.esper.core.service.StatementContext;
 import com.espertech.esper.epl.expression.ExprNode;
-import com.espertech.esper.util.JavaClassHelper;
 import com.espertech.esper.view.*;
 
 import java.util.List;
@@ -45,15 +44,7 @@ public class TimeAccumViewFactory implements DataWindowViewFactory, DataWindowVi
         }
         else
         {
-            Number param = (Number) parameter;
-            if (JavaClassHelper.isFloatingPointNumber(param))
-            {
-                millisecondsQuietTime = Math.round(1000d * param.doubleValue());
-            }
-            else
-            {
-                millisecondsQuietTime = 1000 * param.longValue();
-            }
+            millisecondsQuietTime = viewFactoryContext.getStatementContext().getTimeAbacus().deltaForSecondsNumber((Number) parameter);
         }
 
         if (millisecondsQuietTime < 1)
@@ -49,7 +49,7 @@ public class TimeBatchView extends ViewSupport implements CloneableView, Stoppab
     protected final boolean isStartEager;
     protected final ViewUpdatedCollection viewUpdatedCollection;
     protected final ScheduleSlot scheduleSlot;
-    protected EPStatementHandleCallback handle;
+    protected final EPStatementHandleCallback handle;
 
     // Current running parameters
     protected Long currentReferencePoint;
@@ -85,6 +85,14 @@ public class TimeBatchView extends ViewSupport implements CloneableView, Stoppab
 
         this.scheduleSlot = agentInstanceContext.getStatementContext().getScheduleBucket().allocateSlot();
 
+        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
+            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
+            {
+                TimeBatchView.this.sendBatch();
+            }
+        };
+        this.handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), callback);
+
         // schedule the first callback
         if (isStartEager)
         {
@@ -262,14 +270,6 @@ public class TimeBatchView extends ViewSupport implements CloneableView, Stoppab
     {
         long current = agentInstanceContext.getStatementContext().getSchedulingService().getTime();
         long afterMSec = computeWaitMSec(current, this.currentReferencePoint, this.msecIntervalSize);
-
-        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
-            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
-            {
-                TimeBatchView.this.sendBatch();
-            }
-        };
-        handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), callback);
         agentInstanceContext.getStatementContext().getSchedulingService().add(afterMSec, handle, scheduleSlot);
     }
 
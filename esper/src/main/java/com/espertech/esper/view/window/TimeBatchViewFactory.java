@@ -36,7 +36,7 @@ public class TimeBatchViewFactory extends TimeBatchViewFactoryParams implements
             throw new ViewParameterException(errorMessage);
         }
 
-        processExpiry(viewParameters.get(0), errorMessage, "Time batch view requires a size of at least 1 msec");
+        processExpiry(viewParameters.get(0), errorMessage, "Time batch view requires a size of at least 1 msec", viewFactoryContext.getStatementContext().getTimeAbacus());
 
         if ((viewParameters.size() == 2) && (viewParameters.get(1) instanceof String))
         {
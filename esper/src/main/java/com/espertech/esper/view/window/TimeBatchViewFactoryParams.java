@@ -9,7 +9,7 @@
 package com.espertech.esper.view.window;
 
 import com.espertech.esper.client.EventType;
-import com.espertech.esper.util.JavaClassHelper;
+import com.espertech.esper.schedule.TimeAbacus;
 import com.espertech.esper.view.ViewParameterException;
 
 /**
@@ -52,24 +52,17 @@ public class TimeBatchViewFactoryParams {
      * @param parameter the parameter to parse
      * @param errorMessage error text
      * @param errorMessage2 error text
+     * @param timeAbacus for converting seconds to the engine time unit
      * @throws ViewParameterException if validation failed
      */
-	protected void processExpiry(Object parameter, String errorMessage, String errorMessage2) throws ViewParameterException {
+	protected void processExpiry(Object parameter, String errorMessage, String errorMessage2, TimeAbacus timeAbacus) throws ViewParameterException {
         if (!(parameter instanceof Number))
         {
             throw new ViewParameterException(errorMessage);
         }
         else
         {
-            Number param = (Number) parameter;
-            if (JavaClassHelper.isFloatingPointNumber(param))
-            {
-            	millisecondsBeforeExpiry = Math.round(1000d * param.doubleValue());
-            }
-            else
-            {
-                millisecondsBeforeExpiry = 1000 * param.longValue();
-            }
+            millisecondsBeforeExpiry = timeAbacus.deltaForSecondsNumber((Number) parameter);
         }
 
         if (millisecondsBeforeExpiry < 1)
@@ -35,7 +35,7 @@ public class TimeBatchViewRStream extends ViewSupport implements CloneableView,
     protected final ScheduleSlot scheduleSlot;
     private final boolean isForceOutput;
     private final boolean isStartEager;
-    protected EPStatementHandleCallback handle;
+    protected final EPStatementHandleCallback handle;
 
     // Current running parameters
     protected Long currentReferencePoint;
@@ -68,6 +68,14 @@ public class TimeBatchViewRStream extends ViewSupport implements CloneableView,
 
         this.scheduleSlot = agentInstanceContext.getStatementContext().getScheduleBucket().allocateSlot();
 
+        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
+            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
+            {
+                TimeBatchViewRStream.this.sendBatch();
+            }
+        };
+        this.handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), callback);
+
         // schedule the first callback
         if (this.isStartEager)
         {
@@ -245,14 +253,6 @@ public class TimeBatchViewRStream extends ViewSupport implements CloneableView,
     {
         long current = agentInstanceContext.getStatementContext().getSchedulingService().getTime();
         long afterMSec = TimeBatchView.computeWaitMSec(current, this.currentReferencePoint, this.msecIntervalSize);
-
-        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
-            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
-            {
-                TimeBatchViewRStream.this.sendBatch();
-            }
-        };
-        handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), callback);
         agentInstanceContext.getStatementContext().getSchedulingService().add(afterMSec, handle, scheduleSlot);
     }
 
@@ -52,7 +52,7 @@ public class TimeLengthBatchView extends ViewSupport implements CloneableView, S
     protected ArrayList<EventBean> lastBatch = null;
     protected ArrayList<EventBean> currentBatch = new ArrayList<EventBean>();
     protected Long callbackScheduledTime;
-    protected EPStatementHandleCallback handle;
+    protected final EPStatementHandleCallback handle;
 
     /**
      * Constructor.
@@ -81,6 +81,14 @@ public class TimeLengthBatchView extends ViewSupport implements CloneableView, S
 
         this.scheduleSlot = agentInstanceContext.getStatementContext().getScheduleBucket().allocateSlot();
 
+        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
+            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
+            {
+                TimeLengthBatchView.this.sendBatch(true);
+            }
+        };
+        this.handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), callback);
+
         // schedule the first callback
         if (isStartEager)
         {
@@ -276,13 +284,6 @@ public class TimeLengthBatchView extends ViewSupport implements CloneableView, S
 
     protected void scheduleCallback(long delta)
     {
-        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
-            public void scheduledTrigger(ExtensionServicesContext extensionServicesContext)
-            {
-                TimeLengthBatchView.this.sendBatch(true);
-            }
-        };
-        handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), callback);
         agentInstanceContext.getStatementContext().getSchedulingService().add(msecIntervalSize - delta, handle, scheduleSlot);
         callbackScheduledTime = agentInstanceContext.getStatementContext().getSchedulingService().getTime() - delta;
     }
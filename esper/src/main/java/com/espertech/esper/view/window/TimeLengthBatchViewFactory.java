@@ -37,7 +37,7 @@ public class TimeLengthBatchViewFactory extends TimeBatchViewFactoryParams imple
         }
 
         // parameter 1
-        processExpiry(viewParameters.get(0), errorMessage, "Time-length-combination batch view requires a size of at least 1 msec");
+        processExpiry(viewParameters.get(0), errorMessage, "Time-length-combination batch view requires a size of at least 1 msec", viewFactoryContext.getStatementContext().getTimeAbacus());
 
         // parameter 2
         Object parameter = viewParameters.get(1);
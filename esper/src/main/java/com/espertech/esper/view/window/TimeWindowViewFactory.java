@@ -12,7 +12,6 @@ import com.espertech.esper.client.EventType;
 import com.espertech.esper.core.context.util.AgentInstanceViewFactoryChainContext;
 import com.espertech.esper.core.service.StatementContext;
 import com.espertech.esper.epl.expression.ExprNode;
-import com.espertech.esper.util.JavaClassHelper;
 import com.espertech.esper.view.*;
 
 import java.util.List;
@@ -45,15 +44,7 @@ public class TimeWindowViewFactory implements DataWindowViewFactory, DataWindowV
         }
         else
         {
-            Number param = (Number) parameter;
-            if (JavaClassHelper.isFloatingPointNumber(param))
-            {
-                millisecondsBeforeExpiry = Math.round(1000d * param.doubleValue());
-            }
-            else
-            {
-                millisecondsBeforeExpiry = 1000 * param.longValue();
-            }
+            millisecondsBeforeExpiry = viewFactoryContext.getStatementContext().getTimeAbacus().deltaForSecondsNumber((Number) parameter);
         }
 
         if (millisecondsBeforeExpiry < 1)
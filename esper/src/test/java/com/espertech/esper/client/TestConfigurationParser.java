@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class TestConfigurationParser extends TestCase
 {
@@ -68,6 +69,10 @@ public class TestConfigurationParser extends TestCase
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolOutboundCapacity());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolRouteExecCapacity());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolTimerExecCapacity());
+        assertFalse(config.getEngineDefaults().getThreading().isThreadPoolRingBuffer());
+        assertEquals(ConfigurationEngineDefaults.Threading.WaitStrategy.PARK, config.getEngineDefaults().getThreading().getThreadPoolRingBufferWaitStrategy());
+        assertTrue(config.getEngineDefaults().getThreading().getThreadPoolInboundKeys().isEmpty());
+        assertNull(config.getEngineDefaults().getThreading().getThreadPoolExecutorFactory());
         assertFalse(config.getEngineDefaults().getThreading().isEngineFairlock());
         assertFalse(config.getEngineDefaults().getMetricsReporting().isJmxEngineMetrics());
 
@@ -87,9 +92,16 @@ public class TestConfigurationParser extends TestCase
         assertEquals(null, config.getEngineDefaults().getPatterns().getMaxSubexpressions());
         assertEquals(true, config.getEngineDefaults().getPatterns().isMaxSubexpressionPreventStart());
         assertEquals(ConfigurationEngineDefaults.TimeSourceType.MILLI, config.getEngineDefaults().getTimeSource().getTimeSourceType());
+        assertEquals(TimeUnit.MILLISECONDS, config.getEngineDefaults().getTimeSource().getTimeUnit());
         assertFalse(config.getEngineDefaults().getExecution().isPrioritized());
         assertFalse(config.getEngineDefaults().getExecution().isDisableLocking());
         assertEquals(ConfigurationEngineDefaults.ThreadingProfile.NORMAL, config.getEngineDefaults().getExecution().getThreadingProfile());
+        assertEquals(ConfigurationEngineDefaults.FilterServiceProfile.READWRITE, config.getEngineDefaults().getExecution().getFilterServiceProfile());
+        assertEquals(0, config.getEngineDefaults().getExecution().getFilterIndexReorderThreshold());
+        assertFalse(config.getEngineDefaults().getExecution().isFilterIndexProfiling());
+        assertEquals(ConfigurationEngineDefaults.SchedulingServiceProfile.SORTED, config.getEngineDefaults().getExecution().getSchedulingServiceProfile());
+        assertEquals(1, config.getEngineDefaults().getExecution().getSchedulingServiceStripes());
+        assertEquals(ConfigurationEngineDefaults.EngineLockProfile.READWRITE, config.getEngineDefaults().getExecution().getEngineLockProfile());
 
         assertEquals(StreamSelector.ISTREAM_ONLY, config.getEngineDefaults().getStreamSelection().getDefaultStreamSelector());
         assertFalse(config.getEngineDefaults().getLanguage().isSortUsingCollator());
@@ -183,6 +195,7 @@ public class TestConfigurationParser extends TestCase
         EPAssertionUtil.assertEqualsExactOrder(new Object[]{"MyMapSuperType1", "MyMapSuperType2"}, superTypes.toArray());
         assertEquals("startts", config.getMapTypeConfigurations().get("MyMapEvent").getStartTimestampPropertyName());
         assertEquals("endts", config.getMapTypeConfigurations().get("MyMapEvent").getEndTimestampPropertyName());
+        assertTrue(config.getMapTypeConfigurations().get("MyMapEvent").isConvertToObjectArray());
 
         // assert objectarray events
         assertEquals(1, config.getEventTypesNestableObjectArrayEvents().size());
@@ -393,6 +406,11 @@ public class TestConfigurationParser extends TestCase
         assertEquals(1500, (int) config.getEngineDefaults().getThreading().getThreadPoolOutboundCapacity());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolTimerExecCapacity());
         assertEquals(2000, (int) config.getEngineDefaults().getThreading().getThreadPoolRouteExecCapacity());
+        assertTrue(config.getEngineDefaults().getThreading().isThreadPoolRingBuffer());
+        assertEquals(ConfigurationEngineDefaults.Threading.WaitStrategy.YIELD, config.getEngineDefaults().getThreading().getThreadPoolRingBufferWaitStrategy());
+        assertEquals(1, config.getEngineDefaults().getThreading().getThreadPoolInboundKeys().size());
+        assertEquals("symbol", config.getEngineDefaults().getThreading().getThreadPoolInboundKeys().get("MyStockTick"));
+        assertEquals("com.mycompany.MyThreadingExecutorFactory", config.getEngineDefaults().getThreading().getThreadPoolExecutorFactory());
 
         assertFalse(config.getEngineDefaults().getThreading().isInternalTimerEnabled());
         assertEquals(1234567, config.getEngineDefaults().getThreading().getInternalTimerMsecResolution());
@@ -413,10 +431,17 @@ public class TestConfigurationParser extends TestCase
         assertEquals(StreamSelector.RSTREAM_ISTREAM_BOTH, config.getEngineDefaults().getStreamSelection().getDefaultStreamSelector());
 
         assertEquals(ConfigurationEngineDefaults.TimeSourceType.NANO, config.getEngineDefaults().getTimeSource().getTimeSourceType());
+        assertEquals(TimeUnit.MICROSECONDS, config.getEngineDefaults().getTimeSource().getTimeUnit());
         assertTrue(config.getEngineDefaults().getExecution().isPrioritized());
         assertTrue(config.getEngineDefaults().getExecution().isFairlock());
         assertTrue(config.getEngineDefaults().getExecution().isDisableLocking());
         assertEquals(ConfigurationEngineDefaults.ThreadingProfile.LARGE, config.getEngineDefaults().getExecution().getThreadingProfile());
+        assertEquals(ConfigurationEngineDefaults.FilterServiceProfile.READMOSTLY, config.getEngineDefaults().getExecution().getFilterServiceProfile());
+        assertEquals(100000, config.getEngineDefaults().getExecution().getFilterIndexReorderThreshold());
+        assertTrue(config.getEngineDefaults().getExecution().isFilterIndexProfiling());
+        assertEquals(ConfigurationEngineDefaults.SchedulingServiceProfile.TIMINGWHEEL, config.getEngineDefaults().getExecution().getSchedulingServiceProfile());
+        assertEquals(4, config.getEngineDefaults().getExecution().getSchedulingServiceStripes());
+        assertEquals(ConfigurationEngineDefaults.EngineLockProfile.EPOCH, config.getEngineDefaults().getExecution().getEngineLockProfile());
 
         ConfigurationMetricsReporting metrics = config.getEngineDefaults().getMetricsReporting();
         assertTrue(metrics.isEnableMetricsReporting());
@@ -0,0 +1,88 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+
+package com.espertech.esper.collection;
+
+import junit.framework.TestCase;
+
+import java.util.Iterator;
+import java.util.Map;
+
+public class TestCopyOnWriteLinkedMap extends TestCase
+{
+    private CopyOnWriteLinkedMap<String, Integer> map;
+
+    public void setUp()
+    {
+        map = new CopyOnWriteLinkedMap<String, Integer>();
+    }
+
+    public void testPutRemove()
+    {
+        assertTrue(map.isEmpty());
+        assertNull(map.put("a", 1));
+        assertNull(map.put(null, 2));
+        assertEquals(1, (int) map.put("a", 3));
+
+        assertEquals(2, map.size());
+        assertEquals(3, (int) map.get("a"));
+        assertEquals(2, (int) map.get(null));
+        assertTrue(map.containsKey(null));
+
+        assertEquals(2, (int) map.remove(null));
+        assertNull(map.remove("x"));
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey(null));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    public void testInsertionOrder()
+    {
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.remove("a");
+        map.put("a", 4);
+
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        assertEquals("c", it.next().getKey());
+        assertEquals("b", it.next().getKey());
+        assertEquals("a", it.next().getKey());
+        assertFalse(it.hasNext());
+    }
+
+    public void testIterateSnapshot()
+    {
+        map.put("a", 1);
+        map.put("b", 2);
+
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        map.put("c", 3);
+        map.remove("a");
+
+        assertEquals("a", it.next().getKey());
+        assertEquals("b", it.next().getKey());
+        assertFalse(it.hasNext());
+
+        try
+        {
+            map.entrySet().iterator().remove();
+            fail();
+        }
+        catch (RuntimeException ex)
+        {
+            // expected
+        }
+    }
+}
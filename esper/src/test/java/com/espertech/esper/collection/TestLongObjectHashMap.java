@@ -0,0 +1,90 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+
+package com.espertech.esper.collection;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestLongObjectHashMap extends TestCase
+{
+    public void testPutGetRemove()
+    {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>(false);
+        assertNull(map.get(1));
+        assertNull(map.put(1, "a"));
+        assertNull(map.put(Long.MIN_VALUE, "b"));
+        assertNull(map.put(0, "c"));
+        assertEquals("a", map.put(1, "x"));
+        assertEquals(3, map.size());
+        assertEquals("x", map.get(1));
+        assertEquals("b", map.get(Long.MIN_VALUE));
+        assertEquals("c", map.get(0));
+
+        assertEquals("x", map.remove(1));
+        assertNull(map.remove(1));
+        assertNull(map.get(1));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+
+        try {
+            map.put(5, null);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    public void testCopyOnWrite()
+    {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>(true);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals("v" + i, map.remove(i));
+        }
+        assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? null : "v" + i, map.get(i));
+        }
+    }
+
+    public void testRandomAgainstHashMap()
+    {
+        Random random = new Random(1);
+        for (boolean copyOnWrite : new boolean[] {false, true}) {
+            LongObjectHashMap<Long> map = new LongObjectHashMap<Long>(copyOnWrite);
+            Map<Long, Long> expected = new HashMap<Long, Long>();
+            for (int i = 0; i < 20000; i++) {
+                long key = random.nextInt(500) * 1024L;   // keys that collide in the low bits
+                if (random.nextBoolean()) {
+                    assertEquals(expected.put(key, key), map.put(key, key));
+                }
+                else {
+                    assertEquals(expected.remove(key), map.remove(key));
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            for (long key = 0; key < 500 * 1024L; key += 1024) {
+                assertEquals(expected.get(key), map.get(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.service;
+
+import com.espertech.esper.client.Configuration;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.filter.FilterHandleCallback;
+import com.espertech.esper.filter.FilterValueSetImpl;
+import com.espertech.esper.filter.FilterValueSetParam;
+import com.espertech.esper.schedule.ScheduleHandleCallback;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.filter.SupportFilterHandle;
+import com.espertech.esper.support.schedule.SupportScheduleCallback;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+
+public class TestAgentInstanceCallbackBatcher extends TestCase
+{
+    public void testGroup()
+    {
+        EPStatementAgentInstanceHandle stmtA = makeHandle("A", 0, 0);
+        EPStatementAgentInstanceHandle stmtB = makeHandle("B", 0, 0);
+        EPStatementAgentInstanceHandle stmtAOther = makeHandle("A", 0, 0);    // equal to stmtA, a different object
+        SupportFilterHandle[] callbacks = makeCallbacks(5);
+
+        AgentInstanceCallbackBatcher<FilterHandleCallback> batcher = new AgentInstanceCallbackBatcher<FilterHandleCallback>(false);
+        assertTrue(batcher.isEmpty());
+        batcher.add(stmtA, callbacks[0]);
+        batcher.add(stmtB, callbacks[1]);
+        batcher.add(stmtAOther, callbacks[2]);
+        batcher.add(stmtB, callbacks[3]);
+        batcher.add(stmtA, callbacks[4]);
+        batcher.order();
+        assertEquals(2, batcher.getBatchCount());
+        assertBatch(batcher.getBatch(0), stmtA, callbacks[0], callbacks[2], callbacks[4]);
+        assertBatch(batcher.getBatch(1), stmtB, callbacks[1], callbacks[3]);
+
+        // the batch is the collection of all statement matches
+        Iterator<FilterHandleCallback> it = batcher.getBatch(1).iterator();
+        assertSame(callbacks[1], it.next());
+        assertSame(callbacks[3], it.next());
+        assertFalse(it.hasNext());
+
+        // reuse for the next event
+        AgentInstanceCallbackBatch<FilterHandleCallback> reused = batcher.getBatch(0);
+        batcher.clear();
+        assertTrue(batcher.isEmpty());
+        assertNull(reused.getHandle());
+        batcher.add(stmtB, callbacks[1]);
+        batcher.add(stmtA, callbacks[0]);
+        assertSame(reused, batcher.getBatch(0));
+        assertBatch(batcher.getBatch(0), stmtB, callbacks[1]);
+        assertBatch(batcher.getBatch(1), stmtA, callbacks[0]);
+
+        AgentInstanceCallbackBatch<FilterHandleCallback> copy = batcher.getBatch(0).copy();
+        batcher.clear();
+        assertBatch(copy, stmtB, callbacks[1]);
+    }
+
+    public void testScheduleCallbacks()
+    {
+        EPStatementAgentInstanceHandle stmtLow = makeHandle("L", 0, 1);
+        EPStatementAgentInstanceHandle stmtHigh = makeHandle("H", 0, 10);
+        SupportScheduleCallback[] callbacks = new SupportScheduleCallback[3];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbacks[i] = new SupportScheduleCallback();
+        }
+
+        AgentInstanceCallbackBatcher<ScheduleHandleCallback> batcher = new AgentInstanceCallbackBatcher<ScheduleHandleCallback>(true);
+        batcher.add(stmtLow, callbacks[0]);
+        batcher.add(stmtHigh, callbacks[1]);
+        batcher.add(stmtLow, callbacks[2]);
+        batcher.order();
+        assertBatch(batcher.getBatch(0), stmtHigh, callbacks[1]);
+        assertBatch(batcher.getBatch(1), stmtLow, callbacks[0], callbacks[2]);
+    }
+
+    public void testPrioritized()
+    {
+        EPStatementAgentInstanceHandle stmtLow = makeHandle("L", 0, 1);
+        EPStatementAgentInstanceHandle stmtHigh = makeHandle("H", 0, 10);
+        SupportFilterHandle[] callbacks = makeCallbacks(2);
+
+        AgentInstanceCallbackBatcher<FilterHandleCallback> batcher = new AgentInstanceCallbackBatcher<FilterHandleCallback>(true);
+        batcher.add(stmtLow, callbacks[0]);
+        batcher.add(stmtHigh, callbacks[1]);
+        batcher.order();
+        assertBatch(batcher.getBatch(0), stmtHigh, callbacks[1]);
+        assertBatch(batcher.getBatch(1), stmtLow, callbacks[0]);
+    }
+
+    public void testManyAgentInstances()
+    {
+        int numAgentInstances = 1000;
+        EPStatementAgentInstanceHandle[] agentHandles = new EPStatementAgentInstanceHandle[numAgentInstances];
+        for (int i = 0; i < numAgentInstances; i++) {
+            agentHandles[i] = makeHandle("S", i, 0);
+        }
+        SupportFilterHandle[] callbacks = makeCallbacks(numAgentInstances * 3);
+
+        AgentInstanceCallbackBatcher<FilterHandleCallback> batcher = new AgentInstanceCallbackBatcher<FilterHandleCallback>(false);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < callbacks.length; i++) {
+                batcher.add(agentHandles[i % numAgentInstances], callbacks[i]);
+            }
+            assertEquals(numAgentInstances, batcher.getBatchCount());
+            for (int i = 0; i < numAgentInstances; i++) {
+                assertBatch(batcher.getBatch(i), agentHandles[i], callbacks[i], callbacks[i + numAgentInstances], callbacks[i + 2 * numAgentInstances]);
+            }
+            batcher.clear();
+        }
+    }
+
+    public void testAllocationFree()
+    {
+        com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+        if (allocationBean == null) {
+            return;
+        }
+
+        EPStatementAgentInstanceHandle[] handles = new EPStatementAgentInstanceHandle[] {makeHandle("A", 0, 0), makeHandle("B", 0, 0), makeHandle("C", 0, 0)};
+        SupportFilterHandle[] callbacks = makeCallbacks(6);
+        AgentInstanceCallbackBatcher<FilterHandleCallback> batcher = new AgentInstanceCallbackBatcher<FilterHandleCallback>(false);
+        int numEvents = 100000;
+
+        // warm up, then measure a single-statement and a multi-statement match per event
+        runEvents(batcher, handles, callbacks, numEvents, 1);
+        runEvents(batcher, handles, callbacks, numEvents, 3);
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        int total = runEvents(batcher, handles, callbacks, numEvents, 1);
+        long afterSingle = allocationBean.getThreadAllocatedBytes(threadId);
+        total += runEvents(batcher, handles, callbacks, numEvents, 3);
+        long afterMulti = allocationBean.getThreadAllocatedBytes(threadId);
+        assertEquals(numEvents * 8, total);
+
+        // allow for the allocation of the counter calls themselves, far below one byte per event
+        log.info(".testAllocationFree single=" + (afterSingle - before) + " bytes multi=" + (afterMulti - afterSingle) + " bytes for " + numEvents + " events each");
+        assertTrue(afterSingle - before < 1000);
+        assertTrue(afterMulti - afterSingle < 1000);
+    }
+
+    public void testProcessMatchesAllocationFree()
+    {
+        com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+        if (allocationBean == null) {
+            return;
+        }
+
+        Configuration config = new Configuration();
+        config.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+        config.addEventType("SupportBean", SupportBean.class);
+        EPServiceProviderSPI epService = (EPServiceProviderSPI) EPServiceProviderManager.getProvider("TestAgentInstanceCallbackBatcher", config);
+        epService.initialize();
+        EPServicesContext services = epService.getServicesContext();
+        EPRuntimeImpl runtime = (EPRuntimeImpl) epService.getEPRuntime();
+
+        // self-joining agent instances with two filter callbacks each are handed their matches as one batch
+        EventType eventType = services.getEventAdapterService().getExistsTypeByName("SupportBean");
+        SupportFilterHandle[] callbacks = makeCallbacks(6);
+        for (int i = 0; i < 3; i++) {
+            EPStatementAgentInstanceHandle handle = makeHandle("S" + i, 0, 0);
+            handle.getStatementHandle().setCanSelfJoin(true);
+            for (int j = 0; j < 2; j++) {
+                services.getFilterService().add(new FilterValueSetImpl(eventType, new FilterValueSetParam[0]), new EPStatementHandleCallback(handle, callbacks[i * 2 + j]));
+            }
+        }
+
+        EventBean theEvent = services.getEventAdapterService().adapterForBean(new SupportBean("E1", 1));
+        int numEvents = 100000;
+        for (int i = 0; i < numEvents; i++) {
+            runtime.processWrappedEvent(theEvent);
+        }
+
+        // a round may run while the compiler replaces code, so the best of a few rounds is asserted
+        long threadId = Thread.currentThread().getId();
+        long allocated = Long.MAX_VALUE;
+        int numRounds = 0;
+        for (; numRounds < 5 && allocated >= 1000; numRounds++) {
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < numEvents; i++) {
+                runtime.processWrappedEvent(theEvent);
+            }
+            long after = allocationBean.getThreadAllocatedBytes(threadId);
+            allocated = Math.min(allocated, after - before);
+            log.info(".testProcessMatchesAllocationFree " + (after - before) + " bytes for " + numEvents + " events");
+        }
+        for (SupportFilterHandle callback : callbacks) {
+            assertEquals((numRounds + 1) * numEvents, callback.getCountInvoked());
+        }
+        assertTrue("Allocated=" + allocated, allocated < 1000);
+        epService.destroy();
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationBean()
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            log.info("Thread allocation counters not available, skipping");
+            return null;
+        }
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported() || !allocationBean.isThreadAllocatedMemoryEnabled()) {
+            log.info("Thread allocation counters not enabled, skipping");
+            return null;
+        }
+        return allocationBean;
+    }
+
+    private static int runEvents(AgentInstanceCallbackBatcher<FilterHandleCallback> batcher, EPStatementAgentInstanceHandle[] handles, SupportFilterHandle[] callbacks, int numEvents, int numStatements)
+    {
+        int count = 0;
+        for (int event = 0; event < numEvents; event++) {
+            for (int i = 0; i < numStatements; i++) {
+                batcher.add(handles[i], callbacks[i * 2]);
+                batcher.add(handles[i], callbacks[i * 2 + 1]);
+            }
+            batcher.order();
+            for (int i = 0; i < batcher.getBatchCount(); i++) {
+                AgentInstanceCallbackBatch<FilterHandleCallback> batch = batcher.getBatch(i);
+                for (int j = 0; j < batch.size(); j++) {
+                    if (batch.get(j) != null) {
+                        count++;
+                    }
+                }
+            }
+            batcher.clear();
+        }
+        return count;
+    }
+
+    private static <T> void assertBatch(AgentInstanceCallbackBatch<T> batch, EPStatementAgentInstanceHandle handle, T... callbacks)
+    {
+        assertEquals(handle, batch.getHandle());
+        assertEquals(callbacks.length, batch.size());
+        for (int i = 0; i < callbacks.length; i++) {
+            assertSame(callbacks[i], batch.get(i));
+        }
+    }
+
+    private static SupportFilterHandle[] makeCallbacks(int num)
+    {
+        SupportFilterHandle[] callbacks = new SupportFilterHandle[num];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbacks[i] = new SupportFilterHandle();
+        }
+        return callbacks;
+    }
+
+    private static EPStatementAgentInstanceHandle makeHandle(String statementId, int agentInstanceId, int priority)
+    {
+        EPStatementHandle stmtHandle = new EPStatementHandle(statementId, statementId, "text", "text", false, null, priority, false);
+        return new EPStatementAgentInstanceHandle(stmtHandle, new StatementAgentInstanceRWLockImpl(false), agentInstanceId, new StatementAgentInstanceFilterVersion());
+    }
+
+    private static final Log log = LogFactory.getLog(TestAgentInstanceCallbackBatcher.class);
+}
@@ -0,0 +1,204 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.thread;
+
+import com.espertech.esper.client.ConfigurationEngineDefaults;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestRingBufferBlockingQueue extends TestCase
+{
+    private static final Log log = LogFactory.getLog(TestRingBufferBlockingQueue.class);
+
+    public void testOfferPoll() throws Exception
+    {
+        RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(3, ConfigurationEngineDefaults.Threading.WaitStrategy.PARK);
+        assertEquals(4, queue.getCapacity());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertFalse(queue.offer(4, 10, TimeUnit.MILLISECONDS));
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(0, (int) queue.peek());
+
+        List<Integer> snapshot = new ArrayList<Integer>();
+        for (Integer value : queue)
+        {
+            snapshot.add(value);
+        }
+        assertEquals("[0, 1, 2, 3]", snapshot.toString());
+
+        assertEquals(0, (int) queue.poll());
+        assertTrue(queue.offer(4));
+        List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(4, queue.drainTo(drained));
+        assertEquals("[1, 2, 3, 4]", drained.toString());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        try
+        {
+            queue.offer(null);
+            fail();
+        }
+        catch (NullPointerException ex)
+        {
+            // expected
+        }
+    }
+
+    public void testMultiProducerConsumer() throws Exception
+    {
+        for (ConfigurationEngineDefaults.Threading.WaitStrategy strategy : ConfigurationEngineDefaults.Threading.WaitStrategy.values())
+        {
+            runMultiProducerConsumer(new RingBufferBlockingQueue<Long>(64, strategy), 3, 2, 20000);
+        }
+    }
+
+    public void testInterrupt() throws Exception
+    {
+        final RingBufferBlockingQueue<Long> queue = new RingBufferBlockingQueue<Long>(16, ConfigurationEngineDefaults.Threading.WaitStrategy.PARK);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        Thread consumer = new Thread() {
+            public void run() {
+                try {
+                    queue.take();
+                }
+                catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        };
+        consumer.start();
+        Thread.sleep(50);
+        consumer.interrupt();
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testThreadPoolExecutor() throws Exception
+    {
+        RingBufferBlockingQueue<Runnable> queue = new RingBufferBlockingQueue<Runnable>(1024, ConfigurationEngineDefaults.Threading.WaitStrategy.PARK);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 1, TimeUnit.SECONDS, queue);
+        pool.prestartAllCoreThreads();
+
+        final AtomicLong count = new AtomicLong();
+        for (int i = 0; i < 10000; i++)
+        {
+            queue.put(new Runnable() {
+                public void run() {
+                    count.incrementAndGet();
+                }
+            });
+        }
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(10000, count.get());
+    }
+
+    /**
+     * Compares the ring buffer to the blocking queues used by default, logging the time taken.
+     */
+    public void testPerfComparison() throws Exception
+    {
+        int numPerProducer = 100000;
+        long ringPark = runMultiProducerConsumer(new RingBufferBlockingQueue<Long>(1024, ConfigurationEngineDefaults.Threading.WaitStrategy.PARK), 2, 2, numPerProducer);
+        long ringYield = runMultiProducerConsumer(new RingBufferBlockingQueue<Long>(1024, ConfigurationEngineDefaults.Threading.WaitStrategy.YIELD), 2, 2, numPerProducer);
+        long array = runMultiProducerConsumer(new ArrayBlockingQueue<Long>(1024), 2, 2, numPerProducer);
+        long linked = runMultiProducerConsumer(new LinkedBlockingQueue<Long>(), 2, 2, numPerProducer);
+        log.info("Transferring " + 2 * numPerProducer + " elements took (msec): ring buffer park " + ringPark +
+                " ring buffer yield " + ringYield + " array blocking " + array + " linked blocking " + linked);
+    }
+
+    private static long runMultiProducerConsumer(final BlockingQueue<Long> queue, int numProducers, int numConsumers, final int numPerProducer) throws Exception
+    {
+        final long endMarker = -1;
+        ExecutorService threads = Executors.newFixedThreadPool(numProducers + numConsumers);
+        List<Future<long[]>> consumers = new ArrayList<Future<long[]>>();
+        long start = System.nanoTime();
+
+        for (int c = 0; c < numConsumers; c++)
+        {
+            consumers.add(threads.submit(new Callable<long[]>() {
+                public long[] call() throws Exception {
+                    long[] lastPerProducer = new long[] {-1, -1, -1, -1};
+                    long sum = 0;
+                    while (true) {
+                        long value = queue.take();
+                        if (value == endMarker) {
+                            return new long[] {sum};
+                        }
+                        int producer = (int) (value % 4);
+                        assertTrue(value > lastPerProducer[producer]);
+                        lastPerProducer[producer] = value;
+                        sum += value;
+                    }
+                }
+            }));
+        }
+
+        List<Future<Object>> producers = new ArrayList<Future<Object>>();
+        for (int p = 0; p < numProducers; p++)
+        {
+            final int producerNum = p;
+            producers.add(threads.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (long i = 0; i < numPerProducer; i++) {
+                        queue.put(i * 4 + producerNum);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Object> producer : producers)
+        {
+            producer.get(60, TimeUnit.SECONDS);
+        }
+        for (int c = 0; c < numConsumers; c++)
+        {
+            queue.put(endMarker);
+        }
+
+        long sum = 0;
+        for (Future<long[]> consumer : consumers)
+        {
+            sum += consumer.get(60, TimeUnit.SECONDS)[0];
+        }
+        long delta = (System.nanoTime() - start) / 1000000;
+        threads.shutdown();
+
+        long expected = 0;
+        for (int p = 0; p < numProducers; p++)
+        {
+            for (long i = 0; i < numPerProducer; i++)
+            {
+                expected += i * 4 + p;
+            }
+        }
+        assertEquals(expected, sum);
+        assertTrue(queue.isEmpty());
+        return delta;
+    }
+}
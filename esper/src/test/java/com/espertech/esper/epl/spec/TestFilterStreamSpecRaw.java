@@ -134,7 +134,7 @@ public class TestFilterStreamSpecRaw extends TestCase
     public void testNestedAnd() throws Exception
     {
         FilterStreamSpecRaw raw = makeSpec("select * from " + SupportBean.class.getName() +
-                "((doubleBoxed=1 and doublePrimitive=2) and (intPrimitive=3 and (theString like '%_a' and theString = 'a')))");
+                "((doubleBoxed=1 and doublePrimitive=2) and (intPrimitive=3 and (theString not like '%_a' and theString = 'a')))");
         FilterSpecCompiled spec = compile(raw);
         assertEquals(5, spec.getParameters().length);
         Map<String, FilterSpecParam> parameters = mapParameters(spec.getParameters());
@@ -155,6 +155,21 @@ public class TestFilterStreamSpecRaw extends TestCase
         assertTrue(parameters.get(FilterSpecCompiler.PROPERTY_NAME_BOOLEAN_EXPRESSION) instanceof FilterSpecParamExprNode);
     }
 
+    public void testLikeRegexp() throws Exception
+    {
+        FilterStreamSpecRaw raw = makeSpec("select * from " + SupportBean.class.getName() +
+                "(theString like '%a!_b%' escape '!', intPrimitive = 1 or theString like 'x%', theString regexp 'a.*b', theString not like 'y%')");
+        FilterSpecCompiled spec = compile(raw);
+        assertEquals(3, spec.getParameters().length);
+
+        assertEquals(FilterOperator.LIKE, spec.getParameters()[0].getFilterOperator());
+        assertEquals(new StringPattern("%a!_b%", '!', false), getConstant(spec.getParameters()[0]));
+        assertEquals("a_b", ((StringPattern) getConstant(spec.getParameters()[0])).getRequiredLiteral());
+        assertEquals(FilterOperator.REGEXP, spec.getParameters()[1].getFilterOperator());
+        assertEquals(new StringPattern("a.*b", null, true), getConstant(spec.getParameters()[1]));
+        assertEquals(FilterOperator.BOOLEAN_EXPRESSION, spec.getParameters()[2].getFilterOperator());
+    }
+
     public void testIn() throws Exception
     {
         FilterStreamSpecRaw raw = makeSpec("select * from " + SupportBean.class.getName() + "(doubleBoxed in (1, 2, 3))");
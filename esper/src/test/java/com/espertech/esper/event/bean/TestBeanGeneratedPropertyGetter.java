@@ -0,0 +1,277 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.bean;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventPropertyGetterPrimitive;
+import com.espertech.esper.event.EventTypeIdGeneratorImpl;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBeanCombinedProps;
+import com.espertech.esper.support.bean.SupportBeanComplexProps;
+import com.espertech.esper.support.event.SupportEventAdapterService;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import junit.framework.TestCase;
+import net.sf.cglib.reflect.FastClass;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TestBeanGeneratedPropertyGetter extends TestCase
+{
+    private BeanEventTypeFactory beanEventTypeFactory;
+
+    public void setUp()
+    {
+        beanEventTypeFactory = new BeanEventAdapter(new ConcurrentHashMap<Class, BeanEventType>(), SupportEventAdapterService.getService(), new EventTypeIdGeneratorImpl());
+    }
+
+    public void testSimple() throws Exception
+    {
+        SupportBean bean = new SupportBean("a", 10);
+        bean.setDoubleBoxed(null);
+        bean.setBoolPrimitive(true);
+        EventBean theEvent = SupportEventBeanFactory.createObject(bean);
+
+        assertEquals(10, makeGetter(SupportBean.class, "getIntPrimitive").get(theEvent));
+        assertEquals(true, makeGetter(SupportBean.class, "isBoolPrimitive").get(theEvent));
+        assertEquals("a", makeGetter(SupportBean.class, "getTheString").get(theEvent));
+        assertNull(makeGetter(SupportBean.class, "getDoubleBoxed").get(theEvent));
+
+        // primitive integral properties are also read without boxing
+        bean.setLongPrimitive(-5);
+        assertEquals(10L, ((EventPropertyGetterPrimitive) makeGetter(SupportBean.class, "getIntPrimitive")).getLong(theEvent));
+        assertEquals(-5L, ((EventPropertyGetterPrimitive) makeGetter(SupportBean.class, "getLongPrimitive")).getLong(theEvent));
+        assertFalse(makeGetter(SupportBean.class, "getTheString") instanceof EventPropertyGetterPrimitive);
+
+        BeanGeneratedPropertyGetter getter = makeGetter(SupportBean.class, "getTheString");
+        assertTrue(getter.isExistsProperty(theEvent));
+        assertNull(getter.getBeanProp(null));
+        try
+        {
+            getter.get(SupportEventBeanFactory.createObject(new Object()));
+            fail();
+        }
+        catch (PropertyAccessException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Mismatched getter instance to event bean type"));
+        }
+
+        // exceptions thrown by the read method are wrapped
+        getter = makeGetter(SupportBeanThrowing.class, "getValue");
+        try
+        {
+            getter.getBeanProp(new SupportBeanThrowing());
+            fail();
+        }
+        catch (PropertyAccessException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Failed to invoke method getValue"));
+            assertTrue(ex.getMessage().endsWith(": failed to get value"));
+        }
+    }
+
+    public void testLazySharedReader() throws Exception
+    {
+        SupportBean bean = new SupportBean("a", 10);
+        EventBean theEvent = SupportEventBeanFactory.createObject(bean);
+
+        // no class is generated until the getter is used
+        BeanGeneratedPropertyGetter getterOne = makeGetter(SupportBean.class, "getTheString");
+        BeanGeneratedPropertyGetter getterTwo = makeGetter(SupportBean.class, "getTheString");
+        assertNull(getterOne.getReaderIfResolved());
+        assertEquals("a", getterOne.get(theEvent));
+        assertNotNull(getterOne.getReaderIfResolved());
+        assertNull(getterTwo.getReaderIfResolved());
+
+        // getters for the same property share the reader
+        assertEquals("a", getterTwo.get(theEvent));
+        assertSame(getterOne.getReaderIfResolved(), getterTwo.getReaderIfResolved());
+
+        // getters for other properties share the class loader
+        BeanGeneratedPropertyGetter getterInt = makeGetter(SupportBean.class, "getIntPrimitive");
+        assertEquals(10L, ((EventPropertyGetterPrimitive) getterInt).getLong(theEvent));
+        assertNotSame(getterOne.getReaderIfResolved(), getterInt.getReaderIfResolved());
+        assertSame(getterOne.getReaderIfResolved().getClass().getClassLoader(), getterInt.getReaderIfResolved().getClass().getClassLoader());
+
+        // indexed getters for different indexes share the reader, a nested getter does not use the chain's readers
+        Method method = SupportBeanComplexProps.class.getMethod("getArrayProperty");
+        BeanGeneratedArrayPropertyGetter arrayOne = BeanGeneratedPropertyGetterFactory.makeArrayGetter(method, 0, SupportEventAdapterService.getService());
+        BeanGeneratedArrayPropertyGetter arrayTwo = BeanGeneratedPropertyGetterFactory.makeArrayGetter(method, 1, SupportEventAdapterService.getService());
+        EventBean complexEvent = SupportEventBeanFactory.createObject(SupportBeanComplexProps.makeDefaultBean());
+        arrayOne.get(complexEvent);
+        arrayTwo.get(complexEvent);
+        assertSame(arrayOne.getReaderIfResolved(), arrayTwo.getReaderIfResolved());
+
+        List<EventPropertyGetter> chain = new ArrayList<EventPropertyGetter>();
+        chain.add(makeGetter(SupportBeanComplexProps.class, "getNested"));
+        chain.add(makeGetter(SupportBeanComplexProps.SupportBeanSpecialGetterNested.class, "getNestedValue"));
+        BeanGeneratedPropertyGetter nested = BeanGeneratedPropertyGetterFactory.makeNestedGetter(chain, SupportEventAdapterService.getService(), String.class, null);
+        assertEquals(SupportBeanComplexProps.makeDefaultBean().getNested().getNestedValue(), nested.get(complexEvent));
+        assertNull(((BeanGeneratedPropertyGetter) chain.get(0)).getReaderIfResolved());
+        assertNull(((BeanGeneratedPropertyGetter) chain.get(1)).getReaderIfResolved());
+    }
+
+    public void testArray() throws Exception
+    {
+        SupportBeanComplexProps bean = SupportBeanComplexProps.makeDefaultBean();
+        EventBean theEvent = SupportEventBeanFactory.createObject(bean);
+        Method method = SupportBeanComplexProps.class.getMethod("getArrayProperty");
+
+        BeanGeneratedArrayPropertyGetter getter = BeanGeneratedPropertyGetterFactory.makeArrayGetter(method, 1, SupportEventAdapterService.getService());
+        assertEquals(bean.getArrayProperty()[1], getter.get(theEvent));
+        assertEquals(bean.getArrayProperty()[2], getter.get(theEvent, 2));
+        assertNull(getter.get(theEvent, 100));
+        assertNull(BeanGeneratedPropertyGetterFactory.makeArrayGetter(method, 100, SupportEventAdapterService.getService()).get(theEvent));
+        assertNull(BeanGeneratedPropertyGetterFactory.makeArrayGetter(SupportBean.class.getMethod("getTheString"), 0, SupportEventAdapterService.getService()));
+
+        bean.setArrayProperty(null);
+        assertNull(getter.get(theEvent));
+    }
+
+    public void testNested() throws Exception
+    {
+        SupportBeanCombinedProps bean = SupportBeanCombinedProps.makeDefaultBean();
+        EventBean theEvent = SupportEventBeanFactory.createObject(bean);
+        BeanEventType eventType = beanEventTypeFactory.createBeanType("a", SupportBeanCombinedProps.class, false, false, false);
+
+        // indexed, then nested
+        EventPropertyGetter getter = eventType.getGetter("array[0].nestLevOneVal");
+        assertTrue(getter instanceof BeanGeneratedPropertyGetter);
+        assertEquals(bean.getArray()[0].getNestLevOneVal(), getter.get(theEvent));
+        assertNull(eventType.getGetter("array[100].nestLevOneVal").get(theEvent));
+
+        BeanEventType complexType = beanEventTypeFactory.createBeanType("b", SupportBeanComplexProps.class, false, false, false);
+        SupportBeanComplexProps complexBean = SupportBeanComplexProps.makeDefaultBean();
+        EventBean complexEvent = SupportEventBeanFactory.createObject(complexBean);
+        getter = complexType.getGetter("nested.nestedNested.nestedNestedValue");
+        assertTrue(getter instanceof BeanGeneratedPropertyGetter);
+        assertEquals(complexBean.getNested().getNestedNested().getNestedNestedValue(), getter.get(complexEvent));
+
+        // null-safe nesting
+        complexBean.setNested(null);
+        assertNull(getter.get(complexEvent));
+    }
+
+    public void testUnsupported() throws Exception
+    {
+        // class not public
+        assertNull(BeanGeneratedPropertyGetterFactory.makeGetter(SupportBeanNotPublic.class.getMethod("getValue"), SupportEventAdapterService.getService()));
+
+        // falls back to CGLib or reflection
+        BeanEventType eventType = beanEventTypeFactory.createBeanType("a", SupportBeanNotPublic.class, false, false, false);
+        EventPropertyGetter getter = eventType.getGetter("value");
+        assertFalse(getter instanceof BeanGeneratedPropertyGetter);
+        assertEquals("v", getter.get(SupportEventBeanFactory.createObject(new SupportBeanNotPublic())));
+    }
+
+    public void testPerformance() throws Exception
+    {
+        SupportBeanComplexProps bean = SupportBeanComplexProps.makeDefaultBean();
+        EventBean theEvent = SupportEventBeanFactory.createObject(bean);
+        Method simpleMethod = SupportBeanComplexProps.class.getMethod("getSimpleProperty");
+        Method arrayMethod = SupportBeanComplexProps.class.getMethod("getArrayProperty");
+        Method nestedMethod = SupportBeanComplexProps.class.getMethod("getNested");
+        Method nestedValueMethod = SupportBeanComplexProps.SupportBeanSpecialGetterNested.class.getMethod("getNestedValue");
+        FastClass fastClass = FastClass.create(Thread.currentThread().getContextClassLoader(), SupportBeanComplexProps.class);
+        FastClass fastClassNested = FastClass.create(Thread.currentThread().getContextClassLoader(), SupportBeanComplexProps.SupportBeanSpecialGetterNested.class);
+
+        List<EventPropertyGetter> chainReflection = new ArrayList<EventPropertyGetter>();
+        chainReflection.add(new ReflectionPropMethodGetter(nestedMethod, SupportEventAdapterService.getService()));
+        chainReflection.add(new ReflectionPropMethodGetter(nestedValueMethod, SupportEventAdapterService.getService()));
+        List<EventPropertyGetter> chainCGLib = new ArrayList<EventPropertyGetter>();
+        chainCGLib.add(new CGLibPropertyGetter(nestedMethod, fastClass.getMethod(nestedMethod), SupportEventAdapterService.getService()));
+        chainCGLib.add(new CGLibPropertyGetter(nestedValueMethod, fastClassNested.getMethod(nestedValueMethod), SupportEventAdapterService.getService()));
+        List<EventPropertyGetter> chainGenerated = new ArrayList<EventPropertyGetter>();
+        chainGenerated.add(BeanGeneratedPropertyGetterFactory.makeGetter(nestedMethod, SupportEventAdapterService.getService()));
+        chainGenerated.add(BeanGeneratedPropertyGetterFactory.makeGetter(nestedValueMethod, SupportEventAdapterService.getService()));
+
+        // reflection, CGLib and generated getter for each kind of property
+        Object[][] getters = new Object[][] {
+            {"simple", new EventPropertyGetter[] {
+                new ReflectionPropMethodGetter(simpleMethod, SupportEventAdapterService.getService()),
+                new CGLibPropertyGetter(simpleMethod, fastClass.getMethod(simpleMethod), SupportEventAdapterService.getService()),
+                BeanGeneratedPropertyGetterFactory.makeGetter(simpleMethod, SupportEventAdapterService.getService())}},
+            {"nested", new EventPropertyGetter[] {
+                new NestedPropertyGetter(chainReflection, SupportEventAdapterService.getService(), String.class, null),
+                new NestedPropertyGetter(chainCGLib, SupportEventAdapterService.getService(), String.class, null),
+                BeanGeneratedPropertyGetterFactory.makeNestedGetter(chainGenerated, SupportEventAdapterService.getService(), String.class, null)}},
+            {"indexed", new EventPropertyGetter[] {
+                new ArrayMethodPropertyGetter(arrayMethod, 1, SupportEventAdapterService.getService()),
+                new ArrayFastPropertyGetter(fastClass.getMethod(arrayMethod), 1, SupportEventAdapterService.getService()),
+                BeanGeneratedPropertyGetterFactory.makeArrayGetter(arrayMethod, 1, SupportEventAdapterService.getService())}},
+        };
+        String[] names = new String[] {"reflection", "cglib", "generated"};
+
+        int numLoops = 1000000;     // Change to 1E8 for performance testing
+        for (Object[] row : getters)
+        {
+            EventPropertyGetter[] candidates = (EventPropertyGetter[]) row[1];
+            Object expected = candidates[0].get(theEvent);
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < candidates.length; i++)
+            {
+                assertEquals(expected, candidates[i].get(theEvent));
+                runGetter(candidates[i], theEvent, numLoops);    // warm up
+                long start = System.nanoTime();
+                int count = runGetter(candidates[i], theEvent, numLoops);
+                long delta = System.nanoTime() - start;
+                assertEquals(numLoops, count);
+                result.append(" ").append(names[i]).append("=").append(delta / 1000000).append("ms");
+            }
+            log.info(".testPerformance " + row[0] + " loops=" + numLoops + result);
+        }
+    }
+
+    private static int runGetter(EventPropertyGetter getter, EventBean theEvent, int numLoops)
+    {
+        int count = 0;
+        for (int i = 0; i < numLoops; i++)
+        {
+            if (getter.get(theEvent) != null)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static BeanGeneratedPropertyGetter makeGetter(Class clazz, String methodName) throws Exception
+    {
+        BeanGeneratedPropertyGetter getter = BeanGeneratedPropertyGetterFactory.makeGetter(clazz.getMethod(methodName), SupportEventAdapterService.getService());
+        assertNotNull(getter);
+        return getter;
+    }
+
+    public static class SupportBeanThrowing
+    {
+        public String getValue()
+        {
+            throw new IllegalStateException("failed to get value");
+        }
+    }
+
+    static class SupportBeanNotPublic
+    {
+        public String getValue()
+        {
+            return "v";
+        }
+    }
+
+    private static final Log log = LogFactory.getLog(TestBeanGeneratedPropertyGetter.class);
+}
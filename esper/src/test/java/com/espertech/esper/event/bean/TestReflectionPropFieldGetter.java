@@ -13,6 +13,7 @@ package com.espertech.esper.event.bean;
 
 import junit.framework.TestCase;
 import com.espertech.esper.support.bean.SupportLegacyBean;
+import com.espertech.esper.support.bean.SupportLegacyBeanInt;
 import com.espertech.esper.support.event.SupportEventBeanFactory;
 import com.espertech.esper.support.event.SupportEventAdapterService;
 import com.espertech.esper.client.EventBean;
@@ -52,6 +53,14 @@ public class TestReflectionPropFieldGetter extends TestCase
         }
     }
 
+    public void testGetLong() throws Exception
+    {
+        ReflectionPropFieldGetter getter = makeGetter(SupportLegacyBeanInt.class, "fieldIntPrimitive");
+        EventBean eventBean = SupportEventBeanFactory.createObject(new SupportLegacyBeanInt(-5));
+        assertEquals(-5L, getter.getLong(eventBean));
+        assertEquals(-5, getter.get(eventBean));
+    }
+
     private ReflectionPropFieldGetter makeGetter(Class clazz, String fieldName) throws Exception
     {
         Field field = clazz.getField(fieldName);
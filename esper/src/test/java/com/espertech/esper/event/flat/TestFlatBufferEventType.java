@@ -0,0 +1,222 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.flat;
+
+import com.espertech.esper.client.ConfigurationEventTypeFlatBuffer;
+import com.espertech.esper.client.ConfigurationException;
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventBeanWriter;
+import com.espertech.esper.event.EventPropertyGetterPrimitive;
+import com.espertech.esper.event.EventTypeMetadata;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class TestFlatBufferEventType extends TestCase
+{
+    private ConfigurationEventTypeFlatBuffer config;
+
+    public void setUp()
+    {
+        config = new ConfigurationEventTypeFlatBuffer();
+        config.addStringField("symbol", 6);
+        config.addField("price", double.class);
+        config.addField("volume", Long.class);
+        config.addField("side", char.class);
+        config.addField("flag", boolean.class);
+        config.addField("level", int.class);
+    }
+
+    public void testLayout()
+    {
+        FlatBufferEventType type = makeType(config);
+        assertEquals(6 + 8 + 8 + 2 + 1 + 4, type.getRecordSize());
+        assertEquals(ByteBuffer.class, type.getUnderlyingType());
+        assertEquals(long.class, type.getPropertyType("volume"));
+        assertEquals(String.class, type.getPropertyType("symbol"));
+        assertNull(type.getPropertyType("dummy"));
+        assertEquals(25, (int) type.getFieldOffsets().get("level"));
+        assertTrue(type.getGetter("level") instanceof EventPropertyGetterPrimitive);
+        assertFalse(type.getGetter("price") instanceof EventPropertyGetterPrimitive);
+        assertTrue(type.equalsCompareType(makeType(config)));
+
+        try
+        {
+            config.addField("price", int.class);
+            fail();
+        }
+        catch (ConfigurationException ex)
+        {
+            assertEquals("Field 'price' has already been added", ex.getMessage());
+        }
+        try
+        {
+            config.addField("other", Object.class);
+            fail();
+        }
+        catch (ConfigurationException ex)
+        {
+            assertEquals("Field 'other' of type 'java.lang.Object' is not a supported type, expected a primitive type", ex.getMessage());
+        }
+    }
+
+    public void testGetWrite()
+    {
+        FlatBufferEventType type = makeType(config);
+        ByteBuffer record = makeRecord(ByteBuffer.allocate(100), "IBM", 101.5, 5000L, 'B', true, -7);
+        record.flip();
+
+        FlatBufferEventBean theEvent = type.getAllocator().allocate(record);
+        assertEquals(type.getRecordSize(), record.position());
+        assertEquals("IBM", theEvent.get("symbol"));
+        assertEquals(101.5, theEvent.get("price"));
+        assertEquals(5000L, theEvent.get("volume"));
+        assertEquals('B', theEvent.get("side"));
+        assertEquals(true, theEvent.get("flag"));
+        assertEquals(-7, theEvent.get("level"));
+        assertEquals(5000L, ((EventPropertyGetterPrimitive) type.getGetter("volume")).getLong(theEvent));
+        assertEquals(-7L, ((EventPropertyGetterPrimitive) type.getGetter("level")).getLong(theEvent));
+
+        // underlying is the record only, read-only
+        ByteBuffer underlying = (ByteBuffer) theEvent.getUnderlying();
+        assertEquals(type.getRecordSize(), underlying.remaining());
+        assertTrue(underlying.isReadOnly());
+        assertEquals(-7, underlying.getInt(25));
+        record.rewind();
+        record.limit(type.getRecordSize());
+        assertEquals(record, underlying);
+
+        // copy is independent of the original
+        FlatBufferEventBean copy = (FlatBufferEventBean) type.getCopyMethod(new String[] {"price"}).copy(theEvent);
+        EventBeanWriter writer = type.getWriter(new String[] {"price", "symbol", "level"});
+        writer.write(new Object[] {99d, "MSFT", null}, copy);
+        assertEquals(99d, copy.get("price"));
+        assertEquals("MSFT", copy.get("symbol"));
+        assertEquals(0, copy.get("level"));
+        assertEquals(101.5, theEvent.get("price"));
+        assertEquals("IBM", theEvent.get("symbol"));
+        assertNull(type.getWriter(new String[] {"dummy"}));
+
+        try
+        {
+            type.getWriter("symbol").write("TOOLONG", copy);
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("String value of length 7 exceeds the field length of 6", ex.getMessage());
+        }
+
+        try
+        {
+            type.getGetter("price").get(SupportEventBeanFactory.createObject(new Object()));
+            fail();
+        }
+        catch (PropertyAccessException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Mismatched getter instance to event bean type"));
+        }
+
+        // serialized form is the record bytes
+        byte[] bytes = theEvent.toBytes();
+        FlatBufferEventBean restored = type.getAllocator().allocate(bytes, 0);
+        assertEquals(theEvent.getUnderlying(), restored.getUnderlying());
+    }
+
+    public void testDirectLittleEndian() throws Exception
+    {
+        config.setDirect(true);
+        config.setLittleEndian(true);
+        FlatBufferEventType type = makeType(config);
+        assertFalse(type.equalsCompareType(makeType(new ConfigurationEventTypeFlatBuffer().addField("level", int.class))));
+
+        ByteBuffer wire = ByteBuffer.allocate(type.getRecordSize() * 2).order(ByteOrder.LITTLE_ENDIAN);
+        makeRecord(wire, "A", 1d, 1L, 'S', false, 1);
+        makeRecord(wire, "B", 2d, 2L, 'S', false, 2);
+        wire.flip();
+
+        FlatBufferEventBean first = type.getAllocator().allocate(wire);
+        FlatBufferEventBean second = type.getAllocator().allocate(wire);
+        assertEquals(0, wire.remaining());
+        assertTrue(first.getBuffer().isDirect());
+        assertSame(first.getBuffer(), second.getBuffer());
+        assertEquals("A", first.get("symbol"));
+        assertEquals(2, second.get("level"));
+        assertEquals(ByteOrder.LITTLE_ENDIAN, ((ByteBuffer) second.getUnderlying()).order());
+
+        FlatBufferEventBean copy = type.getAllocator().copy(second);
+        assertEquals(2L, copy.get("volume"));
+
+        // chunks fill up and new chunks are allocated
+        FlatBufferEventBean last = null;
+        for (int i = 0; i < FlatBufferEventAllocator.DEFAULT_CHUNK_SIZE / type.getRecordSize() + 1; i++)
+        {
+            last = type.getAllocator().allocate();
+        }
+        assertNotSame(first.getBuffer(), last.getBuffer());
+        assertEquals(0, last.get("level"));
+        assertEquals("", last.get("symbol"));
+
+        // each thread allocates from its own chunk
+        final FlatBufferEventAllocator allocator = type.getAllocator();
+        final FlatBufferEventBean[] otherThreadEvents = new FlatBufferEventBean[2];
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                otherThreadEvents[0] = allocator.allocate();
+                otherThreadEvents[1] = allocator.allocate();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertNotSame(last.getBuffer(), otherThreadEvents[0].getBuffer());
+        assertSame(otherThreadEvents[0].getBuffer(), otherThreadEvents[1].getBuffer());
+        assertSame(last.getBuffer(), allocator.allocate().getBuffer());
+
+        // chunks sized by number of records
+        config.setRecordsPerChunk(1);
+        FlatBufferEventType typeSingle = makeType(config);
+        assertEquals(typeSingle.getRecordSize(), typeSingle.getAllocator().getChunkSize());
+        FlatBufferEventBean single = typeSingle.getAllocator().copy(second);
+        assertEquals(2L, single.get("volume"));
+        assertNotSame(single.getBuffer(), typeSingle.getAllocator().allocate().getBuffer());
+        try
+        {
+            config.setRecordsPerChunk(-1);
+            fail();
+        }
+        catch (ConfigurationException ex)
+        {
+            assertEquals("Invalid negative number of records per chunk", ex.getMessage());
+        }
+    }
+
+    private static ByteBuffer makeRecord(ByteBuffer buffer, String symbol, double price, long volume, char side, boolean flag, int level)
+    {
+        byte[] symbolBytes = new byte[6];
+        for (int i = 0; i < symbol.length(); i++)
+        {
+            symbolBytes[i] = (byte) symbol.charAt(i);
+        }
+        buffer.put(symbolBytes).putDouble(price).putLong(volume).putChar(side).put((byte) (flag ? 1 : 0)).putInt(level);
+        return buffer;
+    }
+
+    private static FlatBufferEventType makeType(ConfigurationEventTypeFlatBuffer config)
+    {
+        EventTypeMetadata metadata = EventTypeMetadata.createNonPojoApplicationType(EventTypeMetadata.ApplicationType.FLATBUFFER, "MyFlat", true, true, true, false, false);
+        return new FlatBufferEventType(metadata, 1, config);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.EPException;
+import junit.framework.TestCase;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestStAXXMLPathTree extends TestCase
+{
+    private static final String xml =
+            "<simpleEvent attr0=\"A0\">\n" +
+            "\t<nested1 attr1=\"SAMPLE_ATTR1\">\n" +
+            "\t\t<prop1>SAMPLE_V1</prop1>\n" +
+            "\t\t<nested2>\n" +
+            "\t\t\t<prop3>3</prop3>\n" +
+            "\t\t\t<prop3>4</prop3>\n" +
+            "\t\t</nested2>\n" +
+            "\t\t<attr1>ELEMENT</attr1>\n" +
+            "\t</nested1>\n" +
+            "\t<prop4>a<b>b</b><![CDATA[<c>]]></prop4>\n" +
+            "\t<nested1 attr1=\"SECOND\"/>\n" +
+            "</simpleEvent>";
+
+    public void testExtract() throws Exception
+    {
+        StAXXMLPathTree tree = makeTree("attr0", "nested1.attr1", "nested1.prop1", "nested1.nested2.prop3", "prop4", "nested1.missing", "missing");
+        assertEquals(7, tree.getNumValues());
+
+        String[] values = extract(tree, xml, "simpleEvent");
+        assertEquals("A0", values[0]);
+        assertEquals("SAMPLE_ATTR1", values[1]);     // attribute takes precedence
+        assertEquals("SAMPLE_V1", values[2]);
+        assertEquals("3", values[3]);                // first occurrence
+        assertEquals("ab<c>", values[4]);            // text of descendants
+        assertNull(values[5]);
+        assertNull(values[6]);
+
+        // no validation of the root element
+        values = extract(tree, "<other><prop4>x</prop4></other>", null);
+        assertEquals("x", values[4]);
+
+        try
+        {
+            extract(tree, xml, "other");
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("Unexpected root element name 'simpleEvent' encountered, expected a root element name of 'other'", ex.getMessage());
+        }
+    }
+
+    public void testNoPaths() throws Exception
+    {
+        StAXXMLPathTree tree = makeTree();
+        assertEquals(0, extract(tree, xml, "simpleEvent").length);
+    }
+
+    private static StAXXMLPathTree makeTree(String... properties)
+    {
+        List<String[]> paths = new ArrayList<String[]>();
+        for (String property : properties)
+        {
+            paths.add(property.split("\\."));
+        }
+        return new StAXXMLPathTree(paths);
+    }
+
+    private static String[] extract(StAXXMLPathTree tree, String xml, String rootElementName) throws Exception
+    {
+        return tree.extract(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml)), rootElementName);
+    }
+}
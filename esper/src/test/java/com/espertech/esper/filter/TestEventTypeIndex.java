@@ -108,4 +108,40 @@ public class TestEventTypeIndex extends TestCase
         assertEquals(1, matchesList.size());
         assertEquals(filterCallback, matchesList.get(0));
     }
+
+    public void testRootNodesCache()
+    {
+        testEventBean = SupportEventBeanFactory.createObject(new ISupportABCImpl("a", "b", "ab", "c"));
+        EventType superType = SupportEventTypeFactory.createBeanType(ISupportBaseAB.class);
+        testIndex = new EventTypeIndex();
+        assertEquals(0, testIndex.getRootNodes(testEventBean.getEventType()).length);
+
+        // adding a root node for the supertype invalidates the cached root nodes of the subtype
+        testIndex.add(superType, handleSetNode);
+        FilterHandleSetNode[] rootNodes = testIndex.getRootNodes(testEventBean.getEventType());
+        assertEquals(1, rootNodes.length);
+        assertSame(handleSetNode, rootNodes[0]);
+        assertSame(rootNodes, testIndex.getRootNodes(testEventBean.getEventType()));
+
+        // adding filters to an existing root node keeps the cached root nodes
+        FilterHandle otherCallback = new SupportFilterHandle();
+        handleSetNode.add(otherCallback);
+        assertSame(rootNodes, testIndex.getRootNodes(testEventBean.getEventType()));
+        List<FilterHandle> matchesList = new LinkedList<FilterHandle>();
+        testIndex.matchEvent(testEventBean, matchesList);
+        assertEquals(2, matchesList.size());
+
+        // the type itself sorts ahead of its supertypes
+        FilterHandleSetNode typeNode = new FilterHandleSetNode();
+        testIndex.add(testEventBean.getEventType(), typeNode);
+        rootNodes = testIndex.getRootNodes(testEventBean.getEventType());
+        assertEquals(2, rootNodes.length);
+        assertSame(typeNode, rootNodes[0]);
+        assertSame(handleSetNode, rootNodes[1]);
+
+        testIndex.removeType(superType);
+        rootNodes = testIndex.getRootNodes(testEventBean.getEventType());
+        assertEquals(1, rootNodes.length);
+        assertSame(typeNode, rootNodes[0]);
+    }
 }
\ No newline at end of file
@@ -11,15 +11,22 @@
 
 package com.espertech.esper.filter;
 
+import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.support.bean.SupportBean;
 import com.espertech.esper.support.bean.SupportBeanSimple;
 import com.espertech.esper.support.filter.SupportFilterHandle;
 import com.espertech.esper.support.filter.SupportFilterSpecBuilder;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
 import com.espertech.esper.support.event.SupportEventTypeFactory;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class TestEventTypeIndexBuilder extends TestCase
 {
     private EventTypeIndex eventTypeIndex;
@@ -74,4 +81,224 @@ public class TestEventTypeIndexBuilder extends TestCase
         indexBuilder.add(valueSetOne, callbackOne);
         indexBuilder.remove(callbackOne);
     }
+
+    public void testStatementIndexEvictAndRemoveType()
+    {
+        indexBuilder = new EventTypeIndexBuilder(eventTypeIndex, FilterIndexConcurrencyLocking.INSTANCE, FilterEvaluatorStatistics.Level.NONE, 2);
+        indexBuilder.add(valueSetOne, new SupportFilterHandle("s1"));
+        indexBuilder.add(valueSetOne, new SupportFilterHandle("s2"));
+        indexBuilder.add(valueSetTwo, new SupportFilterHandle("s2"));
+        indexBuilder.add(valueSetOne, new SupportFilterHandle("s3"));
+
+        // bounded, evicting the index least recently used
+        EventTypeIndex indexOne = indexBuilder.getStatementIndex("s1");
+        EventTypeIndex indexTwo = indexBuilder.getStatementIndex("s2");
+        assertSame(indexOne, indexBuilder.getStatementIndex("s1"));
+        assertNotNull(indexBuilder.getStatementIndex("s3"));
+        assertEquals(2, indexBuilder.getStatementIndexCount());
+        assertSame(indexOne, indexBuilder.getStatementIndex("s1"));
+        assertNotSame(indexTwo, indexBuilder.getStatementIndex("s2"));
+        assertEquals(2, indexBuilder.getStatementIndexCount());
+        assertNull(indexBuilder.getStatementIndex("s4"));
+
+        // removing a type removes it from the statement indexes as well
+        indexTwo = indexBuilder.getStatementIndex("s2");
+        assertNotNull(indexTwo.get(typeTwo));
+        indexBuilder.removeType(typeTwo);
+        assertNull(indexTwo.get(typeTwo));
+        assertNull(eventTypeIndex.get(typeTwo));
+        assertNotNull(indexTwo.get(typeOne));
+
+        // removing the only type of a statement drops its index
+        indexBuilder.removeType(typeOne);
+        assertEquals(0, indexBuilder.getStatementIndexCount());
+        assertNull(indexBuilder.getStatementIndex("s1"));
+    }
+
+    public void testReorder()
+    {
+        indexBuilder = new EventTypeIndexBuilder(eventTypeIndex, FilterIndexConcurrencyLocking.INSTANCE, FilterEvaluatorStatistics.Level.LOOKUPS);
+
+        // the equals-comparison on a low-cardinality property sorts ahead of the more selective range
+        List<FilterHandle> handles = new ArrayList<FilterHandle>();
+        for (int i = 0; i < 20; i++)
+        {
+            FilterValueSet valueSet = SupportFilterSpecBuilder.build(typeOne, new Object[] {
+                    "intPrimitive", FilterOperator.RANGE_CLOSED, i * 10, i * 10 + 4,
+                    "theString", FilterOperator.EQUAL, i % 2 == 0 ? "E" : "O"}).getValueSet(null, null, null);
+            FilterHandle handle = new SupportFilterHandle();
+            indexBuilder.add(valueSet, handle);
+            handles.add(handle);
+        }
+        assertEquals("theString", getRootIndexExpression());
+        assertEquals(0, indexBuilder.reorder());
+
+        for (int i = 0; i < 1000; i++)
+        {
+            assertMatches(i, i % 2 == 0 ? "E" : "O", handles);
+        }
+        assertEquals(1, indexBuilder.reorder());
+        assertEquals("intPrimitive", getRootIndexExpression());
+        assertEquals(0, indexBuilder.reorder());
+
+        // matching remains the same, and filters added and removed after the reorder follow the new order
+        for (int i = 0; i < 200; i++)
+        {
+            assertMatches(i, "E", handles);
+            assertMatches(i, "O", handles);
+        }
+        FilterHandle handle = new SupportFilterHandle();
+        indexBuilder.add(SupportFilterSpecBuilder.build(typeOne, new Object[] {
+                    "intPrimitive", FilterOperator.RANGE_CLOSED, 500, 510,
+                    "theString", FilterOperator.EQUAL, "E"}).getValueSet(null, null, null), handle);
+        assertEquals(1, eventTypeIndex.get(typeOne).getIndizes().size());
+        List<FilterHandle> matches = new ArrayList<FilterHandle>();
+        eventTypeIndex.matchEvent(makeEvent(505, "E"), matches);
+        assertEquals(1, matches.size());
+        assertSame(handle, matches.get(0));
+
+        indexBuilder.remove(handle);
+        for (FilterHandle existing : handles)
+        {
+            indexBuilder.remove(existing);
+        }
+        assertTrue(eventTypeIndex.get(typeOne).isEmpty());
+    }
+
+    public void testReorderConcurrentChange() throws Exception
+    {
+        indexBuilder = new EventTypeIndexBuilder(eventTypeIndex, FilterIndexConcurrencyLocking.INSTANCE, FilterEvaluatorStatistics.Level.LOOKUPS);
+        final List<FilterHandle> handles = new ArrayList<FilterHandle>();
+        for (int i = 0; i < 20; i++)
+        {
+            handles.add(addRangeFilter(i));
+        }
+        for (int i = 0; i < 1000; i++)
+        {
+            assertMatches(i, i % 2 == 0 ? "E" : "O", handles);
+        }
+
+        // filters added and removed while rebuilding carry over into the rebuilt tree
+        Thread changes = new Thread(new Runnable() {
+            public void run()
+            {
+                for (int i = 20; i < 200; i++)
+                {
+                    handles.add(addRangeFilter(i));
+                    if (i % 3 == 0)
+                    {
+                        indexBuilder.remove(handles.get(i - 20));
+                        handles.set(i - 20, null);
+                    }
+                }
+            }
+        });
+        changes.start();
+        assertEquals(1, indexBuilder.reorder());
+        changes.join();
+
+        assertEquals("intPrimitive", getRootIndexExpression());
+        for (int i = 0; i < 2000; i += 7)
+        {
+            assertMatches(i, "E", handles);
+            assertMatches(i, "O", handles);
+        }
+        for (FilterHandle handle : handles)
+        {
+            if (handle != null)
+            {
+                indexBuilder.remove(handle);
+            }
+        }
+        assertTrue(eventTypeIndex.get(typeOne).isEmpty());
+    }
+
+    public void testProfile()
+    {
+        assertTrue(indexBuilder.getProfile(false).isEmpty());
+        indexBuilder = new EventTypeIndexBuilder(eventTypeIndex, FilterIndexConcurrencyLocking.INSTANCE, FilterEvaluatorStatistics.Level.PROFILE);
+
+        String[] values = new String[] {"E", "E", "O"};
+        for (String value : values)
+        {
+            indexBuilder.add(SupportFilterSpecBuilder.build(typeOne, new Object[] {
+                    "theString", FilterOperator.EQUAL, value}).getValueSet(null, null, null), new SupportFilterHandle());
+        }
+        for (String value : new String[] {"E", "O", "X"})
+        {
+            eventTypeIndex.matchEvent(makeEvent(0, value), new ArrayList<FilterHandle>());
+        }
+
+        FilterEvaluatorProfile root = indexBuilder.getProfile(false).get(typeOne.getName());
+        assertEquals(3, root.getNumLookups());
+        assertEquals(3, root.getNumMatches());
+        assertEquals(3, root.getNumFanOut());
+        assertTrue(root.getNumNanos() > 0);
+        assertEquals(1, root.getChildren().size());
+
+        FilterEvaluatorProfile index = root.getChildren().get(0);
+        assertEquals("theString EQUAL", index.getDescription());
+        assertEquals(2, index.getSize());
+        assertEquals(3, index.getNumLookups());
+        assertEquals(3, index.getNumMatches());
+        assertEquals(2, index.getNumFanOut());
+        assertEquals(2, index.getChildren().size());
+
+        FilterEvaluatorProfile node = index.getChildren().get(0);
+        if (!"E".equals(node.getFilterConstant()))
+        {
+            node = index.getChildren().get(1);
+        }
+        assertEquals("E", node.getFilterConstant());
+        assertEquals(2, node.getSize());
+        assertEquals(1, node.getNumLookups());
+        assertEquals(2, node.getNumMatches());
+        assertEquals(0, node.getNumFanOut());
+        assertTrue(root.toString().contains("E -> node size=2 lookups=1 matches=2"));
+
+        // reset returns the counters as they were and then clears them
+        assertEquals(3, indexBuilder.getProfile(true).get(typeOne.getName()).getNumLookups());
+        root = indexBuilder.getProfile(false).get(typeOne.getName());
+        assertEquals(0, root.getNumLookups());
+        assertEquals(0, root.getNumMatches());
+        assertEquals(0, root.getChildren().get(0).getNumFanOut());
+    }
+
+    private void assertMatches(int intPrimitive, String theString, List<FilterHandle> handles)
+    {
+        Set<FilterHandle> expected = new HashSet<FilterHandle>();
+        for (int i = 0; i < handles.size(); i++)
+        {
+            if ((handles.get(i) != null) && (intPrimitive >= i * 10) && (intPrimitive <= i * 10 + 4) && (theString.equals(i % 2 == 0 ? "E" : "O")))
+            {
+                expected.add(handles.get(i));
+            }
+        }
+        List<FilterHandle> matches = new ArrayList<FilterHandle>();
+        eventTypeIndex.matchEvent(makeEvent(intPrimitive, theString), matches);
+        assertEquals(expected, new HashSet<FilterHandle>(matches));
+        assertEquals(expected.size(), matches.size());
+    }
+
+    private FilterHandle addRangeFilter(int i)
+    {
+        FilterHandle handle = new SupportFilterHandle();
+        indexBuilder.add(SupportFilterSpecBuilder.build(typeOne, new Object[] {
+                "intPrimitive", FilterOperator.RANGE_CLOSED, i * 10, i * 10 + 4,
+                "theString", FilterOperator.EQUAL, i % 2 == 0 ? "E" : "O"}).getValueSet(null, null, null), handle);
+        return handle;
+    }
+
+    private String getRootIndexExpression()
+    {
+        List<FilterParamIndexBase> indizes = eventTypeIndex.get(typeOne).getIndizes();
+        assertEquals(1, indizes.size());
+        return ((FilterParamIndexLookupableBase) indizes.get(0)).getLookupable().getExpression();
+    }
+
+    private EventBean makeEvent(int intPrimitive, String theString)
+    {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        return SupportEventBeanFactory.createObject(bean);
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.event.bean.ReflectionPropFieldGetter;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportLegacyBeanInt;
+import com.espertech.esper.support.event.SupportEventAdapterService;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import com.espertech.esper.support.filter.SupportEventEvaluator;
+import junit.framework.TestCase;
+
+import java.util.LinkedList;
+import java.util.List;
+
+public class TestFilterParamIndexEqualsIntegral extends TestCase
+{
+    private SupportEventEvaluator testEvaluator;
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp()
+    {
+        testEvaluator = new SupportEventEvaluator();
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new LinkedList<FilterHandle>();
+    }
+
+    public void testIntPrimitive()
+    {
+        FilterParamIndexEqualsIntegral index = new FilterParamIndexEqualsIntegral(makeLookupable("intPrimitive"));
+
+        index.put(1, testEvaluator);
+        index.put(-20, testEvaluator);
+
+        verifyIntPrimitive(index, 10, 0);
+        verifyIntPrimitive(index, 1, 1);
+        verifyIntPrimitive(index, -20, 1);
+
+        assertEquals(testEvaluator, index.get(1));
+        assertEquals(2, index.size());
+        assertTrue(index.getReadWriteLock() != null);
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(null, index.get(1));
+        verifyIntPrimitive(index, 1, 0);
+    }
+
+    public void testLongBoxed()
+    {
+        FilterParamIndexEqualsIntegral index = new FilterParamIndexEqualsIntegral(makeLookupable("longBoxed"));
+
+        index.put(Long.MAX_VALUE, testEvaluator);
+        index.put(5L, testEvaluator);
+
+        verifyLongBoxed(index, null, 0);
+        verifyLongBoxed(index, 4L, 0);
+        verifyLongBoxed(index, 5L, 1);
+        verifyLongBoxed(index, Long.MAX_VALUE, 1);
+    }
+
+    public void testConstantOtherType()
+    {
+        // a constant that is not of the property type does not equal the property value
+        FilterParamIndexEqualsIntegral index = new FilterParamIndexEqualsIntegral(makeLookupable("longBoxed"));
+        index.put(5, testEvaluator);
+        assertEquals(1, index.size());
+        assertEquals(testEvaluator, index.get(5));
+        assertNull(index.get(5L));
+
+        verifyLongBoxed(index, 5L, 0);
+        assertTrue(index.remove(5));
+        assertEquals(0, index.size());
+    }
+
+    public void testPrimitiveGetter() throws Exception
+    {
+        ReflectionPropFieldGetter getter = new ReflectionPropFieldGetter(SupportLegacyBeanInt.class.getField("fieldIntPrimitive"), SupportEventAdapterService.getService());
+        FilterParamIndexEqualsIntegral index = new FilterParamIndexEqualsIntegral(new FilterSpecLookupable("fieldIntPrimitive", getter, int.class));
+
+        index.put(7, testEvaluator);
+
+        index.matchEvent(SupportEventBeanFactory.createObject(new SupportLegacyBeanInt(7)), matchesList);
+        assertEquals(1, testEvaluator.getAndResetCountInvoked());
+        index.matchEvent(SupportEventBeanFactory.createObject(new SupportLegacyBeanInt(8)), matchesList);
+        assertEquals(0, testEvaluator.getAndResetCountInvoked());
+    }
+
+    public void testInvalidType()
+    {
+        try {
+            new FilterParamIndexEqualsIntegral(makeLookupable("theString"));
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private void verifyIntPrimitive(FilterParamIndexBase index, int testValue, int numExpected)
+    {
+        testBean.setIntPrimitive(testValue);
+        index.matchEvent(testEventBean, matchesList);
+        assertEquals(numExpected, testEvaluator.getAndResetCountInvoked());
+    }
+
+    private void verifyLongBoxed(FilterParamIndexBase index, Long testValue, int numExpected)
+    {
+        testBean.setLongBoxed(testValue);
+        index.matchEvent(testEventBean, matchesList);
+        assertEquals(numExpected, testEvaluator.getAndResetCountInvoked());
+    }
+
+    private FilterSpecLookupable makeLookupable(String fieldName) {
+        return new FilterSpecLookupable(fieldName, testEventType.getGetter(fieldName), testEventType.getPropertyType(fieldName));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import com.espertech.esper.support.filter.SupportEventEvaluator;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestFilterParamIndexRangePerf extends TestCase
+{
+    private SupportEventEvaluator testEvaluator;
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp()
+    {
+        testEvaluator = new SupportEventEvaluator();
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new ArrayList<FilterHandle>();
+    }
+
+    public void testRangePerf()
+    {
+        runAssertionRange(10000);
+        runAssertionRange(100000);
+    }
+
+    public void testNotRangePerf()
+    {
+        runAssertionNotRange(10000);
+        runAssertionNotRange(100000);
+    }
+
+    private void runAssertionRange(int numRanges)
+    {
+        // narrow overlapping ranges plus a single range spanning all, each value falls into 4 ranges
+        FilterParamIndexDoubleRange index = new FilterParamIndexDoubleRange(makeLookupable("doublePrimitive"), FilterOperator.RANGE_CLOSED);
+        for (int i = 0; i < numRanges - 1; i++) {
+            index.put(new DoubleRange(i * 10d, i * 10d + 25), testEvaluator);
+        }
+        index.put(new DoubleRange(0d, numRanges * 10d), testEvaluator);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 100000; i++) {
+            testBean.setDoublePrimitive((2 + i * 7919L % (numRanges - 4)) * 10d + 5);
+            index.matchEvent(testEventBean, matchesList);
+            assertEquals(4, testEvaluator.getAndResetCountInvoked());
+        }
+        long delta = System.currentTimeMillis() - start;
+        log.info(".runAssertionRange numRanges=" + numRanges + " delta=" + delta);
+        assertTrue("Delta=" + delta, delta < 2000);
+    }
+
+    private void runAssertionNotRange(int numRanges)
+    {
+        // nested ranges of which only the innermost do not contain the value
+        FilterParamIndexDoubleRangeInverted index = new FilterParamIndexDoubleRangeInverted(makeLookupable("doublePrimitive"), FilterOperator.NOT_RANGE_CLOSED);
+        for (int i = 0; i < numRanges; i++) {
+            index.put(new DoubleRange(-1d * i, 1d * i), testEvaluator);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 100000; i++) {
+            testBean.setDoublePrimitive(i % 2 == 0 ? 2.5 : -2.5);
+            index.matchEvent(testEventBean, matchesList);
+            assertEquals(3, testEvaluator.getAndResetCountInvoked());
+        }
+        long delta = System.currentTimeMillis() - start;
+        log.info(".runAssertionNotRange numRanges=" + numRanges + " delta=" + delta);
+        assertTrue("Delta=" + delta, delta < 2000);
+    }
+
+    private FilterSpecLookupable makeLookupable(String fieldName) {
+        return new FilterSpecLookupable(fieldName, testEventType.getGetter(fieldName), testEventType.getPropertyType(fieldName));
+    }
+
+    private static final Log log = LogFactory.getLog(TestFilterParamIndexRangePerf.class);
+}
@@ -0,0 +1,154 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import com.espertech.esper.support.filter.SupportEventEvaluator;
+import junit.framework.TestCase;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+public class TestFilterParamIndexStringPattern extends TestCase
+{
+    private SupportEventEvaluator testEvaluator;
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp()
+    {
+        testEvaluator = new SupportEventEvaluator();
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new LinkedList<FilterHandle>();
+    }
+
+    public void testLike()
+    {
+        FilterParamIndexStringPattern index = new FilterParamIndexStringPattern(makeLookupable("theString"), FilterOperator.LIKE);
+        assertEquals(FilterOperator.LIKE, index.getFilterOperator());
+
+        index.put(new StringPattern("%ABC%", '\\', false), testEvaluator);
+        index.put(new StringPattern("AB_", '\\', false), testEvaluator);
+        index.put(new StringPattern("%X\\%", '\\', false), testEvaluator);
+        index.put(new StringPattern("%", '\\', false), testEvaluator);
+        assertEquals(4, index.size());
+
+        verifyString(index, null, 0);
+        verifyString(index, "", 1);
+        verifyString(index, "xxABCxx", 2);
+        verifyString(index, "ABC", 3);
+        verifyString(index, "ABD", 2);
+        verifyString(index, "aX%", 2);
+        verifyString(index, "aX", 1);
+
+        assertTrue(index.remove(new StringPattern("%", '\\', false)));
+        assertFalse(index.remove(new StringPattern("%", '\\', false)));
+        verifyString(index, "ABC", 2);
+        verifyString(index, "", 0);
+
+        // the automaton is rebuilt on removal, and flags found by earlier events do not carry over
+        assertTrue(index.remove(new StringPattern("%ABC%", '\\', false)));
+        verifyString(index, "xxABCxx", 0);
+        verifyString(index, "ABD", 1);
+        verifyString(index, "aX%", 1);
+    }
+
+    public void testRegexp()
+    {
+        FilterParamIndexStringPattern index = new FilterParamIndexStringPattern(makeLookupable("theString"), FilterOperator.REGEXP);
+
+        index.put(new StringPattern(".*alert.*", null, true), testEvaluator);
+        index.put(new StringPattern("ale(r|x)t", null, true), testEvaluator);
+        index.put(new StringPattern("[0-9]+", null, true), testEvaluator);
+
+        verifyString(index, "an alert", 1);
+        verifyString(index, "alert", 2);
+        verifyString(index, "alext", 1);
+        verifyString(index, "123", 1);
+        verifyString(index, "123a", 0);
+    }
+
+    public void testRequiredLiteral()
+    {
+        assertEquals("ABC", new StringPattern("%ABC%", '\\', false).getRequiredLiteral());
+        assertEquals("longer", new StringPattern("a_longer%xy", '\\', false).getRequiredLiteral());
+        assertEquals("%X", new StringPattern("%\\%X_", '\\', false).getRequiredLiteral());
+        assertEquals("ab_c", new StringPattern("%ab!_c", '!', false).getRequiredLiteral());
+        assertNull(new StringPattern("%_%", '\\', false).getRequiredLiteral());
+
+        assertEquals("alert", new StringPattern(".*alert.*", null, true).getRequiredLiteral());
+        assertEquals("ab", new StringPattern("abc?d", null, true).getRequiredLiteral());
+        assertEquals("ab", new StringPattern("ab+c", null, true).getRequiredLiteral());
+        assertEquals("x.y", new StringPattern("(a|b)x\\.y[a-z]*", null, true).getRequiredLiteral());
+        assertEquals("abc", new StringPattern("\\d+abc\\s", null, true).getRequiredLiteral());
+        assertNull(new StringPattern("abc|def", null, true).getRequiredLiteral());
+        assertNull(new StringPattern("(?i)abc", null, true).getRequiredLiteral());
+        assertNull(new StringPattern("\\x41bc", null, true).getRequiredLiteral());
+        assertNull(new StringPattern("[]a]bc", null, true).getRequiredLiteral());
+        assertNull(new StringPattern("a{2}", null, true).getRequiredLiteral());
+    }
+
+    public void testAutomaton()
+    {
+        Random random = new Random(1);
+        String[] literals = new String[50];
+        for (int i = 0; i < literals.length; i++)
+        {
+            literals[i] = randomText(random, 1 + random.nextInt(4));
+        }
+        StringPatternAutomaton automaton = new StringPatternAutomaton(literals);
+        assertEquals(50, automaton.getNumLiterals());
+
+        for (int i = 0; i < 1000; i++)
+        {
+            String text = randomText(random, random.nextInt(20));
+            boolean[] found = new boolean[literals.length];
+            int numFound = automaton.find(text, found);
+            int numExpected = 0;
+            for (int j = 0; j < literals.length; j++)
+            {
+                assertEquals(text + " " + literals[j], text.contains(literals[j]), found[j]);
+                numExpected += found[j] ? 1 : 0;
+            }
+            assertEquals(numExpected, numFound);
+        }
+    }
+
+    private String randomText(Random random, int length)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++)
+        {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    private void verifyString(FilterParamIndexBase index, String testValue, int numExpected)
+    {
+        testBean.setTheString(testValue);
+        index.matchEvent(testEventBean, matchesList);
+        assertEquals(numExpected, testEvaluator.getAndResetCountInvoked());
+    }
+
+    private FilterSpecLookupable makeLookupable(String fieldName) {
+        return new FilterSpecLookupable(fieldName, testEventType.getGetter(fieldName), testEventType.getPropertyType(fieldName));
+    }
+}
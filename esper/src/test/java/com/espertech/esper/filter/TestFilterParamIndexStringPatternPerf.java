@@ -0,0 +1,122 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import com.espertech.esper.support.event.SupportEventTypeFactory;
+import com.espertech.esper.support.filter.SupportFilterHandle;
+import com.espertech.esper.support.filter.SupportFilterSpecBuilder;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestFilterParamIndexStringPatternPerf extends TestCase
+{
+    private EventType eventType;
+    private List<FilterHandle> matches;
+
+    public void setUp()
+    {
+        eventType = SupportEventTypeFactory.createBeanType(SupportBean.class);
+        matches = new ArrayList<FilterHandle>();
+    }
+
+    public void testRegisterPerf()
+    {
+        int numPatterns = 10000;
+        FilterServiceImpl service = new FilterServiceImpl();
+        List<FilterHandle> handles = new ArrayList<FilterHandle>();
+
+        // adding one pattern at a time does not rebuild the automaton for each pattern
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < numPatterns; i++) {
+            SupportFilterHandle handle = new SupportFilterHandle();
+            service.add(makeLike(i), handle);
+            handles.add(handle);
+        }
+        long delta = System.currentTimeMillis() - start;
+        log.info(".testRegisterPerf numPatterns=" + numPatterns + " add delta=" + delta);
+        assertTrue("Delta=" + delta, delta < 3000);
+        assertMatches(service, numPatterns - 1);
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < numPatterns - 1; i++) {
+            service.remove(handles.get(i));
+        }
+        delta = System.currentTimeMillis() - start;
+        log.info(".testRegisterPerf numPatterns=" + numPatterns + " remove delta=" + delta);
+        assertTrue("Delta=" + delta, delta < 3000);
+        assertMatches(service, numPatterns - 1);
+        assertNoMatches(service, numPatterns - 2);
+    }
+
+    public void testRegisterBatchPerf()
+    {
+        int numPatterns = 10000;
+        FilterServiceImpl service = new FilterServiceImpl();
+        List<FilterSetEntry> entries = new ArrayList<FilterSetEntry>();
+        List<FilterHandle> handles = new ArrayList<FilterHandle>();
+        for (int i = 0; i < numPatterns; i++) {
+            SupportFilterHandle handle = new SupportFilterHandle();
+            entries.add(new FilterSetEntry(handle, makeLike(i)));
+            handles.add(handle);
+        }
+
+        long start = System.currentTimeMillis();
+        service.addAll(entries);
+        long delta = System.currentTimeMillis() - start;
+        log.info(".testRegisterBatchPerf numPatterns=" + numPatterns + " addAll delta=" + delta);
+        assertTrue("Delta=" + delta, delta < 3000);
+        assertMatches(service, 0);
+        assertMatches(service, numPatterns - 1);
+
+        start = System.currentTimeMillis();
+        service.removeAll(handles.subList(1, numPatterns));
+        delta = System.currentTimeMillis() - start;
+        log.info(".testRegisterBatchPerf numPatterns=" + numPatterns + " removeAll delta=" + delta);
+        assertTrue("Delta=" + delta, delta < 3000);
+        assertMatches(service, 0);
+        assertNoMatches(service, numPatterns - 1);
+    }
+
+    private void assertMatches(FilterService service, int keyword)
+    {
+        service.evaluate(makeEvent(keyword), matches);
+        assertEquals(1, matches.size());
+        matches.clear();
+    }
+
+    private void assertNoMatches(FilterService service, int keyword)
+    {
+        service.evaluate(makeEvent(keyword), matches);
+        assertEquals(0, matches.size());
+    }
+
+    private FilterValueSet makeLike(int keyword)
+    {
+        StringPattern pattern = new StringPattern("%kw" + keyword + "x%", '\\', false);
+        return SupportFilterSpecBuilder.build(eventType, new Object[] {"theString", FilterOperator.LIKE, pattern}).getValueSet(null, null, null);
+    }
+
+    private EventBean makeEvent(int keyword)
+    {
+        return SupportEventBeanFactory.createObject(new SupportBean("some text kw" + keyword + "x some more text", 0));
+    }
+
+    private static final Log log = LogFactory.getLog(TestFilterParamIndexStringPatternPerf.class);
+}
@@ -23,10 +23,7 @@ import junit.framework.TestCase;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Vector;
+import java.util.*;
 
 public class TestFilterServiceImpl extends TestCase
 {
@@ -144,11 +141,216 @@ public class TestFilterServiceImpl extends TestCase
         }
     }
 
+    public void testEvalEventsStatementScoped()
+    {
+        FilterServiceImpl service = new FilterServiceImpl();
+        SupportFilterHandle stmtOneA = new SupportFilterHandle("s1");
+        SupportFilterHandle stmtOneB = new SupportFilterHandle("s1");
+        SupportFilterHandle stmtTwo = new SupportFilterHandle("s2");
+        service.add(filterSpecs.get(0), stmtOneA);
+        service.add(filterSpecs.get(1), stmtOneB);
+        service.add(filterSpecs.get(0), stmtTwo);
+
+        EventBean matchesBoth = events.get(0);
+        EventBean matchesNoParams = events.get(4);
+        assertMatches(service, matchesBoth, "s1", stmtOneA, stmtOneB);
+        assertMatches(service, matchesNoParams, "s1", stmtOneA);
+        assertMatches(service, matchesBoth, "s2", stmtTwo);
+        assertMatches(service, matchesBoth, "s3");
+        assertMatches(service, events.get(1), "s1");
+
+        // changes after the statement's index exists
+        service.remove(stmtOneA);
+        assertMatches(service, matchesBoth, "s1", stmtOneB);
+        SupportFilterHandle stmtOneC = new SupportFilterHandle("s1");
+        service.add(filterSpecs.get(3), stmtOneC);
+        assertMatches(service, events.get(3), "s1", stmtOneC);
+
+        // take and apply
+        FilterSet taken = service.take(Collections.singleton("s1"));
+        assertMatches(service, matchesBoth, "s1");
+        assertMatches(service, matchesBoth, "s2", stmtTwo);
+        service.apply(taken);
+        assertMatches(service, matchesBoth, "s1", stmtOneB);
+
+        service.remove(stmtOneB);
+        service.remove(stmtOneC);
+        assertMatches(service, matchesBoth, "s1");
+    }
+
     /**
      * Test for removing a callback that is waiting to occur,
      * ie. a callback is removed which was a result of an evaluation and it
      * thus needs to be removed from the tree AND the current dispatch list.
      */
+    public void testAddAllRemoveAll()
+    {
+        FilterServiceImpl service = new FilterServiceImpl();
+        SupportFilterHandle handleA = new SupportFilterHandle("s1");
+        SupportFilterHandle handleB = new SupportFilterHandle("s1");
+        SupportFilterHandle handleC = new SupportFilterHandle("s2");
+        List<FilterSetEntry> entries = new ArrayList<FilterSetEntry>();
+        entries.add(new FilterSetEntry(handleA, filterSpecs.get(0)));
+        entries.add(new FilterSetEntry(handleB, filterSpecs.get(1)));
+        entries.add(new FilterSetEntry(handleC, filterSpecs.get(2)));
+
+        long version = service.getFiltersVersion();
+        service.addAll(entries);
+        assertEquals(version + 1, service.getFiltersVersion());
+        assertMatches(service, events.get(0), "s1", handleA, handleB);
+        assertMatches(service, events.get(1), "s2", handleC);
+
+        // duplicate in the batch or already registered adds nothing
+        SupportFilterHandle handleD = new SupportFilterHandle("s1");
+        try {
+            service.addAll(Arrays.asList(new FilterSetEntry(handleD, filterSpecs.get(0)), new FilterSetEntry(handleD, filterSpecs.get(1))));
+            fail();
+        }
+        catch (IllegalStateException ex) {
+            // expected
+        }
+        try {
+            service.addAll(Arrays.asList(new FilterSetEntry(handleD, filterSpecs.get(0)), new FilterSetEntry(handleA, filterSpecs.get(0))));
+            fail();
+        }
+        catch (IllegalStateException ex) {
+            // expected
+        }
+        assertMatches(service, events.get(0), "s1", handleA, handleB);
+
+        version = service.getFiltersVersion();
+        service.removeAll(Arrays.<FilterHandle>asList(handleA, handleD, handleC));
+        assertEquals(version + 1, service.getFiltersVersion());
+        assertMatches(service, events.get(0), "s1", handleB);
+        List<FilterHandle> matches = new ArrayList<FilterHandle>();
+        service.evaluate(events.get(0), matches);
+        assertEquals(Arrays.<FilterHandle>asList(handleB), matches);
+
+        service.removeAll(Collections.<FilterHandle>singletonList(handleB));
+        assertMatches(service, events.get(0), "s1");
+        assertMatches(service, events.get(1), "s2");
+    }
+
+    public void testBatch()
+    {
+        FilterServiceImpl service = new FilterServiceImpl();
+        SupportFilterHandle handleA = new SupportFilterHandle("s1");
+        SupportFilterHandle handleB = new SupportFilterHandle("s1");
+        SupportFilterHandle handleC = new SupportFilterHandle("s2");
+        service.add(filterSpecs.get(0), handleA);
+
+        // changes within a batch apply when the batch ends, as one removal and one addition
+        long version = service.getFiltersVersion();
+        service.beginBatch();
+        service.add(filterSpecs.get(1), handleB);
+        service.add(filterSpecs.get(2), handleC);
+        service.remove(handleC);
+        service.remove(handleA);
+        service.beginBatch();
+        service.addAll(Collections.singletonList(new FilterSetEntry(handleC, filterSpecs.get(1))));
+        assertEquals(version, service.getFiltersVersion());
+        assertMatches(service, events.get(0), "s1", handleA);
+        service.endBatch();
+        assertEquals(version + 2, service.getFiltersVersion());
+        assertMatches(service, events.get(0), "s1", handleB);
+        assertMatches(service, events.get(0), "s2", handleC);
+
+        service.endBatch();
+        assertEquals(version + 2, service.getFiltersVersion());
+        try {
+            service.endBatch();
+            fail();
+        }
+        catch (IllegalStateException ex) {
+            // expected
+        }
+
+        // outside a batch changes apply immediately
+        service.remove(handleB);
+        assertMatches(service, events.get(0), "s1");
+    }
+
+    public void testReorderInBackground() throws Exception
+    {
+        FilterServiceImpl service = new FilterServiceImpl(FilterIndexConcurrencyLocking.INSTANCE, 100, false);
+        List<SupportFilterHandle> handles = new ArrayList<SupportFilterHandle>();
+        for (int i = 0; i < 20; i++)
+        {
+            SupportFilterHandle handle = new SupportFilterHandle();
+            service.add(SupportFilterSpecBuilder.build(eventTypeOne, new Object[] {
+                    "intPrimitive", FilterOperator.RANGE_CLOSED, i * 10, i * 10 + 4,
+                    "theString", FilterOperator.EQUAL, i % 2 == 0 ? "E" : "O"}).getValueSet(null, null, null), handle);
+            handles.add(handle);
+        }
+
+        // the evaluating thread reaching the threshold schedules the reorder and does not wait for it
+        for (int i = 0; i < 100; i++)
+        {
+            service.evaluate(makeTypeOneEvent(i, i % 2 == 0 ? "E" : "O", false, 0), new ArrayList<FilterHandle>());
+        }
+        long start = System.currentTimeMillis();
+        while (service.isReorderPending() && (System.currentTimeMillis() - start < 5000))
+        {
+            Thread.sleep(10);
+        }
+        assertFalse(service.isReorderPending());
+        assertEquals(0, service.reorderFilterIndexes());
+
+        List<FilterHandle> matches = new ArrayList<FilterHandle>();
+        service.evaluate(makeTypeOneEvent(42, "E", false, 0), matches);
+        assertEquals(Collections.<FilterHandle>singletonList(handles.get(4)), matches);
+        for (SupportFilterHandle handle : handles)
+        {
+            service.remove(handle);
+        }
+        assertEquals(0, service.getFilterCountApprox());
+        service.destroy();
+    }
+
+    public void testProfileStatements() throws Exception
+    {
+        final FilterServiceImpl service = new FilterServiceImpl(FilterIndexConcurrencyLocking.INSTANCE, 0, true);
+        service.add(filterSpecs.get(0), new SupportFilterHandle("s1"));
+        service.add(filterSpecs.get(1), new SupportFilterHandle("s1"));
+        service.add(filterSpecs.get(1), new SupportFilterHandle("s2"));
+
+        // counters are exact when several threads evaluate events
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++)
+        {
+            threads[i] = new Thread(new Runnable() {
+                public void run()
+                {
+                    for (int j = 0; j < 1000; j++)
+                    {
+                        service.evaluate(events.get(0), new ArrayList<FilterHandle>());
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        Map<String, FilterStatementProfile> statements = service.getFilterStatementProfile();
+        assertEquals(2, statements.size());
+        assertEquals(8000, statements.get("s1").getNumMatches());
+        assertEquals(4000, statements.get("s2").getNumMatches());
+
+        // time is taken at the root node only
+        FilterEvaluatorProfile root = service.getFilterIndexProfile().get(eventTypeOne.getName());
+        assertEquals(4000, root.getNumLookups());
+        assertEquals(12000, root.getNumMatches());
+        assertTrue(root.getNumNanos() > 0);
+        assertEquals(0, root.getChildren().get(0).getNumNanos());
+
+        service.resetFilterIndexProfile();
+        assertTrue(service.getFilterStatementProfile().isEmpty());
+        assertEquals(0, service.getFilterIndexProfile().get(eventTypeOne.getName()).getNumLookups());
+    }
+
     public void testActiveCallbackRemove()
     {
         FilterValueSet spec = SupportFilterSpecBuilder.build(eventTypeOne, new Object[0]).getValueSet(null, null, null);
@@ -192,6 +394,14 @@ public class TestFilterServiceImpl extends TestCase
         assertEquals(1, callbackTwo.getAndResetCountInvoked());
     }
 
+    private void assertMatches(FilterServiceImpl service, EventBean theEvent, String statementId, FilterHandle... expected)
+    {
+        List<FilterHandle> matches = new ArrayList<FilterHandle>();
+        service.evaluate(theEvent, matches, statementId);
+        assertEquals(new HashSet<FilterHandle>(Arrays.asList(expected)), new HashSet<FilterHandle>(matches));
+        assertEquals(expected.length, matches.size());
+    }
+
     private EventBean makeTypeOneEvent(int intPrimitive, String theString, boolean boolPrimitive, double doubleBoxed)
     {
         SupportBean bean = new SupportBean();
@@ -11,14 +11,19 @@
 
 package com.espertech.esper.filter;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
+import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.scopetest.EPAssertionUtil;
 import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
 import com.espertech.esper.support.event.SupportEventTypeFactory;
 import com.espertech.esper.support.filter.SupportFilterHandle;
 import com.espertech.esper.support.filter.SupportFilterSpecBuilder;
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -61,6 +66,71 @@ public class TestFilterServiceMT extends TestCase
         EPAssertionUtil.assertAllBooleanTrue(result);
     }
 
+    public void testAddRemoveFilterReadMostly() throws Exception
+    {
+        service = FilterServiceProvider.newService(ConfigurationEngineDefaults.FilterServiceProfile.READMOSTLY);
+        EventType eventType = SupportEventTypeFactory.createBeanType(SupportBean.class);
+
+        // the stable filter must match each event regardless of concurrent filter changes
+        final SupportFilterHandle stableHandle = new SupportFilterHandle();
+        service.add(SupportFilterSpecBuilder.build(eventType, new Object[] {"theString", FilterOperator.EQUAL, "E1"}).getValueSet(null, null, null), stableHandle);
+        final EventBean theEvent = SupportEventBeanFactory.createObject(new SupportBean("E1", 10));
+
+        final FilterValueSet[] changingValues = new FilterValueSet[] {
+            SupportFilterSpecBuilder.build(eventType, new Object[] {"theString", FilterOperator.EQUAL, "E1"}).getValueSet(null, null, null),
+            SupportFilterSpecBuilder.build(eventType, new Object[] {"theString", FilterOperator.EQUAL, "E1", "intPrimitive", FilterOperator.GREATER, 5}).getValueSet(null, null, null),
+            SupportFilterSpecBuilder.build(eventType, new Object[] {"intPrimitive", FilterOperator.RANGE_CLOSED, 0, 20}).getValueSet(null, null, null),
+            SupportFilterSpecBuilder.build(eventType, new Object[] {"theString", FilterOperator.NOT_EQUAL, "E2"}).getValueSet(null, null, null),
+        };
+
+        Callable callables[] = new Callable[6];
+        for (int i = 0; i < 4; i++)
+        {
+            final FilterValueSet filterValues = changingValues[i];
+            callables[i] = new Callable()
+            {
+                public Object call() throws Exception
+                {
+                    SupportFilterHandle handle = new SupportFilterHandle();
+                    for (int i = 0; i < 2000; i++)
+                    {
+                        service.add(filterValues, handle);
+                        service.remove(handle);
+                    }
+                    return true;
+                }
+            };
+        }
+        for (int i = 4; i < callables.length; i++)
+        {
+            callables[i] = new Callable()
+            {
+                public Object call() throws Exception
+                {
+                    List<FilterHandle> matches = new ArrayList<FilterHandle>();
+                    for (int i = 0; i < 20000; i++)
+                    {
+                        matches.clear();
+                        service.evaluate(theEvent, matches);
+                        if (!matches.contains(stableHandle))
+                        {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            };
+        }
+
+        Object[] result = tryMT(callables);
+        EPAssertionUtil.assertAllBooleanTrue(result);
+
+        List<FilterHandle> matches = new ArrayList<FilterHandle>();
+        service.evaluate(theEvent, matches);
+        assertEquals(1, matches.size());
+        assertEquals(1, ((FilterServiceSPI) service).getFilterCountApprox());
+    }
+
     private Object[] tryMT(Callable[] callables) throws Exception
     {
         ExecutorService threadPool = Executors.newFixedThreadPool(callables.length);
@@ -78,7 +78,7 @@ public class TestFilterSpecParamComparator extends TestCase
 
         assertEquals(FilterOperator.EQUAL, sorted.first());
         assertEquals(FilterOperator.BOOLEAN_EXPRESSION, sorted.last());
-        assertEquals("[EQUAL, IS, IN_LIST_OF_VALUES, RANGE_OPEN, RANGE_HALF_OPEN, RANGE_HALF_CLOSED, RANGE_CLOSED, LESS, LESS_OR_EQUAL, GREATER_OR_EQUAL, GREATER, NOT_RANGE_CLOSED, NOT_RANGE_HALF_CLOSED, NOT_RANGE_HALF_OPEN, NOT_RANGE_OPEN, NOT_IN_LIST_OF_VALUES, NOT_EQUAL, IS_NOT, BOOLEAN_EXPRESSION]", sorted.toString());
+        assertEquals("[EQUAL, IS, IN_LIST_OF_VALUES, RANGE_OPEN, RANGE_HALF_OPEN, RANGE_HALF_CLOSED, RANGE_CLOSED, LESS, LESS_OR_EQUAL, GREATER_OR_EQUAL, GREATER, NOT_RANGE_CLOSED, NOT_RANGE_HALF_CLOSED, NOT_RANGE_HALF_OPEN, NOT_RANGE_OPEN, NOT_IN_LIST_OF_VALUES, NOT_EQUAL, IS_NOT, LIKE, REGEXP, BOOLEAN_EXPRESSION]", sorted.toString());
 
         log.debug(".testCompareAll " + Arrays.toString(sorted.toArray()));
     }
@@ -43,6 +43,11 @@ public class TestIndexFactory extends TestCase
         assertTrue(getPropName(index).equals("string"));
         assertTrue(index.getFilterOperator() == FilterOperator.EQUAL);
 
+        // Create an "equals" index for an int property
+        index = IndexFactory.createIndex(makeLookupable("intPrimitive"), FilterOperator.EQUAL);
+        assertTrue(index instanceof FilterParamIndexEqualsIntegral);
+        assertTrue(index.getFilterOperator() == FilterOperator.EQUAL);
+
         // Create an "not equals" index
         index = IndexFactory.createIndex(makeLookupable("string"), FilterOperator.NOT_EQUAL);
 
@@ -63,6 +68,13 @@ public class TestIndexFactory extends TestCase
         index = IndexFactory.createIndex(makeLookupable("doubleBoxed"), FilterOperator.NOT_IN_LIST_OF_VALUES);
         assertTrue(index instanceof FilterParamIndexNotIn);
 
+        // Create a pattern-index
+        index = IndexFactory.createIndex(makeLookupable("theString"), FilterOperator.LIKE);
+        assertTrue(index instanceof FilterParamIndexStringPattern);
+        assertEquals(FilterOperator.LIKE, index.getFilterOperator());
+        index = IndexFactory.createIndex(makeLookupable("theString"), FilterOperator.REGEXP);
+        assertTrue(index instanceof FilterParamIndexStringPattern);
+
         // Create a boolean-expression-index
         index = IndexFactory.createIndex(makeLookupable("boolean"), FilterOperator.BOOLEAN_EXPRESSION);
         assertTrue(index instanceof FilterParamIndexBooleanExpr);
@@ -0,0 +1,121 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+
+package com.espertech.esper.filter;
+
+import com.espertech.esper.client.EventBean;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestRangeIntervalTree extends TestCase
+{
+    private static final Comparator<Integer> COMPARATOR = new Comparator<Integer>() {
+        public int compare(Integer o1, Integer o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    private List<Object> visited;
+
+    public void setUp()
+    {
+        visited = new ArrayList<Object>();
+    }
+
+    public void testPutGetRemove()
+    {
+        RangeIntervalTree<Integer> tree = new RangeIntervalTree<Integer>(COMPARATOR);
+        EventEvaluator one = new RangeEvaluator(1, 5);
+        EventEvaluator two = new RangeEvaluator(1, 5);
+        assertNull(tree.get(1, 5));
+
+        tree.put(1, 5, one);
+        tree.put(1, 6, one);
+        assertEquals(2, tree.size());
+        assertSame(one, tree.get(1, 5));
+
+        tree.put(1, 5, two);
+        assertEquals(2, tree.size());
+        assertSame(two, tree.get(1, 5));
+
+        assertTrue(tree.remove(1, 5));
+        assertFalse(tree.remove(1, 5));
+        assertNull(tree.get(1, 5));
+        assertEquals(1, tree.size());
+    }
+
+    public void testMatchRandom()
+    {
+        Random random = new Random(1);
+        RangeIntervalTree<Integer> tree = new RangeIntervalTree<Integer>(COMPARATOR);
+        TreeMap<int[], RangeEvaluator> expected = new TreeMap<int[], RangeEvaluator>(new Comparator<int[]>() {
+            public int compare(int[] o1, int[] o2) {
+                return o1[0] != o2[0] ? (o1[0] < o2[0] ? -1 : 1) : (o1[1] < o2[1] ? -1 : (o1[1] == o2[1] ? 0 : 1));
+            }
+        });
+
+        for (int i = 0; i < 2000; i++) {
+            int low = random.nextInt(50);
+            int high = low + random.nextInt(20);
+            if (random.nextInt(4) == 0) {
+                tree.remove(low, high);
+                expected.remove(new int[] {low, high});
+            }
+            else {
+                RangeEvaluator evaluator = new RangeEvaluator(low, high);
+                tree.put(low, high, evaluator);
+                expected.put(new int[] {low, high}, evaluator);
+            }
+            assertEquals(expected.size(), tree.size());
+
+            if (i % 50 == 0) {
+                for (int value = -1; value < 72; value++) {
+                    for (boolean lowInclusive : new boolean[] {false, true}) {
+                        for (boolean highInclusive : new boolean[] {false, true}) {
+                            List<Object> contained = new ArrayList<Object>();
+                            List<Object> notContained = new ArrayList<Object>();
+                            for (RangeEvaluator evaluator : expected.values()) {
+                                boolean lowOk = lowInclusive ? evaluator.low <= value : evaluator.low < value;
+                                boolean highOk = highInclusive ? evaluator.high >= value : evaluator.high > value;
+                                (lowOk && highOk ? contained : notContained).add(evaluator);
+                            }
+
+                            tree.matchContaining(value, lowInclusive, highInclusive, null, null);
+                            assertEquals(contained, visited);
+                            visited.clear();
+
+                            tree.matchNotContaining(value, lowInclusive, highInclusive, null, null);
+                            assertEquals(notContained, visited);
+                            visited.clear();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private class RangeEvaluator implements EventEvaluator
+    {
+        private final int low;
+        private final int high;
+
+        private RangeEvaluator(int low, int high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches) {
+            visited.add(this);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.multithread;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportMarketDataBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.util.ManagedReadWriteLockEpoch;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for multithread-safety of statement management under the epoch engine lock profile,
+ * and comparison of event throughput for the read-write and epoch engine lock profiles.
+ */
+public class TestMTEngineLockProfile extends TestCase
+{
+    private static final int NUM_THREADS = 4;
+    private static final int NUM_EVENTS = 100000;
+
+    private final static String EVENT_NAME = SupportMarketDataBean.class.getName();
+
+    public void testStatementMgmt() throws Exception
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExecution().setEngineLockProfile(ConfigurationEngineDefaults.EngineLockProfile.EPOCH);
+        EPServiceProvider engine = EPServiceProviderManager.getProvider(this.getClass().getSimpleName(), config);
+        engine.initialize();
+        assertTrue(((EPServiceProviderSPI) engine).getServicesContext().getEventProcessingRWLock() instanceof ManagedReadWriteLockEpoch);
+
+        Object[][] statements = new Object[][] {
+                {true, "select * from " + EVENT_NAME + " (symbol='IBM', feed='RT') where price between 0 and 1000"},
+                {true, "select * from " + EVENT_NAME + " (price>1, feed='RT')"},
+                {false, "every a=" + EVENT_NAME + "(symbol='IBM', price < 1000)"},
+        };
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(NUM_THREADS);
+        Future future[] = new Future[NUM_THREADS];
+        for (int i = 0; i < NUM_THREADS; i++)
+        {
+            future[i] = threadPool.submit(new StmtMgmtCallable(engine, statements, 200));
+        }
+        threadPool.shutdown();
+        threadPool.awaitTermination(30, TimeUnit.SECONDS);
+
+        for (int i = 0; i < NUM_THREADS; i++)
+        {
+            assertTrue((Boolean) future[i].get());
+        }
+        engine.destroy();
+    }
+
+    public void testCompareProfiles() throws Exception
+    {
+        // warm up both profiles, then measure
+        tryProfile(ConfigurationEngineDefaults.EngineLockProfile.READWRITE, NUM_EVENTS / 10);
+        tryProfile(ConfigurationEngineDefaults.EngineLockProfile.EPOCH, NUM_EVENTS / 10);
+
+        long deltaReadWrite = tryProfile(ConfigurationEngineDefaults.EngineLockProfile.READWRITE, NUM_EVENTS);
+        long deltaEpoch = tryProfile(ConfigurationEngineDefaults.EngineLockProfile.EPOCH, NUM_EVENTS);
+        log.info(".testCompareProfiles threads=" + NUM_THREADS + " events/thread=" + NUM_EVENTS +
+                " readwrite=" + deltaReadWrite + "ms epoch=" + deltaEpoch + "ms");
+    }
+
+    private long tryProfile(ConfigurationEngineDefaults.EngineLockProfile profile, int numEvents) throws Exception
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExecution().setEngineLockProfile(profile);
+        config.addEventType(SupportBean.class);
+        EPServiceProvider engine = EPServiceProviderManager.getProvider(this.getClass().getSimpleName() + "_" + profile, config);
+        engine.initialize();
+
+        final AtomicLong count = new AtomicLong();
+        EPStatement stmt = engine.getEPAdministrator().createEPL("select * from SupportBean(theString='S0')");
+        stmt.setSubscriber(new Object() {
+            public void update(SupportBean bean) {
+                count.incrementAndGet();
+            }
+        });
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(NUM_THREADS);
+        Future future[] = new Future[NUM_THREADS];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < NUM_THREADS; i++)
+        {
+            future[i] = threadPool.submit(new SendEventCallable(i, engine, new GeneratorIterator(numEvents, new GeneratorIteratorCallback() {
+                public Object getObject(int numEvent) {
+                    return new SupportBean("S" + (numEvent % 10), numEvent);
+                }
+            })));
+        }
+        threadPool.shutdown();
+        threadPool.awaitTermination(60, TimeUnit.SECONDS);
+        long delta = System.currentTimeMillis() - start;
+
+        for (int i = 0; i < NUM_THREADS; i++)
+        {
+            assertTrue((Boolean) future[i].get());
+        }
+        assertEquals((numEvents / 10) * NUM_THREADS, count.get());
+
+        engine.destroy();
+        return delta;
+    }
+
+    private static final Log log = LogFactory.getLog(TestMTEngineLockProfile.class);
+}
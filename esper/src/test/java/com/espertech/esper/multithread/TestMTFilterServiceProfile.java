@@ -0,0 +1,112 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+
+package com.espertech.esper.multithread;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares event throughput for the read-write and read-mostly filter service profiles
+ * when multiple threads send events against many filters.
+ */
+public class TestMTFilterServiceProfile extends TestCase
+{
+    private static final int NUM_STATEMENTS = 1000;
+    private static final int NUM_THREADS = 4;
+    private static final int NUM_EVENTS = 50000;
+
+    public void testCompareProfiles() throws Exception
+    {
+        // warm up both profiles, then measure
+        tryProfile(ConfigurationEngineDefaults.FilterServiceProfile.READWRITE, NUM_EVENTS / 10);
+        tryProfile(ConfigurationEngineDefaults.FilterServiceProfile.READMOSTLY, NUM_EVENTS / 10);
+
+        long deltaReadWrite = tryProfile(ConfigurationEngineDefaults.FilterServiceProfile.READWRITE, NUM_EVENTS);
+        long deltaReadMostly = tryProfile(ConfigurationEngineDefaults.FilterServiceProfile.READMOSTLY, NUM_EVENTS);
+        log.info(".testCompareProfiles threads=" + NUM_THREADS + " events/thread=" + NUM_EVENTS +
+                " readwrite=" + deltaReadWrite + "ms readmostly=" + deltaReadMostly + "ms");
+    }
+
+    private long tryProfile(ConfigurationEngineDefaults.FilterServiceProfile profile, int numEvents) throws Exception
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExecution().setFilterServiceProfile(profile);
+        config.addEventType(SupportBean.class);
+        EPServiceProvider engine = EPServiceProviderManager.getProvider(this.getClass().getSimpleName() + "_" + profile, config);
+        engine.initialize();
+
+        final AtomicLong count = new AtomicLong();
+        for (int i = 0; i < NUM_STATEMENTS; i++)
+        {
+            EPStatement stmt = engine.getEPAdministrator().createEPL("select * from SupportBean(theString='S" + (i % 100) + "', intPrimitive between " + i + " and " + (i + 100) + ")");
+            stmt.setSubscriber(new Object() {
+                public void update(SupportBean bean) {
+                    count.incrementAndGet();
+                }
+            });
+        }
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(NUM_THREADS);
+        Future future[] = new Future[NUM_THREADS];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < NUM_THREADS; i++)
+        {
+            future[i] = threadPool.submit(new SendEventCallable(i, engine, new GeneratorIterator(numEvents, new GeneratorIteratorCallback() {
+                public Object getObject(int numEvent) {
+                    return new SupportBean("S" + (numEvent % 100), numEvent % NUM_STATEMENTS);
+                }
+            })));
+        }
+        threadPool.shutdown();
+        threadPool.awaitTermination(60, TimeUnit.SECONDS);
+        long delta = System.currentTimeMillis() - start;
+
+        for (int i = 0; i < NUM_THREADS; i++)
+        {
+            assertTrue((Boolean) future[i].get());
+        }
+        assertEquals(expectedCount(numEvents) * NUM_THREADS, count.get());
+
+        engine.destroy();
+        return delta;
+    }
+
+    private long expectedCount(int numEvents)
+    {
+        long expected = 0;
+        for (int numEvent = 0; numEvent < numEvents; numEvent++)
+        {
+            int intPrimitive = numEvent % NUM_STATEMENTS;
+            for (int i = numEvent % 100; i < NUM_STATEMENTS; i += 100)
+            {
+                if (intPrimitive >= i && intPrimitive <= i + 100)
+                {
+                    expected++;
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static final Log log = LogFactory.getLog(TestMTFilterServiceProfile.class);
+}
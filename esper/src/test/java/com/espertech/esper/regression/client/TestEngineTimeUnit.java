@@ -0,0 +1,126 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.client;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.client.time.CurrentTimeEvent;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestEngineTimeUnit extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        configuration.getEngineDefaults().getTimeSource().setTimeUnit(TimeUnit.MICROSECONDS);
+        configuration.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+        epService = EPServiceProviderManager.getProvider("TestEngineTimeUnit", configuration);
+        epService.initialize();
+        listener = new SupportUpdateListener();
+    }
+
+    public void tearDown() {
+        listener = null;
+        epService.destroy();
+    }
+
+    public void testTimeWindow()
+    {
+        sendTimer(0);
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select irstream theString from SupportBean.win:time(1.5 msec)");
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        assertEquals("E1", listener.assertOneGetNewAndReset().get("theString"));
+
+        sendTimer(1499);
+        assertFalse(listener.isInvoked());
+
+        sendTimer(1500);
+        assertEquals("E1", listener.assertOneGetOldAndReset().get("theString"));
+        assertEquals(1500, epService.getEPRuntime().getCurrentTime());
+    }
+
+    public void testPatternInterval()
+    {
+        sendTimer(0);
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from pattern [timer:interval(10 sec)]");
+        stmt.addListener(listener);
+
+        sendTimer(9999999);
+        assertFalse(listener.isInvoked());
+
+        sendTimer(10000000);
+        assertTrue(listener.getAndClearIsInvoked());
+    }
+
+    public void testReclaimGroupAged()
+    {
+        String[] fields = "c0,c1".split(",");
+        sendTimer(1000000);
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('reclaim_group_aged=1,reclaim_group_freq=1') select theString as c0, sum(intPrimitive) as c1 from SupportBean group by theString " +
+                "output snapshot every 3 events");
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        sendTimer(1500000);
+        epService.getEPRuntime().sendEvent(new SupportBean("E0", 11));
+        sendTimer(1800000);
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 12));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(stmt.iterator(), fields, new Object[][]{{"E1", 10}, {"E0", 11}, {"E2", 12}});
+
+        // the group of E1 is older than one second in microseconds
+        sendTimer(2200000);
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 13));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(stmt.iterator(), fields, new Object[][]{{"E0", 11}, {"E2", 25}});
+    }
+
+    public void testOutputRate()
+    {
+        sendTimer(0);
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select theString from SupportBean output last every 2 seconds");
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        sendTimer(1999999);
+        assertFalse(listener.isInvoked());
+
+        sendTimer(2000000);
+        assertEquals("E1", listener.assertOneGetNewAndReset().get("theString"));
+    }
+
+    public void testCrontab()
+    {
+        sendTimer(0);
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from pattern [timer:at(*, *, *, *, *)]");
+        stmt.addListener(listener);
+
+        sendTimer(59999999);
+        assertFalse(listener.isInvoked());
+
+        sendTimer(60000000);
+        assertTrue(listener.getAndClearIsInvoked());
+    }
+
+    private void sendTimer(long time)
+    {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(time));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.client;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.client.time.CurrentTimeEvent;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestSendEventBatch extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        Map<String, Object> mapType = new HashMap<String, Object>();
+        mapType.put("id", String.class);
+        mapType.put("value", int.class);
+        configuration.addEventType("MyMapEvent", mapType);
+        configuration.addEventType("MyOAEvent", new String[] {"id", "value"}, new Object[] {String.class, int.class});
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        listener = new SupportUpdateListener();
+    }
+
+    public void tearDown() {
+        listener = null;
+    }
+
+    public void testBeans()
+    {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select theString, current_timestamp() as t from SupportBean");
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvents(new Object[] {new SupportBean("E1", 1), null, new CurrentTimeEvent(1000), new SupportBean("E2", 2)});
+        assertEquals(2, listener.getNewDataList().size());
+        EPAssertionUtil.assertPropsPerRow(listener.getNewDataListFlattened(), "theString,t".split(","), new Object[][] {{"E1", 0L}, {"E2", 1000L}});
+        listener.reset();
+
+        epService.getEPRuntime().sendEvents(new Object[0]);
+        assertFalse(listener.isInvoked());
+    }
+
+    public void testMapsAndObjectArrays()
+    {
+        epService.getEPAdministrator().createEPL("insert into MyStream select id, value from MyMapEvent");
+        epService.getEPAdministrator().createEPL("insert into MyStream select id, value from MyOAEvent");
+        epService.getEPAdministrator().createEPL("select id, sum(value) as total from MyStream").addListener(listener);
+
+        epService.getEPRuntime().sendEvents(new Map[] {makeMap("M1", 10), makeMap("M2", 20)}, "MyMapEvent");
+        assertEquals(2, listener.getNewDataList().size());
+        EPAssertionUtil.assertPropsPerRow(listener.getNewDataListFlattened(), "id,total".split(","), new Object[][] {{"M1", 10}, {"M2", 30}});
+        listener.reset();
+
+        epService.getEPRuntime().sendEvents(new Object[][] {{"O1", 1}, {"O2", 2}, {"O3", 3}}, "MyOAEvent");
+        assertEquals(3, listener.getNewDataList().size());
+        EPAssertionUtil.assertPropsPerRow(listener.getNewDataListFlattened(), "id,total".split(","), new Object[][] {{"O1", 31}, {"O2", 33}, {"O3", 36}});
+    }
+
+    public void testNoOutputBetweenEvents()
+    {
+        EPStatement stmtWindow = epService.getEPAdministrator().createEPL("select count(*) as cnt from SupportBean.win:length(100)");
+        epService.getEPAdministrator().createEPL("select count(*) as cnt from SupportBean output last every 3 events").addListener(listener);
+
+        epService.getEPRuntime().sendEvents(new Object[] {new SupportBean("E1", 1), new SupportBean("E2", 2), new SupportBean("E3", 3), new SupportBean("E4", 4)});
+        assertEquals(1, listener.getNewDataList().size());
+        assertEquals(3L, listener.assertOneGetNewAndReset().get("cnt"));
+        assertEquals(4L, stmtWindow.iterator().next().get("cnt"));
+    }
+
+    public void testUnmatchedListenerCreateStatement()
+    {
+        final List<EventBean> unmatched = new ArrayList<EventBean>();
+        epService.getEPRuntime().setUnmatchedListener(new UnmatchedListener() {
+            public void update(EventBean theEvent) {
+                unmatched.add(theEvent);
+                epService.getEPAdministrator().createEPL("select * from SupportBean(theString='" + ((SupportBean) theEvent.getUnderlying()).getTheString() + "')");
+            }
+        });
+
+        epService.getEPRuntime().sendEvents(new Object[] {new SupportBean("E1", 1), new SupportBean("E2", 2), new SupportBean("E1", 3)});
+        assertEquals(2, unmatched.size());
+        assertEquals(2, epService.getEPAdministrator().getStatementNames().length);
+    }
+
+    public void testInvalid()
+    {
+        try {
+            epService.getEPRuntime().sendEvents(new Map[] {makeMap("M1", 1), null}, "MyMapEvent");
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals("Invalid null event object", ex.getMessage());
+        }
+
+        try {
+            epService.getEPRuntime().sendEvents(new Object[][] {{"O1", 1}}, "MyMapEvent");
+            fail();
+        }
+        catch (EPException ex) {
+            assertEquals("Event type named 'MyMapEvent' has not been defined or is not a Object-array event type, the name 'MyMapEvent' refers to a java.util.Map event type", ex.getMessage());
+        }
+
+        try {
+            epService.getEPRuntime().sendEvents(new Map[0], "Dummy");
+            fail();
+        }
+        catch (EPException ex) {
+            assertEquals("Event type named 'Dummy' has not been defined or is not a Map event type, the name 'Dummy' has not been defined as an event type", ex.getMessage());
+        }
+    }
+
+    private Map<String, Object> makeMap(String id, int value) {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("id", id);
+        map.put("value", value);
+        return map;
+    }
+}
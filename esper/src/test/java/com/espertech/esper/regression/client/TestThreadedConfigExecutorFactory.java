@@ -0,0 +1,218 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.client;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.dataflow.EPDataFlowInstance;
+import com.espertech.esper.client.hook.ThreadingExecutorFactory;
+import com.espertech.esper.client.hook.ThreadingExecutorFactoryContext;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.support.bean.SupportBean;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestThreadedConfigExecutorFactory extends TestCase
+{
+    private static final int NUM_EVENTS = 50;
+
+    public void testOp() throws Exception
+    {
+        Configuration config = new Configuration();
+        config.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+        config.getEngineDefaults().getThreading().setThreadPoolOutbound(true);
+        config.getEngineDefaults().getThreading().setThreadPoolOutboundNumThreads(1);
+        config.getEngineDefaults().getThreading().setThreadPoolExecutorFactory(SupportExecutorFactory.class.getName());
+        config.addEventType("SupportBean", SupportBean.class);
+
+        SupportExecutorFactory.reset();
+        EPServiceProvider epService = EPServiceProviderManager.getProvider("TestThreadedConfigExecutorFactory", config);
+        epService.initialize();
+
+        EPServiceProviderSPI spi = (EPServiceProviderSPI) epService;
+        assertNotNull(spi.getThreadingService().getOutboundExecutor());
+        assertNull(spi.getThreadingService().getOutboundQueue());
+        assertNull(spi.getThreadingService().getRouteExecutor());
+
+        // two statements with slow listeners, each listener must receive its results in order
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        SlowListener listenerOne = new SlowListener(concurrent, maxConcurrent);
+        SlowListener listenerTwo = new SlowListener(concurrent, maxConcurrent);
+        epService.getEPAdministrator().createEPL("select intPrimitive from SupportBean").addListener(listenerOne);
+        epService.getEPAdministrator().createEPL("select intPrimitive from SupportBean").addListener(listenerTwo);
+
+        for (int i = 0; i < NUM_EVENTS; i++)
+        {
+            epService.getEPRuntime().sendEvent(new SupportBean("E", i));
+        }
+
+        for (int i = 0; i < 200 && (listenerOne.getReceived().size() < NUM_EVENTS || listenerTwo.getReceived().size() < NUM_EVENTS); i++)
+        {
+            Thread.sleep(50);
+        }
+        listenerOne.assertOrdered(NUM_EVENTS);
+        listenerTwo.assertOrdered(NUM_EVENTS);
+        assertEquals(2, maxConcurrent.get());
+
+        // data flow threads come from the factory
+        epService.getEPAdministrator().createEPL("create dataflow MyDataFlow BeaconSource -> BeaconStream {iterations : 1}");
+        EPDataFlowInstance dataFlow = epService.getEPRuntime().getDataFlowRuntime().instantiate("MyDataFlow");
+        dataFlow.start();
+        dataFlow.join();
+        assertEquals(1, SupportExecutorFactory.getNumThreadsCreated());
+
+        epService.destroy();
+        assertFalse(SupportExecutorFactory.getExecutors().get(0).isShutdown());
+        SupportExecutorFactory.getExecutors().get(0).shutdown();
+    }
+
+    public void testRouteOrdered() throws Exception
+    {
+        Configuration config = new Configuration();
+        config.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+        config.getEngineDefaults().getThreading().setThreadPoolRouteExec(true);
+        config.getEngineDefaults().getThreading().setThreadPoolRouteExecNumThreads(1);
+        config.getEngineDefaults().getThreading().setThreadPoolExecutorFactory(SupportExecutorFactory.class.getName());
+        config.addEventType("SupportBean", SupportBean.class);
+
+        SupportExecutorFactory.reset();
+        EPServiceProvider epService = EPServiceProviderManager.getProvider("TestThreadedConfigExecutorFactory", config);
+        epService.initialize();
+
+        EPServiceProviderSPI spi = (EPServiceProviderSPI) epService;
+        assertNotNull(spi.getThreadingService().getRouteExecutor());
+        assertNull(spi.getThreadingService().getRouteQueue());
+
+        // route execution work of a statement runs in order, statements run concurrently
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        SlowListener listenerOne = new SlowListener(concurrent, maxConcurrent);
+        SlowListener listenerTwo = new SlowListener(concurrent, maxConcurrent);
+        epService.getEPAdministrator().createEPL("select intPrimitive from SupportBean").addListener(listenerOne);
+        epService.getEPAdministrator().createEPL("select intPrimitive from SupportBean").addListener(listenerTwo);
+
+        for (int i = 0; i < NUM_EVENTS; i++)
+        {
+            epService.getEPRuntime().sendEvent(new SupportBean("E", i));
+        }
+
+        for (int i = 0; i < 200 && (listenerOne.getReceived().size() < NUM_EVENTS || listenerTwo.getReceived().size() < NUM_EVENTS); i++)
+        {
+            Thread.sleep(50);
+        }
+        listenerOne.assertOrdered(NUM_EVENTS);
+        listenerTwo.assertOrdered(NUM_EVENTS);
+
+        epService.destroy();
+        SupportExecutorFactory.getExecutors().get(0).shutdown();
+    }
+
+    public static class SupportExecutorFactory implements ThreadingExecutorFactory
+    {
+        private static final List<ExecutorService> executors = new CopyOnWriteArrayList<ExecutorService>();
+        private static final AtomicInteger numThreadsCreated = new AtomicInteger();
+
+        public Executor getExecutor(ThreadingExecutorFactoryContext context)
+        {
+            assertEquals("TestThreadedConfigExecutorFactory", context.getEngineURI());
+            assertTrue(context.getName().equals("Outbound") || context.getName().equals("RouteExec"));
+            ExecutorService executor = Executors.newCachedThreadPool();
+            executors.add(executor);
+            return executor;
+        }
+
+        public ThreadFactory getThreadFactory(ThreadingExecutorFactoryContext context)
+        {
+            assertEquals("DataFlow", context.getName());
+            return new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    numThreadsCreated.incrementAndGet();
+                    Thread thread = new Thread(r);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+        }
+
+        public static void reset()
+        {
+            executors.clear();
+            numThreadsCreated.set(0);
+        }
+
+        public static List<ExecutorService> getExecutors()
+        {
+            return executors;
+        }
+
+        public static int getNumThreadsCreated()
+        {
+            return numThreadsCreated.get();
+        }
+    }
+
+    private static class SlowListener implements UpdateListener
+    {
+        private final AtomicInteger concurrent;
+        private final AtomicInteger maxConcurrent;
+        private final List<Integer> received = new CopyOnWriteArrayList<Integer>();
+
+        private SlowListener(AtomicInteger concurrent, AtomicInteger maxConcurrent)
+        {
+            this.concurrent = concurrent;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public void update(EventBean[] newEvents, EventBean[] oldEvents)
+        {
+            int current = concurrent.incrementAndGet();
+            while (true)
+            {
+                int max = maxConcurrent.get();
+                if (current <= max || maxConcurrent.compareAndSet(max, current))
+                {
+                    break;
+                }
+            }
+            try
+            {
+                Thread.sleep(5);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            received.add((Integer) newEvents[0].get("intPrimitive"));
+            concurrent.decrementAndGet();
+        }
+
+        public List<Integer> getReceived()
+        {
+            return received;
+        }
+
+        public void assertOrdered(int numEvents)
+        {
+            assertEquals(numEvents, received.size());
+            for (int i = 0; i < numEvents; i++)
+            {
+                assertEquals(i, (int) received.get(i));
+            }
+        }
+    }
+}
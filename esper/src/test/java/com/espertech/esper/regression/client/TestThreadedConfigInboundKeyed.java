@@ -0,0 +1,148 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.client;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+
+public class TestThreadedConfigInboundKeyed extends TestCase
+{
+    private static final int NUM_KEYS = 10;
+    private static final int NUM_EVENTS_PER_KEY = 200;
+
+    public void testOp() throws Exception
+    {
+        Configuration config = new Configuration();
+        config.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+        config.getEngineDefaults().getThreading().setThreadPoolInbound(true);
+        config.getEngineDefaults().getThreading().setThreadPoolInboundNumThreads(4);
+        config.getEngineDefaults().getThreading().addThreadPoolInboundKey("SupportBean", "theString");
+        config.getEngineDefaults().getThreading().addThreadPoolInboundKey("MyMap", "key");
+        config.addEventType("SupportBean", SupportBean.class);
+        config.addEventType("SupportBean_S0", SupportBean_S0.class);
+        Map<String, Object> mapType = new HashMap<String, Object>();
+        mapType.put("key", String.class);
+        mapType.put("seq", int.class);
+        config.addEventType("MyMap", mapType);
+
+        EPServiceProvider epService = EPServiceProviderManager.getProvider("TestThreadedConfigInboundKeyed", config);
+        epService.initialize();
+
+        EPServiceProviderSPI spi = (EPServiceProviderSPI) epService;
+        assertNull(spi.getThreadingService().getInboundQueue());
+        assertEquals(4, spi.getThreadingService().getInboundKeyedQueues().size());
+
+        epService.getEPAdministrator().createEPL("create context SegmentedByKey partition by theString from SupportBean, key from MyMap");
+        OrderListener listenerBean = new OrderListener();
+        epService.getEPAdministrator().createEPL("context SegmentedByKey select theString as key, intPrimitive as seq from SupportBean").addListener(listenerBean);
+        OrderListener listenerMap = new OrderListener();
+        epService.getEPAdministrator().createEPL("context SegmentedByKey select key, seq from MyMap").addListener(listenerMap);
+        OrderListener listenerNullKey = new OrderListener();
+        epService.getEPAdministrator().createEPL("select key, seq from MyMap(key is null)").addListener(listenerNullKey);
+        SupportUpdateListener listenerUnkeyed = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from SupportBean_S0").addListener(listenerUnkeyed);
+
+        EventSender senderMap = epService.getEPRuntime().getEventSender("MyMap");
+        for (int i = 0; i < NUM_EVENTS_PER_KEY; i++)
+        {
+            for (int key = 0; key < NUM_KEYS; key++)
+            {
+                epService.getEPRuntime().sendEvent(new SupportBean("K" + key, i));
+                Map<String, Object> map = new HashMap<String, Object>();
+                map.put("key", "K" + key);
+                map.put("seq", i);
+                if (i % 2 == 0)
+                {
+                    epService.getEPRuntime().sendEvent(map, "MyMap");
+                }
+                else
+                {
+                    senderMap.sendEvent(map);
+                }
+            }
+
+            // null key values are kept in order on a single thread
+            Map<String, Object> map = new HashMap<String, Object>();
+            map.put("key", null);
+            map.put("seq", i);
+            epService.getEPRuntime().sendEvent(map, "MyMap");
+            epService.getEPRuntime().sendEvent(new SupportBean_S0(i));
+        }
+
+        int total = NUM_KEYS * NUM_EVENTS_PER_KEY;
+        for (int i = 0; i < 200 && (listenerBean.getCount() < total || listenerMap.getCount() < total || listenerNullKey.getCount() < NUM_EVENTS_PER_KEY || listenerUnkeyed.getNewDataList().size() < NUM_EVENTS_PER_KEY); i++)
+        {
+            Thread.sleep(50);
+        }
+        listenerBean.assertOrdered(NUM_KEYS, NUM_EVENTS_PER_KEY);
+        listenerMap.assertOrdered(NUM_KEYS, NUM_EVENTS_PER_KEY);
+        listenerNullKey.assertOrdered(1, NUM_EVENTS_PER_KEY);
+        assertEquals(NUM_EVENTS_PER_KEY, listenerUnkeyed.getNewDataList().size());
+
+        for (BlockingQueue<Runnable> queue : spi.getThreadingService().getInboundKeyedQueues())
+        {
+            assertEquals(0, queue.size());
+        }
+
+        epService.destroy();
+    }
+
+    private static class OrderListener implements UpdateListener
+    {
+        private final Map<String, List<Integer>> sequences = new HashMap<String, List<Integer>>();
+        private final Map<String, Set<String>> threads = new HashMap<String, Set<String>>();
+        private int count;
+
+        public synchronized void update(EventBean[] newEvents, EventBean[] oldEvents)
+        {
+            for (EventBean event : newEvents)
+            {
+                String key = (String) event.get("key");
+                if (!sequences.containsKey(key))
+                {
+                    sequences.put(key, new ArrayList<Integer>());
+                    threads.put(key, new HashSet<String>());
+                }
+                sequences.get(key).add((Integer) event.get("seq"));
+                threads.get(key).add(Thread.currentThread().getName());
+                count++;
+            }
+        }
+
+        public synchronized int getCount()
+        {
+            return count;
+        }
+
+        public synchronized void assertOrdered(int numKeys, int numEventsPerKey)
+        {
+            assertEquals(numKeys, sequences.size());
+            for (Map.Entry<String, List<Integer>> entry : sequences.entrySet())
+            {
+                List<Integer> sequence = entry.getValue();
+                assertEquals(numEventsPerKey, sequence.size());
+                for (int i = 0; i < numEventsPerKey; i++)
+                {
+                    assertEquals("Out of order for key " + entry.getKey(), i, (int) sequence.get(i));
+                }
+                assertEquals(1, threads.get(entry.getKey()).size());
+            }
+        }
+    }
+}
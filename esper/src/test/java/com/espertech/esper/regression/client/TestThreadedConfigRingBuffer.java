@@ -0,0 +1,61 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.client;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.core.thread.RingBufferBlockingQueue;
+import com.espertech.esper.support.bean.SupportBean;
+import junit.framework.TestCase;
+
+public class TestThreadedConfigRingBuffer extends TestCase
+{
+    public void testOp() throws Exception
+    {
+        Configuration config = new Configuration();
+        config.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+        config.getEngineDefaults().getThreading().setThreadPoolInbound(true);
+        config.getEngineDefaults().getThreading().setThreadPoolInboundNumThreads(2);
+        config.getEngineDefaults().getThreading().setThreadPoolInboundCapacity(100);
+        config.getEngineDefaults().getThreading().setThreadPoolOutbound(true);
+        config.getEngineDefaults().getThreading().setThreadPoolOutboundNumThreads(2);
+        config.getEngineDefaults().getThreading().setThreadPoolRingBuffer(true);
+        config.getEngineDefaults().getThreading().setThreadPoolRingBufferWaitStrategy(ConfigurationEngineDefaults.Threading.WaitStrategy.PARK);
+        config.addEventType("SupportBean", SupportBean.class);
+
+        EPServiceProvider epService = EPServiceProviderManager.getProvider("TestThreadedConfigRingBuffer", config);
+        epService.initialize();
+
+        EPServiceProviderSPI spi = (EPServiceProviderSPI) epService;
+        assertTrue(spi.getThreadingService().getInboundQueue() instanceof RingBufferBlockingQueue);
+        assertEquals(128, ((RingBufferBlockingQueue) spi.getThreadingService().getInboundQueue()).getCapacity());
+        assertTrue(spi.getThreadingService().getOutboundQueue() instanceof RingBufferBlockingQueue);
+
+        SupportUpdateListener listener = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from SupportBean").addListener(listener);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            epService.getEPRuntime().sendEvent(new SupportBean("E" + i, i));
+        }
+
+        for (int i = 0; i < 100 && listener.getNewDataList().size() < 1000; i++)
+        {
+            Thread.sleep(50);
+        }
+        assertEquals(1000, listener.getNewDataList().size());
+        assertEquals(0, spi.getThreadingService().getInboundQueue().size());
+
+        epService.destroy();
+    }
+}
@@ -48,6 +48,30 @@ public class TestContextPartitioned extends TestCase {
         listener = null;
     }
 
+    public void testPartitionFiltersBatched() {
+        epService.getEPAdministrator().createEPL("create context SegmentedByString partition by theString from SupportBean");
+        String[] fields = "c0,c1".split(",");
+        for (int i = 0; i < 3; i++) {
+            epService.getEPAdministrator().createEPL("context SegmentedByString select theString as c0, intPrimitive as c1 from SupportBean(intPrimitive > " + i + ")").addListener(listener);
+        }
+
+        // the filters of all statements of a new partition are added as one change, and removed as one change
+        long version = spi.getServicesContext().getFilterService().getFiltersVersion();
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 2));
+        assertEquals(version + 1, spi.getServicesContext().getFilterService().getFiltersVersion());
+        assertEquals(2, listener.getNewDataList().size());
+        listener.reset();
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 3));
+        assertEquals(3, listener.getNewDataList().size());
+        listener.reset();
+
+        version = spi.getServicesContext().getFilterService().getFiltersVersion();
+        epService.getEPAdministrator().destroyAllStatements();
+        assertTrue(spi.getServicesContext().getFilterService().getFiltersVersion() > version);
+        assertEquals(0, spi.getServicesContext().getFilterService().getFilterCountApprox());
+    }
+
     public void testJoinRemoveStream() {
         epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
         epService.getEPAdministrator().getConfiguration().addEventType(WebEvent.class);
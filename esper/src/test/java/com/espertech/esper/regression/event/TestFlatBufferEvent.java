@@ -0,0 +1,266 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.event;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.client.time.CurrentTimeEvent;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.event.EventTypeMetadata;
+import com.espertech.esper.event.EventTypeSPI;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.nio.ByteBuffer;
+
+public class TestFlatBufferEvent extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    protected void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("Tick", makeTickConfig());
+        configuration.addEventType("SupportBean", SupportBean.class);
+        configuration.addEventType("SupportBean_S0", SupportBean_S0.class);
+        configuration.getEngineDefaults().getThreading().setInternalTimerEnabled(false);
+
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        listener = new SupportUpdateListener();
+    }
+
+    protected void tearDown() throws Exception {
+        listener = null;
+    }
+
+    public void testMetadata()
+    {
+        EventTypeSPI type = (EventTypeSPI) ((EPServiceProviderSPI) epService).getEventAdapterService().getExistsTypeByName("Tick");
+        assertEquals(EventTypeMetadata.ApplicationType.FLATBUFFER, type.getMetadata().getOptionalApplicationType());
+        assertEquals("Tick", type.getName());
+        assertEquals(EventTypeMetadata.TypeClass.APPLICATION, type.getMetadata().getTypeClass());
+        assertEquals(true, type.getMetadata().isApplicationPreConfiguredStatic());
+        assertEquals(ByteBuffer.class, type.getUnderlyingType());
+
+        EPAssertionUtil.assertEqualsExactOrder(new Object[]{
+                new EventPropertyDescriptor("symbol", String.class, null, false, false, false, false, false),
+                new EventPropertyDescriptor("price", double.class, null, false, false, false, false, false),
+                new EventPropertyDescriptor("volume", long.class, null, false, false, false, false, false),
+                new EventPropertyDescriptor("level", int.class, null, false, false, false, false, false),
+        }, type.getPropertyDescriptors());
+
+        // same layout may be added again, a different layout may not
+        ConfigurationOperations configOps = epService.getEPAdministrator().getConfiguration();
+        configOps.addEventType("Tick", makeTickConfig());
+        try
+        {
+            configOps.addEventType("Tick", new ConfigurationEventTypeFlatBuffer().addField("level", int.class));
+            fail();
+        }
+        catch (ConfigurationException ex)
+        {
+            assertEquals("Event type named 'Tick' has already been declared with differing column name or type information", ex.getMessage());
+        }
+    }
+
+    public void testSender()
+    {
+        epService.getEPAdministrator().createEPL("select symbol, price, volume, level from Tick(level = 2)").addListener(listener);
+        EventSender sender = epService.getEPRuntime().getEventSender("Tick");
+
+        // a byte array is copied, such that the array may be reused
+        byte[] bytes = new byte[26];
+        makeTick(ByteBuffer.wrap(bytes), "IBM", 10.5, 100, 2);
+        sender.sendEvent(bytes);
+        makeTick(ByteBuffer.wrap(bytes), "MSFT", 20, 200, 1);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "symbol,price,volume,level".split(","), new Object[]{"IBM", 10.5, 100L, 2});
+
+        // a buffer may hold multiple records
+        ByteBuffer wire = ByteBuffer.allocateDirect(26 * 3);
+        makeTick(wire, "A", 1, 1, 1);
+        makeTick(wire, "B", 2, 2, 2);
+        makeTick(wire, "C", 3, 3, 2);
+        wire.flip();
+        while (wire.hasRemaining())
+        {
+            sender.sendEvent(wire);
+        }
+        EPAssertionUtil.assertPropsPerRow(listener.getNewDataListFlattened(), "symbol".split(","), new Object[][]{{"B"}, {"C"}});
+        listener.reset();
+
+        try
+        {
+            sender.sendEvent(new byte[10]);
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("Unexpected byte array of length 10, expected a record of 26 bytes for event type 'Tick'", ex.getMessage());
+        }
+        try
+        {
+            sender.sendEvent(new SupportBean());
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("Unexpected event object of type com.espertech.esper.support.bean.SupportBean, expected byte[] or java.nio.ByteBuffer", ex.getMessage());
+        }
+    }
+
+    public void testTimeWindow()
+    {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select irstream symbol, sum(volume) as total from Tick.win:time(10 sec)");
+        stmt.addListener(listener);
+        EventSender sender = epService.getEPRuntime().getEventSender("Tick");
+
+        sender.sendEvent(makeTick(ByteBuffer.allocate(26), "A", 1, 10, 1).flip());
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(5000));
+        sender.sendEvent(makeTick(ByteBuffer.allocate(26), "B", 1, 20, 1).flip());
+        EPAssertionUtil.assertProps(listener.getAndResetLastNewData()[0], "symbol,total".split(","), new Object[]{"B", 30L});
+
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(10000));
+        EPAssertionUtil.assertProps(listener.getAndResetLastOldData()[0], "symbol,total".split(","), new Object[]{"A", 20L});
+        EPAssertionUtil.assertPropsPerRow(stmt.iterator(), "symbol".split(","), new Object[][]{{"B"}});
+    }
+
+    public void testInsertIntoAndUpdate()
+    {
+        ConfigurationOperations configOps = epService.getEPAdministrator().getConfiguration();
+        configOps.addEventType("Quote", new ConfigurationEventTypeFlatBuffer().addStringField("symbol", 10).addField("price", double.class));
+
+        epService.getEPAdministrator().createEPL("create window QuoteWindow.win:keepall() as Quote");
+        epService.getEPAdministrator().createEPL("insert into QuoteWindow select theString as symbol, doublePrimitive as price from SupportBean");
+        EPStatement stmtUpdate = epService.getEPAdministrator().createEPL("on Tick as tick update QuoteWindow as quote set price = tick.price where quote.symbol = tick.symbol");
+        stmtUpdate.addListener(listener);
+
+        SupportBean bean = new SupportBean("IBM", 0);
+        bean.setDoublePrimitive(50);
+        epService.getEPRuntime().sendEvent(bean);
+
+        epService.getEPRuntime().getEventSender("Tick").sendEvent(makeTick(ByteBuffer.allocate(26), "IBM", 51, 1, 1).flip());
+        EPAssertionUtil.assertProps(listener.getLastNewData()[0], "symbol,price".split(","), new Object[]{"IBM", 51d});
+        EPAssertionUtil.assertProps(listener.getAndResetLastOldData()[0], "symbol,price".split(","), new Object[]{"IBM", 50d});
+
+        EPOnDemandQueryResult result = epService.getEPRuntime().executeQuery("select * from QuoteWindow");
+        assertEquals(1, result.getArray().length);
+        assertEquals(51d, result.getArray()[0].get("price"));
+        assertTrue(result.getArray()[0].getUnderlying() instanceof ByteBuffer);
+        assertEquals(ByteBuffer.class, epService.getEPAdministrator().getConfiguration().getEventType("QuoteWindow").getUnderlyingType());
+
+        // a named window of the same layout holds the records as sent
+        epService.getEPAdministrator().createEPL("create window TickWindow.win:keepall() as select * from Tick");
+        epService.getEPAdministrator().createEPL("insert into TickWindow select * from Tick");
+        epService.getEPAdministrator().createEPL("on SupportBean_S0 delete from TickWindow where level = id");
+        epService.getEPRuntime().getEventSender("Tick").sendEvent(makeTick(ByteBuffer.allocate(26), "A", 1, 1, 1).flip());
+        epService.getEPRuntime().getEventSender("Tick").sendEvent(makeTick(ByteBuffer.allocate(26), "B", 2, 2, 2).flip());
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        EPAssertionUtil.assertPropsPerRow(epService.getEPRuntime().executeQuery("select * from TickWindow").getArray(), "symbol,volume".split(","), new Object[][]{{"B", 2L}});
+    }
+
+    public void testMemory()
+    {
+        ConfigurationOperations configOps = epService.getEPAdministrator().getConfiguration();
+        ConfigurationEventTypeFlatBuffer flatConfig = new ConfigurationEventTypeFlatBuffer();
+        flatConfig.setDirect(true);
+        String[] names = new String[12];
+        Object[] types = new Object[12];
+        for (int i = 0; i < 12; i++)
+        {
+            names[i] = "f" + i;
+            types[i] = i % 2 == 0 ? Double.class : Long.class;
+            flatConfig.addField(names[i], (Class) types[i]);
+        }
+        configOps.addEventType("FlatTick", flatConfig);
+        configOps.addEventType("ArrayTick", names, types);
+
+        int numEvents = 100000;     // Change to 1E6 for memory measurement
+        EPStatement stmtFlat = epService.getEPAdministrator().createEPL("select * from FlatTick.win:length(" + numEvents + ")");
+        long before = usedMemory();
+        EventSender flatSender = epService.getEPRuntime().getEventSender("FlatTick");
+        ByteBuffer wire = ByteBuffer.allocate(12 * 8);
+        for (int i = 0; i < numEvents; i++)
+        {
+            wire.clear();
+            for (int j = 0; j < 12; j++)
+            {
+                if (j % 2 == 0)
+                {
+                    wire.putDouble(i + j + 0.5);
+                }
+                else
+                {
+                    wire.putLong(i + j);
+                }
+            }
+            wire.flip();
+            flatSender.sendEvent(wire);
+        }
+        long flatHeap = usedMemory() - before;
+        assertEquals(10.5, stmtFlat.iterator().next().get("f10"));
+
+        EPStatement stmtArray = epService.getEPAdministrator().createEPL("select * from ArrayTick.win:length(" + numEvents + ")");
+        before = usedMemory();
+        EventSender arraySender = epService.getEPRuntime().getEventSender("ArrayTick");
+        for (int i = 0; i < numEvents; i++)
+        {
+            Object[] values = new Object[12];
+            for (int j = 0; j < 12; j++)
+            {
+                values[j] = j % 2 == 0 ? (Object) (i + j + 0.5) : (Object) (long) (i + j);
+            }
+            arraySender.sendEvent(values);
+        }
+        long arrayHeap = usedMemory() - before;
+        assertEquals(10.5, stmtArray.iterator().next().get("f10"));
+
+        log.info(".testMemory events=" + numEvents + " flat-buffer heap=" + flatHeap / 1024 + "kb (plus " + numEvents * 96 / 1024 + "kb direct) object-array heap=" + arrayHeap / 1024 + "kb");
+    }
+
+    private static long usedMemory()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    private static ConfigurationEventTypeFlatBuffer makeTickConfig()
+    {
+        ConfigurationEventTypeFlatBuffer config = new ConfigurationEventTypeFlatBuffer();
+        config.addStringField("symbol", 6);
+        config.addField("price", double.class);
+        config.addField("volume", long.class);
+        config.addField("level", int.class);
+        return config;
+    }
+
+    private static ByteBuffer makeTick(ByteBuffer buffer, String symbol, double price, long volume, int level)
+    {
+        for (int i = 0; i < 6; i++)
+        {
+            buffer.put(i < symbol.length() ? (byte) symbol.charAt(i) : 0);
+        }
+        return buffer.putDouble(price).putLong(volume).putInt(level);
+    }
+
+    private static final Log log = LogFactory.getLog(TestFlatBufferEvent.class);
+}
@@ -0,0 +1,203 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.event;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.event.map.MapObjectArrayEventBean;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestMapEventConvertObjectArray extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    protected void setUp()
+    {
+        Map<String, Object> nested = new HashMap<String, Object>();
+        nested.put("n1", int.class);
+        Map<String, Object> def = new HashMap<String, Object>();
+        def.put("p0", String.class);
+        def.put("p1", int.class);
+        def.put("bean", SupportBean.class);
+        def.put("nested", nested);
+        ConfigurationEventTypeMap mapConfig = new ConfigurationEventTypeMap();
+        mapConfig.setConvertToObjectArray(true);
+
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("MyMap", def);
+        configuration.addMapConfiguration("MyMap", mapConfig);
+        configuration.addEventType("SupportBean", SupportBean.class);
+
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        listener = new SupportUpdateListener();
+    }
+
+    protected void tearDown() throws Exception {
+        listener = null;
+    }
+
+    public void testSendEvent()
+    {
+        String[] fields = "p0,p1,theString,n1,dyn".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select p0, p1, bean.theString as theString, nested.n1 as n1, other? as dyn from MyMap");
+        stmt.addListener(listener);
+
+        // the underlying event is the map sent
+        Map<String, Object> event = makeEvent("E1", 10, new SupportBean("S1", 0), 100);
+        event.put("other", "O1");
+        epService.getEPRuntime().sendEvent(event, "MyMap");
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[]{"E1", 10, "S1", 100, "O1"});
+
+        SupportUpdateListener listenerWildcard = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from MyMap").addListener(listenerWildcard);
+        EventSender sender = epService.getEPRuntime().getEventSender("MyMap");
+        Map<String, Object> second = makeEvent("E2", 20, null, 200);
+        sender.sendEvent(second);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[]{"E2", 20, null, 200, null});
+        EventBean received = listenerWildcard.assertOneGetNewAndReset();
+        assertTrue(received instanceof MapObjectArrayEventBean);
+        assertSame(second, received.getUnderlying());
+        assertEquals("E2", received.get("p0"));
+
+        // property values are those at the time the event was sent
+        second.put("p0", "changed");
+        assertEquals("E2", received.get("p0"));
+
+        // batches of Map events are converted the same
+        epService.getEPRuntime().sendEvents(new Map[] {makeEvent("E4", 40, null, 400)}, "MyMap");
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[]{"E4", 40, null, 400, null});
+        received = listenerWildcard.assertOneGetNewAndReset();
+        assertTrue(received instanceof MapObjectArrayEventBean);
+        assertEquals(40, received.get("p1"));
+
+        // events of the type produced by statements are Map events and are read from the map
+        epService.getEPAdministrator().createEPL("insert into MyMap select theString as p0, intPrimitive as p1, null as bean, null as nested from SupportBean");
+        epService.getEPRuntime().sendEvent(new SupportBean("E3", 30));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[]{"E3", 30, null, null, null});
+        assertFalse(listenerWildcard.assertOneGetNewAndReset() instanceof MapObjectArrayEventBean);
+
+        try
+        {
+            sender.sendEvent(new SupportBean());
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("Unexpected event object of type " + SupportBean.class.getName() + ", expected java.util.Map", ex.getMessage());
+        }
+    }
+
+    public void testNamedWindowUpdate()
+    {
+        String[] fields = "p0,p1".split(",");
+        EPStatement stmtWindow = epService.getEPAdministrator().createEPL("create window MyWindow.win:keepall() as select * from MyMap");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from MyMap");
+        epService.getEPAdministrator().createEPL("on SupportBean update MyWindow set p1 = intPrimitive where p0 = theString");
+
+        epService.getEPRuntime().sendEvent(makeEvent("E1", 10, null, 0), "MyMap");
+        epService.getEPRuntime().sendEvent(makeEvent("E2", 20, null, 0), "MyMap");
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 11));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(stmtWindow.iterator(), fields, new Object[][]{{"E1", 11}, {"E2", 20}});
+    }
+
+    public void testPerformance()
+    {
+        Map<String, Object> def = new HashMap<String, Object>();
+        for (int i = 0; i < 30; i++)
+        {
+            def.put("p" + i, i % 2 == 0 ? Double.class : Long.class);
+        }
+        ConfigurationEventTypeMap mapConfig = new ConfigurationEventTypeMap();
+        mapConfig.setConvertToObjectArray(true);
+        ConfigurationOperations configOps = epService.getEPAdministrator().getConfiguration();
+        configOps.addEventType("WideMap", def);
+        configOps.addEventType("WideMapConverted", def, mapConfig);
+
+        Map<String, Object> event = new HashMap<String, Object>();
+        for (int i = 0; i < 30; i++)
+        {
+            event.put("p" + i, i % 2 == 0 ? (Object) (i + 0.5) : (Object) (long) i);
+        }
+
+        // several statements filtering and selecting a number of properties
+        StringBuilder select = new StringBuilder();
+        for (int i = 0; i < 30; i += 3)
+        {
+            select.append(i == 0 ? "" : ", ").append("p").append(i);
+        }
+        String[] typeNames = new String[] {"WideMap", "WideMapConverted"};
+        StringBuilder result = new StringBuilder();
+        for (String typeName : typeNames)
+        {
+            CountingListener listenerPerf = new CountingListener();
+            for (int i = 0; i < 5; i++)
+            {
+                epService.getEPAdministrator().createEPL("select " + select + " from " + typeName + "(p1 > -" + i + ", p28 > 0, p29 != 0)").addListener(listenerPerf);
+            }
+            EventSender sender = epService.getEPRuntime().getEventSender(typeName);
+
+            int numEvents = 100000;     // Change to 1E6 for performance testing
+            sendEvents(sender, event, numEvents);    // warm up
+            long start = System.nanoTime();
+            sendEvents(sender, event, numEvents);
+            long delta = System.nanoTime() - start;
+            assertEquals(0.5, listenerPerf.lastEvent.get("p0"));
+            assertEquals(2 * 5 * numEvents, listenerPerf.count);
+            result.append(" ").append(typeName).append("=").append(delta / 1000000).append("ms");
+        }
+        log.info(".testPerformance properties=30" + result);
+    }
+
+    private static void sendEvents(EventSender sender, Map<String, Object> event, int numEvents)
+    {
+        for (int i = 0; i < numEvents; i++)
+        {
+            sender.sendEvent(event);
+        }
+    }
+
+    private static Map<String, Object> makeEvent(String p0, int p1, SupportBean bean, int n1)
+    {
+        Map<String, Object> nested = new HashMap<String, Object>();
+        nested.put("n1", n1);
+        Map<String, Object> event = new HashMap<String, Object>();
+        event.put("p0", p0);
+        event.put("p1", p1);
+        event.put("bean", bean);
+        event.put("nested", nested);
+        return event;
+    }
+
+    private static class CountingListener implements UpdateListener
+    {
+        private int count;
+        private EventBean lastEvent;
+
+        public void update(EventBean[] newEvents, EventBean[] oldEvents)
+        {
+            count += newEvents.length;
+            lastEvent = newEvents[0];
+        }
+    }
+
+    private static final Log log = LogFactory.getLog(TestMapEventConvertObjectArray.class);
+}
@@ -0,0 +1,303 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.event;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.event.xml.StAXXMLEventBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringReader;
+
+public class TestStAXXMLEvent extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    private static String XML =
+        "<myevent id=\"E1\">\n" +
+        "  <element1>VAL1</element1>\n" +
+        "  <element2>\n" +
+        "    <element21 id=\"e21_1\">VAL21-1</element21>\n" +
+        "    <element21 id=\"e21_2\">VAL21-2</element21>\n" +
+        "  </element2>\n" +
+        "  <element3 attrString=\"VAL3\" attrNum=\"5\"><![CDATA[<text>]]></element3>\n" +
+        "  <id>ELEMENT-ID</id>\n" +
+        "</myevent>";
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        ConfigurationEventTypeXMLDOM desc = new ConfigurationEventTypeXMLDOM();
+        desc.setRootElementName("myevent");
+        desc.setStreaming(true);
+        desc.addXPathProperty("xpathElement1", "/myevent/element1", XPathConstants.STRING);
+        configuration.addEventType("MyStreamEvent", desc);
+
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        listener = new SupportUpdateListener();
+    }
+
+    protected void tearDown() throws Exception {
+        listener = null;
+    }
+
+    public void testProperties() throws Exception
+    {
+        String stmtText = "select id, element1, element2.element21 as e21, element3.attrString as a3, cast(element3.attrNum, int) as a3num, element3, missing, element2.missing as nestedMissing from MyStreamEvent";
+        EPStatement stmt = epService.getEPAdministrator().createEPL(stmtText);
+        stmt.addListener(listener);
+
+        EventSender sender = epService.getEPRuntime().getEventSender("MyStreamEvent");
+        sender.sendEvent(XML);
+        assertValues(listener.assertOneGetNewAndReset());
+
+        sender.sendEvent(XML.getBytes("UTF-8"));
+        assertValues(listener.assertOneGetNewAndReset());
+
+        // DOM nodes are accepted as well
+        sender.sendEvent(getDocument(XML));
+        assertValues(listener.assertOneGetNewAndReset());
+        epService.getEPRuntime().sendEvent(getDocument(XML));
+        assertValues(listener.assertOneGetNewAndReset());
+    }
+
+    public void testLazyDOM() throws Exception
+    {
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from MyStreamEvent");
+        stmt.addListener(listener);
+
+        EventSender sender = epService.getEPRuntime().getEventSender("MyStreamEvent");
+        sender.sendEvent(XML);
+        EventBean theEvent = listener.assertOneGetNewAndReset();
+        assertTrue(theEvent instanceof StAXXMLEventBean);
+        StAXXMLEventBean streamEvent = (StAXXMLEventBean) theEvent;
+        assertSame(XML, streamEvent.getDocument());
+
+        // properties not known when the event was parsed, indexed and XPath properties use the DOM
+        assertEquals("VAL1", theEvent.get("element1"));
+        assertEquals("VAL21-2", theEvent.get("element2.element21[1]"));
+        assertEquals("e21_2", theEvent.get("element2.element21[1].id"));
+        assertEquals("VAL1", theEvent.get("xpathElement1"));
+
+        Element element = (Element) theEvent.getUnderlying();
+        assertEquals("myevent", element.getNodeName());
+        assertSame(element, theEvent.getUnderlying());
+
+        // statements created later are served by streaming
+        stmt.destroy();
+        stmt = epService.getEPAdministrator().createEPL("select element1, element2.element21[0] as e21 from MyStreamEvent");
+        stmt.addListener(listener);
+        sender.sendEvent(XML);
+        theEvent = listener.assertOneGetNewAndReset();
+        assertEquals("VAL1", theEvent.get("element1"));
+        assertEquals("VAL21-1", theEvent.get("e21"));
+    }
+
+    public void testInvalid() throws Exception
+    {
+        EventSender sender = epService.getEPRuntime().getEventSender("MyStreamEvent");
+        try
+        {
+            sender.sendEvent("<xxx><element1>a</element1></xxx>");
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("Unexpected root element name 'xxx' encountered, expected a root element name of 'myevent'", ex.getMessage());
+        }
+
+        try
+        {
+            sender.sendEvent(new SupportInvalidEvent());
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Unexpected event object type '"));
+        }
+
+        epService.getEPAdministrator().createEPL("select element2 from MyStreamEvent");
+        try
+        {
+            sender.sendEvent("<myevent><element1>");
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Failed to parse XML document for event type 'MyStreamEvent'"));
+        }
+
+        ConfigurationEventTypeXMLDOM desc = new ConfigurationEventTypeXMLDOM();
+        desc.setRootElementName("simpleEvent");
+        desc.setSchemaResource(TestStAXXMLEvent.class.getClassLoader().getResource("regression/simpleSchema.xsd").toString());
+        desc.setStreaming(true);
+        try
+        {
+            epService.getEPAdministrator().getConfiguration().addEventType("MyStreamSchemaEvent", desc);
+            fail();
+        }
+        catch (ConfigurationException ex)
+        {
+            assertEquals("Streaming is not supported for XML event types that have a schema", ex.getMessage());
+        }
+    }
+
+    public void testExternalEntity() throws Exception
+    {
+        File secret = File.createTempFile("esper", ".txt");
+        secret.deleteOnExit();
+        FileWriter writer = new FileWriter(secret);
+        writer.write("SECRET");
+        writer.close();
+        String doctype = "<!DOCTYPE myevent [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>";
+
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from MyStreamEvent");
+        stmt.addListener(listener);
+        EventSender sender = epService.getEPRuntime().getEventSender("MyStreamEvent");
+
+        // the entity is not resolved when streaming, and the value is then read from the DOM which rejects the DTD
+        sender.sendEvent(doctype + "<myevent><element1>&xxe;</element1></myevent>");
+        EventBean theEvent = listener.assertOneGetNewAndReset();
+        try
+        {
+            theEvent.get("element1");
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Failed to build DOM of XML document for event type 'MyStreamEvent'"));
+        }
+
+        // the DTD is ignored when streaming and is rejected when building the DOM
+        sender.sendEvent(doctype + "<myevent><element1>a</element1></myevent>");
+        theEvent = listener.assertOneGetNewAndReset();
+        assertEquals("a", theEvent.get("element1"));
+        try
+        {
+            theEvent.getUnderlying();
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Failed to build DOM of XML document for event type 'MyStreamEvent'"));
+        }
+    }
+
+    public void testPerformance() throws Exception
+    {
+        ConfigurationEventTypeXMLDOM desc = new ConfigurationEventTypeXMLDOM();
+        desc.setRootElementName("FIXMLDOM");
+        epService.getEPAdministrator().getConfiguration().addEventType("FIXMLDOM", desc);
+        desc = new ConfigurationEventTypeXMLDOM();
+        desc.setRootElementName("FIXML");
+        desc.setStreaming(true);
+        epService.getEPAdministrator().getConfiguration().addEventType("FIXMLStream", desc);
+
+        String fields = "Ord.ID, Ord.Side, Ord.Px, Ord.Instrmt.Sym, Ord.OrdQty.Qty";
+        epService.getEPAdministrator().createEPL("select " + fields + " from FIXMLDOM").addListener(listener);
+        epService.getEPAdministrator().createEPL("select " + fields + " from FIXMLStream").addListener(listener);
+
+        String messageDOM = makeFIXML("FIXMLDOM", 200);
+        String message = makeFIXML("FIXML", 200);
+        assertTrue(message.length() > 20000);
+        EventSender streamSender = epService.getEPRuntime().getEventSender("FIXMLStream");
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+        builderFactory.setNamespaceAware(true);
+
+        streamSender.sendEvent(message);
+        EventBean theEvent = listener.assertOneGetNewAndReset();
+        assertEquals("O1", theEvent.get("Ord.ID"));
+        assertEquals("IBM", theEvent.get("Ord.Instrmt.Sym"));
+        assertEquals("100", theEvent.get("Ord.OrdQty.Qty"));
+
+        int numEvents = 2000;
+        long deltaDOM = 0;
+        long deltaStream = 0;
+        for (int run = 0; run < 2; run++)   // first run is warm-up
+        {
+            long start = System.nanoTime();
+            for (int i = 0; i < numEvents; i++)
+            {
+                Document doc = builderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(messageDOM)));
+                epService.getEPRuntime().sendEvent(doc);
+            }
+            deltaDOM = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < numEvents; i++)
+            {
+                streamSender.sendEvent(message);
+            }
+            deltaStream = System.nanoTime() - start;
+        }
+        assertEquals(4 * numEvents, listener.getNewDataList().size());
+        listener.reset();
+        log.info(".testPerformance events=" + numEvents + " size=" + message.length() + " dom=" + deltaDOM / 1000000 + "ms streaming=" + deltaStream / 1000000 + "ms");
+    }
+
+    private static void assertValues(EventBean theEvent)
+    {
+        assertEquals("E1", theEvent.get("id"));
+        assertEquals("VAL1", theEvent.get("element1"));
+        assertEquals("VAL21-1", theEvent.get("e21"));
+        assertEquals("VAL3", theEvent.get("a3"));
+        assertEquals(5, theEvent.get("a3num"));
+        assertEquals("<text>", theEvent.get("element3"));
+        assertNull(theEvent.get("missing"));
+        assertNull(theEvent.get("nestedMissing"));
+    }
+
+    private static Document getDocument(String xml) throws Exception
+    {
+        InputSource source = new InputSource(new StringReader(xml));
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+        builderFactory.setNamespaceAware(true);
+        return builderFactory.newDocumentBuilder().parse(source);
+    }
+
+    private static String makeFIXML(String rootElementName, int numLegs)
+    {
+        StringBuilder buf = new StringBuilder();
+        buf.append("<").append(rootElementName).append(" v=\"5.0\">");
+        buf.append("<Ord ID=\"O1\" Side=\"1\" Px=\"93.25\" TxnTm=\"2009-01-01T10:00:00\">");
+        buf.append("<Hdr Snt=\"2009-01-01T10:00:00\" PosDup=\"N\" PosRsnd=\"N\" SeqNum=\"1\"><Sndr ID=\"SENDER\"/><Tgt ID=\"TARGET\"/></Hdr>");
+        buf.append("<Instrmt Sym=\"IBM\" ID=\"459200101\" Src=\"1\"/>");
+        buf.append("<OrdQty Qty=\"100\"/>");
+        for (int i = 0; i < numLegs; i++)
+        {
+            buf.append("<Leg Sym=\"LEG").append(i).append("\" Side=\"2\" Ratio=\"1\" Mat=\"2009-06-19\" Strk=\"95.00\" PutCall=\"1\">");
+            buf.append("<Txt>Leg description text number ").append(i).append("</Txt>");
+            buf.append("</Leg>");
+        }
+        buf.append("</Ord>");
+        buf.append("</").append(rootElementName).append(">");
+        return buf.toString();
+    }
+
+    private static class SupportInvalidEvent
+    {
+    }
+
+    private static final Log log = LogFactory.getLog(TestStAXXMLEvent.class);
+}
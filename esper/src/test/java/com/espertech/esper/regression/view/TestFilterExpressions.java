@@ -942,6 +942,143 @@ public class TestFilterExpressions extends TestCase
         assertTrue(SupportStaticMethodLib.getInvocations().isEmpty());
     }
 
+    public void testFilterBooleanExprShared()
+    {
+        epService.getEPAdministrator().getConfiguration().addPlugInSingleRowFunction("sharedMod", MySharedLib.class.getName(), "mod",
+                ConfigurationPlugInSingleRowFunction.FilterOptimizable.DISABLED);
+
+        String[] filters = new String[] {"sharedMod(intPrimitive) = 1", "sharedMod(intPrimitive) = 1", "sharedMod(intPrimitive) = 2",
+                "sharedMod(intPrimitive) != 3", "sharedMod(intPrimitive) > 7", "5 > sharedMod(intPrimitive)", "sharedMod(intPrimitive) = 4L"};
+        SupportUpdateListener[] listeners = new SupportUpdateListener[filters.length];
+        for (int i = 0; i < filters.length; i++)
+        {
+            listeners[i] = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select * from SupportBean(" + filters[i] + ")").addListener(listeners[i]);
+        }
+
+        int[] values = new int[] {1, 12, 3, 8, 24, 5};
+        boolean[][] expected = new boolean[][] {
+                {true, true, false, true, false, true, false},
+                {false, false, true, true, false, true, false},
+                {false, false, false, false, false, true, false},
+                {false, false, false, true, true, false, false},
+                {false, false, false, true, false, true, true},
+                {false, false, false, true, false, false, false}};
+        for (int i = 0; i < values.length; i++)
+        {
+            MySharedLib.numInvocations = 0;
+            epService.getEPRuntime().sendEvent(new SupportBean("E", values[i]));
+            for (int j = 0; j < filters.length; j++)
+            {
+                assertEquals("value " + values[i] + " filter " + filters[j], expected[i][j], listeners[j].getAndClearIsInvoked());
+            }
+            // the coercing equals-comparison evaluates on its own
+            assertEquals(2, MySharedLib.numInvocations);
+        }
+        epService.getEPAdministrator().destroyAllStatements();
+    }
+
+    public void testFilterLikeRegexp()
+    {
+        String[] filters = new String[] {"theString like '%ABC%'", "theString like 'AB_'", "theString like '%X!%' escape '!'",
+                "theString not like '%ABC%'", "theString regexp '.*A.C'", "theString regexp '[A-C]+'", "theString like '%ABC%' and intPrimitive > 0"};
+        SupportUpdateListener[] listeners = new SupportUpdateListener[filters.length];
+        for (int i = 0; i < filters.length; i++)
+        {
+            listeners[i] = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select * from SupportBean(" + filters[i] + ")").addListener(listeners[i]);
+        }
+
+        Object[][] events = new Object[][] {{"xABCx", 1}, {"ABC", 0}, {"ABX%", 1}, {"AXC", 1}, {"x", 1}};
+        boolean[][] expected = new boolean[][] {
+                {true, false, false, false, false, false, true},
+                {true, true, false, false, true, true, false},
+                {false, false, true, true, false, false, false},
+                {false, false, false, true, true, false, false},
+                {false, false, false, true, false, false, false}};
+        for (int i = 0; i < events.length; i++)
+        {
+            epService.getEPRuntime().sendEvent(new SupportBean((String) events[i][0], (Integer) events[i][1]));
+            for (int j = 0; j < filters.length; j++)
+            {
+                assertEquals("event " + events[i][0] + " filter " + filters[j], expected[i][j], listeners[j].getAndClearIsInvoked());
+            }
+        }
+        epService.getEPAdministrator().destroyAllStatements();
+    }
+
+    public void testFilterBooleanExprSharedOrder()
+    {
+        epService.getEPAdministrator().getConfiguration().addPlugInSingleRowFunction("sharedMod", MySharedLib.class.getName(), "mod",
+                ConfigurationPlugInSingleRowFunction.FilterOptimizable.DISABLED);
+
+        // expressions of a shared sub-expression match in the order of the statements, as do other expressions
+        String[] filters = new String[] {"sharedMod(intPrimitive) = 1", "intPrimitive + 1 = 2", "sharedMod(intPrimitive) > 0",
+                "intPrimitive * 2 = 2", "sharedMod(intPrimitive) != 5"};
+        final List<String> received = new ArrayList<String>();
+        for (int i = 0; i < filters.length; i++)
+        {
+            final String name = "s" + i;
+            epService.getEPAdministrator().createEPL("select * from SupportBean(" + filters[i] + ")", name).addListener(new UpdateListener() {
+                public void update(EventBean[] newEvents, EventBean[] oldEvents)
+                {
+                    received.add(name);
+                }
+            });
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            epService.getEPRuntime().sendEvent(new SupportBean("E", 1));
+            assertEquals(Arrays.asList("s0", "s1", "s2", "s3", "s4"), received);
+            received.clear();
+        }
+        epService.getEPAdministrator().destroyAllStatements();
+    }
+
+    public void testFilterBooleanExprSharedChange()
+    {
+        epService.getEPAdministrator().getConfiguration().addPlugInSingleRowFunction("sharedMod", MySharedLib.class.getName(), "mod",
+                ConfigurationPlugInSingleRowFunction.FilterOptimizable.DISABLED);
+
+        // the grouping follows statements created and destroyed between events
+        SupportUpdateListener listenerOne = new SupportUpdateListener();
+        EPStatement stmtOne = epService.getEPAdministrator().createEPL("select * from SupportBean(sharedMod(intPrimitive) = 1)");
+        stmtOne.addListener(listenerOne);
+        assertSharedMod(11, 1);
+        assertTrue(listenerOne.getAndClearIsInvoked());
+
+        SupportUpdateListener listenerTwo = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from SupportBean(sharedMod(intPrimitive) > 0)").addListener(listenerTwo);
+        assertSharedMod(11, 1);
+        assertTrue(listenerOne.getAndClearIsInvoked());
+        assertTrue(listenerTwo.getAndClearIsInvoked());
+
+        stmtOne.destroy();
+        SupportUpdateListener listenerThree = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from SupportBean(sharedMod(intPrimitive) = 2)").addListener(listenerThree);
+        SupportUpdateListener listenerFour = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from SupportBean(sharedMod(intPrimitive) != 2)").addListener(listenerFour);
+        assertSharedMod(12, 1);
+        assertFalse(listenerOne.getAndClearIsInvoked());
+        assertTrue(listenerTwo.getAndClearIsInvoked());
+        assertTrue(listenerThree.getAndClearIsInvoked());
+        assertFalse(listenerFour.getAndClearIsInvoked());
+
+        assertSharedMod(10, 1);
+        assertFalse(listenerTwo.getAndClearIsInvoked());
+        assertFalse(listenerThree.getAndClearIsInvoked());
+        assertTrue(listenerFour.getAndClearIsInvoked());
+        epService.getEPAdministrator().destroyAllStatements();
+    }
+
+    private void assertSharedMod(int intPrimitive, int numInvocationsExpected)
+    {
+        MySharedLib.numInvocations = 0;
+        epService.getEPRuntime().sendEvent(new SupportBean("E", intPrimitive));
+        assertEquals(numInvocationsExpected, MySharedLib.numInvocations);
+    }
+
     public void testFilterWithEqualsSameCompare()
     {
         String text;
@@ -1225,6 +1362,15 @@ public class TestFilterExpressions extends TestCase
         }
     }
 
+    public static class MySharedLib {
+        private static int numInvocations;
+
+        public static int mod(int value) {
+            numInvocations++;
+            return value % 10;
+        }
+    }
+
     public static class TestEvent {
         private final int x;
 
@@ -0,0 +1,201 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.type.ScheduleUnit;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class TestScheduleOccurrenceCache extends TestCase
+{
+    private static final long START = 1072915200000L;    // 2004-01-01 00:00:00 GMT
+    private static final long FIVE_YEARS = 5L * 366 * 24 * 60 * 60 * 1000;
+
+    public void testSharing()
+    {
+        ScheduleSpec specOne = new ScheduleSpec();
+        specOne.addValue(ScheduleUnit.MINUTES, 5);
+        ScheduleSpec specTwo = new ScheduleSpec();
+        specTwo.addValue(ScheduleUnit.MINUTES, 5);
+        ScheduleSpec specTZ = new ScheduleSpec();
+        specTZ.addValue(ScheduleUnit.MINUTES, 5);
+        specTZ.setOptionalTimeZone("GMT-4:00");
+
+        ScheduleOccurrenceCacheService service = new ScheduleOccurrenceCacheService();
+        ScheduleOccurrenceCache cacheOne = service.getCache(specOne);
+        assertNotNull(cacheOne);
+        assertSame(cacheOne, service.getCache(specOne));
+        assertSame(cacheOne, service.getCache(specTwo));
+        assertNotSame(cacheOne, service.getCache(specTZ));
+
+        ScheduleSpec specMonths = new ScheduleSpec();
+        specMonths.addValue(ScheduleUnit.MONTHS, 2);
+        assertNull(service.getCache(specMonths));
+
+        // changing the schedule does not affect the shared cache
+        specOne.addValue(ScheduleUnit.MINUTES, 10);
+        assertNotSame(cacheOne, service.getCache(specOne));
+        assertSame(cacheOne, service.getCache(specTwo));
+        assertEquals(START + 5 * 60 * 1000, ScheduleComputeHelper.computeNextOccurance(specTwo, START - 60 * 1000, service));
+        assertEquals(START + 5 * 60 * 1000, ScheduleComputeHelper.computeNextOccurance(specOne, START - 60 * 1000, service));
+        assertEquals(START + 10 * 60 * 1000, ScheduleComputeHelper.computeNextOccurance(specOne, START + 5 * 60 * 1000, service));
+
+        // engines do not share caches
+        ScheduleOccurrenceCacheService otherService = new ScheduleOccurrenceCacheService();
+        assertNotSame(cacheOne, otherService.getCache(specTwo));
+        assertSame(otherService.getCache(specTwo), otherService.getCache(specTwo));
+    }
+
+    public void testEvictLeastRecentlyUsed()
+    {
+        ScheduleOccurrenceCacheService service = new ScheduleOccurrenceCacheService(3);
+        ScheduleOccurrenceCache[] caches = new ScheduleOccurrenceCache[4];
+        for (int i = 0; i < 3; i++)
+        {
+            caches[i] = service.getCache(makeMinuteSpec(i));
+        }
+        assertEquals(3, service.size());
+
+        // use the first, so that the second is the least recently used
+        assertSame(caches[0], service.getCache(makeMinuteSpec(0)));
+        caches[3] = service.getCache(makeMinuteSpec(3));
+        assertEquals(3, service.size());
+        assertSame(caches[0], service.getCache(makeMinuteSpec(0)));
+        assertSame(caches[2], service.getCache(makeMinuteSpec(2)));
+        assertSame(caches[3], service.getCache(makeMinuteSpec(3)));
+        assertNotSame(caches[1], service.getCache(makeMinuteSpec(1)));
+        assertEquals(3, service.size());
+    }
+
+    public void testDefaultTimeZoneChange()
+    {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try
+        {
+            ScheduleOccurrenceCacheService service = new ScheduleOccurrenceCacheService();
+            ScheduleSpec spec = new ScheduleSpec();
+            spec.addValue(ScheduleUnit.MINUTES, 0);
+            spec.addValue(ScheduleUnit.HOURS, 9);
+
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+            ScheduleOccurrenceCache cacheGMT = service.getCache(spec);
+            assertEquals("GMT", cacheGMT.getTimeZone());
+            assertEquals(START + 9 * 60 * 60 * 1000, ScheduleComputeHelper.computeNextOccurance(spec, START, service));
+
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+2:00"));
+            ScheduleOccurrenceCache cacheShifted = service.getCache(spec);
+            assertNotSame(cacheGMT, cacheShifted);
+            assertEquals(START + 7 * 60 * 60 * 1000, ScheduleComputeHelper.computeNextOccurance(spec, START, service));
+
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+            assertSame(cacheGMT, service.getCache(spec));
+        }
+        finally
+        {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    public void testMonotonicTime()
+    {
+        ScheduleOccurrenceCacheService service = new ScheduleOccurrenceCacheService();
+        Random random = new Random(1);
+        for (ScheduleSpec spec : makeSpecs())
+        {
+            long time = START + random.nextInt(1000);
+            for (int i = 0; i < 2000; i++)
+            {
+                long next = ScheduleComputeHelper.computeNextOccurance(spec, time, service);
+                assertEquals(spec.toString(), expected(spec, time), next);
+                time = random.nextBoolean() ? next : time + random.nextInt(10 * 60 * 1000);
+            }
+        }
+    }
+
+    public void testRandomTime()
+    {
+        ScheduleOccurrenceCacheService service = new ScheduleOccurrenceCacheService();
+        Random random = new Random(2);
+        for (ScheduleSpec spec : makeSpecs())
+        {
+            for (int i = 0; i < 2000; i++)
+            {
+                long time = START + (long) (random.nextDouble() * FIVE_YEARS);
+                assertEquals(spec.toString(), expected(spec, time), ScheduleComputeHelper.computeNextOccurance(spec, time, service));
+            }
+        }
+    }
+
+    private static long expected(ScheduleSpec spec, long time)
+    {
+        long offset = spec.getUnitValues().containsKey(ScheduleUnit.SECONDS) ? 1000 : 60 * 1000;
+        return ScheduleComputeHelper.computeUncached(spec, time + offset);
+    }
+
+    private static ScheduleSpec makeMinuteSpec(int minute)
+    {
+        ScheduleSpec spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.MINUTES, minute);
+        return spec;
+    }
+
+    private static List<ScheduleSpec> makeSpecs()
+    {
+        List<ScheduleSpec> specs = new ArrayList<ScheduleSpec>();
+        specs.add(new ScheduleSpec());
+
+        ScheduleSpec spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.SECONDS, 0);
+        spec.addValue(ScheduleUnit.SECONDS, 15);
+        spec.addValue(ScheduleUnit.SECONDS, 45);
+        specs.add(spec);
+
+        spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.MINUTES, 5);
+        spec.addValue(ScheduleUnit.MINUTES, 59);
+        spec.addValue(ScheduleUnit.HOURS, 0);
+        spec.addValue(ScheduleUnit.HOURS, 13);
+        specs.add(spec);
+
+        spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.MINUTES, 30);
+        spec.addValue(ScheduleUnit.DAYS_OF_MONTH, 29);
+        spec.addValue(ScheduleUnit.DAYS_OF_MONTH, 31);
+        specs.add(spec);
+
+        spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.HOURS, 8);
+        spec.addValue(ScheduleUnit.DAYS_OF_WEEK, 1);
+        spec.addValue(ScheduleUnit.DAYS_OF_WEEK, 5);
+        specs.add(spec);
+
+        spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.SECONDS, 30);
+        spec.addValue(ScheduleUnit.MINUTES, 0);
+        spec.addValue(ScheduleUnit.HOURS, 2);
+        spec.setOptionalTimeZone("America/New_York");
+        specs.add(spec);
+
+        spec = new ScheduleSpec();
+        spec.addValue(ScheduleUnit.MINUTES, 10);
+        spec.addValue(ScheduleUnit.DAYS_OF_MONTH, 15);
+        spec.addValue(ScheduleUnit.DAYS_OF_WEEK, 3);
+        spec.setOptionalTimeZone("GMT+5:30");
+        specs.add(spec);
+
+        return specs;
+    }
+}
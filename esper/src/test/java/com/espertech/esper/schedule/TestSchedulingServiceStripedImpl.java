@@ -0,0 +1,261 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.client.ConfigurationEngineDefaults;
+import com.espertech.esper.client.util.DateTime;
+import com.espertech.esper.timer.TimeSourceServiceImpl;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestSchedulingServiceStripedImpl extends TestCase
+{
+    public void testCompareSingle()
+    {
+        for (ConfigurationEngineDefaults.SchedulingServiceProfile profile : ConfigurationEngineDefaults.SchedulingServiceProfile.values())
+        {
+            tryCompareSingle(profile);
+        }
+    }
+
+    public void testVisitOrder()
+    {
+        SchedulingServiceSPI service = SchedulingServiceProvider.newService(new TimeSourceServiceImpl(), ConfigurationEngineDefaults.SchedulingServiceProfile.SORTED, 4);
+        ScheduleBucket bucket = new SchedulingMgmtServiceImpl().allocateBucket();
+        service.setTime(0);
+        for (int i = 0; i < 20; i++)
+        {
+            service.add(100 - i, new MyHandle("S" + i, i), bucket.allocateSlot());
+        }
+        assertEquals(20, service.getScheduleHandleCount());
+        assertEquals(81L, (long) service.getNearestTimeHandle());
+        assertEquals(100L, (long) service.getFurthestTimeHandle());
+
+        final List<Long> times = new ArrayList<Long>();
+        service.visitSchedules(new ScheduleVisitor() {
+            public void visit(ScheduleVisit visit) {
+                times.add(visit.getTimestamp());
+            }
+        });
+        assertEquals(20, times.size());
+        for (int i = 0; i < times.size(); i++)
+        {
+            assertEquals(81L + i, (long) times.get(i));
+        }
+
+        ScheduleSet taken = service.take(Collections.singleton("S5"));
+        assertEquals(1, taken.getList().size());
+        assertEquals(95L, (long) taken.getList().get(0).getTime());
+        assertEquals(19, service.getScheduleHandleCount());
+        service.apply(taken);
+        assertEquals(20, service.getScheduleHandleCount());
+    }
+
+    public void testTimeHandleDate()
+    {
+        // engine time in nanoseconds renders as the same date as in milliseconds
+        SchedulingServiceStripedImpl service = (SchedulingServiceStripedImpl) SchedulingServiceProvider.newService(new TimeSourceServiceImpl(TimeAbacus.NANOSECONDS), ConfigurationEngineDefaults.SchedulingServiceProfile.SORTED, 4);
+        ScheduleBucket bucket = new SchedulingMgmtServiceImpl().allocateBucket();
+        service.setTime(0);
+        service.add(5000000000L, new MyHandle("S0", 0), bucket.allocateSlot());
+        service.add(1000000000L, new MyHandle("S1", 0), bucket.allocateSlot());
+        assertEquals(DateTime.print(1000L), service.getNearestTimeHandleDate());
+        assertEquals(DateTime.print(5000L), service.getFurthestTimeHandleDate());
+    }
+
+    public void testTimeHandleCount()
+    {
+        // handles of different stripes scheduled for the same time count as one time, as for a single stripe
+        for (ConfigurationEngineDefaults.SchedulingServiceProfile profile : ConfigurationEngineDefaults.SchedulingServiceProfile.values())
+        {
+            SchedulingServiceSPI service = SchedulingServiceProvider.newService(new TimeSourceServiceImpl(), profile, 4);
+            ScheduleBucket bucket = new SchedulingMgmtServiceImpl().allocateBucket();
+            service.setTime(0);
+            for (int i = 0; i < 20; i++)
+            {
+                service.add(100 + 100 * (i % 3), new MyHandle("S" + i, 0), bucket.allocateSlot());
+            }
+            assertEquals(20, service.getScheduleHandleCount());
+            assertEquals(3, service.getTimeHandleCount());
+
+            service.setTime(100);
+            List<ScheduleHandle> handles = new ArrayList<ScheduleHandle>();
+            service.evaluate(handles);
+            assertEquals(7, handles.size());
+            assertEquals(2, service.getTimeHandleCount());
+        }
+    }
+
+    public void testCompareThreads() throws Exception
+    {
+        int numThreads = 4;
+
+        // warm up both, then measure
+        tryThreads(1, numThreads, 20000);
+        tryThreads(numThreads * 4, numThreads, 20000);
+
+        long[] single = tryThreads(1, numThreads, 200000);
+        long[] striped = tryThreads(numThreads * 4, numThreads, 200000);
+        log.info(".testCompareThreads threads=" + numThreads +
+                " single=" + single[0] + "ms blocked=" + single[1] + " blockedMs=" + single[2] +
+                " striped=" + striped[0] + "ms blocked=" + striped[1] + " blockedMs=" + striped[2]);
+
+        // threads working on different context partitions do not block each other when striped
+        assertTrue(striped[1] <= single[1]);
+    }
+
+    private void tryCompareSingle(ConfigurationEngineDefaults.SchedulingServiceProfile profile)
+    {
+        Random random = new Random(1000);
+        SchedulingServiceSPI single = SchedulingServiceProvider.newService(new TimeSourceServiceImpl(), profile, 1);
+        SchedulingServiceSPI striped = SchedulingServiceProvider.newService(new TimeSourceServiceImpl(), profile, 7);
+        assertTrue(striped instanceof SchedulingServiceStripedImpl);
+
+        int numHandles = 300;
+        ScheduleHandle[] handles = new ScheduleHandle[numHandles];
+        ScheduleSlot[] slots = new ScheduleSlot[numHandles];
+        SchedulingMgmtServiceImpl mgmtService = new SchedulingMgmtServiceImpl();
+        ScheduleBucket[] buckets = new ScheduleBucket[10];
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = mgmtService.allocateBucket();
+        }
+        for (int i = 0; i < numHandles; i++)
+        {
+            handles[i] = new MyHandle("S" + (i % 10), i / 10);
+            slots[i] = buckets[random.nextInt(buckets.length)].allocateSlot();
+        }
+
+        long time = 0;
+        single.setTime(time);
+        striped.setTime(time);
+        for (int i = 0; i < 10000; i++)
+        {
+            int operation = random.nextInt(10);
+            int handle = random.nextInt(numHandles);
+            if (operation < 5)
+            {
+                long after = random.nextInt(50);
+                single.add(after, handles[handle], slots[handle]);
+                striped.add(after, handles[handle], slots[handle]);
+            }
+            else if (operation < 7)
+            {
+                single.remove(handles[handle], slots[handle]);
+                striped.remove(handles[handle], slots[handle]);
+            }
+            else
+            {
+                time += random.nextInt(20);
+                single.setTime(time);
+                striped.setTime(time);
+                List<ScheduleHandle> expected = new ArrayList<ScheduleHandle>();
+                List<ScheduleHandle> received = new ArrayList<ScheduleHandle>();
+                single.evaluate(expected);
+                striped.evaluate(received);
+                assertEquals(expected, received);
+            }
+            assertEquals(single.getScheduleHandleCount(), striped.getScheduleHandleCount());
+            assertEquals(single.getNearestTimeHandle(), striped.getNearestTimeHandle());
+            assertEquals(single.isScheduled(handles[handle]), striped.isScheduled(handles[handle]));
+        }
+    }
+
+    // Returns the elapsed time and the number of times and milliseconds the threads blocked entering a monitor
+    private long[] tryThreads(int numStripes, int numThreads, final int numOperations) throws Exception
+    {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean.isThreadContentionMonitoringSupported())
+        {
+            threadMXBean.setThreadContentionMonitoringEnabled(true);
+        }
+        final AtomicLong blockedCount = new AtomicLong();
+        final AtomicLong blockedTime = new AtomicLong();
+
+        final SchedulingServiceSPI service = SchedulingServiceProvider.newService(new TimeSourceServiceImpl(), ConfigurationEngineDefaults.SchedulingServiceProfile.SORTED, numStripes);
+        final SchedulingMgmtServiceImpl mgmtService = new SchedulingMgmtServiceImpl();
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        Future[] future = new Future[numThreads];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < numThreads; i++)
+        {
+            final int threadNum = i;
+            future[i] = threadPool.submit(new Runnable() {
+                public void run() {
+                    Random random = new Random(threadNum);
+                    ScheduleBucket bucket = mgmtService.allocateBucket();
+                    MyHandle[] handles = new MyHandle[100];
+                    ScheduleSlot[] slots = new ScheduleSlot[handles.length];
+                    // each thread works on the schedules of its own context partition
+                    for (int j = 0; j < handles.length; j++) {
+                        handles[j] = new MyHandle("T" + threadNum, 0);
+                        slots[j] = bucket.allocateSlot();
+                    }
+                    for (int j = 0; j < numOperations; j++) {
+                        int handle = random.nextInt(handles.length);
+                        service.remove(handles[handle], slots[handle]);
+                        service.add(1 + random.nextInt(10000), handles[handle], slots[handle]);
+                    }
+                    ThreadInfo info = threadMXBean.getThreadInfo(Thread.currentThread().getId());
+                    blockedCount.addAndGet(info.getBlockedCount());
+                    blockedTime.addAndGet(Math.max(0, info.getBlockedTime()));
+                }
+            });
+        }
+        threadPool.shutdown();
+        threadPool.awaitTermination(60, TimeUnit.SECONDS);
+        long delta = System.currentTimeMillis() - start;
+        for (int i = 0; i < numThreads; i++)
+        {
+            future[i].get();
+        }
+        assertEquals(numThreads * 100, service.getScheduleHandleCount());
+        service.destroy();
+        return new long[] {delta, blockedCount.get(), blockedTime.get()};
+    }
+
+    private static class MyHandle implements ScheduleHandle
+    {
+        private final String statementId;
+        private final int agentInstanceId;
+
+        private MyHandle(String statementId, int agentInstanceId)
+        {
+            this.statementId = statementId;
+            this.agentInstanceId = agentInstanceId;
+        }
+
+        public String getStatementId()
+        {
+            return statementId;
+        }
+
+        public int getAgentInstanceId()
+        {
+            return agentInstanceId;
+        }
+    }
+
+    private static final Log log = LogFactory.getLog(TestSchedulingServiceStripedImpl.class);
+}
@@ -0,0 +1,246 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.schedule;
+
+import com.espertech.esper.support.schedule.SupportScheduleCallback;
+import com.espertech.esper.timer.TimeSourceServiceImpl;
+import junit.framework.TestCase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestSchedulingServiceTimingWheelImpl extends TestCase
+{
+    private SchedulingServiceTimingWheelImpl service;
+    private ScheduleSlot slots[][];
+    private SupportScheduleCallback callbacks[];
+
+    public void setUp()
+    {
+        service = new SchedulingServiceTimingWheelImpl(new TimeSourceServiceImpl());
+        SchedulingMgmtServiceImpl mgmtService = new SchedulingMgmtServiceImpl();
+
+        slots = new ScheduleSlot[2][2];
+        for (int i = 0; i < slots.length; i++)
+        {
+            ScheduleBucket bucket = mgmtService.allocateBucket();
+            for (int j = 0; j < slots[i].length; j++)
+            {
+                slots[i][j] = bucket.allocateSlot();
+            }
+        }
+
+        callbacks = new SupportScheduleCallback[4];
+        for (int i = 0; i < callbacks.length; i++)
+        {
+            callbacks[i] = new SupportScheduleCallback();
+        }
+    }
+
+    public void tearDown()
+    {
+        SupportScheduleCallback.setCallbackOrderNum(0);
+    }
+
+    public void testTrigger()
+    {
+        service.setTime(0);
+        SupportScheduleCallback.setCallbackOrderNum(0);
+
+        service.add(20, callbacks[3], slots[1][1]);
+        service.add(20, callbacks[2], slots[1][0]);
+        service.add(20, callbacks[1], slots[0][1]);
+        service.add(21, callbacks[0], slots[0][0]);
+        assertEquals(4, service.getScheduleHandleCount());
+        assertEquals(2, service.getTimeHandleCount());
+        assertEquals(20L, (long) service.getNearestTimeHandle());
+        assertEquals(21L, (long) service.getFurthestTimeHandle());
+
+        service.setTime(19);
+        evaluateSchedule();
+        checkCallbacks(new int[] {0, 0, 0, 0});
+
+        service.setTime(20);
+        evaluateSchedule();
+        checkCallbacks(new int[] {0, 1, 2, 3});
+        assertFalse(service.isScheduled(callbacks[3]));
+        assertTrue(service.isScheduled(callbacks[0]));
+
+        // a handle added for the current time fires with the next evaluation
+        service.add(0, callbacks[3], slots[1][1]);
+        service.setTime(21);
+        evaluateSchedule();
+        checkCallbacks(new int[] {5, 0, 0, 4});
+
+        // far out, beyond what the wheel covers, and then removed again
+        service.add(100000L * 1000000L, callbacks[0], slots[0][0]);
+        service.add(1000, callbacks[1], slots[0][1]);
+        service.add(2000, callbacks[1], slots[0][1]);
+        service.remove(callbacks[0], slots[0][0]);
+        service.setTime(1021);
+        evaluateSchedule();
+        checkCallbacks(new int[] {0, 0, 0, 0});
+        service.setTime(Long.MAX_VALUE / 2);
+        evaluateSchedule();
+        checkCallbacks(new int[] {0, 6, 0, 0});
+        assertEquals(0, service.getScheduleHandleCount());
+        assertNull(service.getNearestTimeHandle());
+    }
+
+    public void testTimeBackwards()
+    {
+        service.setTime(1000000);
+        SupportScheduleCallback.setCallbackOrderNum(0);
+        service.add(300, callbacks[0], slots[0][0]);
+
+        service.setTime(1000);
+        service.add(100, callbacks[1], slots[0][1]);
+        assertEquals(1100L, (long) service.getNearestTimeHandle());
+
+        service.setTime(1100);
+        evaluateSchedule();
+        checkCallbacks(new int[] {0, 1, 0, 0});
+
+        service.setTime(1000300);
+        evaluateSchedule();
+        checkCallbacks(new int[] {2, 0, 0, 0});
+    }
+
+    public void testCompareSorted()
+    {
+        Random random = new Random(1000);
+        SchedulingServiceImpl sorted = new SchedulingServiceImpl(new TimeSourceServiceImpl());
+        SchedulingMgmtServiceImpl mgmtService = new SchedulingMgmtServiceImpl();
+        ScheduleBucket bucket = mgmtService.allocateBucket();
+
+        int numHandles = 500;
+        ScheduleHandle[] handles = new ScheduleHandle[numHandles];
+        ScheduleSlot[] handleSlots = new ScheduleSlot[numHandles];
+        for (int i = 0; i < numHandles; i++)
+        {
+            handles[i] = new SupportScheduleCallback();
+            handleSlots[i] = bucket.allocateSlot();
+        }
+        long[] scales = new long[] {10, 300, 70000, 20000000, 10000000000L};
+
+        long time = 0;
+        sorted.setTime(time);
+        service.setTime(time);
+        for (int i = 0; i < 20000; i++)
+        {
+            int operation = random.nextInt(10);
+            int handle = random.nextInt(numHandles);
+            if (operation < 5)
+            {
+                long after = (long) (random.nextDouble() * scales[random.nextInt(scales.length)]);
+                sorted.add(after, handles[handle], handleSlots[handle]);
+                service.add(after, handles[handle], handleSlots[handle]);
+            }
+            else if (operation < 7)
+            {
+                sorted.remove(handles[handle], handleSlots[handle]);
+                service.remove(handles[handle], handleSlots[handle]);
+            }
+            else
+            {
+                time += (long) (random.nextDouble() * scales[random.nextInt(scales.length)]);
+                sorted.setTime(time);
+                service.setTime(time);
+                List<ScheduleHandle> expected = new ArrayList<ScheduleHandle>();
+                List<ScheduleHandle> received = new ArrayList<ScheduleHandle>();
+                sorted.evaluate(expected);
+                service.evaluate(received);
+                assertEquals(expected, received);
+            }
+            assertEquals(sorted.getScheduleHandleCount(), service.getScheduleHandleCount());
+            assertEquals(sorted.getNearestTimeHandle(), service.getNearestTimeHandle());
+        }
+    }
+
+    public void testCompareThroughput()
+    {
+        int numHandles = 200000;
+        SupportScheduleCallback[] handles = new SupportScheduleCallback[numHandles];
+        for (int i = 0; i < numHandles; i++)
+        {
+            handles[i] = new SupportScheduleCallback();
+        }
+
+        // warm up both, then measure
+        tryThroughput(new SchedulingServiceImpl(new TimeSourceServiceImpl()), handles);
+        tryThroughput(new SchedulingServiceTimingWheelImpl(new TimeSourceServiceImpl()), handles);
+
+        long deltaSorted = tryThroughput(new SchedulingServiceImpl(new TimeSourceServiceImpl()), handles);
+        long deltaWheel = tryThroughput(new SchedulingServiceTimingWheelImpl(new TimeSourceServiceImpl()), handles);
+        log.info(".testCompareThroughput handles=" + numHandles + " sorted=" + deltaSorted + "ms timingwheel=" + deltaWheel + "ms");
+    }
+
+    private long tryThroughput(SchedulingServiceSPI scheduler, ScheduleHandle[] handles)
+    {
+        Random random = new Random(2000);
+        ScheduleBucket bucket = new SchedulingMgmtServiceImpl().allocateBucket();
+        ScheduleSlot[] handleSlots = new ScheduleSlot[handles.length];
+        for (int i = 0; i < handles.length; i++)
+        {
+            handleSlots[i] = bucket.allocateSlot();
+        }
+
+        long start = System.currentTimeMillis();
+        long time = 0;
+        scheduler.setTime(time);
+        List<ScheduleHandle> fired = new ArrayList<ScheduleHandle>();
+        for (int i = 0; i < handles.length; i++)
+        {
+            scheduler.add(1 + random.nextInt(60000), handles[i], handleSlots[i]);
+        }
+        for (int step = 0; step < 1000; step++)
+        {
+            // reschedule some handles as a time window or timer guard would, then advance time
+            for (int i = 0; i < 500; i++)
+            {
+                int handle = random.nextInt(handles.length);
+                scheduler.remove(handles[handle], handleSlots[handle]);
+                scheduler.add(1 + random.nextInt(60000), handles[handle], handleSlots[handle]);
+            }
+            time += 100;
+            scheduler.setTime(time);
+            scheduler.evaluate(fired);
+            fired.clear();
+        }
+        long delta = System.currentTimeMillis() - start;
+        scheduler.destroy();
+        return delta;
+    }
+
+    private void checkCallbacks(int[] results)
+    {
+        for (int i = 0; i < callbacks.length; i++)
+        {
+            assertEquals("callback " + i, results[i], callbacks[i].clearAndGetOrderTriggered());
+        }
+    }
+
+    private void evaluateSchedule()
+    {
+        List<ScheduleHandle> handles = new ArrayList<ScheduleHandle>();
+        service.evaluate(handles);
+        for (ScheduleHandle handle : handles)
+        {
+            ((ScheduleHandleCallback) handle).scheduledTrigger(null);
+        }
+    }
+
+    private static final Log log = LogFactory.getLog(TestSchedulingServiceTimingWheelImpl.class);
+}
@@ -0,0 +1,54 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.schedule;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestTimeAbacus extends TestCase
+{
+    public void testConversions()
+    {
+        assertSame(TimeAbacus.MILLISECONDS, TimeAbacus.getInstance(TimeUnit.MILLISECONDS));
+        assertSame(TimeAbacus.MICROSECONDS, TimeAbacus.getInstance(TimeUnit.MICROSECONDS));
+        assertSame(TimeAbacus.NANOSECONDS, TimeAbacus.getInstance(TimeUnit.NANOSECONDS));
+
+        assertEquals(1000L, TimeAbacus.MILLISECONDS.getOneSecond());
+        assertEquals(1000000L, TimeAbacus.MICROSECONDS.getOneSecond());
+        assertEquals(1000000000L, TimeAbacus.NANOSECONDS.getOneSecond());
+
+        assertEquals(1500L, TimeAbacus.MILLISECONDS.deltaForSecondsDouble(1.5));
+        assertEquals(2L, TimeAbacus.MILLISECONDS.deltaForSecondsDouble(0.0015));
+        assertEquals(1500L, TimeAbacus.MICROSECONDS.deltaForSecondsDouble(0.0015));
+        assertEquals(10000L, TimeAbacus.MILLISECONDS.deltaForSecondsNumber(10));
+        assertEquals(10000000L, TimeAbacus.MICROSECONDS.deltaForSecondsNumber(10L));
+        assertEquals(2500000L, TimeAbacus.MICROSECONDS.deltaForSecondsNumber(2.5d));
+
+        assertEquals(1.5d, TimeAbacus.MICROSECONDS.toSeconds(1500000));
+        assertEquals(1L, TimeAbacus.MICROSECONDS.toMillis(1999));
+        assertEquals(-1L, TimeAbacus.MICROSECONDS.toMillis(-1));
+        assertEquals(2000L, TimeAbacus.MICROSECONDS.fromMillis(2));
+        assertEquals(5L, TimeAbacus.MILLISECONDS.toMillis(5));
+    }
+
+    public void testInvalid()
+    {
+        try {
+            TimeAbacus.getInstance(TimeUnit.SECONDS);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+}
@@ -18,9 +18,20 @@ import java.util.Collection;
 
 public class SupportFilterHandle implements FilterHandleCallback
 {
+    private final String statementId;
     private int countInvoked;
     private EventBean lastEvent;
 
+    public SupportFilterHandle()
+    {
+        this("");
+    }
+
+    public SupportFilterHandle(String statementId)
+    {
+        this.statementId = statementId;
+    }
+
     public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches)
     {
         countInvoked++;
@@ -61,6 +72,6 @@ public class SupportFilterHandle implements FilterHandleCallback
 
     public String getStatementId()
     {
-        return "";
+        return statementId;
     }
 }
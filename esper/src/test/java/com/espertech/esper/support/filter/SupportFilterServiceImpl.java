@@ -14,6 +14,7 @@ package com.espertech.esper.support.filter;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.filter.FilterService;
 import com.espertech.esper.filter.FilterHandle;
+import com.espertech.esper.filter.FilterSetEntry;
 import com.espertech.esper.filter.FilterValueSet;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.collection.Pair;
@@ -47,6 +48,19 @@ public class SupportFilterServiceImpl implements FilterService
         removed.add(callback);
     }
 
+    public void addAll(Collection<FilterSetEntry> filters)
+    {
+        for (FilterSetEntry entry : filters)
+        {
+            add(entry.getFilterValueSet(), entry.getHandle());
+        }
+    }
+
+    public void removeAll(Collection<FilterHandle> callbacks)
+    {
+        removed.addAll(callbacks);
+    }
+
     public long getNumEventsEvaluated()
     {
         throw new UnsupportedOperationException();
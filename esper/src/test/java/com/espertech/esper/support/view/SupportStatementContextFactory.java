@@ -31,6 +31,7 @@ import com.espertech.esper.epl.variable.VariableServiceImpl;
 import com.espertech.esper.event.vaevent.ValueAddEventServiceImpl;
 import com.espertech.esper.pattern.PatternObjectResolutionServiceImpl;
 import com.espertech.esper.schedule.ScheduleBucket;
+import com.espertech.esper.schedule.ScheduleOccurrenceCacheService;
 import com.espertech.esper.schedule.SchedulingService;
 import com.espertech.esper.support.event.SupportEventAdapterService;
 import com.espertech.esper.support.schedule.SupportSchedulingServiceImpl;
@@ -95,7 +96,8 @@ public class SupportStatementContextFactory
                 null,
                 null,
                 null,
-                new StatementEventTypeRefImpl());
+                new StatementEventTypeRefImpl(),
+                new ScheduleOccurrenceCacheService());
 
         return new StatementContext(stmtEngineServices,
                 null,
@@ -11,11 +11,15 @@
 
 package com.espertech.esper.timer;
 
+import com.espertech.esper.schedule.TimeAbacus;
 import junit.framework.TestCase;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Ensure that TimeSourceMills and TimeSourceMills
  * agree on wall clock time.
@@ -46,6 +50,39 @@ public class TestTimeSource extends TestCase
         assertTimeWithinTolerance(TOLERANCE_MILLISECS, nanos, millis);
     }
 
+    public void testNanosNotDecreasing() throws InterruptedException
+    {
+        // a time returned to any thread is never followed by an earlier time
+        final TimeSourceService source = new TimeSourceServiceImpl(TimeAbacus.NANOSECONDS);
+        final AtomicLong published = new AtomicLong(Long.MIN_VALUE);
+        final AtomicBoolean failed = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++)
+        {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 100000; j++) {
+                        long before = published.get();
+                        long time = source.getTime();
+                        if (time < before) {
+                            failed.set(true);
+                        }
+                        long last = published.get();
+                        while (time > last && !published.compareAndSet(last, time)) {
+                            last = published.get();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+
 	private void assertTimeWithinTolerance(final long TOLERANCE_MILLISECS,
 			TimeSourceService nanos, TimeSourceService millis) {
 
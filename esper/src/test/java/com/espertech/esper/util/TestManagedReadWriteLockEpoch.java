@@ -0,0 +1,147 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2008 EsperTech, Inc. All rights reserved.                            *
+ *  http://esper.codehaus.org                                                          *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.util;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestManagedReadWriteLockEpoch extends TestCase
+{
+    private ManagedReadWriteLockEpoch lock;
+
+    public void setUp()
+    {
+        lock = new ManagedReadWriteLockEpoch("test", false);
+    }
+
+    public void testReentrant()
+    {
+        lock.acquireReadLock();
+        lock.acquireReadLock();
+        lock.releaseReadLock();
+        lock.releaseReadLock();
+
+        // writer may enter read sections and nest the write lock
+        lock.acquireWriteLock();
+        lock.acquireWriteLock();
+        lock.acquireReadLock();
+        lock.releaseReadLock();
+        lock.releaseWriteLock();
+        lock.releaseWriteLock();
+
+        // a reader may take the write lock without waiting for itself
+        lock.acquireReadLock();
+        assertTrue(lock.tryWriteLock(100));
+        lock.releaseWriteLock();
+        lock.releaseReadLock();
+
+        try
+        {
+            lock.releaseReadLock();
+            fail();
+        }
+        catch (IllegalMonitorStateException ex)
+        {
+            // expected
+        }
+    }
+
+    public void testWriterWaitsForReaders() throws Exception
+    {
+        final CountDownLatch readerEntered = new CountDownLatch(1);
+        final CountDownLatch readerRelease = new CountDownLatch(1);
+        Thread reader = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                lock.acquireReadLock();
+                readerEntered.countDown();
+                try
+                {
+                    readerRelease.await();
+                }
+                catch (InterruptedException e)
+                {
+                    throw new RuntimeException(e);
+                }
+                lock.releaseReadLock();
+            }
+        });
+        reader.start();
+        readerEntered.await();
+
+        // the read section in progress keeps the writer out
+        assertFalse(lock.tryWriteLock(100));
+
+        readerRelease.countDown();
+        lock.acquireWriteLock();
+        lock.releaseWriteLock();
+        reader.join();
+    }
+
+    public void testReaderWaitsForWriter() throws Exception
+    {
+        final AtomicBoolean readerDone = new AtomicBoolean();
+        final CountDownLatch readerStarted = new CountDownLatch(1);
+        lock.acquireWriteLock();
+
+        Thread reader = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                readerStarted.countDown();
+                lock.acquireReadLock();
+                readerDone.set(true);
+                lock.releaseReadLock();
+            }
+        });
+        reader.start();
+        readerStarted.await();
+        Thread.sleep(100);
+        assertFalse(readerDone.get());
+
+        lock.releaseWriteLock();
+        reader.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(readerDone.get());
+    }
+
+    public void testRemoveTerminatedReaders() throws Exception
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            Thread reader = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    lock.acquireReadLock();
+                    lock.releaseReadLock();
+                }
+            });
+            reader.start();
+            reader.join();
+        }
+        assertEquals(10, lock.getNumReaderSlots());
+
+        // the writer removes the slots of readers that were garbage collected
+        for (int i = 0; i < 20 && lock.getNumReaderSlots() == 10; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+            lock.acquireWriteLock();
+            lock.releaseWriteLock();
+        }
+        assertTrue(lock.getNumReaderSlots() < 10);
+    }
+}
@@ -25,6 +25,8 @@ public class CEPProvider {
         public void registerStatement(String statement, String statementID);
 
         public void sendEvent(Object theEvent);
+
+        public void sendEvents(Object[] events);
     }
 
     public static ICEPProvider getCEPProvider() {
@@ -104,6 +106,10 @@ public class CEPProvider {
         public void sendEvent(Object theEvent) {
             epRuntime.sendEvent(theEvent);
         }
+
+        public void sendEvents(Object[] events) {
+            epRuntime.sendEvents(events);
+        }
     }
 
     public static class MyUpdateListener implements UpdateListener {
@@ -42,6 +42,9 @@ import java.util.concurrent.*;
  * an UpdateListener instead. Note that the subscriber contains suitable update(..) methods for the default
  * proposed statement in the statements.properties files but might not be suitable if you change statements due
  * to the strong binding with statement results. 
+ * <p/>
+ * When simulating with direct handoff, use -Desper.benchmark.batch to send the events of each 10ms slice
+ * as one batch using EPRuntime.sendEvents instead of one sendEvent call per event.
  *
  * @author Alexandre Vasseur http://avasseur.blogspot.com
  */
@@ -44,6 +44,7 @@ public class SimulateClientConnection extends Thread {
         }
     }
 
+    private final boolean batch = System.getProperty("esper.benchmark.batch") != null;
     private int simulationRate;
     private CEPProvider.ICEPProvider cepProvider;
     private ThreadPoolExecutor executor;
@@ -77,34 +78,53 @@ public class SimulateClientConnection extends Thread {
             market[i] = new MarketData(Symbols.SYMBOLS[i], Symbols.nextPrice(10), Symbols.nextVolume(10));
         }
 
+        final MarketData[] events = new MarketData[eventPer10Millis];
+        if (batch && executor == null) {
+            System.out.println("Sending events in batches of " + eventPer10Millis);
+        }
+
         try {
             int tickerIndex = 0;
             do {
                 long ms = System.currentTimeMillis();
-                for (int i = 0; i < eventPer10Millis; i++) {
-                    tickerIndex = tickerIndex % Symbols.SYMBOLS.length;
-                    final MarketData theEvent = market[tickerIndex++];
-                    //note the cloning here, although we don't change volume or price
-                    final MarketData simulatedEvent = (MarketData) theEvent.clone();
-                    if (executor == null) {
-                        long ns = System.nanoTime();
-                        cepProvider.sendEvent(simulatedEvent);
-                        StatsHolder.getEngine().update(System.nanoTime() - ns);
-                    } else {
-                        executor.execute(new Runnable() {
-                            public void run() {
-                                long ns = System.nanoTime();
-                                cepProvider.sendEvent(simulatedEvent);
-                                long nsDone = System.nanoTime();
-                                long msDone = System.currentTimeMillis();
-                                StatsHolder.getEngine().update(nsDone - ns);
-                                StatsHolder.getServer().update(nsDone - simulatedEvent.getInTime());
-                                StatsHolder.getEndToEnd().update(msDone - simulatedEvent.getTime());
-                            }
-                        });
+                if (batch && executor == null) {
+                    for (int i = 0; i < eventPer10Millis; i++) {
+                        tickerIndex = tickerIndex % Symbols.SYMBOLS.length;
+                        events[i] = (MarketData) market[tickerIndex++].clone();
+                    }
+                    long ns = System.nanoTime();
+                    cepProvider.sendEvents(events);
+                    long nsPerEvent = (System.nanoTime() - ns) / Math.max(eventPer10Millis, 1);
+                    for (int i = 0; i < eventPer10Millis; i++) {
+                        StatsHolder.getEngine().update(nsPerEvent);
+                    }
+                    countLast10s += eventPer10Millis;
+                } else {
+                    for (int i = 0; i < eventPer10Millis; i++) {
+                        tickerIndex = tickerIndex % Symbols.SYMBOLS.length;
+                        final MarketData theEvent = market[tickerIndex++];
+                        //note the cloning here, although we don't change volume or price
+                        final MarketData simulatedEvent = (MarketData) theEvent.clone();
+                        if (executor == null) {
+                            long ns = System.nanoTime();
+                            cepProvider.sendEvent(simulatedEvent);
+                            StatsHolder.getEngine().update(System.nanoTime() - ns);
+                        } else {
+                            executor.execute(new Runnable() {
+                                public void run() {
+                                    long ns = System.nanoTime();
+                                    cepProvider.sendEvent(simulatedEvent);
+                                    long nsDone = System.nanoTime();
+                                    long msDone = System.currentTimeMillis();
+                                    StatsHolder.getEngine().update(nsDone - ns);
+                                    StatsHolder.getServer().update(nsDone - simulatedEvent.getInTime());
+                                    StatsHolder.getEndToEnd().update(msDone - simulatedEvent.getTime());
+                                }
+                            });
+                        }
+                        //stats
+                        countLast10s++;
                     }
-                    //stats
-                    countLast10s++;
                 }
                 if (System.currentTimeMillis() - lastThroughputTick > statSec * 1E3) {
                     //System.out.println("Avg["+myID+"] " + countLast10s/10 + " active " + executor.getPoolSize() + " pending " + executor.getQueue().size());